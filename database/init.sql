@@ -17,6 +17,10 @@ CREATE TABLE IF NOT EXISTS study_programs (
     code VARCHAR(50) UNIQUE NOT NULL,
     admission_type ENUM('OPEN', 'NUMERUS_CLAUSUS', 'ENTRANCE_EXAM') NOT NULL,
     max_students INT DEFAULT NULL,
+    -- Intake rule (MM-dd), NULL uses application.deadline.* / Fristenregel (MM-dd), NULL nutzt application.deadline.*
+    winter_semester_start VARCHAR(5) DEFAULT NULL,
+    summer_semester_start VARCHAR(5) DEFAULT NULL,
+    deadline_months_before INT DEFAULT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
     ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;;
 
@@ -49,6 +53,9 @@ CREATE TABLE IF NOT EXISTS applications (
 
     -- Payment Status
     tuition_fee_paid BOOLEAN DEFAULT FALSE,
+    admission_reference VARCHAR(50) UNIQUE,
+    payment_requested_at TIMESTAMP NULL,
+    payment_reminder_stage VARCHAR(30),
 
     -- Process Information
     camunda_process_instance_id VARCHAR(255),
@@ -56,6 +63,7 @@ CREATE TABLE IF NOT EXISTS applications (
     -- Timestamps
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
 
     -- Foreign Keys
     FOREIGN KEY (study_program_id) REFERENCES study_programs(id)
@@ -85,12 +93,94 @@ CREATE TABLE IF NOT EXISTS students (
     -- Timestamps
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
 
     -- Foreign Keys
     FOREIGN KEY (study_program_id) REFERENCES study_programs(id),
     FOREIGN KEY (application_id) REFERENCES applications(id)
     )ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- =====================================================
+-- 4. STORED DOCUMENTS (Offloaded process documents)
+-- =====================================================
+CREATE TABLE IF NOT EXISTS stored_documents (
+    content_id VARCHAR(36) PRIMARY KEY,
+
+    -- Owner
+    application_id BIGINT,
+    process_instance_id VARCHAR(64),
+
+    -- Document Information
+    document_type VARCHAR(100) NOT NULL,
+    content_type VARCHAR(100) NOT NULL DEFAULT 'text/plain;charset=UTF-8',
+    original_size INT NOT NULL,
+    compressed_size INT NOT NULL,
+
+    -- GZIP-compressed content
+    content LONGBLOB NOT NULL,
+
+    -- Timestamps
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_stored_documents_application (application_id),
+    INDEX idx_stored_documents_process_instance (process_instance_id)
+    )ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =====================================================
+-- 5. NOTIFICATION OUTBOX (Asynchronous notification delivery)
+-- =====================================================
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+
+    -- Message
+    channel VARCHAR(10) NOT NULL,
+    notification_type VARCHAR(50) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255),
+    content LONGTEXT NOT NULL,
+
+    -- Owner
+    application_id BIGINT,
+    process_instance_id VARCHAR(64),
+
+    -- Delivery State
+    status VARCHAR(10) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_at TIMESTAMP NULL,
+    last_error VARCHAR(500),
+
+    -- Timestamps
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP NULL,
+
+    INDEX idx_notification_outbox_due (status, next_attempt_at),
+    INDEX idx_notification_outbox_application (application_id)
+    )ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- =====================================================
+-- 6. NOTIFICATION DELIVERY LEDGER (Append-only, one row per send attempt)
+-- =====================================================
+CREATE TABLE IF NOT EXISTS notification_delivery_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+
+    -- Attempt
+    outbox_id BIGINT NOT NULL,
+    channel VARCHAR(10) NOT NULL,
+    notification_type VARCHAR(50) NOT NULL,
+    attempt INT NOT NULL,
+    outcome VARCHAR(10) NOT NULL,
+
+    -- Timing
+    latency_millis BIGINT NOT NULL,
+    queue_millis BIGINT NOT NULL,
+    error VARCHAR(500),
+    attempted_at TIMESTAMP NOT NULL,
+
+    INDEX idx_notification_ledger_outbox (outbox_id),
+    INDEX idx_notification_ledger_attempted (attempted_at)
+    )ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- =====================================================
 -- FUNCTION for Student Number Generation
 -- =====================================================
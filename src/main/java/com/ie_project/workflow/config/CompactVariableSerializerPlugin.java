@@ -0,0 +1,40 @@
+package com.ie_project.workflow.config;
+
+import com.ie_project.workflow.variable.CompactValueSerializer;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.variable.serializer.TypedValueSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registriert den kompakten Variablen-Serializer in der Process Engine
+ * Registers the compact variable serializer with the process engine
+ *
+ * Registered as pre-serializer so it is consulted before the Java and Spin serializers.
+ * Als Pre-Serializer registriert, damit er vor den Java- und Spin-Serializern geprüft wird.
+ *
+ * @author IE Project Team
+ */
+@Component
+public class CompactVariableSerializerPlugin extends AbstractProcessEnginePlugin {
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+
+        List<TypedValueSerializer> serializers = processEngineConfiguration.getCustomPreVariableSerializers();
+        if (serializers == null) {
+            serializers = new ArrayList<>();
+        }
+
+        serializers.add(new CompactValueSerializer());
+        processEngineConfiguration.setCustomPreVariableSerializers(serializers);
+
+        System.out.println("=== COMPACT VARIABLE SERIALIZER REGISTERED ===");
+        System.out.println("Data Format: " + CompactValueSerializer.DATA_FORMAT);
+        System.out.println("==============================================");
+    }
+}
@@ -0,0 +1,60 @@
+package com.ie_project.workflow.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Fallback-Fristen für das Warten auf nachgereichte Dokumente
+ * Fallback timeouts while waiting for resubmitted documents
+ *
+ * Referenced from the BPMN timer as #{documentResubmissionSettings.timeoutFor(verificationAttempts)},
+ * wrapped in timerJitterSettings.jittered(...).
+ * The timeout doubles with every verification attempt and is capped at the maximum.
+ *
+ * Die Frist verdoppelt sich mit jedem Prüfungsversuch und ist nach oben begrenzt.
+ *
+ * @author IE Project Team
+ */
+@Component("documentResubmissionSettings")
+public class DocumentResubmissionSettings {
+
+    // Timeout after the first incomplete verification / Frist nach der ersten unvollständigen Prüfung
+    @Value("${application.documents.resubmission-timeout:PT10M}")
+    private Duration baseTimeout;
+
+    // Upper bound for the escalating timeout / Obergrenze der eskalierenden Frist
+    @Value("${application.documents.max-resubmission-timeout:PT2H}")
+    private Duration maxTimeout;
+
+    // Interval of the former polling timer, used for the job statistics
+    // Intervall des früheren Polling-Timers, für die Job-Statistik
+    @Value("${application.documents.legacy-polling-interval:PT1M}")
+    private Duration legacyPollingInterval;
+
+    /**
+     * Berechnet die Frist für den angegebenen Prüfungsversuch
+     * Calculates the timeout for the given verification attempt
+     *
+     * @param verificationAttempts Anzahl bisheriger Versuche / Number of attempts so far
+     * @return ISO-8601-Dauer / ISO-8601 duration
+     */
+    public String timeoutFor(Object verificationAttempts) {
+        int attempts = verificationAttempts instanceof Number ? ((Number) verificationAttempts).intValue() : 1;
+        int doublings = Math.min(Math.max(attempts - 1, 0), 20);
+
+        Duration timeout = baseTimeout.multipliedBy(1L << doublings);
+        if (timeout.compareTo(maxTimeout) > 0) {
+            timeout = maxTimeout;
+        }
+
+        return timeout.toString();
+    }
+
+    public Duration getBaseTimeout() { return baseTimeout; }
+
+    public Duration getMaxTimeout() { return maxTimeout; }
+
+    public Duration getLegacyPollingInterval() { return legacyPollingInterval; }
+}
@@ -0,0 +1,113 @@
+package com.ie_project.workflow.config;
+
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.impl.bpmn.behavior.ExternalTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.core.variable.mapping.value.ConstantValueProvider;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Externe-Task-Modus für die benachrichtigungslastigen Delegates
+ * External task mode for the notification-heavy delegates
+ *
+ * With application.notification.external-tasks.enabled the service tasks of the welcome package
+ * and exam invitation delegates are turned into external tasks while the BPMN is parsed: the process stops at the task and the job executor thread is
+ * released, the delegate itself runs later on an ExternalNotificationTaskWorker. The process
+ * model stays unchanged, switching back only needs a restart (open external tasks should be
+ * completed first). Each created task publishes an ExternalNotificationTaskCreated event so idle
+ * workers of this node fetch it right after the commit.
+ *
+ * The admission letter and payment reminder stay plain service tasks: they run inside the payment
+ * window, and an instance parked at an external task there is not waiting for PaymentReceived, so
+ * a payment correlated in that moment would be lost until the next reconciliation sweep.
+ *
+ * Die Service Tasks dieser Delegates werden beim Parsen zu externen Tasks (Zulassungsbescheid und
+ * Zahlungserinnerung bleiben Service Tasks, da sie im Zahlungsfenster liegen); der Job-Executor-
+ * Thread wird frei, der Delegate läuft später auf einem Worker. Das Prozessmodell bleibt gleich.
+ *
+ * @author IE Project Team
+ */
+@Component
+public class ExternalNotificationTaskPlugin extends AbstractProcessEnginePlugin {
+
+    // Delegate bean -> external task topic / Delegate-Bean -> Topic des externen Tasks
+    public static final Map<String, String> TOPICS_BY_DELEGATE = Map.of(
+            "welcomePackageDelegate", "notification-welcome-package",
+            "examInvitationDelegate", "notification-exam-invitation");
+
+    @Value("${application.notification.external-tasks.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+
+        if (!enabled) {
+            return;
+        }
+
+        List<BpmnParseListener> parseListeners = processEngineConfiguration.getCustomPostBPMNParseListeners();
+        if (parseListeners == null) {
+            parseListeners = new ArrayList<>();
+        }
+
+        parseListeners.add(new AbstractBpmnParseListener() {
+            @Override
+            public void parseServiceTask(Element serviceTaskElement, ScopeImpl scope, ActivityImpl activity) {
+                String topic = TOPICS_BY_DELEGATE.get(delegateBean(serviceTaskElement));
+                if (topic == null) {
+                    return;
+                }
+                activity.setActivityBehavior(new ExternalTaskActivityBehavior(new ConstantValueProvider(topic), null));
+                activity.addBuiltInListener(ExecutionListener.EVENTNAME_START,
+                        execution -> eventPublisher.publishEvent(new ExternalNotificationTaskCreated(topic)));
+            }
+        });
+        processEngineConfiguration.setCustomPostBPMNParseListeners(parseListeners);
+
+        System.out.println("=== EXTERNAL NOTIFICATION TASKS REGISTERED ===");
+        System.out.println("Topics: " + TOPICS_BY_DELEGATE.values());
+        System.out.println("==============================================");
+    }
+
+    /**
+     * Bean-Name aus camunda:delegateExpression="#{name}" / Bean name from camunda:delegateExpression="#{name}"
+     */
+    private static String delegateBean(Element serviceTaskElement) {
+        String expression = serviceTaskElement.attributeNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "delegateExpression");
+        if (expression == null || expression.length() < 4) {
+            return null;
+        }
+        return expression.substring(2, expression.length() - 1).trim();
+    }
+
+    /**
+     * Ereignis nach dem Anlegen eines externen Tasks / Event after an external task was created
+     */
+    public static class ExternalNotificationTaskCreated {
+
+        private final String topic;
+
+        public ExternalNotificationTaskCreated(String topic) {
+            this.topic = topic;
+        }
+
+        public String getTopic() { return topic; }
+    }
+}
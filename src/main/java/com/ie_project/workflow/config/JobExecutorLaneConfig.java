@@ -0,0 +1,84 @@
+package com.ie_project.workflow.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.NotifyAcquisitionRejectedJobsHandler;
+import org.camunda.bpm.spring.boot.starter.configuration.impl.DefaultJobConfiguration;
+import org.camunda.bpm.spring.boot.starter.property.CamundaBpmProperties;
+import org.camunda.bpm.spring.boot.starter.property.JobExecutionProperty;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Optional;
+
+/**
+ * Ersetzt den Job-Executor des Camunda-Starters durch den LaneJobExecutor
+ * Replaces the job executor of the Camunda starter with the LaneJobExecutor
+ *
+ * The executor is configured from camunda.bpm.job-execution.* exactly like the starter's own; the
+ * regular lane keeps the starter's camundaTaskExecutor, the fast lane gets its own pool from
+ * application.jobs.lanes.fast.*.
+ *
+ * Der Executor wird wie der des Starters aus camunda.bpm.job-execution.* konfiguriert; die
+ * schnelle Spur erhält einen eigenen Pool.
+ *
+ * @author IE Project Team
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "camunda.bpm.job-execution", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class JobExecutorLaneConfig {
+
+    @Value("${application.jobs.lanes.fast.enabled:false}")
+    private boolean fastLaneEnabled;
+
+    // Jobs from this priority upwards use the fast lane / Jobs ab dieser Priorität nutzen die schnelle Spur
+    @Value("${application.jobs.lanes.fast.min-priority:100}")
+    private long fastLaneMinPriority;
+
+    @Value("${application.jobs.lanes.fast.pool-size:2}")
+    private int fastLanePoolSize;
+
+    @Value("${application.jobs.lanes.fast.queue-capacity:20}")
+    private int fastLaneQueueCapacity;
+
+    @Bean
+    public JobExecutor jobExecutor(@Qualifier(DefaultJobConfiguration.JobConfiguration.CAMUNDA_TASK_EXECUTOR_QUALIFIER) TaskExecutor taskExecutor,
+                                   CamundaBpmProperties properties,
+                                   MeterRegistry meterRegistry) {
+
+        ThreadPoolTaskExecutor fastLane = null;
+        if (fastLaneEnabled) {
+            // Started and stopped with the job executor / Wird mit dem Job-Executor gestartet und gestoppt
+            fastLane = new ThreadPoolTaskExecutor();
+            fastLane.setCorePoolSize(fastLanePoolSize);
+            fastLane.setMaxPoolSize(fastLanePoolSize);
+            fastLane.setQueueCapacity(fastLaneQueueCapacity);
+            fastLane.setThreadNamePrefix("camunda-fast-lane-");
+        }
+
+        LaneJobExecutor jobExecutor = new LaneJobExecutor(fastLane, fastLaneMinPriority, meterRegistry);
+        jobExecutor.setTaskExecutor(taskExecutor);
+        jobExecutor.setRejectedJobsHandler(new NotifyAcquisitionRejectedJobsHandler());
+
+        // Same properties as the starter's job executor / Dieselben Eigenschaften wie beim Executor des Starters
+        JobExecutionProperty jobExecution = properties.getJobExecution();
+        Optional.ofNullable(jobExecution.getLockTimeInMillis()).ifPresent(jobExecutor::setLockTimeInMillis);
+        Optional.ofNullable(jobExecution.getMaxJobsPerAcquisition()).ifPresent(jobExecutor::setMaxJobsPerAcquisition);
+        Optional.ofNullable(jobExecution.getWaitTimeInMillis()).ifPresent(jobExecutor::setWaitTimeInMillis);
+        Optional.ofNullable(jobExecution.getMaxWait()).ifPresent(jobExecutor::setMaxWait);
+        Optional.ofNullable(jobExecution.getBackoffTimeInMillis()).ifPresent(jobExecutor::setBackoffTimeInMillis);
+        Optional.ofNullable(jobExecution.getMaxBackoff()).ifPresent(jobExecutor::setMaxBackoff);
+        Optional.ofNullable(jobExecution.getBackoffDecreaseThreshold()).ifPresent(jobExecutor::setBackoffDecreaseThreshold);
+        Optional.ofNullable(jobExecution.getWaitIncreaseFactor()).ifPresent(jobExecutor::setWaitIncreaseFactor);
+
+        System.out.println("=== LANE JOB EXECUTOR ===");
+        System.out.println("Fast lane: " + (fastLaneEnabled ? fastLanePoolSize + " threads from priority " + fastLaneMinPriority : "disabled"));
+        System.out.println("=========================");
+        return jobExecutor;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ie_project.workflow.config;
+
+import jakarta.annotation.PostConstruct;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Job-Prioritäten je Aktivität und Studiengang
+ * Job priorities per activity and study program
+ *
+ * Referenced from the process definitions as camunda:jobPriority="${jobPrioritySettings.priorityFor(execution)}",
+ * so every async continuation and timer job is created with the priority of its activity plus the
+ * priority of the study program. With jobExecutorAcquireByPriority the job executor acquires the
+ * highest priorities first, so a cohort of ranking timers of a large NC program cannot hold back
+ * the jobs of small OPEN programs; jobs from application.jobs.lanes.fast.min-priority upwards run
+ * on their own threads (see LaneJobExecutor).
+ *
+ * Priorität = Aktivitätspriorität + Studiengangspriorität; höhere Prioritäten werden zuerst
+ * abgeholt, ab der Schwelle der schnellen Spur auf eigenen Threads ausgeführt.
+ *
+ * @author IE Project Team
+ */
+@Component("jobPrioritySettings")
+public class JobPrioritySettings {
+
+    // Activity priorities ACTIVITY_ID:priority / Aktivitätsprioritäten AKTIVITÄT:Priorität
+    @Value("${application.jobs.priority.activities:Task_SaveApplication:100}")
+    private List<String> activityEntries;
+
+    // Study program priorities CODE:priority / Studiengangsprioritäten CODE:Priorität
+    @Value("${application.jobs.priority.programs:}")
+    private List<String> programEntries;
+
+    // Priority of activities without an entry / Priorität von Aktivitäten ohne Eintrag
+    @Value("${application.jobs.priority.default:0}")
+    private long defaultPriority;
+
+    private Map<String, Long> activityPriorities;
+    private Map<String, Long> programPriorities;
+
+    @PostConstruct
+    void parse() {
+        activityPriorities = parseEntries(activityEntries);
+        programPriorities = parseEntries(programEntries);
+    }
+
+    /**
+     * Priorität des Jobs, der gerade für die Ausführung angelegt wird
+     * Priority of the job being created for the execution
+     */
+    public long priorityFor(DelegateExecution execution) {
+        long priority = activityPriorities.getOrDefault(execution.getCurrentActivityId(), defaultPriority);
+        Object programCode = execution.getVariable("studyProgramCode");
+        if (programCode != null) {
+            priority += programPriorities.getOrDefault(programCode.toString(), 0L);
+        }
+        return priority;
+    }
+
+    public Map<String, Long> getActivityPriorities() { return activityPriorities; }
+
+    public Map<String, Long> getProgramPriorities() { return programPriorities; }
+
+    /**
+     * Einträge im Format SCHLÜSSEL:Priorität / Entries in the format KEY:priority
+     */
+    private static Map<String, Long> parseEntries(List<String> entries) {
+        Map<String, Long> priorities = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected KEY:priority / Erwartet SCHLÜSSEL:Priorität: " + entry);
+            }
+            priorities.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+        }
+        return priorities;
+    }
+}
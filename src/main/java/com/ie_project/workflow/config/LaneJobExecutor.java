@@ -0,0 +1,295 @@
+package com.ie_project.workflow.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.DbEntity;
+import org.camunda.bpm.engine.impl.db.entitymanager.OptimisticLockingListener;
+import org.camunda.bpm.engine.impl.db.entitymanager.OptimisticLockingResult;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbEntityOperation;
+import org.camunda.bpm.engine.impl.db.entitymanager.operation.DbOperation;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.ExecuteJobsRunnable;
+import org.camunda.bpm.engine.impl.jobexecutor.JobFailureCollector;
+import org.camunda.bpm.engine.impl.persistence.entity.AcquirableJobEntity;
+import org.camunda.bpm.engine.spring.components.jobexecutor.SpringJobExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job-Executor mit getrennten Thread-Spuren nach Job-Priorität
+ * Job executor with separate thread lanes by job priority
+ *
+ * After every acquisition the priorities of the acquired jobs are read in the same command
+ * (one plain SQL query per acquisition). Batches containing a job from the fast lane's minimum priority
+ * upwards run on the fast lane's own pool, everything else on the regular camundaTaskExecutor;
+ * a full fast lane falls back to the regular lane. Latency-sensitive jobs such as the welcome
+ * message therefore never queue behind a cohort of ranking timers.
+ *
+ * Exclusive jobs that a job creates for its own process instance do not pass the acquisition:
+ * Camunda queues them for the thread that created them. On the regular lane that queue is checked
+ * after every job; if it holds a job from the minimum priority upwards, the whole queue moves to
+ * the fast lane as one batch, so the jobs of the instance still run one after another.
+ *
+ * Per lane the executor records the executed jobs (job.lane.jobs), the wait in the pool queue
+ * (job.lane.wait), the execution time (job.lane.execution) and the active threads and queued
+ * batches (job.lane.active, job.lane.queued).
+ *
+ * Nach jeder Akquisition werden die Prioritäten der Jobs gelesen; Stapel ab der Mindestpriorität
+ * laufen auf dem eigenen Pool der schnellen Spur, alle anderen auf dem regulären Pool.
+ *
+ * @author IE Project Team
+ */
+public class LaneJobExecutor extends SpringJobExecutor {
+
+    public static final String FAST_LANE = "fast";
+    public static final String DEFAULT_LANE = "default";
+
+    private final ThreadPoolTaskExecutor fastLane;
+    private final long fastLaneMinPriority;
+    private final Map<String, Long> acquiredPriorities = new ConcurrentHashMap<>();
+    private final Map<String, LaneMeters> meters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param fastLane Pool der schnellen Spur, null deaktiviert sie / Pool of the fast lane, null disables it
+     */
+    public LaneJobExecutor(ThreadPoolTaskExecutor fastLane, long fastLaneMinPriority, MeterRegistry meterRegistry) {
+        this.fastLane = fastLane;
+        this.fastLaneMinPriority = fastLaneMinPriority;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void startExecutingJobs() {
+        if (fastLane != null) {
+            fastLane.initialize();
+        }
+        super.startExecutingJobs();
+    }
+
+    @Override
+    protected void stopExecutingJobs() {
+        super.stopExecutingJobs();
+        if (fastLane != null) {
+            fastLane.shutdown();
+        }
+    }
+
+    @Override
+    public Command<AcquiredJobs> getAcquireJobsCmd(int numJobs) {
+        Command<AcquiredJobs> acquire = super.getAcquireJobsCmd(numJobs);
+        if (fastLane == null) {
+            return acquire;
+        }
+        return commandContext -> {
+            AcquiredJobs acquiredJobs = acquire.execute(commandContext);
+            if (acquiredJobs.size() > 0) {
+                List<String> jobIds = new ArrayList<>();
+                acquiredJobs.getJobIdBatches().forEach(jobIds::addAll);
+                acquiredPriorities.putAll(readPriorities(commandContext, jobIds));
+
+                // Entries of jobs that are dropped from the acquisition are removed again
+                // Einträge von Jobs, die aus der Akquisition fallen, werden wieder entfernt
+                commandContext.getDbEntityManager().registerOptimisticLockingListener(new DroppedJobListener());
+                commandContext.getTransactionContext().addTransactionListener(TransactionState.ROLLED_BACK,
+                        rolledBack -> jobIds.forEach(acquiredPriorities::remove));
+            }
+            return acquiredJobs;
+        };
+    }
+
+    /**
+     * Liest die Prioritäten von Jobs mit einer Abfrage in der laufenden Transaktion
+     * Reads the priorities of jobs with one query in the current transaction
+     *
+     * Plain SQL, because the acquired jobs are cached as AcquirableJobEntity and a job query in the
+     * same command context would clash with them.
+     */
+    private static Map<String, Long> readPriorities(CommandContext commandContext, List<String> jobIds) {
+        Map<String, Long> priorities = new HashMap<>();
+        String sql = "SELECT ID_, PRIORITY_ FROM " + commandContext.getProcessEngineConfiguration().getDatabaseTablePrefix()
+                + "ACT_RU_JOB WHERE ID_ IN (" + String.join(",", Collections.nCopies(jobIds.size(), "?")) + ")";
+        try (PreparedStatement statement = commandContext.getDbSqlSession().getSqlSession().getConnection().prepareStatement(sql)) {
+            for (int i = 0; i < jobIds.size(); i++) {
+                statement.setString(i + 1, jobIds.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    priorities.put(resultSet.getString(1), resultSet.getLong(2));
+                }
+            }
+        } catch (SQLException e) {
+            // Jobs without a priority use the regular lane / Jobs ohne Priorität nutzen die reguläre Spur
+            System.err.println("Could not read job priorities / Job-Prioritäten nicht lesbar: " + e.getMessage());
+        }
+        return priorities;
+    }
+
+    @Override
+    public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine) {
+        long priority = Long.MIN_VALUE;
+        for (String jobId : jobIds) {
+            Long jobPriority = acquiredPriorities.remove(jobId);
+            if (jobPriority != null) {
+                priority = Math.max(priority, jobPriority);
+            }
+        }
+
+        if (fastLane != null && priority >= fastLaneMinPriority) {
+            try {
+                fastLane.execute(laneRunnable(FAST_LANE, jobIds.size(), super.getExecuteJobsRunnable(jobIds, processEngine)));
+                return;
+            } catch (RejectedExecutionException e) {
+                // Fast lane full, regular lane takes over / Schnelle Spur voll, reguläre Spur übernimmt
+                lane(FAST_LANE).rejected.increment();
+            }
+        }
+        super.executeJobs(jobIds, processEngine);
+    }
+
+    @Override
+    public Runnable getExecuteJobsRunnable(List<String> jobIds, ProcessEngineImpl processEngine) {
+        // Used by SpringJobExecutor for the regular lane / Von SpringJobExecutor für die reguläre Spur verwendet
+        Runnable executeJobs = fastLane != null
+                ? new DefaultLaneExecuteJobsRunnable(jobIds, processEngine)
+                : super.getExecuteJobsRunnable(jobIds, processEngine);
+        return laneRunnable(DEFAULT_LANE, jobIds.size(), executeJobs);
+    }
+
+    private Runnable laneRunnable(String lane, int jobCount, Runnable executeJobs) {
+        LaneMeters laneMeters = lane(lane);
+        long dispatchedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            laneMeters.jobs.increment(jobCount);
+            laneMeters.wait.record(startedAt - dispatchedAt, TimeUnit.NANOSECONDS);
+            try {
+                executeJobs.run();
+            } finally {
+                laneMeters.execution.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private LaneMeters lane(String lane) {
+        return meters.computeIfAbsent(lane, name -> new LaneMeters(name,
+                FAST_LANE.equals(name) ? fastLane : getTaskExecutor() instanceof ThreadPoolTaskExecutor pool ? pool : null));
+    }
+
+    /**
+     * Entfernt die Priorität eines Jobs, den eine andere Akquisition gesperrt hat
+     * Removes the priority of a job that another acquisition has locked
+     *
+     * Registered after the listener of AcquireJobsCmd; the last listener decides, so the result
+     * is the same as that of AcquireJobsCmd.
+     */
+    private class DroppedJobListener implements OptimisticLockingListener {
+
+        @Override
+        public Class<? extends DbEntity> getEntityType() {
+            return AcquirableJobEntity.class;
+        }
+
+        @Override
+        public OptimisticLockingResult failedOperation(DbOperation operation) {
+            if (operation instanceof DbEntityOperation entityOperation) {
+                acquiredPriorities.remove(entityOperation.getEntity().getId());
+                return OptimisticLockingResult.IGNORE;
+            }
+            return OptimisticLockingResult.THROW;
+        }
+    }
+
+    /**
+     * Führt einen Stapel auf der regulären Spur aus und gibt exklusive Folgejobs hoher Priorität ab
+     * Executes a batch on the regular lane and hands exclusive follow-up jobs of high priority on
+     *
+     * After each job the queue of exclusive follow-up jobs of the same instance is checked. If it
+     * holds a job from the fast lane's minimum priority upwards, the whole queue runs on the fast
+     * lane instead of this thread; a full fast lane leaves it here.
+     */
+    private class DefaultLaneExecuteJobsRunnable extends ExecuteJobsRunnable {
+
+        DefaultLaneExecuteJobsRunnable(List<String> jobIds, ProcessEngineImpl processEngine) {
+            super(jobIds, processEngine);
+        }
+
+        @Override
+        protected void executeJob(String nextJobId, CommandExecutor commandExecutor, JobFailureCollector jobFailureCollector) {
+            super.executeJob(nextJobId, commandExecutor, jobFailureCollector);
+
+            List<String> queue = Context.getJobExecutorContext().getCurrentProcessorJobQueue();
+            if (queue.isEmpty()) {
+                return;
+            }
+
+            List<String> followUpJobs = new ArrayList<>(queue);
+            long priority = commandExecutor.execute(commandContext -> readPriorities(commandContext, followUpJobs))
+                    .values().stream().mapToLong(Long::longValue).max().orElse(Long.MIN_VALUE);
+            if (priority < fastLaneMinPriority) {
+                return;
+            }
+
+            try {
+                fastLane.execute(laneRunnable(FAST_LANE, followUpJobs.size(), new ExecuteJobsRunnable(followUpJobs, processEngine)));
+                queue.clear();
+            } catch (RejectedExecutionException e) {
+                // Fast lane full, this thread continues / Schnelle Spur voll, dieser Thread macht weiter
+                lane(FAST_LANE).rejected.increment();
+            }
+        }
+    }
+
+    /**
+     * Metriken einer Spur / Meters of a lane
+     */
+    private class LaneMeters {
+
+        final Counter jobs;
+        final Counter rejected;
+        final Timer wait;
+        final Timer execution;
+
+        LaneMeters(String lane, ThreadPoolTaskExecutor pool) {
+            jobs = Counter.builder("job.lane.jobs")
+                    .description("Jobs executed by the lane / Von der Spur ausgeführte Jobs")
+                    .tag("lane", lane).register(meterRegistry);
+            rejected = Counter.builder("job.lane.rejected")
+                    .description("Batches the full lane handed on / Von der vollen Spur weitergegebene Stapel")
+                    .tag("lane", lane).register(meterRegistry);
+            wait = Timer.builder("job.lane.wait")
+                    .description("Wait in the lane queue / Wartezeit in der Warteschlange der Spur")
+                    .tag("lane", lane).publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+            execution = Timer.builder("job.lane.execution")
+                    .description("Execution time of a job batch / Ausführungszeit eines Job-Stapels")
+                    .tag("lane", lane).publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+            if (pool != null) {
+                Gauge.builder("job.lane.active", pool, ThreadPoolTaskExecutor::getActiveCount)
+                        .description("Busy threads of the lane / Belegte Threads der Spur")
+                        .tag("lane", lane).register(meterRegistry);
+                Gauge.builder("job.lane.queued", pool, ThreadPoolTaskExecutor::getQueueSize)
+                        .description("Queued batches of the lane / Wartende Stapel der Spur")
+                        .tag("lane", lane).register(meterRegistry);
+            }
+        }
+    }
+}
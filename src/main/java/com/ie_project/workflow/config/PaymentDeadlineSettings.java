@@ -0,0 +1,57 @@
+package com.ie_project.workflow.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Zahlungsfristen für die Erinnerungsstufen der Zahlungsphase
+ * Payment deadlines for the reminder stages of the payment phase
+ *
+ * The deadlines are measured from the start of the payment phase (admission letter) and
+ * evaluated centrally by the PaymentReminderSweeper instead of per-instance timers.
+ * Values are ISO-8601 durations.
+ *
+ * Die Fristen zählen ab dem Zulassungsbescheid und werden zentral vom Sweeper
+ * ausgewertet statt durch Timer pro Prozessinstanz. Werte sind ISO-8601-Dauern.
+ *
+ * @author IE Project Team
+ */
+@Component("paymentDeadlineSettings")
+public class PaymentDeadlineSettings {
+
+    // Deadline after the admission letter, first reminder / Frist nach dem Zulassungsbescheid, erste Erinnerung
+    @Value("${application.payment.first-deadline:PT1M}")
+    private Duration firstDeadline;
+
+    // Deadline after the first reminder, overdue notice / Frist nach der ersten Erinnerung, Mahnung
+    @Value("${application.payment.second-deadline:PT1M}")
+    private Duration secondDeadline;
+
+    // Grace period after the overdue notice before the final check / Nachfrist nach der Mahnung bis zur finalen Prüfung
+    @Value("${application.payment.overdue-grace:PT1M}")
+    private Duration overdueGrace;
+
+    public Duration getFirstDeadline() { return firstDeadline; }
+
+    public Duration getSecondDeadline() { return secondDeadline; }
+
+    public Duration getOverdueGrace() { return overdueGrace; }
+
+    /**
+     * Zeitpunkt der Standard-Erinnerung: Mitte der zweiten Frist
+     * Time of the standard reminder: halfway through the second deadline
+     */
+    public Duration getStandardReminderAfter() {
+        return firstDeadline.plus(secondDeadline.dividedBy(2));
+    }
+
+    public Duration getOverdueNoticeAfter() {
+        return firstDeadline.plus(secondDeadline);
+    }
+
+    public Duration getFinalCheckAfter() {
+        return firstDeadline.plus(secondDeadline).plus(overdueGrace);
+    }
+}
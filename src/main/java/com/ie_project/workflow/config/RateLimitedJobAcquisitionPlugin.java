@@ -0,0 +1,174 @@
+package com.ie_project.workflow.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquireJobsCommandFactory;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquiredJobs;
+import org.camunda.bpm.engine.impl.jobexecutor.DefaultAcquireJobsCommandFactory;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Begrenzt die Job-Akquisition des Job-Executors mit einem Token-Bucket
+ * Limits the job acquisition of the job executor with a token bucket
+ *
+ * Wraps the acquire command of the job executor. Before every acquisition the acquisition
+ * thread takes up to max-jobs-per-acquisition tokens from a bucket that refills at
+ * jobs-per-second up to burst; if the bucket is empty, the thread waits for the next token
+ * instead of querying the database. Tokens of jobs that were not found are returned after the
+ * acquisition, so an idle engine does not drain the bucket. A storm of due timers is thereby
+ * executed at a steady rate instead of all at once.
+ *
+ * Vor jeder Akquisition entnimmt der Akquisitions-Thread Tokens aus einem Bucket, der sich mit
+ * jobs-per-second bis burst füllt; ist er leer, wartet der Thread auf das nächste Token.
+ * Nicht gefundene Jobs geben ihre Tokens zurück.
+ *
+ * @author IE Project Team
+ */
+@Component
+public class RateLimitedJobAcquisitionPlugin extends AbstractProcessEnginePlugin {
+
+    @Value("${application.jobs.acquisition.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Sustained acquisition rate / Dauerhafte Akquisitionsrate
+    @Value("${application.jobs.acquisition.rate-limit.jobs-per-second:50}")
+    private double jobsPerSecond;
+
+    // Tokens that may accumulate while idle / Tokens, die sich im Leerlauf ansammeln dürfen
+    @Value("${application.jobs.acquisition.rate-limit.burst:100}")
+    private int burst;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public void postInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+
+        JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+        if (!enabled || jobExecutor == null) {
+            return;
+        }
+        if (jobsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("jobs-per-second and burst must be positive / jobs-per-second und burst müssen positiv sein");
+        }
+
+        TokenBucket bucket = new TokenBucket(jobsPerSecond, burst);
+        Counter throttled = Counter.builder("job.acquisition.throttled")
+                .description("Acquisitions that waited for a token / Akquisitionen, die auf ein Token gewartet haben")
+                .register(meterRegistry);
+        Gauge.builder("job.acquisition.tokens", bucket, TokenBucket::available)
+                .description("Available acquisition tokens / Verfügbare Akquisitions-Tokens")
+                .register(meterRegistry);
+
+        jobExecutor.setAcquireJobsCmdFactory(
+                new RateLimitedAcquireJobsCommandFactory(new DefaultAcquireJobsCommandFactory(jobExecutor), bucket, throttled));
+
+        System.out.println("=== RATE LIMITED JOB ACQUISITION REGISTERED ===");
+        System.out.println("Jobs per second: " + jobsPerSecond + ", burst: " + burst
+                + ", max jobs per acquisition: " + jobExecutor.getMaxJobsPerAcquisition());
+        System.out.println("===============================================");
+    }
+
+    /**
+     * Akquisitionsbefehle, die vorher Tokens entnehmen / Acquire commands that take tokens first
+     */
+    static class RateLimitedAcquireJobsCommandFactory implements AcquireJobsCommandFactory {
+
+        private final AcquireJobsCommandFactory delegate;
+        private final TokenBucket bucket;
+        private final Counter throttled;
+
+        RateLimitedAcquireJobsCommandFactory(AcquireJobsCommandFactory delegate, TokenBucket bucket, Counter throttled) {
+            this.delegate = delegate;
+            this.bucket = bucket;
+            this.throttled = throttled;
+        }
+
+        @Override
+        public Command<AcquiredJobs> getCommand(int numJobsToAcquire) {
+            // Runs on the acquisition thread outside of any transaction / Läuft auf dem Akquisitions-Thread ohne Transaktion
+            int permits = bucket.take(numJobsToAcquire, throttled);
+            Command<AcquiredJobs> acquire = delegate.getCommand(permits);
+            return commandContext -> {
+                AcquiredJobs acquiredJobs = acquire.execute(commandContext);
+                bucket.refund(permits - acquiredJobs.size());
+                return acquiredJobs;
+            };
+        }
+    }
+
+    /**
+     * Token-Bucket mit kontinuierlicher Auffüllung / Token bucket with continuous refill
+     */
+    static class TokenBucket {
+
+        private final double tokensPerNano;
+        private final int capacity;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(double tokensPerSecond, int capacity) {
+            this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        /**
+         * Entnimmt bis zu wanted Tokens, wartet wenn keines verfügbar ist
+         * Takes up to wanted tokens, waits if none is available
+         *
+         * @return Anzahl entnommener Tokens, mindestens 1 / Number of tokens taken, at least 1
+         */
+        int take(int wanted, Counter throttled) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    return takeAvailable(wanted);
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            throttled.increment();
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                // Shutdown of the job executor / Herunterfahren des Job-Executors
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                refill();
+                return takeAvailable(wanted);
+            }
+        }
+
+        synchronized void refund(int unused) {
+            if (unused > 0) {
+                tokens = Math.min(capacity, tokens + unused);
+            }
+        }
+
+        synchronized double available() {
+            refill();
+            return tokens;
+        }
+
+        private int takeAvailable(int wanted) {
+            int taken = Math.max(1, Math.min(wanted, (int) tokens));
+            tokens -= taken;
+            return taken;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.ie_project.workflow.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Aktiviert geplante Aufgaben (z.B. den Zahlungserinnerungs-Sweeper)
+ * Enables scheduled tasks (e.g. the payment reminder sweeper)
+ *
+ * @author IE Project Team
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
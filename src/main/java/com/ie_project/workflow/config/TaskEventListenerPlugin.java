@@ -0,0 +1,70 @@
+package com.ie_project.workflow.config;
+
+import com.ie_project.workflow.delegate.TaskEventListener;
+import com.ie_project.workflow.delegate.TaskQueueListener;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.bpmn.behavior.UserTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.task.TaskDefinition;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registriert TaskEventListener und TaskQueueListener an allen User Tasks
+ * Registers the TaskEventListener and TaskQueueListener on all user tasks
+ *
+ * Added as built-in listeners while the BPMN is parsed, so the process model needs no
+ * listener declarations and every deployed user task feeds the live inbox and the
+ * work-queue analytics.
+ * Wird beim Parsen als eingebauter Listener ergänzt; das Prozessmodell bleibt unverändert.
+ *
+ * @author IE Project Team
+ */
+@Component
+public class TaskEventListenerPlugin extends AbstractProcessEnginePlugin {
+
+    private static final String[] QUEUE_EVENTS = {
+            TaskListener.EVENTNAME_CREATE, TaskListener.EVENTNAME_ASSIGNMENT, TaskListener.EVENTNAME_UPDATE,
+            TaskListener.EVENTNAME_COMPLETE, TaskListener.EVENTNAME_DELETE
+    };
+
+    @Autowired
+    private TaskEventListener taskEventListener;
+
+    @Autowired
+    private TaskQueueListener taskQueueListener;
+
+    @Override
+    public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+
+        List<BpmnParseListener> parseListeners = processEngineConfiguration.getCustomPostBPMNParseListeners();
+        if (parseListeners == null) {
+            parseListeners = new ArrayList<>();
+        }
+
+        parseListeners.add(new AbstractBpmnParseListener() {
+            @Override
+            public void parseUserTask(Element userTaskElement, ScopeImpl scope, ActivityImpl activity) {
+                TaskDefinition taskDefinition = ((UserTaskActivityBehavior) activity.getActivityBehavior()).getTaskDefinition();
+                taskDefinition.addBuiltInTaskListener(TaskListener.EVENTNAME_CREATE, taskEventListener);
+                taskDefinition.addBuiltInTaskListener(TaskListener.EVENTNAME_ASSIGNMENT, taskEventListener);
+                taskDefinition.addBuiltInTaskListener(TaskListener.EVENTNAME_COMPLETE, taskEventListener);
+                for (String event : QUEUE_EVENTS) {
+                    taskDefinition.addBuiltInTaskListener(event, taskQueueListener);
+                }
+            }
+        });
+        processEngineConfiguration.setCustomPostBPMNParseListeners(parseListeners);
+
+        System.out.println("=== TASK EVENT AND QUEUE LISTENERS REGISTERED ===");
+    }
+}
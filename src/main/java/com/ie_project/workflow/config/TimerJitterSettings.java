@@ -0,0 +1,53 @@
+package com.ie_project.workflow.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zufälliger Aufschlag auf BPMN-Timerdauern
+ * Random extension of BPMN timer durations
+ *
+ * Referenced from the BPMN timers as #{timerJitterSettings.jittered('PT5M')}. A burst of
+ * submissions would otherwise create timers that all fall due in the same second and hit the
+ * job executor and the database at once. Every timer gets a random extension between zero and
+ * ratio * duration, capped at the maximum; it is never shortened, so deadlines still hold.
+ *
+ * Ein Schub von Bewerbungen erzeugt sonst Timer, die alle in derselben Sekunde fällig werden.
+ * Jeder Timer wird um einen Zufallswert verlängert, nie verkürzt.
+ *
+ * @author IE Project Team
+ */
+@Component("timerJitterSettings")
+public class TimerJitterSettings {
+
+    // Share of the duration used as maximum jitter, 0 disables / Anteil der Dauer als maximaler Aufschlag, 0 deaktiviert
+    @Value("${application.timers.jitter.ratio:0.1}")
+    private double ratio;
+
+    // Upper bound of the jitter / Obergrenze des Aufschlags
+    @Value("${application.timers.jitter.max:PT2M}")
+    private Duration max;
+
+    /**
+     * Verlängert eine ISO-8601-Dauer um einen zufälligen Aufschlag in ganzen Sekunden
+     * Extends an ISO-8601 duration by a random jitter in whole seconds
+     *
+     * @param duration ISO-8601-Dauer, z.B. "PT5M" / ISO-8601 duration, e.g. "PT5M"
+     * @return ISO-8601-Dauer / ISO-8601 duration
+     */
+    public String jittered(String duration) {
+        Duration base = Duration.parse(duration);
+        long boundSeconds = Math.min((long) (base.getSeconds() * ratio), max.getSeconds());
+        if (boundSeconds <= 0) {
+            return duration;
+        }
+        return base.plusSeconds(ThreadLocalRandom.current().nextLong(boundSeconds + 1)).toString();
+    }
+
+    public double getRatio() { return ratio; }
+
+    public Duration getMax() { return max; }
+}
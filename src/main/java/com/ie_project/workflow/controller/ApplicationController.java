@@ -5,12 +5,16 @@ import com.ie_project.workflow.dto.ApplicationResponseDTO;
 import com.ie_project.workflow.entity.StudyProgram;
 import com.ie_project.workflow.repository.StudyProgramRepository;
 import com.ie_project.workflow.service.ApplicationService;
+import com.ie_project.workflow.service.DocumentResubmissionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +35,9 @@ public class ApplicationController {
     @Autowired
     private StudyProgramRepository studyProgramRepository;
 
+    @Autowired
+    private DocumentResubmissionService documentResubmissionService;
+
     /**
      * Neue Bewerbung einreichen
      * Submit new application
@@ -63,7 +70,7 @@ public class ApplicationController {
                     .body(Map.of(
                             "error", "Ungültige Bewerbungsdaten / Invalid application data",
                             "message", e.getMessage(),
-                            "timestamp", java.time.LocalDateTime.now()
+                            "timestamp", LocalDateTime.now()
                     ));
 
         } catch (Exception e) {
@@ -77,7 +84,7 @@ public class ApplicationController {
                     .body(Map.of(
                             "error", "Interner Serverfehler / Internal server error",
                             "message", "Bitte versuchen Sie es später erneut / Please try again later",
-                            "timestamp", java.time.LocalDateTime.now()
+                            "timestamp", LocalDateTime.now()
                     ));
         }
     }
@@ -106,6 +113,57 @@ public class ApplicationController {
         }
     }
 
+    /**
+     * Fehlende Dokumente nachreichen
+     * Resubmit missing documents
+     *
+     * Resumes the process instance waiting after an incomplete document verification.
+     * Setzt die Prozessinstanz fort, die nach einer unvollständigen Dokumentenprüfung wartet.
+     */
+    @PostMapping("/{applicationId}/documents/resubmit")
+    public ResponseEntity<Map<String, Object>> resubmitDocuments(
+            @PathVariable Long applicationId,
+            @RequestBody(required = false) DocumentResubmissionRequest request) {
+
+        try {
+            String submittedDocuments = request != null ? request.getSubmittedDocuments() : null;
+            boolean correlated = documentResubmissionService.submitDocuments(applicationId, submittedDocuments);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("applicationId", applicationId);
+            response.put("processResumed", correlated);
+            response.put("timestamp", LocalDateTime.now());
+
+            if (!correlated) {
+                response.put("message", "Application is not waiting for documents / Bewerbung wartet nicht auf Dokumente");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+
+            response.put("message", "Documents submitted, verification resumed / Dokumente eingereicht, Prüfung wird fortgesetzt");
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of(
+                            "error", e.getMessage(),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+    }
+
+    /**
+     * Statistik der Dokumenten-Nachreichungen (Jobs und Wartezeiten)
+     * Statistics of document resubmissions (jobs and waiting times)
+     */
+    @GetMapping("/documents/resubmission-statistics")
+    public ResponseEntity<Map<String, Object>> getResubmissionStatistics() {
+
+        Map<String, Object> statistics = new LinkedHashMap<>(documentResubmissionService.getResubmissionStatistics());
+        statistics.put("timestamp", LocalDateTime.now());
+
+        return ResponseEntity.ok(statistics);
+    }
+
     /**
      * Gesundheitscheck für die API
      * Health check for the API
@@ -116,10 +174,22 @@ public class ApplicationController {
         Map<String, Object> health = Map.of(
                 "status", "UP",
                 "service", "Application Service",
-                "timestamp", java.time.LocalDateTime.now(),
+                "timestamp", LocalDateTime.now(),
                 "version", "1.0.0"
         );
 
         return ResponseEntity.ok(health);
     }
+
+    /**
+     * Anfrage-DTO für nachgereichte Dokumente / Request DTO for resubmitted documents
+     */
+    public static class DocumentResubmissionRequest {
+        private String submittedDocuments;
+
+        public DocumentResubmissionRequest() {}
+
+        public String getSubmittedDocuments() { return submittedDocuments; }
+        public void setSubmittedDocuments(String submittedDocuments) { this.submittedDocuments = submittedDocuments; }
+    }
 }
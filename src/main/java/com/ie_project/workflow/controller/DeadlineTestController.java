@@ -1,14 +1,22 @@
 package com.ie_project.workflow.controller;
 
+import com.ie_project.workflow.dto.DeadlineBacktestRequestDTO;
 import com.ie_project.workflow.service.ApplicationDeadlineService;
+import com.ie_project.workflow.service.DeadlineBacktestService;
+import com.ie_project.workflow.service.DeadlineCalendar;
 import com.ie_project.workflow.service.DeadlineTestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,28 +42,34 @@ public class DeadlineTestController {
     @Autowired
     private DeadlineTestService testService;
 
+    @Autowired
+    private DeadlineBacktestService backtestService;
+
     /**
      * Testet eine spezifische Deadline
      * Tests a specific deadline
      *
-     * @param dateTime Format: "2025-04-15T10:30:00"
+     * @param dateTime    Format: "2025-04-15T10:30:00"
+     * @param programCode Studiengang mit eigener Fristenregel (optional) / Study program with its own rule (optional)
      * @return Deadline check result / Deadline-Prüfergebnis
      */
     @GetMapping("/check")
     public ResponseEntity<Map<String, Object>> checkDeadline(
-            @RequestParam("dateTime") String dateTime) {
+            @RequestParam("dateTime") String dateTime,
+            @RequestParam(required = false) String programCode) {
 
         try {
             LocalDateTime applicationDate = LocalDateTime.parse(dateTime);
 
-            boolean isOnTime = deadlineService.isApplicationOnTime(applicationDate);
             ApplicationDeadlineService.DeadlineCheckResult result =
-                    deadlineService.getDeadlineCheckResult(applicationDate);
+                    deadlineService.getDeadlineCheckResult(programCode, applicationDate);
+            boolean isOnTime = result.isOnTime();
 
             String message = deadlineService.createDeadlineMessage(result, "Test Student");
 
             Map<String, Object> response = new HashMap<>();
             response.put("applicationDate", applicationDate.format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")));
+            response.put("programCode", programCode);
             response.put("isOnTime", isOnTime);
             response.put("targetSemester", result.getSemesterType());
             response.put("semesterStartDate", result.getSemesterStartDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")));
@@ -87,9 +101,9 @@ public class DeadlineTestController {
 
         LocalDateTime now = LocalDateTime.now();
 
-        boolean isOnTime = deadlineService.isApplicationOnTime(now);
         ApplicationDeadlineService.DeadlineCheckResult result =
                 deadlineService.getDeadlineCheckResult(now);
+        boolean isOnTime = result.isOnTime();
 
         String message = deadlineService.createDeadlineMessage(result, "Test Student");
 
@@ -159,10 +173,144 @@ public class DeadlineTestController {
         config.put("winterApplicationDeadline", winterResult.getSubmissionDeadline().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")));
         config.put("summerSemesterStart", summerResult.getSemesterStartDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")));
         config.put("summerApplicationDeadline", summerResult.getSubmissionDeadline().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")));
-        config.put("monthsBeforeDeadline", 2);
-        config.put("note", "Applications must be submitted at least 2 months before semester start");
+        int monthsBefore = deadlineService.getCalendar().getDefaultRule().getMonthsBefore();
+        config.put("monthsBeforeDeadline", monthsBefore);
+        config.put("note", "Applications must be submitted at least " + monthsBefore + " months before semester start");
+        config.put("programRules", deadlineService.getCalendar().getProgramRules().size());
         config.put("timestamp", LocalDateTime.now());
 
         return ResponseEntity.ok(config);
     }
-}
\ No newline at end of file
+
+    /**
+     * Zeigt die Bewerbungszeiträume eines Jahres aus dem Fristenkalender
+     * Shows the intake windows of one year from the deadline calendar
+     *
+     * @param programCode Studiengang (optional, sonst Standardregel) / Study program (optional, otherwise default rule)
+     * @param year        Jahr (optional, sonst aktuelles Jahr) / Year (optional, otherwise current year)
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<Map<String, Object>> getCalendar(
+            @RequestParam(required = false) String programCode,
+            @RequestParam(required = false) Integer year) {
+
+        DeadlineCalendar calendar = deadlineService.getCalendar();
+        int calendarYear = year != null ? year : LocalDateTime.now().getYear();
+        if (calendarYear < calendar.getFirstYear() || calendarYear > calendar.getLastYear()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Year outside of the deadline calendar / Jahr außerhalb des Fristenkalenders: " + calendarYear,
+                    "firstYear", calendar.getFirstYear(),
+                    "lastYear", calendar.getLastYear(),
+                    "timestamp", LocalDateTime.now()
+            ));
+        }
+
+        List<Map<String, Object>> intakes = new ArrayList<>();
+        for (DeadlineCalendar.Intake intake : calendar.intakesOfYear(programCode, calendarYear)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("semesterType", intake.getSemesterType().getLabel());
+            entry.put("opensOn", intake.getOpensOn());
+            entry.put("submissionDeadline", intake.getSubmissionDeadline());
+            entry.put("semesterStart", intake.getSemesterStart());
+            intakes.add(entry);
+        }
+
+        List<Map<String, Object>> rules = new ArrayList<>();
+        for (DeadlineCalendar.IntakeRule rule : calendar.getProgramRules()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("programCode", rule.getProgramCode());
+            entry.put("winterStart", rule.getWinterStart().toString().substring(2));
+            entry.put("summerStart", rule.getSummerStart().toString().substring(2));
+            entry.put("monthsBefore", rule.getMonthsBefore());
+            rules.add(entry);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("programCode", programCode);
+        response.put("year", calendarYear);
+        response.put("intakes", intakes);
+        response.put("programRules", rules);
+        response.put("firstYear", calendar.getFirstYear());
+        response.put("lastYear", calendar.getLastYear());
+        response.put("builtAt", deadlineService.getCalendarBuiltAt());
+        response.put("timestamp", LocalDateTime.now());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Lädt die Fristenregeln neu (Konfiguration und study_programs)
+     * Reloads the intake rules (configuration and study_programs)
+     */
+    @PostMapping("/calendar/reload")
+    public ResponseEntity<Map<String, Object>> reloadCalendar() {
+
+        boolean reloaded = deadlineService.reloadCalendar();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("reloaded", reloaded);
+        response.put("programRules", deadlineService.getCalendar().getProgramRules().size());
+        response.put("intakes", deadlineService.getCalendar().getIntakeCount());
+        response.put("builtAt", deadlineService.getCalendarBuiltAt());
+        response.put("timestamp", LocalDateTime.now());
+
+        return reloaded ? ResponseEntity.ok(response) : ResponseEntity.internalServerError().body(response);
+    }
+
+    /**
+     * Spielt alle Bewerbungen der Datenbank gegen eine Kandidatenkonfiguration ab
+     * Replays all applications in the database against a candidate configuration
+     *
+     * @param candidate Kandidatenwerte; leere Felder übernehmen die aktive Konfiguration
+     *                  Candidate values; empty fields keep the active configuration
+     */
+    @PostMapping("/backtest")
+    public ResponseEntity<?> backtest(@RequestBody(required = false) DeadlineBacktestRequestDTO candidate) {
+
+        return runBacktest(() -> backtestService.backtestDatabase(
+                candidate != null ? candidate : new DeadlineBacktestRequestDTO()));
+    }
+
+    /**
+     * Spielt eine CSV-Datei (applicationId,timestamp[,programCode]) gegen eine Kandidatenkonfiguration ab
+     * Replays a CSV file (applicationId,timestamp[,programCode]) against a candidate configuration
+     */
+    @PostMapping("/backtest/upload")
+    public ResponseEntity<?> backtestUpload(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String winter,
+            @RequestParam(required = false) String summer,
+            @RequestParam(required = false) Integer monthsBefore,
+            @RequestParam(required = false) List<String> programs) {
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Empty file / Leere Datei",
+                    "timestamp", LocalDateTime.now()
+            ));
+        }
+        DeadlineBacktestRequestDTO candidate = new DeadlineBacktestRequestDTO(winter, summer, monthsBefore, programs);
+        return runBacktest(() -> backtestService.backtestFile(candidate, file.getInputStream(), file.getOriginalFilename()));
+    }
+
+    private ResponseEntity<?> runBacktest(BacktestCall call) {
+        try {
+            return ResponseEntity.ok(call.run());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", e.getMessage(),
+                    "timestamp", LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Backtest failed / Backtest fehlgeschlagen: " + e.getMessage(),
+                    "timestamp", LocalDateTime.now()
+            ));
+        }
+    }
+
+    @FunctionalInterface
+    private interface BacktestCall {
+        DeadlineBacktestService.BacktestReport run() throws Exception;
+    }
+}
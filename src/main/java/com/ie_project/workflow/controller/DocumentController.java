@@ -0,0 +1,215 @@
+package com.ie_project.workflow.controller;
+
+import com.ie_project.workflow.entity.StoredDocument;
+import com.ie_project.workflow.service.DocumentExportService;
+import com.ie_project.workflow.service.DocumentStoreService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST Controller für ausgelagerte Dokumente
+ * REST Controller for offloaded documents
+ *
+ * Provides retrieval of documents that delegates store in the content store
+ * instead of process variables (admission letters, NC reports, welcome packages).
+ *
+ * Stellt die Dokumente bereit, die Delegates im Content-Store statt in
+ * Prozessvariablen ablegen (Zulassungsbescheide, NC-Berichte, Willkommenspakete).
+ *
+ * @author IE Project Team
+ */
+@RestController
+@RequestMapping("/api/documents")
+@CrossOrigin(origins = "*")
+public class DocumentController {
+
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private DocumentExportService documentExportService;
+
+    /**
+     * Holt Metadaten und Inhalt eines Dokuments
+     * Gets metadata and content of a document
+     */
+    @GetMapping("/{contentId}")
+    public ResponseEntity<Map<String, Object>> getDocument(@PathVariable String contentId) {
+
+        Optional<StoredDocument> documentOpt = documentStoreService.findDocument(contentId);
+
+        if (documentOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Document not found / Dokument nicht gefunden: " + contentId));
+        }
+
+        StoredDocument document = documentOpt.get();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("contentId", document.getContentId());
+        response.put("applicationId", document.getApplicationId());
+        response.put("processInstanceId", document.getProcessInstanceId());
+        response.put("documentType", document.getDocumentType());
+        response.put("originalSize", document.getOriginalSize());
+        response.put("compressedSize", document.getCompressedSize());
+        response.put("createdAt", document.getCreatedAt());
+        response.put("content", documentStoreService.readContent(document));
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Streamt ein Dokument als Download
+     * Streams a document as download
+     *
+     * Clients accepting gzip receive the stored bytes unchanged; all others get
+     * the content decompressed on the fly without building the full String. Both
+     * responses carry Vary: Accept-Encoding so caches keep the variants apart.
+     */
+    @GetMapping("/{contentId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadDocument(
+            @PathVariable String contentId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        Optional<StoredDocument> documentOpt = documentStoreService.findDocument(contentId);
+
+        if (documentOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        StoredDocument document = documentOpt.get();
+        String fileName = document.getDocumentType() + "-" + document.getContentId() + ".txt";
+        boolean passThroughGzip = acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(document.getContentType()))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        if (passThroughGzip) {
+            byte[] compressed = document.getContent();
+            return builder
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(compressed.length)
+                    .body(outputStream -> outputStream.write(compressed));
+        }
+
+        return builder
+                .contentLength(document.getOriginalSize())
+                .body(outputStream -> {
+                    try (InputStream in = DocumentStoreService.openDecompressedStream(document)) {
+                        in.transferTo(outputStream);
+                    }
+                });
+    }
+
+    /**
+     * Prüft, ob der Accept-Encoding-Header gzip mit einem q-Wert über 0 erlaubt
+     * Checks whether the Accept-Encoding header allows gzip with a q-value above 0
+     *
+     * An explicit gzip (or x-gzip) entry decides; otherwise a "*" entry applies. A missing or
+     * malformed q-value counts as 1 or 0 respectively, so "gzip;q=0" and "gzip;q=x" are refused.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+
+        Double quality = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+
+    /**
+     * Zeigt die Einsparung an geschriebenen Bytes für eine Prozessinstanz
+     * Shows the reduction in bytes written for a process instance
+     */
+    @GetMapping("/statistics/{processInstanceId}")
+    public ResponseEntity<Map<String, Object>> getStorageStatistics(@PathVariable String processInstanceId) {
+
+        Map<String, Object> statistics = new LinkedHashMap<>(documentStoreService.getStorageStatistics(processInstanceId));
+        statistics.put("timestamp", LocalDateTime.now());
+
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Exportiert die Bescheide einer Bewerbungsrunde als Dateien mit Manifest
+     * Exports the letters of an application round as files with manifest
+     *
+     * @param submittedFrom Erster Einreichungstag / First submission day
+     * @param submittedTo Letzter Einreichungstag / Last submission day
+     * @param studyProgramId Optionaler Studiengang / Optional study program
+     * @param documentTypes Optionale Dokumenttypen / Optional document types
+     * @param parallelism Optionale Anzahl Worker / Optional number of workers
+     */
+    @PostMapping("/export")
+    public ResponseEntity<?> exportRound(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submittedFrom,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submittedTo,
+            @RequestParam(required = false) Long studyProgramId,
+            @RequestParam(required = false) List<String> documentTypes,
+            @RequestParam(required = false) Integer parallelism) {
+
+        try {
+            return ResponseEntity.ok(documentExportService.exportRound(submittedFrom, submittedTo, studyProgramId, documentTypes, parallelism));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of(
+                            "error", e.getMessage(),
+                            "timestamp", LocalDateTime.now()
+                    ));
+
+        } catch (Exception e) {
+            System.err.println("=== ERROR IN DOCUMENT EXPORT ===");
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            System.err.println("================================");
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                            "error", "Export failed / Export fehlgeschlagen",
+                            "message", String.valueOf(e.getMessage()),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.ie_project.workflow.controller;
+
+import com.ie_project.workflow.entity.NotificationDeliveryRecord;
+import com.ie_project.workflow.entity.OutboxNotification;
+import com.ie_project.workflow.repository.NotificationDeliveryRecordRepository;
+import com.ie_project.workflow.service.ExternalNotificationTaskWorker;
+import com.ie_project.workflow.service.NotificationDispatcher;
+import com.ie_project.workflow.service.NotificationService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST API Controller für die Benachrichtigungs-Outbox
+ * REST API Controller for the notification outbox
+ *
+ * Provides dispatcher statistics, the delivery ledger and the handling of dead-lettered
+ * notifications.
+ *
+ * Stellt Dispatcher-Statistiken, das Zustellungsprotokoll und die Behandlung toter
+ * Benachrichtigungen bereit.
+ *
+ * @author IE Project Team
+ */
+@RestController
+@RequestMapping("/api/notifications")
+@CrossOrigin(origins = "*") // Enable CORS for frontend access / CORS für Frontend-Zugriff aktivieren
+public class NotificationController {
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationDeliveryRecordRepository deliveryRecordRepository;
+
+    @Autowired
+    private ExternalNotificationTaskWorker externalNotificationTaskWorker;
+
+    /**
+     * Statistiken der Outbox und des Dispatchers / Outbox and dispatcher statistics
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        return ResponseEntity.ok(notificationDispatcher.getStatistics());
+    }
+
+    /**
+     * Statistiken der Worker für externe Benachrichtigungs-Tasks / External notification task worker statistics
+     */
+    @GetMapping("/external-tasks/statistics")
+    public ResponseEntity<Map<String, Object>> getExternalTaskStatistics() {
+        return ResponseEntity.ok(externalNotificationTaskWorker.getStatistics());
+    }
+
+    /**
+     * Statistikbericht als Text / Statistics report as text
+     *
+     * @param hours Zeitraum des Protokolls in Stunden / Ledger period in hours
+     */
+    @GetMapping(value = "/statistics/report", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getStatisticsReport(@RequestParam(defaultValue = "24") int hours) {
+        int period = Math.max(1, Math.min(hours, 24 * 90));
+        return ResponseEntity.ok(notificationService.generateNotificationStatistics(LocalDateTime.now().minusHours(period)));
+    }
+
+    /**
+     * Zustellversuche aus dem Protokoll, neueste zuerst oder für eine Benachrichtigung
+     * Send attempts from the ledger, newest first or for one notification
+     */
+    @GetMapping("/ledger")
+    public ResponseEntity<List<NotificationDeliveryRecord>> getLedger(@RequestParam(required = false) Long outboxId,
+                                                                      @RequestParam(defaultValue = "50") int limit) {
+        if (outboxId != null) {
+            return ResponseEntity.ok(deliveryRecordRepository.findByOutboxIdOrderByIdAsc(outboxId));
+        }
+        return ResponseEntity.ok(deliveryRecordRepository.findAllByOrderByIdDesc(PageRequest.of(0, Math.max(1, Math.min(limit, 500)))));
+    }
+
+    /**
+     * Tote Benachrichtigungen (Wiederholungen erschöpft) / Dead-lettered notifications (retries exhausted)
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<OutboxNotification>> getDeadLetters(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(notificationDispatcher.getDeadLetters(limit));
+    }
+
+    /**
+     * Stellt tote Benachrichtigungen erneut zu / Requeues dead-lettered notifications
+     *
+     * @param ids IDs der Outbox-Einträge / IDs of the outbox entries
+     */
+    @PostMapping("/dead-letters/requeue")
+    public ResponseEntity<?> requeueDeadLetters(@RequestBody List<Long> ids) {
+
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of(
+                            "error", "At least one ID is required / Mindestens eine ID ist erforderlich",
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+
+        try {
+            int requeued = notificationDispatcher.requeueDead(ids);
+            return ResponseEntity.ok(Map.of(
+                    "requested", ids.size(),
+                    "requeued", requeued,
+                    "timestamp", LocalDateTime.now()
+            ));
+
+        } catch (Exception e) {
+            System.err.println("Error requeueing notifications / Fehler beim erneuten Einreihen: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                            "error", "Requeue failed / Erneutes Einreihen fehlgeschlagen",
+                            "message", String.valueOf(e.getMessage()),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ie_project.workflow.controller;
+
+import com.ie_project.workflow.service.NotificationMetrics;
+import com.ie_project.workflow.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator-Endpunkt für die Zustellungsmetriken (/actuator/notifications)
+ * Actuator endpoint for the delivery metrics (/actuator/notifications)
+ *
+ * Combines the live throughput and latency percentiles of this node with the ledger totals
+ * of the last hours (default 24, ?hours=N). The raw timers are available under
+ * /actuator/metrics/notification.delivery.
+ *
+ * Verbindet Durchsatz und Latenzperzentile dieses Knotens mit den Protokollsummen der letzten
+ * Stunden (Standard 24, ?hours=N).
+ *
+ * @author IE Project Team
+ */
+@Component
+@Endpoint(id = "notifications")
+public class NotificationMetricsEndpoint {
+
+    @Autowired
+    private NotificationMetrics notificationMetrics;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @ReadOperation
+    public Map<String, Object> notifications(@Nullable Integer hours) {
+        int period = hours != null ? Math.max(1, Math.min(hours, 24 * 90)) : 24;
+
+        Map<String, Object> ledger = new LinkedHashMap<>();
+        ledger.put("hours", period);
+        ledger.put("attempts", notificationService.getLedgerSummary(LocalDateTime.now().minusHours(period)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("live", notificationMetrics.snapshot());
+        result.put("ledger", ledger);
+        result.put("timestamp", LocalDateTime.now());
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ie_project.workflow.controller;
+
+import com.ie_project.workflow.service.PaymentImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller für den Import von Kontoauszügen
+ * REST Controller for importing bank statements
+ *
+ * Accepts daily bank statement files (CSV or CAMT.053) and applies the contained tuition
+ * fee payments. Each import returns a report with throughput and the exceptions file.
+ *
+ * Nimmt tägliche Kontoauszüge (CSV oder CAMT.053) entgegen und verbucht die enthaltenen
+ * Studiengebührenzahlungen. Jeder Import liefert einen Bericht mit Durchsatz und Ausnahmedatei.
+ *
+ * @author IE Project Team
+ */
+@RestController
+@RequestMapping("/api/payment/imports")
+@CrossOrigin(origins = "*") // Enable CORS for frontend access / CORS für Frontend-Zugriff aktivieren
+public class PaymentImportController {
+
+    @Autowired
+    private PaymentImportService paymentImportService;
+
+    /**
+     * Importiert einen hochgeladenen Kontoauszug / Imports an uploaded bank statement
+     */
+    @PostMapping(consumes = "multipart/form-data")
+    public ResponseEntity<?> importStatement(@RequestParam("file") MultipartFile file) {
+
+        System.out.println("=== BANK STATEMENT UPLOAD ===");
+        System.out.println("File: " + file.getOriginalFilename());
+        System.out.println("Size: " + file.getSize() + " bytes");
+        System.out.println("=============================");
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of(
+                            "error", "Empty file / Leere Datei",
+                            "timestamp", java.time.LocalDateTime.now()
+                    ));
+        }
+
+        try (InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(paymentImportService.importStatement(input, file.getOriginalFilename()));
+
+        } catch (Exception e) {
+            System.err.println("=== ERROR IN BANK STATEMENT IMPORT ===");
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            System.err.println("======================================");
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                            "error", "Import failed / Import fehlgeschlagen",
+                            "message", String.valueOf(e.getMessage()),
+                            "timestamp", java.time.LocalDateTime.now()
+                    ));
+        }
+    }
+
+    /**
+     * Importiert alle Dateien aus dem Eingangsverzeichnis / Imports all files from the inbox directory
+     */
+    @PostMapping("/inbox")
+    public ResponseEntity<?> importInbox() {
+
+        try {
+            return ResponseEntity.ok(paymentImportService.importInbox());
+
+        } catch (Exception e) {
+            System.err.println("Error reading payment inbox / Fehler beim Lesen des Zahlungseingangs: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                            "error", "Inbox import failed / Import des Eingangsverzeichnisses fehlgeschlagen",
+                            "message", String.valueOf(e.getMessage()),
+                            "timestamp", java.time.LocalDateTime.now()
+                    ));
+        }
+    }
+
+    /**
+     * Letzte Importberichte / Recent import reports
+     */
+    @GetMapping
+    public ResponseEntity<List<PaymentImportService.PaymentImportReport>> getRecentImports() {
+        return ResponseEntity.ok(paymentImportService.getRecentReports());
+    }
+}
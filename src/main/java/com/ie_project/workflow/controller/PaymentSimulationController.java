@@ -2,13 +2,23 @@ package com.ie_project.workflow.controller;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.BulkPaymentService;
+import com.ie_project.workflow.service.OptimisticRetryService;
+import com.ie_project.workflow.service.PaymentCorrelationService;
+import com.ie_project.workflow.service.PaymentReminderSweeper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -28,9 +38,23 @@ import java.util.Optional;
 @CrossOrigin(origins = "*") // Enable CORS for frontend access / CORS für Frontend-Zugriff aktivieren
 public class PaymentSimulationController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private PaymentCorrelationService paymentCorrelationService;
+
+    @Autowired
+    private BulkPaymentService bulkPaymentService;
+
+    @Autowired
+    private PaymentReminderSweeper paymentReminderSweeper;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     /**
      * Updates the tuition fee payment status for an application
      * Aktualisiert den Studiengebühren-Zahlungsstatus für eine Bewerbung
@@ -75,15 +99,21 @@ public class PaymentSimulationController {
                                 createPaymentInfo(application)));
             }
 
-            // Store previous payment status / Vorherigen Zahlungsstatus speichern
-            boolean previousStatus = application.isTuitionFeePaid();
-
-            // Update payment status / Zahlungsstatus aktualisieren
-            application.setTuitionFeePaid(request.isPaid());
-            application.setUpdatedAt(LocalDateTime.now());
-
-            // Save to database / In Datenbank speichern
-            Application savedApplication = applicationRepository.save(application);
+            // Update payment status with version check, the previous status is taken from the attempt that wins
+            // Zahlungsstatus mit Versionsprüfung aktualisieren, der vorherige Status stammt aus dem erfolgreichen Versuch
+            boolean[] previousPaid = new boolean[1];
+            Application savedApplication = optimisticRetryService.updateApplication(application.getId(), current -> {
+                previousPaid[0] = current.isTuitionFeePaid();
+                current.setTuitionFeePaid(request.isPaid());
+                current.setUpdatedAt(LocalDateTime.now());
+            });
+            boolean previousStatus = previousPaid[0];
+
+            // Resume the waiting process instance / Wartende Prozessinstanz fortsetzen
+            boolean processResumed = false;
+            if (request.isPaid() && !previousStatus) {
+                processResumed = paymentCorrelationService.correlatePaymentReceived(savedApplication);
+            }
 
             // Create success response / Erfolgsantwort erstellen
             PaymentUpdateResponse response = new PaymentUpdateResponse(
@@ -91,12 +121,20 @@ public class PaymentSimulationController {
                     createSuccessMessage(savedApplication, previousStatus, request.isPaid()),
                     createPaymentInfo(savedApplication)
             );
+            response.setProcessResumed(processResumed);
 
             // Log payment update / Zahlungsaktualisierung protokollieren
             logPaymentUpdate(savedApplication, previousStatus, request.isPaid());
 
             return ResponseEntity.ok(response);
 
+        } catch (OptimisticLockingFailureException e) {
+            // Concurrent updates kept winning after all retries / Konkurrierende Änderungen auch nach allen Wiederholungen
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new PaymentUpdateResponse(false,
+                            "Application was modified concurrently, please retry / Bewerbung wurde gleichzeitig geändert, bitte erneut versuchen",
+                            null));
+
         } catch (Exception e) {
             System.err.println("=== ERROR IN PAYMENT SIMULATION API ===");
             System.err.println("Error: " + e.getMessage());
@@ -147,44 +185,50 @@ public class PaymentSimulationController {
     /**
      * Simulates payment for all accepted applications (bulk operation)
      * Simuliert Zahlung für alle angenommenen Bewerbungen (Massenoperation)
+     *
+     * Optionally restricted to a study program and/or a list of application IDs.
+     * The update runs chunk by chunk; the updated applications can be listed with
+     * GET /api/payment/applications instead of being returned in the response.
+     *
+     * Optional auf einen Studiengang und/oder eine ID-Liste eingeschränkt. Die
+     * aktualisierten Bewerbungen werden seitenweise über GET /api/payment/applications abgerufen.
      */
     @PostMapping("/simulate-bulk-payment")
     public ResponseEntity<BulkPaymentResponse> simulateBulkPayment(@RequestBody BulkPaymentRequest request) {
 
         System.out.println("=== BULK PAYMENT SIMULATION ===");
         System.out.println("Payment Status: " + request.isPaid());
+        System.out.println("Study Program ID: " + request.getStudyProgramId());
+        System.out.println("Application IDs: " + (request.getApplicationIds() != null ? request.getApplicationIds().size() : "ALL"));
         System.out.println("===============================");
 
         try {
-            // Find all accepted applications / Alle angenommenen Bewerbungen finden
-            var acceptedApplications = applicationRepository.findByStatus(Application.ApplicationStatus.ACCEPTED);
-
-            int updatedCount = 0;
-            StringBuilder results = new StringBuilder();
-
-            for (Application application : acceptedApplications) {
-                boolean previousStatus = application.isTuitionFeePaid();
-                application.setTuitionFeePaid(request.isPaid());
-                application.setUpdatedAt(LocalDateTime.now());
-
-                applicationRepository.save(application);
-                updatedCount++;
-
-                results.append(String.format("ID %d: %s -> %s\n",
-                        application.getId(),
-                        previousStatus ? "PAID" : "UNPAID",
-                        request.isPaid() ? "PAID" : "UNPAID"));
-            }
+            BulkPaymentService.BulkPaymentResult result = bulkPaymentService.updatePayments(
+                    request.isPaid(), request.getStudyProgramId(), request.getApplicationIds(), request.getChunkSize());
 
             String message = String.format(
-                    "Bulk payment simulation completed. Updated %d applications.\n" +
-                            "Massenzahlungssimulation abgeschlossen. %d Bewerbungen aktualisiert.\n\n%s",
-                    updatedCount, updatedCount, results.toString()
+                    "Bulk payment simulation completed. Updated %d applications in %d chunks.\n" +
+                            "Massenzahlungssimulation abgeschlossen. %d Bewerbungen in %d Blöcken aktualisiert.",
+                    result.getUpdatedCount(), result.getChunkCount(), result.getUpdatedCount(), result.getChunkCount()
             );
 
-            return ResponseEntity.ok(new BulkPaymentResponse(true, message, updatedCount));
+            BulkPaymentResponse response = new BulkPaymentResponse(true, message, result.getUpdatedCount());
+            response.setChunkCount(result.getChunkCount());
+            response.setProcessesNotified(result.getProcessesNotified());
+            response.setWithoutProcessInstance(result.getWithoutProcessInstance());
+            response.setCorrelationBatchIds(result.getCorrelationBatchIds());
+            response.setFirstUpdatedId(result.getFirstUpdatedId());
+            response.setLastUpdatedId(result.getLastUpdatedId());
+            response.setDurationMillis(result.getDurationMillis());
+
+            return ResponseEntity.ok(response);
 
         } catch (Exception e) {
+            System.err.println("=== ERROR IN BULK PAYMENT SIMULATION ===");
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            System.err.println("========================================");
+
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new BulkPaymentResponse(false,
                             "Error in bulk payment simulation / Fehler bei Massenzahlungssimulation: " + e.getMessage(),
@@ -192,6 +236,73 @@ public class PaymentSimulationController {
         }
     }
 
+    /**
+     * Lists the payment status of accepted applications page by page
+     * Listet den Zahlungsstatus angenommener Bewerbungen seitenweise auf
+     */
+    @GetMapping("/applications")
+    public ResponseEntity<PaymentPageResponse> getPaymentOverview(
+            @RequestParam(required = false) Long studyProgramId,
+            @RequestParam(required = false) Boolean paid,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        try {
+            int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+            Page<Application> applications = applicationRepository.findPaymentOverview(
+                    Application.ApplicationStatus.ACCEPTED, studyProgramId, paid,
+                    PageRequest.of(Math.max(page, 0), pageSize, Sort.by("id")));
+
+            return ResponseEntity.ok(new PaymentPageResponse(
+                    applications.getContent().stream().map(this::createPaymentInfo).toList(),
+                    applications.getNumber(),
+                    applications.getSize(),
+                    applications.getTotalElements(),
+                    applications.getTotalPages()));
+
+        } catch (Exception e) {
+            System.err.println("Error retrieving payment overview / Fehler beim Abrufen der Zahlungsübersicht: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
+    /**
+     * Startet sofort einen Lauf des Zahlungserinnerungs-Sweepers
+     * Triggers an immediate run of the payment reminder sweeper
+     */
+    @PostMapping("/reminders/sweep")
+    public ResponseEntity<?> runReminderSweep() {
+
+        try {
+            PaymentReminderSweeper.SweepResult result = paymentReminderSweeper.sweep();
+            if (result == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of(
+                                "error", "Sweep already running / Lauf bereits aktiv",
+                                "timestamp", LocalDateTime.now()
+                        ));
+            }
+            return ResponseEntity.ok(result);
+
+        } catch (Exception e) {
+            System.err.println("Error in payment reminder sweep / Fehler im Zahlungserinnerungslauf: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                            "error", "Sweep failed / Lauf fehlgeschlagen",
+                            "message", String.valueOf(e.getMessage()),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+    }
+
+    /**
+     * Statistiken des Zahlungserinnerungs-Sweepers / Payment reminder sweeper statistics
+     */
+    @GetMapping("/reminders/statistics")
+    public ResponseEntity<Map<String, Object>> getReminderStatistics() {
+        return ResponseEntity.ok(paymentReminderSweeper.getStatistics());
+    }
+
     // ===== HELPER METHODS / HILFSMETHODEN =====
 
     /**
@@ -283,6 +394,7 @@ public class PaymentSimulationController {
         private boolean success;
         private String message;
         private PaymentInfo paymentInfo;
+        private boolean processResumed;
 
         public PaymentUpdateResponse(boolean success, String message, PaymentInfo paymentInfo) {
             this.success = success;
@@ -297,6 +409,8 @@ public class PaymentSimulationController {
         public void setMessage(String message) { this.message = message; }
         public PaymentInfo getPaymentInfo() { return paymentInfo; }
         public void setPaymentInfo(PaymentInfo paymentInfo) { this.paymentInfo = paymentInfo; }
+        public boolean isProcessResumed() { return processResumed; }
+        public void setProcessResumed(boolean processResumed) { this.processResumed = processResumed; }
     }
 
     /**
@@ -327,12 +441,21 @@ public class PaymentSimulationController {
      */
     public static class BulkPaymentRequest {
         private boolean paid;
+        private Long studyProgramId;
+        private List<Long> applicationIds;
+        private Integer chunkSize;
 
         public BulkPaymentRequest() {}
         public BulkPaymentRequest(boolean paid) { this.paid = paid; }
 
         public boolean isPaid() { return paid; }
         public void setPaid(boolean paid) { this.paid = paid; }
+        public Long getStudyProgramId() { return studyProgramId; }
+        public void setStudyProgramId(Long studyProgramId) { this.studyProgramId = studyProgramId; }
+        public List<Long> getApplicationIds() { return applicationIds; }
+        public void setApplicationIds(List<Long> applicationIds) { this.applicationIds = applicationIds; }
+        public Integer getChunkSize() { return chunkSize; }
+        public void setChunkSize(Integer chunkSize) { this.chunkSize = chunkSize; }
     }
 
     /**
@@ -342,6 +465,13 @@ public class PaymentSimulationController {
         private boolean success;
         private String message;
         private int updatedCount;
+        private int chunkCount;
+        private int processesNotified;
+        private int withoutProcessInstance;
+        private List<String> correlationBatchIds;
+        private Long firstUpdatedId;
+        private Long lastUpdatedId;
+        private long durationMillis;
 
         public BulkPaymentResponse(boolean success, String message, int updatedCount) {
             this.success = success;
@@ -356,6 +486,51 @@ public class PaymentSimulationController {
         public void setMessage(String message) { this.message = message; }
         public int getUpdatedCount() { return updatedCount; }
         public void setUpdatedCount(int updatedCount) { this.updatedCount = updatedCount; }
+        public int getChunkCount() { return chunkCount; }
+        public void setChunkCount(int chunkCount) { this.chunkCount = chunkCount; }
+        public int getProcessesNotified() { return processesNotified; }
+        public void setProcessesNotified(int processesNotified) { this.processesNotified = processesNotified; }
+        public int getWithoutProcessInstance() { return withoutProcessInstance; }
+        public void setWithoutProcessInstance(int withoutProcessInstance) { this.withoutProcessInstance = withoutProcessInstance; }
+        public List<String> getCorrelationBatchIds() { return correlationBatchIds; }
+        public void setCorrelationBatchIds(List<String> correlationBatchIds) { this.correlationBatchIds = correlationBatchIds; }
+        public Long getFirstUpdatedId() { return firstUpdatedId; }
+        public void setFirstUpdatedId(Long firstUpdatedId) { this.firstUpdatedId = firstUpdatedId; }
+        public Long getLastUpdatedId() { return lastUpdatedId; }
+        public void setLastUpdatedId(Long lastUpdatedId) { this.lastUpdatedId = lastUpdatedId; }
+        public long getDurationMillis() { return durationMillis; }
+        public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+    }
+
+    /**
+     * Paginated payment overview / Seitenweise Zahlungsübersicht
+     */
+    public static class PaymentPageResponse {
+        private List<PaymentInfo> content;
+        private int page;
+        private int size;
+        private long totalElements;
+        private int totalPages;
+
+        public PaymentPageResponse(List<PaymentInfo> content, int page, int size, long totalElements, int totalPages) {
+            this.content = content;
+            this.page = page;
+            this.size = size;
+            this.totalElements = totalElements;
+            this.totalPages = totalPages;
+        }
+
+        // Getters and Setters
+        public List<PaymentInfo> getContent() { return content; }
+        public void setContent(List<PaymentInfo> content) { this.content = content; }
+        public int getPage() { return page; }
+        public void setPage(int page) { this.page = page; }
+        public int getSize() { return size; }
+        public void setSize(int size) { this.size = size; }
+        public long getTotalElements() { return totalElements; }
+        public void setTotalElements(long totalElements) { this.totalElements = totalElements; }
+        public int getTotalPages() { return totalPages; }
+        public void setTotalPages(int totalPages) { this.totalPages = totalPages; }
     }
 
     /**
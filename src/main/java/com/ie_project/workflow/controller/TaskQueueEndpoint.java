@@ -0,0 +1,34 @@
+package com.ie_project.workflow.controller;
+
+import com.ie_project.workflow.service.TaskQueueAnalytics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator-Endpunkt für die Warteschlangen-Analyse (/actuator/taskqueues)
+ * Actuator endpoint for the work-queue analytics (/actuator/taskqueues)
+ *
+ * Backlog, unassigned tasks, oldest age and age histogram per task definition key and
+ * candidate group, served from the in-memory queues. The same numbers are published as
+ * gauges task.queue.size, task.queue.unassigned, task.queue.oldest.age and task.queue.age.
+ *
+ * Rückstand und Altersverteilung je Aufgabentyp und Kandidatengruppe aus dem Speicher.
+ *
+ * @author IE Project Team
+ */
+@Component
+@Endpoint(id = "taskqueues")
+public class TaskQueueEndpoint {
+
+    @Autowired
+    private TaskQueueAnalytics taskQueueAnalytics;
+
+    @ReadOperation
+    public Map<String, Object> taskQueues() {
+        return taskQueueAnalytics.getStatistics();
+    }
+}
@@ -1,14 +1,28 @@
 package com.ie_project.workflow.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ie_project.workflow.dto.TaskCompletionRequestDTO;
+import com.ie_project.workflow.service.BulkTaskCompletionService;
+import com.ie_project.workflow.service.TaskAssignmentService;
+import com.ie_project.workflow.service.TaskEventBroadcaster;
+import com.ie_project.workflow.service.TaskInboxService;
+import com.ie_project.workflow.service.TaskQueueAnalytics;
 import org.camunda.bpm.engine.TaskService;
 import org.camunda.bpm.engine.task.Task;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +45,66 @@ public class UserTaskController {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private TaskInboxService taskInboxService;
+
+    @Autowired
+    private TaskEventBroadcaster taskEventBroadcaster;
+
+    @Autowired
+    private BulkTaskCompletionService bulkTaskCompletionService;
+
+    @Autowired
+    private TaskAssignmentService taskAssignmentService;
+
+    @Autowired
+    private TaskQueueAnalytics taskQueueAnalytics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Seitenweiser Aufgabeneingang mit ausgewählten Variablen
+     * Paginated task inbox with selected variables
+     *
+     * The variables of all tasks of the page are loaded with one query and the response is
+     * written to the client while it is generated.
+     *
+     * @param variables Kommagetrennte Variablennamen, leer für keine / Comma separated variable names, empty for none
+     */
+    @GetMapping("/inbox")
+    public ResponseEntity<StreamingResponseBody> getInbox(
+            @RequestParam(required = false) String taskDefinitionKey,
+            @RequestParam(required = false) String assignee,
+            @RequestParam(required = false) String candidateGroup,
+            @RequestParam(defaultValue = "0") int firstResult,
+            @RequestParam(defaultValue = "50") int maxResults,
+            @RequestParam(required = false) List<String> variables) {
+
+        TaskInboxService.InboxPage page;
+        try {
+            page = taskInboxService.loadPage(taskDefinitionKey, assignee, candidateGroup, firstResult, maxResults, variables);
+
+        } catch (IllegalArgumentException e) {
+            return jsonResponse(HttpStatus.BAD_REQUEST, Map.of(
+                    "error", e.getMessage(),
+                    "timestamp", LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            System.err.println("Error retrieving task inbox: " + e.getMessage());
+            return jsonResponse(HttpStatus.INTERNAL_SERVER_ERROR, Map.of(
+                    "error", "Error retrieving task inbox / Fehler beim Laden des Aufgabeneingangs",
+                    "message", String.valueOf(e.getMessage()),
+                    "timestamp", LocalDateTime.now()
+            ));
+        }
+
+        StreamingResponseBody body = out -> taskInboxService.writeJson(page, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * Holt alle offenen User Tasks
      * Gets all open user tasks
@@ -45,8 +119,10 @@ public class UserTaskController {
                     .desc()
                     .list();
 
+            // All variables, but loaded with one query / Alle Variablen, aber mit einer Abfrage geladen
+            Map<String, Map<String, Object>> variables = taskInboxService.loadVariables(tasks, null);
             List<Map<String, Object>> taskList = tasks.stream()
-                    .map(this::convertTaskToMap)
+                    .map(task -> convertTaskToMap(task, variables.get(task.getId())))
                     .collect(Collectors.toList());
 
             System.out.println("=== USER TASKS RETRIEVED ===");
@@ -61,6 +137,57 @@ public class UserTaskController {
         }
     }
 
+    /**
+     * Live-Aufgabeneingang als Server-Sent Events
+     * Live task inbox as server-sent events
+     *
+     * Streams task-created, task-assigned and task-completed events of the given candidate
+     * groups (all groups if none are given). EventSource clients resume automatically via the
+     * Last-Event-ID header; other clients may pass lastEventId as parameter.
+     *
+     * @param groups Kandidatengruppen, z.B. staff,admins / Candidate groups, e.g. staff,admins
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTaskEvents(
+            @RequestParam(required = false) List<String> groups,
+            @RequestParam(required = false) String lastEventId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader) {
+
+        Set<String> candidateGroups = new LinkedHashSet<>();
+        if (groups != null) {
+            for (String group : groups) {
+                String trimmed = group.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                if (!trimmed.matches("[A-Za-z0-9_-]+")) {
+                    return ResponseEntity.badRequest().build();
+                }
+                candidateGroups.add(trimmed);
+            }
+        }
+
+        SseEmitter emitter = taskEventBroadcaster.subscribe(candidateGroups,
+                lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // Disable proxy buffering / Proxy-Pufferung abschalten
+                .body(emitter);
+    }
+
+    /**
+     * Statistiken des Live-Eingangs / Live inbox statistics
+     */
+    @GetMapping("/events/statistics")
+    public ResponseEntity<Map<String, Object>> getTaskEventStatistics() {
+        return ResponseEntity.ok(taskEventBroadcaster.getStatistics());
+    }
+
+    private ResponseEntity<StreamingResponseBody> jsonResponse(HttpStatus status, Map<String, Object> body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, body));
+    }
+
     /**
      * Holt eine spezifische Task nach ID
      * Gets a specific task by ID
@@ -163,8 +290,10 @@ public class UserTaskController {
                     .desc()
                     .list();
 
+            // All variables, but loaded with one query / Alle Variablen, aber mit einer Abfrage geladen
+            Map<String, Map<String, Object>> variables = taskInboxService.loadVariables(tasks, null);
             List<Map<String, Object>> taskList = tasks.stream()
-                    .map(this::convertTaskToMap)
+                    .map(task -> convertTaskToMap(task, variables.get(task.getId())))
                     .collect(Collectors.toList());
 
             System.out.println("=== DOCUMENT VERIFICATION TASKS RETRIEVED ===");
@@ -179,6 +308,109 @@ public class UserTaskController {
         }
     }
 
+    /**
+     * Schließt viele User Tasks in einer Anfrage ab
+     * Completes many user tasks in one request
+     *
+     * @param parallelism Anzahl Worker (optional) / Number of workers (optional)
+     * @param chunkSize Tasks pro Block (optional) / Tasks per chunk (optional)
+     */
+    @PostMapping("/bulk-complete")
+    public ResponseEntity<?> bulkCompleteTasks(
+            @RequestBody List<TaskCompletionRequestDTO> items,
+            @RequestParam(required = false) Integer parallelism,
+            @RequestParam(required = false) Integer chunkSize) {
+        return bulkComplete(items, null, parallelism, chunkSize);
+    }
+
+    /**
+     * Schließt viele Dokumentenprüfungen in einer Anfrage ab
+     * Completes many document verifications in one request
+     *
+     * Each item needs the boolean variable documentsComplete / Jeder Eintrag benötigt documentsComplete
+     */
+    @PostMapping("/document-verification/bulk-complete")
+    public ResponseEntity<?> bulkCompleteDocumentVerifications(
+            @RequestBody List<TaskCompletionRequestDTO> items,
+            @RequestParam(required = false) Integer parallelism,
+            @RequestParam(required = false) Integer chunkSize) {
+        return bulkComplete(items, BulkTaskCompletionService.DOCUMENT_VERIFICATION_TASK, parallelism, chunkSize);
+    }
+
+    /**
+     * Statistiken der Massenabschlüsse / Bulk completion statistics
+     */
+    @GetMapping("/bulk-complete/statistics")
+    public ResponseEntity<Map<String, Object>> getBulkCompletionStatistics() {
+        return ResponseEntity.ok(bulkTaskCompletionService.getStatistics());
+    }
+
+    /**
+     * Rückstand und Altersverteilung je Aufgabentyp und Kandidatengruppe
+     * Backlog and age histogram per task definition key and candidate group
+     */
+    @GetMapping("/queues")
+    public ResponseEntity<Map<String, Object>> getTaskQueues() {
+        return ResponseEntity.ok(taskQueueAnalytics.getStatistics());
+    }
+
+    /**
+     * Baut die Warteschlangen aus den Laufzeittabellen der Engine neu auf
+     * Rebuilds the queues from the engine's runtime tables
+     */
+    @PostMapping("/queues/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildTaskQueues() {
+        int tasks = taskQueueAnalytics.rebuild();
+        return ResponseEntity.ok(Map.of(
+                "openTasks", tasks,
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+
+    /**
+     * Auslastung der Sachbearbeiter bei der automatischen Zuweisung
+     * Staff load of the automatic assignment
+     */
+    @GetMapping("/assignment/statistics")
+    public ResponseEntity<Map<String, Object>> getAssignmentStatistics() {
+        return ResponseEntity.ok(taskAssignmentService.getStatistics());
+    }
+
+    /**
+     * Stellt die Zuweisungszähler aus den offenen Aufgaben wieder her
+     * Rebuilds the assignment counters from the open tasks
+     */
+    @PostMapping("/assignment/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildAssignmentCounters() {
+        int tasks = taskAssignmentService.rebuild();
+        return ResponseEntity.ok(Map.of(
+                "trackedTasks", tasks,
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+
+    private ResponseEntity<?> bulkComplete(List<TaskCompletionRequestDTO> items, String taskDefinitionKey,
+                                           Integer parallelism, Integer chunkSize) {
+        try {
+            return ResponseEntity.ok(bulkTaskCompletionService.completeAll(items, taskDefinitionKey, parallelism, chunkSize));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of(
+                            "error", e.getMessage(),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        } catch (Exception e) {
+            System.err.println("Error in bulk task completion: " + e.getMessage());
+            return ResponseEntity.internalServerError()
+                    .body(Map.of(
+                            "error", "Bulk completion failed / Massenabschluss fehlgeschlagen",
+                            "message", String.valueOf(e.getMessage()),
+                            "timestamp", LocalDateTime.now()
+                    ));
+        }
+    }
+
     /**
      * Simuliert die Vervollständigung einer Dokumentenprüfung für Tests
      * Simulates completing a document verification for testing
@@ -250,6 +482,22 @@ public class UserTaskController {
      * Converts a Camunda Task to a Map (simplified version)
      */
     private Map<String, Object> convertTaskToMap(Task task) {
+
+        // Add process variables if available / Prozessvariablen hinzufügen falls verfügbar
+        Map<String, Object> variables;
+        try {
+            variables = taskService.getVariables(task.getId());
+        } catch (Exception e) {
+            variables = Map.of();
+        }
+        return convertTaskToMap(task, variables);
+    }
+
+    /**
+     * Konvertiert eine Camunda Task mit bereits geladenen Variablen zu einer Map
+     * Converts a Camunda Task with already loaded variables to a Map
+     */
+    private Map<String, Object> convertTaskToMap(Task task, Map<String, Object> variables) {
         Map<String, Object> taskMap = new HashMap<>();
         taskMap.put("id", task.getId());
         taskMap.put("name", task.getName());
@@ -260,14 +508,7 @@ public class UserTaskController {
         taskMap.put("processDefinitionId", task.getProcessDefinitionId());
         taskMap.put("taskDefinitionKey", task.getTaskDefinitionKey());
         taskMap.put("priority", task.getPriority());
-
-        // Add process variables if available / Prozessvariablen hinzufügen falls verfügbar
-        try {
-            Map<String, Object> variables = taskService.getVariables(task.getId());
-            taskMap.put("variables", variables);
-        } catch (Exception e) {
-            taskMap.put("variables", Map.of());
-        }
+        taskMap.put("variables", variables != null ? variables : Map.of());
 
         return taskMap;
     }
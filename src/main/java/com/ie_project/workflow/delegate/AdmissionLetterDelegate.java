@@ -2,6 +2,11 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.service.NotificationService;
+import com.ie_project.workflow.service.OptimisticRetryService;
+import com.ie_project.workflow.template.LetterTemplates;
+import com.ie_project.workflow.variable.NcRankingResult;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +14,8 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Camunda Delegate für das Versenden von Zulassungsbescheiden
@@ -28,6 +35,20 @@ public class AdmissionLetterDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private LetterTemplates letterTemplates;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -52,13 +73,18 @@ public class AdmissionLetterDelegate implements JavaDelegate {
             Application application = applicationRepository.findById(applicationId)
                     .orElseThrow(() -> new IllegalArgumentException("Application not found / Bewerbung nicht gefunden: " + applicationId));
 
-            // Update application status to ACCEPTED / Bewerbungsstatus auf ACCEPTED aktualisieren
-            application.setStatus(Application.ApplicationStatus.ACCEPTED);
-            applicationRepository.save(application);
-
             // Generate admission letter reference / Zulassungsbescheid-Referenz generieren
             String admissionReference = generateAdmissionReference(applicationId, studyProgramCode);
 
+            // Update application status to ACCEPTED and keep the reference for bank statement matching
+            // Bewerbungsstatus auf ACCEPTED aktualisieren und Referenz für den Kontoauszugsabgleich speichern
+            application = optimisticRetryService.updateApplication(applicationId, current -> {
+                current.setStatus(Application.ApplicationStatus.ACCEPTED);
+                current.setAdmissionReference(admissionReference);
+                current.setPaymentRequestedAt(LocalDateTime.now());
+                current.setPaymentReminderStage(null);
+            });
+
             // Calculate semester fee deadline / Semesterbeitrag-Deadline berechnen
             String paymentDeadline = calculatePaymentDeadline();
 
@@ -77,10 +103,12 @@ public class AdmissionLetterDelegate implements JavaDelegate {
                     admissionReason, additionalInfo, admissionReference, paymentDeadline
             );
 
-            execution.setVariable("officialAdmissionLetter", admissionLetter);
+            documentStoreService.storeAsVariable(execution, applicationId, "officialAdmissionLetter", admissionLetter);
 
-            // Simulate email sending / E-Mail-Versand simulieren
-            simulateEmailSending(application.getEmail(), admissionReference, "Zulassungsbescheid");
+            // Queue email, sent after this step committed / E-Mail einreihen, Versand nach dem Commit dieses Schritts
+            notificationService.queueEmail("ADMISSION_LETTER", application.getEmail(),
+                    "Zulassungsbescheid - Universität Riedtal (Ref: " + admissionReference + ")",
+                    admissionLetter, applicationId, execution.getProcessInstanceId());
 
             // Log admission letter / Zulassungsbescheid protokollieren
             System.out.println("=== ZULASSUNGSBESCHEID VERSENDET / ADMISSION LETTER SENT ===");
@@ -141,10 +169,10 @@ public class AdmissionLetterDelegate implements JavaDelegate {
                 details.append("Zulassungsfreier Studiengang / Open admission program");
                 break;
             case "NUMERUS_CLAUSUS":
-                String rank = getStringVariable(execution, "currentApplicationRank");
-                String grade = getStringVariable(execution, "currentApplicationGrade");
-                if (rank != null && grade != null) {
-                    details.append("NC-Rangplatz: ").append(rank).append(" | Note: ").append(grade);
+                Object rankingResult = execution.getVariable("ncRankingResult");
+                if (rankingResult instanceof NcRankingResult) {
+                    NcRankingResult ranking = (NcRankingResult) rankingResult;
+                    details.append("NC-Rangplatz: ").append(ranking.getRank()).append(" | Note: ").append(ranking.getGrade());
                 }
                 break;
             case "ENTRANCE_EXAM":
@@ -178,80 +206,30 @@ public class AdmissionLetterDelegate implements JavaDelegate {
      */
     private String calculatePaymentDeadline() {
         LocalDateTime deadline = LocalDateTime.now().plusWeeks(4);
-        return deadline.format(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
-    }
-
-    /**
-     * Simuliert E-Mail-Versand
-     * Simulates email sending
-     */
-    private void simulateEmailSending(String recipientEmail, String reference, String documentType) {
-        System.out.println("=== EMAIL SIMULATION / E-MAIL SIMULATION ===");
-        System.out.println(" TO / AN: " + recipientEmail);
-        System.out.println(" SUBJECT / BETREFF: " + documentType + " - Universität Riedtal (Ref: " + reference + ")");
-        System.out.println(" EMAIL SUCCESSFULLY SENT / E-MAIL ERFOLGREICH VERSENDET");
-        System.out.println("===========================================");
+        return deadline.format(DATE_FORMAT);
     }
 
     /**
-     * Erstellt den offiziellen Zulassungsbescheid
-     * Creates the official admission letter
+     * Erstellt den offiziellen Zulassungsbescheid aus der Vorlage admission-letter
+     * Creates the official admission letter from the admission-letter template
      */
     private String createOfficialAdmissionLetter(Application application, String studyProgramName, String studyProgramCode,
                                                  String admissionType, String admissionReason, String additionalInfo,
                                                  String admissionReference, String paymentDeadline) {
 
-        StringBuilder letter = new StringBuilder();
-
-        // Header / Kopfzeile
-        letter.append("=== OFFIZIELLER ZULASSUNGSBESCHEID ===\n");
-
-        // University header / Universitäts-Kopfzeile
-        letter.append(" UNIVERSITÄT RIEDTAL\n");
-        letter.append("Zulassungsstelle / Admissions Office\n");
-        letter.append(" E-Mail: zulassung@riedtal.de\n");
-        letter.append(" Telefon: +49 123 456-789\n");
-        letter.append(" Referenz / Reference: ").append(admissionReference).append("\n");
-        letter.append(" Datum / Date: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy"))).append("\n\n");
-
-        // Applicant information / Bewerber-Informationen
-        letter.append("=== BEWERBER DATEN / APPLICANT DATA ===\n");
-        letter.append(" Name: ").append(application.getFirstName()).append(" ").append(application.getLastName()).append("\n");
-        letter.append(" E-Mail: ").append(application.getEmail()).append("\n");
-        letter.append(" Bewerbungs-ID / Application ID: ").append(application.getId()).append("\n\n");
-
-        // Study program information / Studiengang-Informationen
-        letter.append("=== STUDIENGANG / STUDY PROGRAM ===\n");
-        letter.append(" Studiengang / Program: ").append(studyProgramName).append("\n");
-        letter.append(" Studiengang-Code / Program Code: ").append(studyProgramCode).append("\n");
-        letter.append(" Zulassungsart / Admission Type: ");
-
-        switch (admissionType) {
-            case "OPEN":
-                letter.append("Zulassungsfrei / Open Admission");
-                break;
-            case "NUMERUS_CLAUSUS":
-                letter.append("Numerus Clausus");
-                break;
-            case "ENTRANCE_EXAM":
-                letter.append("Aufnahmeprüfung / Entrance Exam");
-                break;
-            default:
-                letter.append(admissionType);
-        }
-        letter.append("\n");
-
-        if (!additionalInfo.isEmpty()) {
-            letter.append(" Details: ").append(additionalInfo).append("\n");
-        }
-        letter.append("\n");
-
-        // Admission decision / Zulassungsentscheidung
-        letter.append("=== ZULASSUNGSENTSCHEIDUNG / ADMISSION DECISION ===\n");
-        letter.append(" HERZLICHEN GLÜCKWUNSCH! / CONGRATULATIONS!\n\n");
-        letter.append(" Sie sind für den Studiengang ").append(studyProgramName).append(" zugelassen!\n");
-
-        return letter.toString();
+        Map<String, Object> model = new HashMap<>();
+        model.put("admissionReference", admissionReference);
+        model.put("date", LocalDateTime.now().format(DATE_FORMAT));
+        model.put("firstName", application.getFirstName());
+        model.put("lastName", application.getLastName());
+        model.put("email", application.getEmail());
+        model.put("applicationId", application.getId());
+        model.put("studyProgramName", studyProgramName);
+        model.put("studyProgramCode", studyProgramCode);
+        model.put("admissionType", admissionType);
+        model.put("additionalInfo", additionalInfo);
+
+        return letterTemplates.render("admission-letter", model);
     }
 
     /**
@@ -5,6 +5,7 @@ import com.ie_project.workflow.entity.Student;
 import com.ie_project.workflow.entity.StudyProgram;
 import com.ie_project.workflow.repository.ApplicationRepository;
 import com.ie_project.workflow.repository.StudentRepository;
+import com.ie_project.workflow.service.OptimisticRetryService;
 import com.ie_project.workflow.service.StudentEnrollmentService;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
@@ -34,6 +35,9 @@ public class CreateStudentRecordDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     @Autowired
     private StudentRepository studentRepository;
 
@@ -114,8 +118,8 @@ public class CreateStudentRecordDelegate implements JavaDelegate {
 
             // Update application status to ENROLLED
             // Bewerbungsstatus auf ENROLLED aktualisieren
-            application.setStatus(Application.ApplicationStatus.ENROLLED);
-            applicationRepository.save(application);
+            application = optimisticRetryService.updateApplication(applicationId,
+                    current -> current.setStatus(Application.ApplicationStatus.ENROLLED));
 
             // Set process variables for next steps / Prozessvariablen für nächste Schritte setzen
             execution.setVariable("studentRecordCreated", true);
@@ -189,8 +193,8 @@ public class CreateStudentRecordDelegate implements JavaDelegate {
         // Ensure application status is ENROLLED
         // Sicherstellen dass Bewerbungsstatus ENROLLED ist
         if (!Application.ApplicationStatus.ENROLLED.equals(application.getStatus())) {
-            application.setStatus(Application.ApplicationStatus.ENROLLED);
-            applicationRepository.save(application);
+            optimisticRetryService.updateApplication(application.getId(),
+                    current -> current.setStatus(Application.ApplicationStatus.ENROLLED));
         }
 
         System.out.println("Existing student record handled successfully");
@@ -3,6 +3,7 @@ package com.ie_project.workflow.delegate;
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
 import com.ie_project.workflow.service.ApplicationDeadlineService;
+import com.ie_project.workflow.service.OptimisticRetryService;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +27,9 @@ public class DeadlineCheckDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     @Autowired
     private ApplicationDeadlineService deadlineService;
 
@@ -45,13 +49,12 @@ public class DeadlineCheckDelegate implements JavaDelegate {
             Application application = applicationRepository.findById(applicationId)
                     .orElseThrow(() -> new IllegalArgumentException("Application not found / Bewerbung nicht gefunden: " + applicationId));
 
-            // Check if application was submitted on time
-            // Prüfen, ob Bewerbung rechtzeitig eingereicht wurde
-            boolean isOnTime = deadlineService.isApplicationOnTime(application.getCreatedAt());
-
-            // Get detailed deadline information / Detaillierte Deadline-Informationen holen
+            // Check against the intake rule of the study program
+            // Prüfung nach der Fristenregel des Studiengangs
+            String programCode = application.getStudyProgram() != null ? application.getStudyProgram().getCode() : null;
             ApplicationDeadlineService.DeadlineCheckResult deadlineResult =
-                    deadlineService.getDeadlineCheckResult(application.getCreatedAt());
+                    deadlineService.getDeadlineCheckResult(programCode, application.getCreatedAt());
+            boolean isOnTime = deadlineResult.isOnTime();
 
             // Create deadline message / Deadline-Nachricht erstellen
             String applicantName = application.getFirstName() + " " + application.getLastName();
@@ -68,8 +71,8 @@ public class DeadlineCheckDelegate implements JavaDelegate {
             // If application is late, update status in database
             // Wenn Bewerbung verspätet, Status in Datenbank aktualisieren
             if (!isOnTime) {
-                application.setStatus(Application.ApplicationStatus.REJECTED);
-                applicationRepository.save(application);
+                optimisticRetryService.updateApplication(applicationId,
+                        current -> current.setStatus(Application.ApplicationStatus.REJECTED));
 
                 execution.setVariable("rejectionReason", "DEADLINE_EXCEEDED");
                 execution.setVariable("currentStatus", "REJECTED");
@@ -2,6 +2,7 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.OptimisticRetryService;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +29,9 @@ public class DirectAdmissionDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -57,8 +61,8 @@ public class DirectAdmissionDelegate implements JavaDelegate {
             }
 
             // Update application status to ACCEPTED / Bewerbungsstatus auf ACCEPTED aktualisieren
-            application.setStatus(Application.ApplicationStatus.ACCEPTED);
-            applicationRepository.save(application);
+            application = optimisticRetryService.updateApplication(applicationId,
+                    current -> current.setStatus(Application.ApplicationStatus.ACCEPTED));
 
             // Set process variables for next steps / Prozessvariablen für nächste Schritte setzen
             execution.setVariable("directAdmissionCompleted", true);
@@ -2,6 +2,10 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.service.NotificationService;
+import com.ie_project.workflow.template.LetterTemplates;
+import com.ie_project.workflow.variable.ExamSchedule;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +13,10 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Camunda Delegate für das Versenden von Prüfungseinladungen
@@ -28,6 +36,15 @@ public class ExamInvitationDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private LetterTemplates letterTemplates;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -39,15 +56,16 @@ public class ExamInvitationDelegate implements JavaDelegate {
             Long applicationId = getApplicationId(execution);
             String studyProgramName = getStringVariable(execution, "studyProgramName");
             String studyProgramCode = getStringVariable(execution, "studyProgramCode");
-            String examDate = getStringVariable(execution, "examDate");
-            String examTime = getStringVariable(execution, "examTime");
-            String examDateTime = getStringVariable(execution, "examDateTime");
-            String examLocation = getStringVariable(execution, "examLocation");
-            String examRoom = getStringVariable(execution, "examRoom");
-            String examCommittee = getStringVariable(execution, "examCommittee");
-            String examDuration = getStringVariable(execution, "examDuration");
-            String maxExamScore = getStringVariable(execution, "maxExamScore");
-            String passingScore = getStringVariable(execution, "passingScore");
+            ExamSchedule examSchedule = getExamSchedule(execution);
+            String examDate = examSchedule.getExamDate();
+            String examTime = examSchedule.getExamTime();
+            String examDateTime = examSchedule.getExamDateTime();
+            String examLocation = examSchedule.getLocation();
+            String examRoom = examSchedule.getRoom();
+            String examCommittee = examSchedule.getCommittee();
+            String examDuration = String.valueOf(examSchedule.getDurationMinutes());
+            String maxExamScore = String.valueOf(examSchedule.getMaxScore());
+            String passingScore = String.valueOf(examSchedule.getPassingScore());
 
             System.out.println("Application ID: " + applicationId);
             System.out.println("Exam Date: " + examDateTime);
@@ -79,10 +97,12 @@ public class ExamInvitationDelegate implements JavaDelegate {
                     passingScore, invitationReference, qrCodeData
             );
 
-            execution.setVariable("officialExamInvitation", examInvitation);
+            documentStoreService.storeAsVariable(execution, applicationId, "officialExamInvitation", examInvitation);
 
-            // Simulate email sending / E-Mail-Versand simulieren
-            simulateEmailSending(application.getEmail(), invitationReference, examInvitation);
+            // Queue email, sent after this step committed / E-Mail einreihen, Versand nach dem Commit dieses Schritts
+            notificationService.queueEmail("EXAM_INVITATION", application.getEmail(),
+                    "Einladung zur Aufnahmeprüfung - Universität Riedtal (Ref: " + invitationReference + ")",
+                    examInvitation, applicationId, application.getCamundaProcessInstanceId());
 
             // Log exam invitation / Prüfungseinladung protokollieren
             System.out.println("=== PRÜFUNGSEINLADUNG VERSENDET / EXAM INVITATION SENT ===");
@@ -146,19 +166,6 @@ public class ExamInvitationDelegate implements JavaDelegate {
         }
     }
 
-    /**
-     * Simuliert E-Mail-Versand
-     * Simulates email sending
-     */
-    private void simulateEmailSending(String recipientEmail, String invitationReference, String invitation) {
-        System.out.println("=== EMAIL SIMULATION / E-MAIL SIMULATION ===");
-        System.out.println(" TO / AN: " + recipientEmail);
-        System.out.println(" SUBJECT / BETREFF: Einladung zur Aufnahmeprüfung - Universität Riedtal (Ref: " + invitationReference + ")");
-        System.out.println(" CONTENT LENGTH / INHALTSLÄNGE: " + invitation.length() + " Zeichen");
-        System.out.println(" EMAIL SUCCESSFULLY SENT / E-MAIL ERFOLGREICH VERSENDET");
-        System.out.println("===========================================");
-    }
-
     /**
      * Erstellt die offizielle Prüfungseinladung
      * Creates the official exam invitation
@@ -168,76 +175,31 @@ public class ExamInvitationDelegate implements JavaDelegate {
                                                 String examCommittee, String examDuration, String maxExamScore,
                                                 String passingScore, String invitationReference, String qrCodeData) {
 
-        StringBuilder invitation = new StringBuilder();
-
-        // Header / Kopfzeile
-        invitation.append("=== OFFIZIELLE EINLADUNG ZUR AUFNAHMEPRÜFUNG ===\n");
-
-
-        // University and reference / Universität und Referenz
-        invitation.append(" UNIVERSITÄT RIEDTAL\n");
-        invitation.append(" E-Mail: pruefungsamt@riedtal.de\n");
-        invitation.append(" Telefon: +49 123 456-789\n");
-        invitation.append(" Referenz / Reference: ").append(invitationReference).append("\n\n");
-
-        // Personal information / Persönliche Daten
-        invitation.append("=== BEWERBER DATEN / APPLICANT DATA ===\n");
-        invitation.append(" Name: ").append(application.getFirstName()).append(" ").append(application.getLastName()).append("\n");
-        invitation.append(" E-Mail: ").append(application.getEmail()).append("\n");
-        invitation.append(" Bewerbungs-ID / Application ID: ").append(application.getId()).append("\n");
-        invitation.append(" Studiengang / Study Program: ").append(studyProgramName).append(" (").append(studyProgramCode).append(")\n\n");
-
-        // Exam details / Prüfungsdetails
-        invitation.append("=== PRÜFUNGSDETAILS / EXAMINATION DETAILS ===\n");
-        invitation.append(" Datum / Date: ").append(examDate).append("\n");
-        invitation.append(" Uhrzeit / Time: ").append(examTime).append(" Uhr\n");
-        invitation.append(" Ort / Location: ").append(examLocation).append("\n");
-        invitation.append(" Raum / Room: ").append(examRoom).append("\n");
-        invitation.append(" Dauer / Duration: ").append(examDuration).append(" Minuten / minutes\n");
-        invitation.append(" Maximale Punktzahl / Maximum Score: ").append(maxExamScore).append(" Punkte / points\n");
-        invitation.append(" Bestehensgrenze / Passing Score: ").append(passingScore).append(" Punkte / points (").append(passingScore).append("%)\n\n");
-
-        // Examination committee / Prüfungskomitee
-        invitation.append("=== PRÜFUNGSKOMITEE / EXAMINATION COMMITTEE ===\n");
-        invitation.append(" Prüfer / Examiners:\n");
-        String[] examiners = examCommittee.split(", ");
-        for (String examiner : examiners) {
-            invitation.append("   • ").append(examiner.trim()).append("\n");
-        }
-        invitation.append("\n");
-
-
-
-        // Exam content information / Prüfungsinhalt-Informationen
-        invitation.append("=== PRÜFUNGSINHALT / EXAM CONTENT ===\n");
-        switch (studyProgramCode.toUpperCase()) {
-            case "MED":
-                invitation.append("• Naturwissenschaftliche Grundlagen / Scientific fundamentals\n");
-                invitation.append("• Logisches Denken / Logical reasoning\n");
-                invitation.append("• Medizinische Grundkenntnisse / Basic medical knowledge\n");
-                invitation.append("• Ethische Fragestellungen / Ethical questions\n");
-                break;
-            case "INF":
-                invitation.append("• Mathematische Grundlagen / Mathematical fundamentals\n");
-                invitation.append("• Logik und Algorithmik / Logic and algorithms\n");
-                invitation.append("• Grundlagen der Programmierung / Programming basics\n");
-                invitation.append("• Problemlösungsfähigkeiten / Problem-solving skills\n");
-                break;
-            default:
-                invitation.append("• Fachspezifische Grundlagen / Subject-specific fundamentals\n");
-                invitation.append("• Allgemeinwissen / General knowledge\n");
-                invitation.append("• Analytisches Denken / Analytical thinking\n");
-                invitation.append("• Kommunikationsfähigkeiten / Communication skills\n");
+        List<String> examiners = new ArrayList<>();
+        for (String examiner : examCommittee.split(", ")) {
+            examiners.add(examiner.trim());
         }
-        invitation.append("\n");
 
-
-
-
-
-
-
-        return invitation.toString();
+        Map<String, Object> model = new HashMap<>();
+        model.put("invitationReference", invitationReference);
+        model.put("firstName", application.getFirstName());
+        model.put("lastName", application.getLastName());
+        model.put("email", application.getEmail());
+        model.put("applicationId", application.getId());
+        model.put("studyProgramName", studyProgramName);
+        model.put("studyProgramCode", studyProgramCode);
+        // Exam content is chosen by the upper-case program code / Prüfungsinhalt nach Studiengang-Code in Großbuchstaben
+        model.put("examContentCode", studyProgramCode.toUpperCase());
+        model.put("examDate", examDate);
+        model.put("examTime", examTime);
+        model.put("examLocation", examLocation);
+        model.put("examRoom", examRoom);
+        model.put("examDuration", examDuration);
+        model.put("maxExamScore", maxExamScore);
+        model.put("passingScore", passingScore);
+        model.put("examiners", examiners);
+
+        return letterTemplates.render("exam-invitation", model);
     }
 
     /**
@@ -265,6 +227,16 @@ public class ExamInvitationDelegate implements JavaDelegate {
         }
     }
 
+    private ExamSchedule getExamSchedule(DelegateExecution execution) {
+        Object value = execution.getVariable("examSchedule");
+
+        if (!(value instanceof ExamSchedule)) {
+            throw new IllegalStateException("Exam schedule not found in process variables / Prüfungstermin nicht in Prozessvariablen gefunden");
+        }
+
+        return (ExamSchedule) value;
+    }
+
     private String getStringVariable(DelegateExecution execution, String variableName) {
         Object value = execution.getVariable(variableName);
         return value != null ? value.toString() : null;
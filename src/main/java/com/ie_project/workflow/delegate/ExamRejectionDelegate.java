@@ -2,6 +2,8 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.service.OptimisticRetryService;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +30,12 @@ public class ExamRejectionDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -59,8 +67,8 @@ public class ExamRejectionDelegate implements JavaDelegate {
                     .orElseThrow(() -> new IllegalArgumentException("Application not found / Bewerbung nicht gefunden: " + applicationId));
 
             // Update application status to REJECTED / Bewerbungsstatus auf REJECTED aktualisieren
-            application.setStatus(Application.ApplicationStatus.REJECTED);
-            applicationRepository.save(application);
+            application = optimisticRetryService.updateApplication(applicationId,
+                    current -> current.setStatus(Application.ApplicationStatus.REJECTED));
 
             // Set final process variables / Finale Prozessvariablen setzen
             execution.setVariable("examRejectionCompleted", true);
@@ -75,7 +83,7 @@ public class ExamRejectionDelegate implements JavaDelegate {
                     application, studyProgramName, studyProgramCode, examScore, maxScore, examDate, examiner
             );
 
-            execution.setVariable("examRejectionNotification", rejectionNotification);
+            documentStoreService.storeAsVariable(execution, applicationId, "examRejectionNotification", rejectionNotification);
 
             // Log exam rejection notification / Prüfungsablehnungs-Benachrichtigung protokollieren
             System.out.println("=== PRÜFUNGSABLEHNUNG / EXAM REJECTION ===");
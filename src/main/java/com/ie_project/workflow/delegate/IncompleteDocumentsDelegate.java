@@ -47,7 +47,7 @@ public class IncompleteDocumentsDelegate implements JavaDelegate {
                             "Anmerkungen: %s\n" +
                             "Geprüft von: %s\n" +
                             "Der Bewerber muss die fehlenden Dokumente nachreichen.\n" +
-                            "Prozess kehrt zur Deadline-Prüfung zurück.",
+                            "Prozess wartet auf die Nachreichung und kehrt dann zur Deadline-Prüfung zurück.",
                     applicationId, missingDocuments, verificationNotes, verifiedBy
             );
 
@@ -69,8 +69,8 @@ public class IncompleteDocumentsDelegate implements JavaDelegate {
             attempts = (attempts != null) ? attempts + 1 : 1;
             execution.setVariable("verificationAttempts", attempts);
 
-            System.out.println("=== RETURNING TO DEADLINE CHECK ===");
-            System.out.println("Process will return to welcome message and deadline check");
+            System.out.println("=== WAITING FOR DOCUMENT RESUBMISSION ===");
+            System.out.println("Process waits for POST /api/applications/" + applicationId + "/documents/resubmit");
             System.out.println("Verification attempt: " + attempts);
             System.out.println("====================================");
 
@@ -3,6 +3,9 @@ package com.ie_project.workflow.delegate;
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.entity.StudyProgram;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.variable.CompactValueSerializer;
+import com.ie_project.workflow.variable.NcRankingResult;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +35,9 @@ public class NCRankingDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -98,11 +104,13 @@ public class NCRankingDelegate implements JavaDelegate {
             }
 
             // Set process variables for NC selection / Prozessvariablen für NC-Auswahl setzen
+            // Rank, grade, total and seats are stored as one compact value instead of four variables
+            // Rang, Note, Gesamtzahl und Plätze werden als ein kompakter Wert statt vier Variablen gespeichert
+            NcRankingResult rankingResult = NcRankingResult.of(applicationId, studyProgramCode, currentApplicationRank,
+                    applicationsWithGrades.size(), maxStudents, currentApplicationGrade.doubleValue());
+
             execution.setVariable("ncRankingCompleted", true);
-            execution.setVariable("currentApplicationRank", currentApplicationRank);
-            execution.setVariable("currentApplicationGrade", currentApplicationGrade.doubleValue());
-            execution.setVariable("totalApplicationsWithGrades", applicationsWithGrades.size());
-            execution.setVariable("maxStudents", maxStudents);
+            execution.setVariable("ncRankingResult", CompactValueSerializer.objectValue(rankingResult));
             execution.setVariable("rankingCalculatedAt", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
             execution.setVariable("nextProcessStep", "NC_SELECTION");
 
@@ -112,7 +120,7 @@ public class NCRankingDelegate implements JavaDelegate {
                     studyProgramName, studyProgramCode
             );
 
-            execution.setVariable("ncRankingReport", rankingReport);
+            documentStoreService.storeAsVariable(execution, applicationId, "ncRankingReport", rankingReport);
 
             // Log ranking calculation / Ranking-Berechnung protokollieren
             System.out.println("=== NC RANKING CALCULATION COMPLETED ===");
@@ -2,6 +2,10 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.service.OptimisticRetryService;
+import com.ie_project.workflow.template.LetterTemplates;
+import com.ie_project.workflow.variable.NcRankingResult;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +13,8 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Camunda Delegate für die Behandlung von NC-Ablehnungen
@@ -28,6 +34,17 @@ public class NCRejectionDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private LetterTemplates letterTemplates;
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -41,8 +58,13 @@ public class NCRejectionDelegate implements JavaDelegate {
             String ncAdmissionReason = getStringVariable(execution, "ncAdmissionReason");
             Integer finalRank = getIntegerVariable(execution, "finalRank");
             Double finalGrade = getDoubleVariable(execution, "finalGrade");
-            Integer totalApplications = getIntegerVariable(execution, "totalApplicationsWithGrades");
+            Integer totalApplications = null;
             Integer maxStudents = getIntegerVariable(execution, "maxStudents");
+            NcRankingResult rankingResult = getRankingResult(execution);
+            if (rankingResult != null) {
+                totalApplications = rankingResult.getTotalApplications();
+                maxStudents = rankingResult.getMaxStudents();
+            }
             String studyProgramName = getStringVariable(execution, "studyProgramName");
             String studyProgramCode = getStringVariable(execution, "studyProgramCode");
 
@@ -60,8 +82,8 @@ public class NCRejectionDelegate implements JavaDelegate {
                     .orElseThrow(() -> new IllegalArgumentException("Application not found / Bewerbung nicht gefunden: " + applicationId));
 
             // Update application status to REJECTED / Bewerbungsstatus auf REJECTED aktualisieren
-            application.setStatus(Application.ApplicationStatus.REJECTED);
-            applicationRepository.save(application);
+            application = optimisticRetryService.updateApplication(applicationId,
+                    current -> current.setStatus(Application.ApplicationStatus.REJECTED));
 
             // Set final process variables / Finale Prozessvariablen setzen
             execution.setVariable("ncRejectionCompleted", true);
@@ -77,7 +99,7 @@ public class NCRejectionDelegate implements JavaDelegate {
                     totalApplications, maxStudents, ncAdmissionReason
             );
 
-            execution.setVariable("ncRejectionNotification", rejectionNotification);
+            documentStoreService.storeAsVariable(execution, applicationId, "ncRejectionNotification", rejectionNotification);
 
             // Log NC rejection notification / NC-Ablehnungsbenachrichtigung protokollieren
             System.out.println("=== NC ABLEHNUNGSBENACHRICHTIGUNG / NC REJECTION NOTIFICATION ===");
@@ -116,52 +138,22 @@ public class NCRejectionDelegate implements JavaDelegate {
                                                  Integer finalRank, Double finalGrade, Integer totalApplications,
                                                  Integer maxStudents, String rejectionReason) {
 
-        StringBuilder notification = new StringBuilder();
-
-        // Header / Kopfzeile
-        notification.append("=== BEWERBUNG ABGELEHNT - NC VERFAHREN / APPLICATION REJECTED - NC PROCESS ===\n\n");
-
-        // Personal information / Persönliche Daten
-        notification.append("Bewerber / Applicant: ").append(application.getFirstName())
-                .append(" ").append(application.getLastName()).append("\n");
-        notification.append("E-Mail: ").append(application.getEmail()).append("\n");
-        notification.append("Bewerbungs-ID / Application ID: ").append(application.getId()).append("\n");
-        notification.append("Studiengang / Study Program: ").append(studyProgramName)
-                .append(" (").append(studyProgramCode).append(")\n\n");
-
-        // Timing information / Zeitinformationen
-        notification.append("Eingereicht am / Submitted on: ")
-                .append(application.getCreatedAt().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"))).append("\n");
-        notification.append("Bearbeitet am / Processed on: ")
-                .append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"))).append("\n\n");
-
-        // NC process results / NC-Verfahren Ergebnisse
-        notification.append("=== ERGEBNISSE DES NC-VERFAHRENS / NC PROCESS RESULTS ===\n");
-        notification.append("Ihre Abiturnote / Your high school grade: ").append(String.format("%.1f", finalGrade)).append("\n");
-        notification.append("Ihr Rangplatz / Your rank: ").append(finalRank).append(" von / of ").append(totalApplications).append(" Bewerbungen\n");
-        notification.append("Verfügbare Studienplätze / Available seats: ").append(maxStudents).append("\n");
-        notification.append("Benötigter Rangplatz / Required rank: 1 - ").append(maxStudents).append("\n\n");
-
-        // Rejection reason / Ablehnungsgrund
-        notification.append("=== ABLEHNUNGSGRUND / REJECTION REASON ===\n");
-
-        switch (rejectionReason != null ? rejectionReason : "INSUFFICIENT_RANK") {
-            case "INSUFFICIENT_RANK":
-                notification.append(" Ihr Rangplatz reicht leider nicht für eine Zulassung aus.\n");
-                notification.append("Ihr Rangplatz ").append(finalRank).append(" liegt außerhalb der verfügbaren ")
-                        .append(maxStudents).append(" Studienplätze.\n");
-                notification.append("Your rank ").append(finalRank).append(" is outside the available ")
-                        .append(maxStudents).append(" study places.\n");
-                break;
-            default:
-                notification.append(" Ihre Bewerbung konnte im NC-Verfahren nicht berücksichtigt werden.\n");
-        }
-
-        notification.append("\n");
-
-
-
-        return notification.toString();
+        Map<String, Object> model = new HashMap<>();
+        model.put("firstName", application.getFirstName());
+        model.put("lastName", application.getLastName());
+        model.put("email", application.getEmail());
+        model.put("applicationId", application.getId());
+        model.put("studyProgramName", studyProgramName);
+        model.put("studyProgramCode", studyProgramCode);
+        model.put("submittedAt", application.getCreatedAt().format(DATE_TIME_FORMAT));
+        model.put("processedAt", LocalDateTime.now().format(DATE_TIME_FORMAT));
+        model.put("finalGrade", String.format("%.1f", finalGrade));
+        model.put("finalRank", finalRank);
+        model.put("totalApplications", totalApplications);
+        model.put("maxStudents", maxStudents);
+        model.put("rejectionReason", rejectionReason != null ? rejectionReason : "INSUFFICIENT_RANK");
+
+        return letterTemplates.render("nc-rejection", model);
     }
 
     /**
@@ -194,6 +186,11 @@ public class NCRejectionDelegate implements JavaDelegate {
         return value != null ? value.toString() : null;
     }
 
+    private NcRankingResult getRankingResult(DelegateExecution execution) {
+        Object value = execution.getVariable("ncRankingResult");
+        return value instanceof NcRankingResult ? (NcRankingResult) value : null;
+    }
+
     private Integer getIntegerVariable(DelegateExecution execution, String variableName) {
         Object value = execution.getVariable(variableName);
 
@@ -1,8 +1,11 @@
 package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.variable.NcRankingResult;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -30,6 +33,9 @@ public class NCSelectionDelegate implements JavaDelegate {
     @Value("${application.nc.gender-quota.minimum-per-gender:1}")
     private int minimumPerGender;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -39,10 +45,11 @@ public class NCSelectionDelegate implements JavaDelegate {
             // Get ranking information from previous step
             // Ranking-Informationen aus vorherigem Schritt holen
             Long applicationId = getApplicationId(execution);
-            Integer currentRank = getIntegerVariable(execution, "currentApplicationRank");
-            Double currentGrade = getDoubleVariable(execution, "currentApplicationGrade");
-            Integer totalApplications = getIntegerVariable(execution, "totalApplicationsWithGrades");
-            Integer maxStudents = getIntegerVariable(execution, "maxStudents");
+            NcRankingResult rankingResult = getRankingResult(execution);
+            Integer currentRank = rankingResult.getRank();
+            Double currentGrade = rankingResult.getGrade();
+            Integer totalApplications = rankingResult.getTotalApplications();
+            Integer maxStudents = rankingResult.getMaxStudents();
             String studyProgramName = getStringVariable(execution, "studyProgramName");
 
             // Get current application information
@@ -111,7 +118,7 @@ public class NCSelectionDelegate implements JavaDelegate {
                     isAdmitted, admissionReason, admittedByQuota
             );
 
-            execution.setVariable("ncSelectionReport", selectionReport);
+            documentStoreService.storeAsVariable(execution, applicationId, "ncSelectionReport", selectionReport);
 
             // Log selection decision / Auswahlentscheidung protokollieren
             System.out.println("=== NC SELECTION DECISION ===");
@@ -272,6 +279,16 @@ public class NCSelectionDelegate implements JavaDelegate {
         }
     }
 
+    private NcRankingResult getRankingResult(DelegateExecution execution) {
+        Object value = execution.getVariable("ncRankingResult");
+
+        if (!(value instanceof NcRankingResult)) {
+            throw new IllegalStateException("NC ranking result not found in process variables / NC-Rangergebnis nicht in Prozessvariablen gefunden");
+        }
+
+        return (NcRankingResult) value;
+    }
+
     private Integer getIntegerVariable(DelegateExecution execution, String variableName) {
         Object value = execution.getVariable(variableName);
 
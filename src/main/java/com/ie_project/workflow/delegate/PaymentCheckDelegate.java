@@ -2,6 +2,9 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.variable.CompactValueSerializer;
+import com.ie_project.workflow.variable.PaymentSnapshot;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +31,9 @@ public class PaymentCheckDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -59,11 +65,14 @@ public class PaymentCheckDelegate implements JavaDelegate {
             String paymentStatus = determinePaymentStatus(paymentReceived, deadlineExpired);
 
             // Set process variables for gateway decision / Prozessvariablen für Gateway-Entscheidung setzen
+            // paymentReceived stays a plain variable for the gateway, the details go into one compact value
+            // paymentReceived bleibt eine einfache Variable für das Gateway, die Details werden ein kompakter Wert
+            PaymentSnapshot paymentSnapshot = PaymentSnapshot.of(applicationId, admissionReference, paymentReceived,
+                    deadlineExpired, paymentStatus, paymentDeadline,
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+
             execution.setVariable("paymentReceived", paymentReceived);
-            execution.setVariable("paymentCheckCompleted", true);
-            execution.setVariable("paymentStatus", paymentStatus);
-            execution.setVariable("deadlineExpired", deadlineExpired);
-            execution.setVariable("paymentCheckDate", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+            execution.setVariable("paymentSnapshot", CompactValueSerializer.objectValue(paymentSnapshot));
 
             if (paymentReceived) {
                 execution.setVariable("nextProcessStep", "STUDENT_ENROLLMENT");
@@ -77,7 +86,7 @@ public class PaymentCheckDelegate implements JavaDelegate {
                     paymentDeadline, semesterFeeAmount, deadlineExpired, paymentStatus
             );
 
-            execution.setVariable("paymentCheckNotification", paymentCheckNotification);
+            documentStoreService.storeAsVariable(execution, applicationId, "paymentCheckNotification", paymentCheckNotification);
 
             // Log payment check result / Zahlungsprüfungs-Ergebnis protokollieren
             System.out.println("=== ZAHLUNGSPRÜFUNG / PAYMENT CHECK ===");
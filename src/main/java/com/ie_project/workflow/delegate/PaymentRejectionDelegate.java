@@ -2,6 +2,9 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.service.NotificationService;
+import com.ie_project.workflow.service.OptimisticRetryService;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,15 @@ public class PaymentRejectionDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private NotificationService notificationService;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -55,8 +67,8 @@ public class PaymentRejectionDelegate implements JavaDelegate {
 
             // Update application status to REJECTED due to payment failure
             // Bewerbungsstatus auf REJECTED wegen Zahlungsausfall aktualisieren
-            application.setStatus(Application.ApplicationStatus.REJECTED);
-            applicationRepository.save(application);
+            application = optimisticRetryService.updateApplication(applicationId,
+                    current -> current.setStatus(Application.ApplicationStatus.REJECTED));
 
             // Set final process variables / Finale Prozessvariablen setzen
             execution.setVariable("paymentRejectionCompleted", true);
@@ -74,10 +86,12 @@ public class PaymentRejectionDelegate implements JavaDelegate {
                     semesterFeeAmount, timeSinceReminder, finalDeadlineExpired
             );
 
-            execution.setVariable("paymentRejectionNotification", rejectionNotification);
+            documentStoreService.storeAsVariable(execution, applicationId, "paymentRejectionNotification", rejectionNotification);
 
-            // Simulate email sending / E-Mail-Versand simulieren
-            simulateRejectionEmailSending(application.getEmail(), admissionReference, "Zulassungsrücknahme");
+            // Queue email, sent after this step committed / E-Mail einreihen, Versand nach dem Commit dieses Schritts
+            notificationService.queueEmail("ADMISSION_REVOCATION", application.getEmail(),
+                    "Zulassungsrücknahme wegen Nichtzahlung - Universität Riedtal (Ref: " + admissionReference + ")",
+                    rejectionNotification, applicationId, execution.getProcessInstanceId());
 
             // Log payment rejection notification / Zahlungsablehnungs-Benachrichtigung protokollieren
             System.out.println("=== ZULASSUNG ZURÜCKGEZOGEN / ADMISSION REVOKED ===");
@@ -108,20 +122,6 @@ public class PaymentRejectionDelegate implements JavaDelegate {
         }
     }
 
-    /**
-     * Simuliert E-Mail-Versand für Zulassungsrücknahme
-     * Simulates email sending for admission revocation
-     */
-    private void simulateRejectionEmailSending(String recipientEmail, String reference, String documentType) {
-        System.out.println("=== REVOCATION EMAIL SIMULATION ===");
-        System.out.println(" TO / AN: " + recipientEmail);
-        System.out.println(" SUBJECT / BETREFF: " + documentType + " wegen Nichtzahlung - Universität Riedtal (Ref: " + reference + ")");
-        System.out.println(" PRIORITY / PRIORITÄT: HIGH");
-        System.out.println(" EMAIL TYPE / E-MAIL TYP: ADMISSION_REVOCATION");
-        System.out.println(" REVOCATION EMAIL SENT / RÜCKNAHME-E-MAIL VERSENDET");
-        System.out.println("===================================");
-    }
-
     /**
      * Erstellt die Zahlungsablehnungs- und Zulassungsrücknahme-Benachrichtigung
      * Creates the payment rejection and admission revocation notification
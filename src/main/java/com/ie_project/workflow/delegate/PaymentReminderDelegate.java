@@ -2,6 +2,9 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.NotificationService;
+import com.ie_project.workflow.template.LetterTemplates;
+import com.ie_project.workflow.variable.PaymentSnapshot;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,8 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Camunda Delegate für das Versenden von Zahlungserinnerungen
@@ -28,6 +33,12 @@ public class PaymentReminderDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private LetterTemplates letterTemplates;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -40,8 +51,9 @@ public class PaymentReminderDelegate implements JavaDelegate {
             String paymentDeadline = getStringVariable(execution, "paymentDeadline");
             String semesterFeeAmount = getStringVariable(execution, "semesterFeeAmount");
             String studyProgramName = getStringVariable(execution, "studyProgramName");
-            String paymentStatus = getStringVariable(execution, "paymentStatus");
-            Boolean deadlineExpired = getBooleanVariable(execution, "deadlineExpired");
+            PaymentSnapshot paymentSnapshot = getPaymentSnapshot(execution);
+            String paymentStatus = paymentSnapshot != null ? paymentSnapshot.getPaymentStatus() : null;
+            Boolean deadlineExpired = paymentSnapshot != null && paymentSnapshot.isDeadlineExpired();
 
             System.out.println("Application ID: " + applicationId);
             System.out.println("Payment Status: " + paymentStatus);
@@ -51,8 +63,14 @@ public class PaymentReminderDelegate implements JavaDelegate {
             Application application = applicationRepository.findById(applicationId)
                     .orElseThrow(() -> new IllegalArgumentException("Application not found / Bewerbung nicht gefunden: " + applicationId));
 
+            // The payment reminder sweeper already queued the email in its batch and passes the stage
+            // Der Zahlungserinnerungs-Sweeper hat die E-Mail bereits gebündelt eingereiht und übergibt die Stufe
+            boolean sentBySweeper = Boolean.TRUE.equals(getBooleanVariable(execution, "reminderSentBySweeper"));
+
             // Determine reminder type and urgency / Erinnerungstyp und Dringlichkeit bestimmen
-            String reminderType = determineReminderType(deadlineExpired, paymentStatus);
+            String reminderType = sentBySweeper && getStringVariable(execution, "reminderType") != null
+                    ? getStringVariable(execution, "reminderType")
+                    : determineReminderType(deadlineExpired, paymentStatus);
             String urgencyLevel = determineUrgencyLevel(deadlineExpired, paymentStatus);
 
             // Calculate days remaining or overdue / Verbleibende oder überfällige Tage berechnen
@@ -64,7 +82,7 @@ public class PaymentReminderDelegate implements JavaDelegate {
             execution.setVariable("urgencyLevel", urgencyLevel);
             execution.setVariable("daysInfo", daysInfo);
             execution.setVariable("reminderSentAt", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
-            execution.setVariable("nextProcessStep", "SECOND_PAYMENT_TIMER");
+            execution.setVariable("nextProcessStep", "WAIT_FOR_PAYMENT_OVERDUE");
 
             // Create payment reminder message / Zahlungserinnerungs-Nachricht erstellen
             String paymentReminder = createPaymentReminderMessage(
@@ -74,8 +92,12 @@ public class PaymentReminderDelegate implements JavaDelegate {
 
             execution.setVariable("paymentReminderMessage", paymentReminder);
 
-            // Simulate email sending / E-Mail-Versand simulieren
-            simulateReminderEmailSending(application.getEmail(), admissionReference, reminderType, urgencyLevel);
+            // Queue email, sent after this step committed / E-Mail einreihen, Versand nach dem Commit dieses Schritts
+            if (!sentBySweeper) {
+                notificationService.queueEmail("PAYMENT_REMINDER", application.getEmail(),
+                        reminderSubject(reminderType) + " (Ref: " + admissionReference + ")",
+                        paymentReminder, applicationId, execution.getProcessInstanceId());
+            }
 
             // Log payment reminder / Zahlungserinnerung protokollieren
             System.out.println("=== ZAHLUNGSERINNERUNG VERSENDET / PAYMENT REMINDER SENT ===");
@@ -95,7 +117,7 @@ public class PaymentReminderDelegate implements JavaDelegate {
             System.out.println("Urgency Level: " + urgencyLevel);
             System.out.println("Days Info: " + daysInfo);
             System.out.println("Email Sent To: " + application.getEmail());
-            System.out.println("Next Step: SECOND_PAYMENT_TIMER");
+            System.out.println("Next Step: WAIT_FOR_PAYMENT_OVERDUE");
             System.out.println("===============================================");
 
         } catch (Exception e) {
@@ -165,36 +187,18 @@ public class PaymentReminderDelegate implements JavaDelegate {
     }
 
     /**
-     * Simuliert E-Mail-Versand für Zahlungserinnerung
-     * Simulates email sending for payment reminder
+     * Betreff der Erinnerung je Typ
+     * Reminder subject per type
      */
-    private void simulateReminderEmailSending(String recipientEmail, String reference, String reminderType, String urgencyLevel) {
-        System.out.println("=== REMINDER EMAIL SIMULATION ===");
-        System.out.println(" TO / AN: " + recipientEmail);
-
-        String subject;
-        String priority;
-
+    private String reminderSubject(String reminderType) {
         switch (reminderType) {
             case "OVERDUE_NOTICE":
-                subject = "DRINGEND: Überfällige Zahlung - Semesterbeitrag";
-                priority = "HIGH";
-                break;
+                return "DRINGEND: Überfällige Zahlung - Semesterbeitrag";
             case "FRIENDLY_REMINDER":
-                subject = "Erinnerung: Semesterbeitrag - Universität Riedtal";
-                priority = "NORMAL";
-                break;
+                return "Erinnerung: Semesterbeitrag - Universität Riedtal";
             default:
-                subject = "Zahlungserinnerung - Universität Riedtal";
-                priority = "NORMAL";
+                return "Zahlungserinnerung - Universität Riedtal";
         }
-
-        System.out.println(" SUBJECT / BETREFF: " + subject + " (Ref: " + reference + ")");
-        System.out.println(" PRIORITY / PRIORITÄT: " + priority);
-        System.out.println(" REMINDER TYPE / ERINNERUNGSTYP: " + reminderType);
-        System.out.println(" URGENCY / DRINGLICHKEIT: " + urgencyLevel);
-        System.out.println(" REMINDER EMAIL SENT / ERINNERUNGS-E-MAIL VERSENDET");
-        System.out.println("=================================");
     }
 
     /**
@@ -205,59 +209,18 @@ public class PaymentReminderDelegate implements JavaDelegate {
                                                 String paymentDeadline, String semesterFeeAmount, String reminderType,
                                                 String urgencyLevel, String daysInfo, Boolean deadlineExpired) {
 
-        StringBuilder reminder = new StringBuilder();
-
-        // Header based on urgency / Kopfzeile basierend auf Dringlichkeit
-        if (Boolean.TRUE.equals(deadlineExpired)) {
-            reminder.append("=== DRINGENDE ZAHLUNGSERINNERUNG / URGENT PAYMENT REMINDER ===\n\n");
-            reminder.append("ACHTUNG: ZAHLUNGSFRIST ÜBERSCHRITTEN! \n");
-            reminder.append(" WARNING: PAYMENT DEADLINE EXCEEDED! \n\n");
-        } else {
-            reminder.append("=== ZAHLUNGSERINNERUNG / PAYMENT REMINDER ===\n\n");
-        }
-
-
-        reminder.append(" Referenz / Reference: ").append(admissionReference).append("\n\n");
-
-        // Student information / Studenten-Informationen
-        reminder.append("=== STUDENTEN DATEN / STUDENT DATA ===\n");
-        reminder.append(" Name: ").append(application.getFirstName()).append(" ").append(application.getLastName()).append("\n");
-        reminder.append(" E-Mail: ").append(application.getEmail()).append("\n");
-        reminder.append(" Studiengang / Study Program: ").append(studyProgramName).append("\n\n");
-
-        // Payment information / Zahlungsinformationen
-        reminder.append("=== ZAHLUNGSINFORMATIONEN / PAYMENT INFORMATION ===\n");
-        reminder.append(" Offener Betrag / Outstanding Amount: €").append(semesterFeeAmount).append("\n");
-        reminder.append(" Ursprüngliche Frist / Original Deadline: ").append(paymentDeadline).append("\n");
-        reminder.append(" Status: ").append(daysInfo).append("\n\n");
-
-        // Urgency-specific message / Dringlichkeits-spezifische Nachricht
-        if (Boolean.TRUE.equals(deadlineExpired)) {
-            reminder.append("=== DRINGENDE MASSNAHMEN ERFORDERLICH ===\n");
-            reminder.append(" Ihre Zulassung ist durch die verspätete Zahlung gefährdet!\n");
-            reminder.append("Bitte überweisen Sie den Betrag SOFORT, um Ihre Zulassung zu sichern.\n");
-        } else {
-            reminder.append("=== FREUNDLICHE ERINNERUNG / FRIENDLY REMINDER ===\n");
-            reminder.append(" Wir erinnern Sie daran, dass Ihr Semesterbeitrag noch aussteht.\n");
-            reminder.append("Bitte überweisen Sie den Betrag bis zum ").append(paymentDeadline).append(".\n");
-        }
-
-
-        // Next steps / Nächste Schritte
-        reminder.append("=== NÄCHSTE SCHRITTE / NEXT STEPS ===\n");
-        if (Boolean.TRUE.equals(deadlineExpired)) {
-            reminder.append("1.  SOFORTIGE Überweisung des Semesterbeitrags\n");
-            reminder.append("3. ️ Bei weiterer Verzögerung: Zulassung wird zurückgezogen\n");
-        } else {
-            reminder.append("1.  Überweisung bis ").append(paymentDeadline).append("\n");
-            reminder.append("2.  Automatische Bestätigung nach Zahlungseingang\n");
-        }
-
-
-
-
-
-        return reminder.toString();
+        Map<String, Object> model = new HashMap<>();
+        model.put("deadlineExpired", Boolean.TRUE.equals(deadlineExpired));
+        model.put("admissionReference", admissionReference);
+        model.put("firstName", application.getFirstName());
+        model.put("lastName", application.getLastName());
+        model.put("email", application.getEmail());
+        model.put("studyProgramName", studyProgramName);
+        model.put("semesterFeeAmount", semesterFeeAmount);
+        model.put("paymentDeadline", paymentDeadline);
+        model.put("daysInfo", daysInfo);
+
+        return letterTemplates.render("payment-reminder", model);
     }
 
     /**
@@ -285,6 +248,11 @@ public class PaymentReminderDelegate implements JavaDelegate {
         }
     }
 
+    private PaymentSnapshot getPaymentSnapshot(DelegateExecution execution) {
+        Object value = execution.getVariable("paymentSnapshot");
+        return value instanceof PaymentSnapshot ? (PaymentSnapshot) value : null;
+    }
+
     private String getStringVariable(DelegateExecution execution, String variableName) {
         Object value = execution.getVariable(variableName);
         return value != null ? value.toString() : null;
@@ -2,6 +2,8 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.service.OptimisticRetryService;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +31,12 @@ public class RejectionHandlerDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -60,8 +68,8 @@ public class RejectionHandlerDelegate implements JavaDelegate {
 
             // Ensure application status is REJECTED / Sicherstellen, dass Bewerbungsstatus REJECTED ist
             if (application.getStatus() != Application.ApplicationStatus.REJECTED) {
-                application.setStatus(Application.ApplicationStatus.REJECTED);
-                applicationRepository.save(application);
+                optimisticRetryService.updateApplication(application.getId(),
+                        current -> current.setStatus(Application.ApplicationStatus.REJECTED));
             }
 
             // Create detailed rejection message / Detaillierte Ablehnungsnachricht erstellen
@@ -71,7 +79,7 @@ public class RejectionHandlerDelegate implements JavaDelegate {
 
             // Set final process variables / Finale Prozessvariablen setzen
             execution.setVariable("rejectionNotificationSent", true);
-            execution.setVariable("rejectionNotification", rejectionNotification);
+            documentStoreService.storeAsVariable(execution, applicationId, "rejectionNotification", rejectionNotification);
             execution.setVariable("processCompleted", true);
             execution.setVariable("finalStatus", "REJECTED");
             execution.setVariable("processEndReason", "APPLICATION_REJECTED");
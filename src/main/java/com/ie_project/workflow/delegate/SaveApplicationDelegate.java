@@ -2,6 +2,7 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.service.OptimisticRetryService;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +20,9 @@ public class SaveApplicationDelegate implements JavaDelegate {
     @Autowired
     private ApplicationRepository applicationRepository;
 
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -36,8 +40,8 @@ public class SaveApplicationDelegate implements JavaDelegate {
                     .orElseThrow(() -> new IllegalArgumentException("Bewerbung nicht gefunden / Application not found: " + applicationId));
 
             // Update status / Status aktualisieren
-            application.setStatus(Application.ApplicationStatus.DOCUMENT_CHECK);
-            applicationRepository.save(application);
+            application = optimisticRetryService.updateApplication(applicationId,
+                    current -> current.setStatus(Application.ApplicationStatus.DOCUMENT_CHECK));
 
             // Log success / Erfolg protokollieren
             System.out.println("=== BEWERBUNG GESPEICHERT ===");
@@ -2,6 +2,8 @@ package com.ie_project.workflow.delegate;
 
 import com.ie_project.workflow.entity.Application;
 import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.variable.CompactValueSerializer;
+import com.ie_project.workflow.variable.ExamSchedule;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,18 +64,18 @@ public class ScheduleExamDelegate implements JavaDelegate {
             String examCommittee = generateExamCommittee(studyProgramName);
 
             // Set process variables for exam scheduling / Prozessvariablen für Prüfungsterminierung setzen
+            // examDate stays a plain variable for the exam result form, the details go into one compact value
+            // examDate bleibt eine einfache Variable für das Prüfungsformular, die Details werden ein kompakter Wert
+            ExamSchedule examSchedule = ExamSchedule.of(applicationId,
+                    examDate.format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")),
+                    examLocation, examRoom, examCommittee,
+                    120, // 2 hours standard
+                    100, 60,
+                    currentTime.format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+
             execution.setVariable("examSchedulingCompleted", true);
             execution.setVariable("examDate", examDate.format(DateTimeFormatter.ofPattern("dd.MM.yyyy")));
-            execution.setVariable("examTime", examDate.format(DateTimeFormatter.ofPattern("HH:mm")));
-            execution.setVariable("examDateTime", examDate.format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")));
-            execution.setVariable("examLocation", examLocation);
-            execution.setVariable("examRoom", examRoom);
-            execution.setVariable("examCommittee", examCommittee);
-            execution.setVariable("examType", "ENTRANCE_EXAM");
-            execution.setVariable("examDuration", "120"); // 2 hours standard
-            execution.setVariable("maxExamScore", 100);
-            execution.setVariable("passingScore", 60);
-            execution.setVariable("scheduledAt", currentTime.format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+            execution.setVariable("examSchedule", CompactValueSerializer.objectValue(examSchedule));
             execution.setVariable("nextProcessStep", "EXAM_INVITATION");
 
             // Create detailed exam scheduling notification / Detaillierte Prüfungsterminierung-Benachrichtigung erstellen
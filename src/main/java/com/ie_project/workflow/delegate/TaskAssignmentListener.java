@@ -0,0 +1,88 @@
+package com.ie_project.workflow.delegate;
+
+import com.ie_project.workflow.service.TaskAssignmentService;
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Camunda Task Listener für die automatische Zuweisung der Dokumentenprüfung
+ * Camunda task listener for the automatic assignment of document verification
+ *
+ * Declared on Task_DocumentVerification for the create, assignment, update, complete and
+ * delete events. On create the TaskAssignmentService picks the least-loaded eligible user and
+ * the task is assigned right away; the reservation is dropped again if the transaction rolls
+ * back. All other events only adjust the open-task counters, and only after the transaction
+ * committed, so a failed completion or reassignment leaves the counters untouched.
+ *
+ * Wird an Task_DocumentVerification deklariert. Beim Anlegen wird der am geringsten
+ * ausgelastete Sachbearbeiter zugewiesen; alle anderen Ereignisse passen die Zähler erst nach
+ * dem Commit an.
+ *
+ * @author IE Project Team
+ */
+@Component("taskAssignmentListener")
+public class TaskAssignmentListener implements TaskListener {
+
+    @Autowired
+    private TaskAssignmentService taskAssignmentService;
+
+    @Override
+    public void notify(DelegateTask delegateTask) {
+
+        if (!taskAssignmentService.manages(delegateTask.getTaskDefinitionKey())) {
+            return;
+        }
+
+        String taskId = delegateTask.getId();
+        switch (delegateTask.getEventName()) {
+            case TaskListener.EVENTNAME_CREATE:
+                assignOnCreate(delegateTask);
+                break;
+            case TaskListener.EVENTNAME_ASSIGNMENT:
+            case TaskListener.EVENTNAME_UPDATE:
+                String assignee = delegateTask.getAssignee();
+                TaskListenerSupport.afterCommit(() -> taskAssignmentService.assigneeChanged(taskId, assignee));
+                break;
+            case TaskListener.EVENTNAME_COMPLETE:
+            case TaskListener.EVENTNAME_DELETE:
+                TaskListenerSupport.afterCommit(() -> taskAssignmentService.taskClosed(taskId));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void assignOnCreate(DelegateTask delegateTask) {
+
+        if (delegateTask.getAssignee() != null) {
+            // Assigned by the model or a caller, only count it / Bereits zugewiesen, nur zählen
+            String taskId = delegateTask.getId();
+            String assignee = delegateTask.getAssignee();
+            TaskListenerSupport.afterCommit(() -> taskAssignmentService.assigneeChanged(taskId, assignee));
+            return;
+        }
+
+        Set<String> candidateGroups = TaskListenerSupport.candidateGroups(delegateTask);
+
+        String taskId = delegateTask.getId();
+        String assignee = taskAssignmentService.assign(taskId, candidateGroups);
+        if (assignee == null) {
+            System.out.println("All staff at capacity, task stays in the group queue / Alle Sachbearbeiter ausgelastet: " + taskId);
+            return;
+        }
+        delegateTask.setAssignee(assignee);
+
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext != null) {
+            commandContext.getTransactionContext().addTransactionListener(TransactionState.ROLLED_BACK,
+                    rolledBack -> taskAssignmentService.cancelReservation(taskId, assignee));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ie_project.workflow.delegate;
+
+import com.ie_project.workflow.service.TaskEventBroadcaster;
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Camunda Task Listener für den Live-Aufgabeneingang
+ * Camunda task listener for the live task inbox
+ *
+ * Registered on every user task by the TaskEventListenerPlugin for the create, assignment
+ * and complete events. The task data is captured inside the engine command, but only handed
+ * to the TaskEventBroadcaster once the transaction committed, so clients never see a task
+ * that was rolled back.
+ *
+ * Wird vom TaskEventListenerPlugin an jeder User Task registriert. Die Daten werden im
+ * Engine-Befehl erfasst, aber erst nach dem Commit an den Broadcaster übergeben.
+ *
+ * @author IE Project Team
+ */
+@Component("taskEventListener")
+public class TaskEventListener implements TaskListener {
+
+    @Autowired
+    private TaskEventBroadcaster taskEventBroadcaster;
+
+    @Override
+    public void notify(DelegateTask delegateTask) {
+
+        String type = eventType(delegateTask.getEventName());
+        if (type == null) {
+            return;
+        }
+
+        Set<String> candidateGroups = TaskListenerSupport.candidateGroups(delegateTask);
+
+        Map<String, Object> task = new LinkedHashMap<>();
+        task.put("id", delegateTask.getId());
+        task.put("name", delegateTask.getName());
+        task.put("taskDefinitionKey", delegateTask.getTaskDefinitionKey());
+        task.put("processInstanceId", delegateTask.getProcessInstanceId());
+        task.put("assignee", delegateTask.getAssignee());
+        task.put("created", delegateTask.getCreateTime());
+        task.put("priority", delegateTask.getPriority());
+        task.put("applicationId", delegateTask.getVariable("applicationId"));
+
+        TaskListenerSupport.afterCommit(() -> taskEventBroadcaster.publish(type, task, candidateGroups));
+    }
+
+    private static String eventType(String eventName) {
+        switch (eventName) {
+            case TaskListener.EVENTNAME_CREATE:
+                return "task-created";
+            case TaskListener.EVENTNAME_ASSIGNMENT:
+                return "task-assigned";
+            case TaskListener.EVENTNAME_COMPLETE:
+                return "task-completed";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ie_project.workflow.delegate;
+
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.task.IdentityLink;
+import org.camunda.bpm.engine.task.IdentityLinkType;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Gemeinsame Hilfsmethoden der Task Listener
+ * Shared helpers of the task listeners
+ *
+ * @author IE Project Team
+ */
+final class TaskListenerSupport {
+
+    private TaskListenerSupport() {
+    }
+
+    /**
+     * Führt die Aktion nach dem Commit aus, ohne Engine-Befehl sofort
+     * Runs the action once the transaction committed, right away outside an engine command
+     */
+    static void afterCommit(Runnable action) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null) {
+            action.run();
+            return;
+        }
+        commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, committed -> action.run());
+    }
+
+    /**
+     * Kandidatengruppen der Aufgabe in Deklarationsreihenfolge / Candidate groups of the task in declaration order
+     */
+    static Set<String> candidateGroups(DelegateTask delegateTask) {
+        Set<String> candidateGroups = new LinkedHashSet<>();
+        for (IdentityLink link : delegateTask.getCandidates()) {
+            if (IdentityLinkType.CANDIDATE.equals(link.getType()) && link.getGroupId() != null) {
+                candidateGroups.add(link.getGroupId());
+            }
+        }
+        return candidateGroups;
+    }
+}
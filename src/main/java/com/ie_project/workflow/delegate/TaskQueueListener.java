@@ -0,0 +1,57 @@
+package com.ie_project.workflow.delegate;
+
+import com.ie_project.workflow.service.TaskQueueAnalytics;
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Camunda Task Listener für die Warteschlangen-Analyse
+ * Camunda task listener for the work-queue analytics
+ *
+ * Registered on every user task by the TaskEventListenerPlugin. Hands create, assignment,
+ * update, complete and delete to the TaskQueueAnalytics after the transaction committed.
+ * The assignee is read at commit time of the create event, so an assignment made by another
+ * create listener is already included.
+ *
+ * Wird vom TaskEventListenerPlugin an jeder User Task registriert und meldet Anlage,
+ * Zuweisung, Abschluss und Löschung nach dem Commit an die Warteschlangen-Analyse.
+ *
+ * @author IE Project Team
+ */
+@Component("taskQueueListener")
+public class TaskQueueListener implements TaskListener {
+
+    @Autowired
+    private TaskQueueAnalytics taskQueueAnalytics;
+
+    @Override
+    public void notify(DelegateTask delegateTask) {
+
+        String taskId = delegateTask.getId();
+        switch (delegateTask.getEventName()) {
+            case TaskListener.EVENTNAME_CREATE:
+                Set<String> candidateGroups = TaskListenerSupport.candidateGroups(delegateTask);
+                String taskDefinitionKey = delegateTask.getTaskDefinitionKey();
+                long createdMillis = delegateTask.getCreateTime() != null
+                        ? delegateTask.getCreateTime().getTime() : System.currentTimeMillis();
+                TaskListenerSupport.afterCommit(() -> taskQueueAnalytics.taskCreated(taskId, taskDefinitionKey, candidateGroups,
+                        delegateTask.getAssignee(), createdMillis));
+                break;
+            case TaskListener.EVENTNAME_ASSIGNMENT:
+            case TaskListener.EVENTNAME_UPDATE:
+                String assignee = delegateTask.getAssignee();
+                TaskListenerSupport.afterCommit(() -> taskQueueAnalytics.assigneeChanged(taskId, assignee));
+                break;
+            case TaskListener.EVENTNAME_COMPLETE:
+            case TaskListener.EVENTNAME_DELETE:
+                TaskListenerSupport.afterCommit(() -> taskQueueAnalytics.taskClosed(taskId));
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.ie_project.workflow.entity.StudyProgram;
 import com.ie_project.workflow.repository.ApplicationRepository;
 import com.ie_project.workflow.repository.StudentRepository;
 import com.ie_project.workflow.service.NotificationService;
+import com.ie_project.workflow.service.DocumentStoreService;
+import com.ie_project.workflow.template.LetterTemplates;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +15,8 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Camunda Delegate für das Versenden des Willkommenspakets
@@ -40,6 +44,14 @@ public class WelcomePackageDelegate implements JavaDelegate {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private LetterTemplates letterTemplates;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
     @Override
     public void execute(DelegateExecution execution) throws Exception {
 
@@ -104,17 +116,15 @@ public class WelcomePackageDelegate implements JavaDelegate {
             execution.setVariable("processEndReason", "SUCCESSFUL_ENROLLMENT");
             execution.setVariable("enrollmentCompletedAt", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
 
-            // Create process completion summary / Prozessabschluss-Zusammenfassung erstellen
-            String processCompletionSummary = createProcessCompletionSummary(
-                    student, application, studyProgram, packageSent
-            );
-
-            execution.setVariable("processCompletionSummary", processCompletionSummary);
-            execution.setVariable("welcomePackageContent", welcomePackageContent);
+            // Render process completion summary straight into the document store
+            // Prozessabschluss-Zusammenfassung direkt in den Dokumentenspeicher rendern
+            String summaryDocumentId = documentStoreService.storeAsVariable(execution, applicationId, "processCompletionSummary",
+                    letterTemplates.get("process-completion-summary"), createProcessCompletionModel(student, studyProgram));
+            documentStoreService.storeAsVariable(execution, applicationId, "welcomePackageContent", welcomePackageContent);
 
             // Log welcome package delivery / Willkommenspaket-Versand protokollieren
             System.out.println("=== WILLKOMMENSPAKET VERSENDET / WELCOME PACKAGE SENT ===");
-            System.out.println(processCompletionSummary);
+            System.out.println("Process completion summary stored / Zusammenfassung gespeichert: " + summaryDocumentId);
             System.out.println("========================================================");
 
             // Log execution details / Ausführungsdetails protokollieren
@@ -150,90 +160,40 @@ public class WelcomePackageDelegate implements JavaDelegate {
     }
 
     /**
-     * Erstellt das umfassende Willkommenspaket für den neuen Studenten
-     * Creates the comprehensive welcome package for the new student
+     * Erstellt das umfassende Willkommenspaket aus der Vorlage welcome-package
+     * Creates the comprehensive welcome package from the welcome-package template
      */
     private String createWelcomePackage(Student student, Application application, StudyProgram studyProgram) {
 
-        StringBuilder welcomePackage = new StringBuilder();
-
-
-        // Personal welcome message / Persönliche Willkommensnachricht
-        welcomePackage.append("=== HERZLICH WILLKOMMEN! / WELCOME! ===\n\n");
-        welcomePackage.append("Liebe/r ").append(student.getFirstName()).append(",\n\n");
-        welcomePackage.append("herzlichen Glückwunsch! Sie haben erfolgreich Ihr Studium an der Universität Riedtal begonnen.\n");
-        welcomePackage.append("Wir freuen uns sehr, Sie als neuen Studenten in unserem ").append(studyProgram.getName()).append("-Programm begrüßen zu dürfen!\n\n");
-
-
-        // Student information summary / Studenteninformations-Zusammenfassung
-        welcomePackage.append("=== IHRE STUDENTENDATEN / YOUR STUDENT DATA ===\n");
-        welcomePackage.append(" Name / Name: ").append(student.getFullName()).append("\n");
-        welcomePackage.append(" Matrikelnummer / Student Number: ").append(student.getStudentNumber()).append("\n");
-        welcomePackage.append(" E-Mail: ").append(student.getEmail()).append("\n");
-        welcomePackage.append(" Studiengang / Study Program: ").append(studyProgram.getName()).append(" (").append(studyProgram.getCode()).append(")\n");
-        welcomePackage.append(" Immatrikulationsdatum / Enrollment Date: ").append(student.getEnrollmentDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy"))).append("\n");
-        welcomePackage.append(" Semester: ").append(student.getCurrentSemester()).append("\n");
-        welcomePackage.append(" Studienjahr / Academic Year: ").append(student.getAcademicYear()).append("\n\n");
-
-
-
-        // Important first steps / Wichtige erste Schritte
-        welcomePackage.append("   • Benutzername: ").append(student.getStudentNumber()).append("\n\n");
-
-
+        Map<String, Object> model = createStudentModel(student, studyProgram);
+        model.put("firstName", student.getFirstName());
+        model.put("enrollmentDate", student.getEnrollmentDate().format(DATE_FORMAT));
+        model.put("currentSemester", student.getCurrentSemester());
+        model.put("academicYear", student.getAcademicYear());
+        model.put("admissionType", studyProgram.getAdmissionType());
+        model.put("maxStudents", studyProgram.getMaxStudents());
 
-
-        // Study program specific information / Studiengangspezifische Informationen
-        welcomePackage.append("=== INFORMATIONEN ZU IHREM STUDIENGANG / STUDY PROGRAM INFORMATION ===\n");
-        welcomePackage.append(" Studiengang / Program: ").append(studyProgram.getName()).append("\n");
-        welcomePackage.append(" Programmcode / Program Code: ").append(studyProgram.getCode()).append("\n");
-        welcomePackage.append(" Zulassungsart / Admission Type: ");
-
-        switch (studyProgram.getAdmissionType()) {
-            case OPEN:
-                welcomePackage.append("Zulassungsfrei / Open Admission\n");
-                break;
-            case NUMERUS_CLAUSUS:
-                welcomePackage.append("Numerus Clausus\n");
-                break;
-            case ENTRANCE_EXAM:
-                welcomePackage.append("Aufnahmeprüfung / Entrance Exam\n");
-                break;
-        }
-
-        if (studyProgram.getMaxStudents() != null) {
-            welcomePackage.append(" Maximale Studierendenzahl / Max Students: ").append(studyProgram.getMaxStudents()).append("\n");
-        }
-
-
-        return welcomePackage.toString();
+        return letterTemplates.render("welcome-package", model);
     }
 
     /**
-     * Erstellt eine Zusammenfassung des abgeschlossenen Prozesses
-     * Creates a summary of the completed process
+     * Variablen für die Zusammenfassung des abgeschlossenen Prozesses
+     * Variables for the summary of the completed process
      */
-    private String createProcessCompletionSummary(Student student, Application application,
-                                                  StudyProgram studyProgram, boolean packageSent) {
-
-        StringBuilder summary = new StringBuilder();
-
-        summary.append("=== IMMATRIKULATIONSPROZESS ERFOLGREICH ABGESCHLOSSEN ===\n");
-        summary.append("=== ENROLLMENT PROCESS SUCCESSFULLY COMPLETED ===\n\n");
-
-        // Student summary / Studenten-Zusammenfassung
-        summary.append(" NEUER STUDENT / NEW STUDENT:\n");
-        summary.append("   Name: ").append(student.getFullName()).append("\n");
-        summary.append("   Matrikelnummer: ").append(student.getStudentNumber()).append("\n");
-        summary.append("   E-Mail: ").append(student.getEmail()).append("\n");
-        summary.append("   Studiengang: ").append(studyProgram.getName()).append(" (").append(studyProgram.getCode()).append(")\n");
-        summary.append("   Immatrikulation: ").append(student.getEnrollmentDate()).append("\n\n");
-
-
-
-
+    private Map<String, Object> createProcessCompletionModel(Student student, StudyProgram studyProgram) {
+        Map<String, Object> model = createStudentModel(student, studyProgram);
+        model.put("enrollmentDate", student.getEnrollmentDate());
+        return model;
+    }
 
-        return summary.toString();
+    private Map<String, Object> createStudentModel(Student student, StudyProgram studyProgram) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("fullName", student.getFullName());
+        model.put("studentNumber", student.getStudentNumber());
+        model.put("email", student.getEmail());
+        model.put("studyProgramName", studyProgram.getName());
+        model.put("studyProgramCode", studyProgram.getCode());
+        return model;
     }
 
     /**
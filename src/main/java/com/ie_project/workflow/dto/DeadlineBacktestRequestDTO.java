@@ -0,0 +1,49 @@
+package com.ie_project.workflow.dto;
+
+import java.util.List;
+
+/**
+ * Kandidatenkonfiguration für einen Fristen-Backtest
+ * Candidate configuration for a deadline backtest
+ *
+ * Fields left empty keep the active application.deadline.* values.
+ * Nicht gesetzte Felder übernehmen die aktive Konfiguration.
+ *
+ * @author IE Project Team
+ */
+public class DeadlineBacktestRequestDTO {
+
+    // Winter semester start, yyyy-MM-dd or MM-dd / Beginn Wintersemester
+    private String winter;
+
+    // Summer semester start, yyyy-MM-dd or MM-dd / Beginn Sommersemester
+    private String summer;
+
+    private Integer monthsBefore;
+
+    // Program rules CODE:MM-dd:MM-dd:months / Studiengangsregeln CODE:MM-dd:MM-dd:Monate
+    private List<String> programs;
+
+    // Constructors
+    public DeadlineBacktestRequestDTO() {}
+
+    public DeadlineBacktestRequestDTO(String winter, String summer, Integer monthsBefore, List<String> programs) {
+        this.winter = winter;
+        this.summer = summer;
+        this.monthsBefore = monthsBefore;
+        this.programs = programs;
+    }
+
+    // Getters and Setters
+    public String getWinter() { return winter; }
+    public void setWinter(String winter) { this.winter = winter; }
+
+    public String getSummer() { return summer; }
+    public void setSummer(String summer) { this.summer = summer; }
+
+    public Integer getMonthsBefore() { return monthsBefore; }
+    public void setMonthsBefore(Integer monthsBefore) { this.monthsBefore = monthsBefore; }
+
+    public List<String> getPrograms() { return programs; }
+    public void setPrograms(List<String> programs) { this.programs = programs; }
+}
@@ -0,0 +1,32 @@
+package com.ie_project.workflow.dto;
+
+import java.util.Map;
+
+/**
+ * Eintrag einer Massenabschluss-Anfrage für User Tasks
+ * Entry of a bulk completion request for user tasks
+ *
+ * @author IE Project Team
+ */
+public class TaskCompletionRequestDTO {
+
+    private String taskId;
+
+    // Variables passed to the completion / Variablen für den Abschluss
+    private Map<String, Object> variables;
+
+    // Constructors
+    public TaskCompletionRequestDTO() {}
+
+    public TaskCompletionRequestDTO(String taskId, Map<String, Object> variables) {
+        this.taskId = taskId;
+        this.variables = variables;
+    }
+
+    // Getters and Setters
+    public String getTaskId() { return taskId; }
+    public void setTaskId(String taskId) { this.taskId = taskId; }
+
+    public Map<String, Object> getVariables() { return variables; }
+    public void setVariables(Map<String, Object> variables) { this.variables = variables; }
+}
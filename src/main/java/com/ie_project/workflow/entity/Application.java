@@ -64,6 +64,18 @@ public class Application {
     @Column(name = "tuition_fee_paid", nullable = false)
     private boolean tuitionFeePaid = false;
 
+    // Reference from the admission letter, used as payment reference / Referenz aus dem Zulassungsbescheid, dient als Verwendungszweck
+    @Column(name = "admission_reference", unique = true, length = 50)
+    private String admissionReference;
+
+    // Start of the payment phase and last reminder stage sent by the sweeper
+    // Beginn der Zahlungsphase und letzte vom Sweeper versendete Erinnerungsstufe
+    @Column(name = "payment_requested_at")
+    private LocalDateTime paymentRequestedAt;
+
+    @Column(name = "payment_reminder_stage", length = 30)
+    private String paymentReminderStage;
+
     // Process Information / Prozessinformationen
     @Column(name = "camunda_process_instance_id")
     private String camundaProcessInstanceId;
@@ -75,6 +87,11 @@ public class Application {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic locking, incremented on every update / Optimistische Sperre, bei jeder Änderung erhöht
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Constructors
     public Application() {}
 
@@ -137,6 +154,15 @@ public class Application {
     public boolean isTuitionFeePaid() { return tuitionFeePaid; }
     public void setTuitionFeePaid(boolean tuitionFeePaid) { this.tuitionFeePaid = tuitionFeePaid; }
 
+    public String getAdmissionReference() { return admissionReference; }
+    public void setAdmissionReference(String admissionReference) { this.admissionReference = admissionReference; }
+
+    public LocalDateTime getPaymentRequestedAt() { return paymentRequestedAt; }
+    public void setPaymentRequestedAt(LocalDateTime paymentRequestedAt) { this.paymentRequestedAt = paymentRequestedAt; }
+
+    public String getPaymentReminderStage() { return paymentReminderStage; }
+    public void setPaymentReminderStage(String paymentReminderStage) { this.paymentReminderStage = paymentReminderStage; }
+
     public String getCamundaProcessInstanceId() { return camundaProcessInstanceId; }
     public void setCamundaProcessInstanceId(String camundaProcessInstanceId) {
         this.camundaProcessInstanceId = camundaProcessInstanceId;
@@ -148,6 +174,8 @@ public class Application {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public long getVersion() { return version; }
+
     // AJOUTÉ : Business methods
     public String getFullName() {
         return firstName + " " + lastName;
@@ -0,0 +1,102 @@
+package com.ie_project.workflow.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Eintrag im Zustellungsprotokoll der Benachrichtigungen
+ * Entry in the notification delivery ledger
+ *
+ * One row per send attempt, appended by the NotificationDispatcher in JDBC batches together
+ * with the outbox status update. Rows are never updated, so the table only grows at the end
+ * of its primary key and stays cheap to write under load.
+ *
+ * Eine Zeile pro Zustellversuch, vom NotificationDispatcher gebündelt angehängt. Zeilen werden
+ * nie geändert.
+ *
+ * @author IE Project Team
+ */
+@Entity
+@Table(name = "notification_delivery_ledger", indexes = {
+        @Index(name = "idx_notification_ledger_outbox", columnList = "outbox_id"),
+        @Index(name = "idx_notification_ledger_attempted", columnList = "attempted_at")
+})
+public class NotificationDeliveryRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "outbox_id", nullable = false)
+    private Long outboxId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false, length = 10)
+    private OutboxNotification.Channel channel;
+
+    @Column(name = "notification_type", nullable = false, length = 50)
+    private String notificationType;
+
+    // Attempt number, starting at 1 / Nummer des Versuchs, beginnend bei 1
+    @Column(name = "attempt", nullable = false)
+    private int attempt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "outcome", nullable = false, length = 10)
+    private Outcome outcome;
+
+    // Gateway round trip / Dauer des Gateway-Aufrufs
+    @Column(name = "latency_millis", nullable = false)
+    private long latencyMillis;
+
+    // Time from queueing to this attempt / Zeit vom Einreihen bis zu diesem Versuch
+    @Column(name = "queue_millis", nullable = false)
+    private long queueMillis;
+
+    @Column(name = "error", length = 500)
+    private String error;
+
+    @Column(name = "attempted_at", nullable = false)
+    private LocalDateTime attemptedAt;
+
+    // Enums
+    public enum Outcome {
+        SENT,   // Delivered / Zugestellt
+        RETRY,  // Failed, retried later / Fehlgeschlagen, wird wiederholt
+        DEAD    // Failed, retries exhausted / Fehlgeschlagen, Wiederholungen erschöpft
+    }
+
+    // Constructors
+    public NotificationDeliveryRecord() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getOutboxId() { return outboxId; }
+    public void setOutboxId(Long outboxId) { this.outboxId = outboxId; }
+
+    public OutboxNotification.Channel getChannel() { return channel; }
+    public void setChannel(OutboxNotification.Channel channel) { this.channel = channel; }
+
+    public String getNotificationType() { return notificationType; }
+    public void setNotificationType(String notificationType) { this.notificationType = notificationType; }
+
+    public int getAttempt() { return attempt; }
+    public void setAttempt(int attempt) { this.attempt = attempt; }
+
+    public Outcome getOutcome() { return outcome; }
+    public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+
+    public long getLatencyMillis() { return latencyMillis; }
+    public void setLatencyMillis(long latencyMillis) { this.latencyMillis = latencyMillis; }
+
+    public long getQueueMillis() { return queueMillis; }
+    public void setQueueMillis(long queueMillis) { this.queueMillis = queueMillis; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public LocalDateTime getAttemptedAt() { return attemptedAt; }
+    public void setAttemptedAt(LocalDateTime attemptedAt) { this.attemptedAt = attemptedAt; }
+}
@@ -0,0 +1,148 @@
+package com.ie_project.workflow.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity für ausgehende Benachrichtigungen (Transactional Outbox)
+ * Entity for outgoing notifications (transactional outbox)
+ *
+ * Delegates write notifications here within the engine transaction instead of sending them.
+ * The NotificationDispatcher delivers them afterwards on its own worker threads, so a
+ * notification is only sent if the process step committed, and the process step never
+ * waits for the mail or SMS gateway.
+ *
+ * Delegates schreiben Benachrichtigungen innerhalb der Engine-Transaktion hierher, statt sie
+ * zu versenden. Der NotificationDispatcher stellt sie danach auf eigenen Threads zu.
+ *
+ * @author IE Project Team
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_notification_outbox_application", columnList = "application_id")
+})
+public class OutboxNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false, length = 10)
+    private Channel channel;
+
+    // Notification type, e.g. "WELCOME_PACKAGE" / Benachrichtigungstyp, z.B. "WELCOME_PACKAGE"
+    @Column(name = "notification_type", nullable = false, length = 50)
+    private String notificationType;
+
+    // Email address or phone number / E-Mail-Adresse oder Telefonnummer
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject")
+    private String subject;
+
+    @Lob
+    @Column(name = "content", nullable = false)
+    private String content;
+
+    // Owner / Zugehörigkeit
+    @Column(name = "application_id")
+    private Long applicationId;
+
+    @Column(name = "process_instance_id", length = 64)
+    private String processInstanceId;
+
+    // Delivery state / Zustellungsstatus
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    // Enums
+    public enum Channel {
+        EMAIL, SMS
+    }
+
+    public enum Status {
+        PENDING,  // Waiting for (re)delivery / Wartet auf (erneute) Zustellung
+        SENDING,  // Claimed by a worker / Von einem Worker übernommen
+        SENT,     // Delivered / Zugestellt
+        DEAD      // Retries exhausted (dead letter) / Wiederholungen erschöpft
+    }
+
+    // Constructors
+    public OutboxNotification() {}
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Channel getChannel() { return channel; }
+    public void setChannel(Channel channel) { this.channel = channel; }
+
+    public String getNotificationType() { return notificationType; }
+    public void setNotificationType(String notificationType) { this.notificationType = notificationType; }
+
+    public String getRecipient() { return recipient; }
+    public void setRecipient(String recipient) { this.recipient = recipient; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    public Long getApplicationId() { return applicationId; }
+    public void setApplicationId(Long applicationId) { this.applicationId = applicationId; }
+
+    public String getProcessInstanceId() { return processInstanceId; }
+    public void setProcessInstanceId(String processInstanceId) { this.processInstanceId = processInstanceId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(LocalDateTime claimedAt) { this.claimedAt = claimedAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
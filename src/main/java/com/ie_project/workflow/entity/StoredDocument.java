@@ -0,0 +1,106 @@
+package com.ie_project.workflow.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity für ausgelagerte, komprimierte Dokumente (Bescheide, Berichte, Willkommenspakete)
+ * Entity for offloaded, compressed documents (letters, reports, welcome packages)
+ *
+ * Large rendered texts are stored here once (GZIP-compressed) instead of as
+ * Camunda process variables. The process only keeps the content id.
+ *
+ * Große gerenderte Texte werden hier einmalig (GZIP-komprimiert) gespeichert statt
+ * als Camunda-Prozessvariablen. Der Prozess hält nur noch die Content-ID.
+ *
+ * @author IE Project Team
+ */
+@Entity
+@Table(name = "stored_documents", indexes = {
+        @Index(name = "idx_stored_documents_application", columnList = "application_id"),
+        @Index(name = "idx_stored_documents_process_instance", columnList = "process_instance_id")
+})
+public class StoredDocument {
+
+    @Id
+    @Column(name = "content_id", length = 36)
+    private String contentId;
+
+    // Owner / Zugehörigkeit
+    @Column(name = "application_id")
+    private Long applicationId;
+
+    @Column(name = "process_instance_id", length = 64)
+    private String processInstanceId;
+
+    // Document type, e.g. "officialAdmissionLetter" / Dokumenttyp, z.B. "officialAdmissionLetter"
+    @Column(name = "document_type", nullable = false, length = 100)
+    private String documentType;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType = "text/plain;charset=UTF-8";
+
+    // Sizes in bytes / Größen in Bytes
+    @Column(name = "original_size", nullable = false)
+    private int originalSize;
+
+    @Column(name = "compressed_size", nullable = false)
+    private int compressedSize;
+
+    // GZIP-compressed UTF-8 content / GZIP-komprimierter UTF-8-Inhalt
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "content", nullable = false)
+    private byte[] content;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public StoredDocument() {}
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getContentId() { return contentId; }
+    public void setContentId(String contentId) { this.contentId = contentId; }
+
+    public Long getApplicationId() { return applicationId; }
+    public void setApplicationId(Long applicationId) { this.applicationId = applicationId; }
+
+    public String getProcessInstanceId() { return processInstanceId; }
+    public void setProcessInstanceId(String processInstanceId) { this.processInstanceId = processInstanceId; }
+
+    public String getDocumentType() { return documentType; }
+    public void setDocumentType(String documentType) { this.documentType = documentType; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public int getOriginalSize() { return originalSize; }
+    public void setOriginalSize(int originalSize) { this.originalSize = originalSize; }
+
+    public int getCompressedSize() { return compressedSize; }
+    public void setCompressedSize(int compressedSize) { this.compressedSize = compressedSize; }
+
+    public byte[] getContent() { return content; }
+    public void setContent(byte[] content) { this.content = content; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    @Override
+    public String toString() {
+        return "StoredDocument{" +
+                "contentId='" + contentId + '\'' +
+                ", applicationId=" + applicationId +
+                ", documentType='" + documentType + '\'' +
+                ", originalSize=" + originalSize +
+                ", compressedSize=" + compressedSize +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
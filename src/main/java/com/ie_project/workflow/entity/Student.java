@@ -86,6 +86,12 @@ public class Student {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // ===== OPTIMISTIC LOCKING / OPTIMISTISCHE SPERRE =====
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // ===== CONSTRUCTORS / KONSTRUKTOREN =====
 
     /**
@@ -224,6 +230,10 @@ public class Student {
         this.updatedAt = updatedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     // ===== BUSINESS METHODS / GESCHÄFTSMETHODEN =====
 
     /**
@@ -28,6 +28,17 @@ public class StudyProgram {
     @Column(name = "max_students")
     private Integer maxStudents;
 
+    // Intake rule for the deadline calendar (MM-dd), null uses the global configuration
+    // Fristenregel für den Fristenkalender (MM-dd), null verwendet die globale Konfiguration
+    @Column(name = "winter_semester_start", length = 5)
+    private String winterSemesterStart;
+
+    @Column(name = "summer_semester_start", length = 5)
+    private String summerSemesterStart;
+
+    @Column(name = "deadline_months_before")
+    private Integer deadlineMonthsBefore;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -61,6 +72,15 @@ public class StudyProgram {
     public Integer getMaxStudents() { return maxStudents; }
     public void setMaxStudents(Integer maxStudents) { this.maxStudents = maxStudents; }
 
+    public String getWinterSemesterStart() { return winterSemesterStart; }
+    public void setWinterSemesterStart(String winterSemesterStart) { this.winterSemesterStart = winterSemesterStart; }
+
+    public String getSummerSemesterStart() { return summerSemesterStart; }
+    public void setSummerSemesterStart(String summerSemesterStart) { this.summerSemesterStart = summerSemesterStart; }
+
+    public Integer getDeadlineMonthsBefore() { return deadlineMonthsBefore; }
+    public void setDeadlineMonthsBefore(Integer deadlineMonthsBefore) { this.deadlineMonthsBefore = deadlineMonthsBefore; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
@@ -1,7 +1,10 @@
 package com.ie_project.workflow.repository;
 
 import com.ie_project.workflow.entity.Application;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,6 +23,7 @@ import java.util.Optional;
  * - Geschlechterquoten-Berechnungen
  * - Status- und Deadline-Management
  * - Zahlungsstatus-Verfolgung
+ * - Blockweise Massenaktualisierung von Zahlungen
  *
  * @author IE Project Team
  */
@@ -145,6 +149,38 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     @Query("SELECT a FROM Application a WHERE a.status = 'ACCEPTED' AND a.tuitionFeePaid = false AND a.updatedAt < :deadline")
     List<Application> findOverduePayments(@Param("deadline") LocalDateTime deadline);
 
+    /**
+     * Seitenweise überfällige Zahlungen für den Erinnerungs-Sweeper (Keyset-Paginierung über die ID)
+     * Overdue payments page by page for the reminder sweeper (keyset pagination over the ID)
+     *
+     * Uses the start of the payment phase, falling back to updatedAt for older rows
+     * Verwendet den Beginn der Zahlungsphase, für ältere Zeilen updatedAt
+     */
+    @Query("SELECT a FROM Application a JOIN FETCH a.studyProgram WHERE a.status = 'ACCEPTED' AND a.tuitionFeePaid = false AND COALESCE(a.paymentRequestedAt, a.updatedAt) < :deadline AND a.id > :afterId ORDER BY a.id ASC")
+    List<Application> findOverduePayments(@Param("deadline") LocalDateTime deadline, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Seitenweise bezahlte, noch nicht eingeschriebene Bewerbungen für den Abgleich des Sweepers
+     * Paid applications not yet enrolled, page by page, for the sweeper's reconciliation
+     */
+    @Query("SELECT a FROM Application a WHERE a.status = 'ACCEPTED' AND a.tuitionFeePaid = true AND a.updatedAt < :paidBefore AND a.id > :afterId ORDER BY a.id ASC")
+    List<Application> findPaidAwaitingEnrollment(@Param("paidBefore") LocalDateTime paidBefore, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Zählt offene Zahlungen nach Erinnerungsstufe
+     * Counts pending payments by reminder stage
+     */
+    @Query("SELECT a.paymentReminderStage, COUNT(a) FROM Application a WHERE a.status = 'ACCEPTED' AND a.tuitionFeePaid = false GROUP BY a.paymentReminderStage")
+    List<Object[]> countPendingPaymentsByReminderStage();
+
+    /**
+     * Setzt die Erinnerungsstufe für mehrere Bewerbungen
+     * Sets the reminder stage for several applications
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Application a SET a.paymentReminderStage = :stage, a.version = a.version + 1 WHERE a.id IN :ids")
+    int updatePaymentReminderStage(@Param("ids") List<Long> ids, @Param("stage") String stage);
+
     /**
      * Zählt Bewerbungen mit erfolgten Zahlungen für einen Studiengang
      * Counts applications with completed payments for a study program
@@ -152,6 +188,52 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     @Query("SELECT COUNT(a) FROM Application a WHERE a.studyProgram.id = :studyProgramId AND a.tuitionFeePaid = true")
     Long countPaidApplicationsForStudyProgram(@Param("studyProgramId") Long studyProgramId);
 
+    // ===== BULK PAYMENT QUERIES / MASSENZAHLUNGS ABFRAGEN =====
+
+    /**
+     * Nächster Block von Bewerbungen, deren Zahlungsstatus sich ändern würde (Keyset-Paginierung über die ID)
+     * Next chunk of applications whose payment status would change (keyset pagination over the ID)
+     *
+     * Liefert [id, camundaProcessInstanceId] / Returns [id, camundaProcessInstanceId]
+     */
+    @Query("SELECT a.id, a.camundaProcessInstanceId FROM Application a WHERE a.status = :status AND a.tuitionFeePaid <> :paid AND a.id > :afterId AND (:studyProgramId IS NULL OR a.studyProgram.id = :studyProgramId) ORDER BY a.id ASC")
+    List<Object[]> findPaymentUpdateChunk(@Param("status") Application.ApplicationStatus status, @Param("paid") boolean paid, @Param("afterId") Long afterId, @Param("studyProgramId") Long studyProgramId, Pageable pageable);
+
+    /**
+     * Bewerbungen aus einer ID-Liste, deren Zahlungsstatus sich ändern würde
+     * Applications from an ID list whose payment status would change
+     *
+     * Liefert [id, camundaProcessInstanceId] / Returns [id, camundaProcessInstanceId]
+     */
+    @Query("SELECT a.id, a.camundaProcessInstanceId FROM Application a WHERE a.id IN :ids AND a.status = :status AND a.tuitionFeePaid <> :paid AND (:studyProgramId IS NULL OR a.studyProgram.id = :studyProgramId) ORDER BY a.id ASC")
+    List<Object[]> findPaymentUpdateCandidatesByIds(@Param("ids") List<Long> ids, @Param("status") Application.ApplicationStatus status, @Param("paid") boolean paid, @Param("studyProgramId") Long studyProgramId);
+
+    /**
+     * Setzt den Zahlungsstatus für mehrere Bewerbungen in einem UPDATE
+     * Sets the payment status for several applications in a single UPDATE
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Application a SET a.tuitionFeePaid = :paid, a.updatedAt = :updatedAt, a.version = a.version + 1 WHERE a.id IN :ids AND a.tuitionFeePaid <> :paid")
+    int updateTuitionFeePaid(@Param("ids") List<Long> ids, @Param("paid") boolean paid, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Seitenweise Zahlungsübersicht, optional gefiltert nach Studiengang und Zahlungsstatus
+     * Paginated payment overview, optionally filtered by study program and payment status
+     */
+    @Query(value = "SELECT a FROM Application a JOIN FETCH a.studyProgram sp WHERE a.status = :status AND (:studyProgramId IS NULL OR sp.id = :studyProgramId) AND (:paid IS NULL OR a.tuitionFeePaid = :paid)",
+            countQuery = "SELECT COUNT(a) FROM Application a WHERE a.status = :status AND (:studyProgramId IS NULL OR a.studyProgram.id = :studyProgramId) AND (:paid IS NULL OR a.tuitionFeePaid = :paid)")
+    Page<Application> findPaymentOverview(@Param("status") Application.ApplicationStatus status, @Param("studyProgramId") Long studyProgramId, @Param("paid") Boolean paid, Pageable pageable);
+
+    /**
+     * Zeilen für den Referenzindex des Kontoauszugsimports
+     * Rows for the reference index of the bank statement import
+     *
+     * Liefert [id, admissionReference, studyProgramCode, camundaProcessInstanceId, tuitionFeePaid]
+     * Returns [id, admissionReference, studyProgramCode, camundaProcessInstanceId, tuitionFeePaid]
+     */
+    @Query("SELECT a.id, a.admissionReference, sp.code, a.camundaProcessInstanceId, a.tuitionFeePaid FROM Application a JOIN a.studyProgram sp WHERE a.status = :status")
+    List<Object[]> findPaymentReferenceIndexRows(@Param("status") Application.ApplicationStatus status);
+
     // ===== DEADLINE AND TIMING QUERIES / DEADLINE UND TIMING ABFRAGEN =====
 
     /**
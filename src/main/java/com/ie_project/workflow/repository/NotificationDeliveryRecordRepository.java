@@ -0,0 +1,45 @@
+package com.ie_project.workflow.repository;
+
+import com.ie_project.workflow.entity.NotificationDeliveryRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository für das Zustellungsprotokoll
+ * Repository for the delivery ledger
+ *
+ * Rows are inserted by the NotificationDispatcher via JDBC batches, this repository only reads
+ * Zeilen werden vom NotificationDispatcher per JDBC-Batch eingefügt, hier wird nur gelesen
+ *
+ * @author IE Project Team
+ */
+@Repository
+public interface NotificationDeliveryRecordRepository extends JpaRepository<NotificationDeliveryRecord, Long> {
+
+    /**
+     * Zusammenfassung je Kanal, Typ und Ergebnis seit einem Zeitpunkt
+     * Summary per channel, type and outcome since a point in time
+     *
+     * Row layout: channel, notificationType, outcome, count, average latency, max latency
+     */
+    @Query("SELECT r.channel, r.notificationType, r.outcome, COUNT(r), AVG(r.latencyMillis), MAX(r.latencyMillis) " +
+           "FROM NotificationDeliveryRecord r WHERE r.attemptedAt >= :since " +
+           "GROUP BY r.channel, r.notificationType, r.outcome ORDER BY r.channel, r.notificationType, r.outcome")
+    List<Object[]> summarizeSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Alle Versuche einer Benachrichtigung / All attempts of one notification
+     */
+    List<NotificationDeliveryRecord> findByOutboxIdOrderByIdAsc(Long outboxId);
+
+    /**
+     * Neueste Versuche zuerst / Newest attempts first
+     */
+    List<NotificationDeliveryRecord> findAllByOrderByIdDesc(Pageable pageable);
+}
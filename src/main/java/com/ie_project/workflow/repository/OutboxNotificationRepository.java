@@ -0,0 +1,66 @@
+package com.ie_project.workflow.repository;
+
+import com.ie_project.workflow.entity.OutboxNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository für die Benachrichtigungs-Outbox
+ * Repository for the notification outbox
+ *
+ * @author IE Project Team
+ */
+@Repository
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, Long> {
+
+    /**
+     * Fällige Benachrichtigungen eines Kanals, älteste zuerst
+     * Due notifications of one channel, oldest first
+     */
+    @Query("SELECT n FROM OutboxNotification n WHERE n.channel = :channel AND n.status = 'PENDING' AND n.nextAttemptAt <= :now ORDER BY n.nextAttemptAt ASC, n.id ASC")
+    List<OutboxNotification> findDue(@Param("channel") OutboxNotification.Channel channel, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Übernimmt Benachrichtigungen für die Zustellung
+     * Claims notifications for delivery
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OutboxNotification n SET n.status = 'SENDING', n.claimedAt = :claimedAt WHERE n.id IN :ids AND n.status = 'PENDING'")
+    int claim(@Param("ids") List<Long> ids, @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Gibt Benachrichtigungen frei, deren Zustellung abgebrochen wurde (z.B. Neustart)
+     * Releases notifications whose delivery was interrupted (e.g. restart)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OutboxNotification n SET n.status = 'PENDING', n.claimedAt = NULL WHERE n.status = 'SENDING' AND n.claimedAt < :claimedBefore")
+    int releaseStaleClaims(@Param("claimedBefore") LocalDateTime claimedBefore);
+
+    /**
+     * Stellt tote Benachrichtigungen erneut zu
+     * Requeues dead-lettered notifications
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OutboxNotification n SET n.status = 'PENDING', n.attempts = 0, n.nextAttemptAt = :now, n.lastError = NULL WHERE n.id IN :ids AND n.status = 'DEAD'")
+    int requeueDead(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Anzahl je Kanal und Status / Count per channel and status
+     *
+     * Row layout: channel, status, count
+     */
+    @Query("SELECT n.channel, n.status, COUNT(n) FROM OutboxNotification n GROUP BY n.channel, n.status")
+    List<Object[]> countByChannelAndStatus();
+
+    /**
+     * Tote Benachrichtigungen, neueste zuerst / Dead-lettered notifications, newest first
+     */
+    List<OutboxNotification> findByStatusOrderByIdDesc(OutboxNotification.Status status, Pageable pageable);
+}
@@ -0,0 +1,56 @@
+package com.ie_project.workflow.repository;
+
+import com.ie_project.workflow.entity.StoredDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository für ausgelagerte Dokumente
+ * Repository for offloaded documents
+ *
+ * @author IE Project Team
+ */
+@Repository
+public interface StoredDocumentRepository extends JpaRepository<StoredDocument, String> {
+
+    /**
+     * Liefert Metadaten (ohne Inhalt) aller Dokumente einer Prozessinstanz
+     * Returns metadata (without content) of all documents of a process instance
+     *
+     * Row layout: contentId, documentType, originalSize, compressedSize
+     */
+    @Query("SELECT d.contentId, d.documentType, d.originalSize, d.compressedSize FROM StoredDocument d WHERE d.processInstanceId = :processInstanceId ORDER BY d.createdAt ASC")
+    List<Object[]> findMetadataByProcessInstanceId(@Param("processInstanceId") String processInstanceId);
+
+    /**
+     * Liefert Metadaten (ohne Inhalt) aller Dokumente einer Bewerbung
+     * Returns metadata (without content) of all documents of an application
+     *
+     * Row layout: contentId, documentType, originalSize, compressedSize
+     */
+    @Query("SELECT d.contentId, d.documentType, d.originalSize, d.compressedSize FROM StoredDocument d WHERE d.applicationId = :applicationId ORDER BY d.createdAt ASC")
+    List<Object[]> findMetadataByApplicationId(@Param("applicationId") Long applicationId);
+
+    /**
+     * Liefert den nächsten Block (ohne Inhalt) der Dokumente einer Bewerbungsrunde, sortiert nach Content-ID
+     * Returns the next chunk (without content) of the documents of an application round, ordered by content id
+     *
+     * Row layout: contentId, applicationId, documentType
+     */
+    @Query("SELECT d.contentId, d.applicationId, d.documentType FROM StoredDocument d WHERE d.documentType IN :documentTypes AND d.contentId > :afterContentId " +
+            "AND d.applicationId IN (SELECT a.id FROM Application a WHERE a.createdAt >= :submittedFrom AND a.createdAt < :submittedTo " +
+            "AND (:studyProgramId IS NULL OR a.studyProgram.id = :studyProgramId)) ORDER BY d.contentId ASC")
+    List<Object[]> findExportChunk(@Param("documentTypes") Collection<String> documentTypes,
+                                   @Param("submittedFrom") LocalDateTime submittedFrom,
+                                   @Param("submittedTo") LocalDateTime submittedTo,
+                                   @Param("studyProgramId") Long studyProgramId,
+                                   @Param("afterContentId") String afterContentId,
+                                   Pageable pageable);
+}
@@ -2,7 +2,9 @@ package com.ie_project.workflow.repository;
 
 import com.ie_project.workflow.entity.StudyProgram;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,4 +27,12 @@ public interface StudyProgramRepository extends JpaRepository<StudyProgram, Long
      * Checks if study program code already exists
      */
     boolean existsByCode(String code);
+
+    /**
+     * Studiengänge mit eigener Fristenregel für den Fristenkalender
+     * Study programs with their own intake rule for the deadline calendar
+     */
+    @Query("SELECT p FROM StudyProgram p WHERE p.winterSemesterStart IS NOT NULL " +
+            "OR p.summerSemesterStart IS NOT NULL OR p.deadlineMonthsBefore IS NOT NULL ORDER BY p.code")
+    List<StudyProgram> findWithIntakeRule();
 }
@@ -1,16 +1,38 @@
 package com.ie_project.workflow.service;
 
+import com.ie_project.workflow.entity.StudyProgram;
+import com.ie_project.workflow.repository.StudyProgramRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.MonthDay;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Service für die Überprüfung von Bewerbungsfristen
  * Service for checking application deadlines
  *
+ * Checks are answered from a precomputed DeadlineCalendar instead of parsing the configured
+ * dates on every call. The calendar holds the intake windows of all configured years for the
+ * default rule (application.deadline.*) and for every study program with its own rule, taken
+ * from application.deadline.calendar.programs and the study_programs table (the table wins).
+ * It is rebuilt periodically and on demand; a changed rule set replaces the calendar
+ * atomically, a faulty one keeps the previous calendar.
+ *
+ * Prüfungen werden aus einem vorberechneten Fristenkalender beantwortet. Regeln je
+ * Studiengang stammen aus der Konfiguration und der Tabelle study_programs; der Kalender wird
+ * periodisch und auf Anforderung neu aufgebaut und atomar ersetzt.
+ *
  * @author IE Project Team
  */
 @Service
@@ -31,82 +53,178 @@ public class ApplicationDeadlineService {
     @Value("${application.deadline.months.before:2}")
     private int monthsBeforeDeadline;
 
+    // Range of years held in the calendar / Im Kalender enthaltene Jahre
+    @Value("${application.deadline.calendar.first-year:2000}")
+    private int firstYear;
+
+    @Value("${application.deadline.calendar.last-year:2100}")
+    private int lastYear;
+
+    // Program rules CODE:winter MM-dd:summer MM-dd:months / Studiengangsregeln CODE:Winter MM-dd:Sommer MM-dd:Monate
+    @Value("${application.deadline.calendar.programs:}")
+    private List<String> configuredProgramRules;
+
+    @Autowired
+    private StudyProgramRepository studyProgramRepository;
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    private volatile DeadlineCalendar calendar;
+    private volatile LocalDateTime calendarBuiltAt;
+
+    @PostConstruct
+    void buildCalendar() {
+        if (reloadCalendar()) {
+            return;
+        }
+        // Table not readable (e.g. older schema): start with the configured rules, a later reload adds the table
+        // Tabelle nicht lesbar (z.B. älteres Schema): Start mit den konfigurierten Regeln
+        DeadlineCalendar.IntakeRule defaultRule = defaultRule(winterDeadlineStr, summerDeadlineStr, monthsBeforeDeadline);
+        calendar = DeadlineCalendar.build(defaultRule, new ArrayList<>(configuredRules(configuredProgramRules).values()), firstYear, lastYear);
+        calendarBuiltAt = LocalDateTime.now();
+    }
+
     /**
-     * Überprüft, ob die Bewerbung vor der Deadline eingereicht wurde
-     * Checks if the application was submitted before the deadline
+     * Baut den Fristenkalender neu auf, wenn sich die Regeln geändert haben
+     * Rebuilds the deadline calendar if the rules changed
      *
-     * @param applicationDate Das Datum der Bewerbungseinreichung / The application submission date
-     * @return true wenn rechtzeitig, false wenn verspätet / true if on time, false if late
+     * @return true wenn ein gültiger Kalender aktiv ist / true if a valid calendar is active
      */
-    public boolean isApplicationOnTime(LocalDateTime applicationDate) {
+    @Scheduled(fixedDelayString = "${application.deadline.calendar.refresh-interval:PT5M}",
+            initialDelayString = "${application.deadline.calendar.refresh-interval:PT5M}")
+    public boolean reloadCalendar() {
 
         try {
-            // Parse deadlines from configuration
-            // Deadlines aus Konfiguration parsen
-            LocalDate winterDeadline = LocalDate.parse(winterDeadlineStr, DATE_FORMATTER);
-            LocalDate summerDeadline = LocalDate.parse(summerDeadlineStr, DATE_FORMATTER);
+            DeadlineCalendar.IntakeRule defaultRule = defaultRule(winterDeadlineStr, summerDeadlineStr, monthsBeforeDeadline);
+            List<DeadlineCalendar.IntakeRule> programRules = programRules(defaultRule, configuredProgramRules);
 
-            // Convert application date to LocalDate for comparison
-            // Bewerbungsdatum zu LocalDate für Vergleich konvertieren
-            LocalDate appDate = applicationDate.toLocalDate();
+            DeadlineCalendar current = calendar;
+            if (current != null && current.getFirstYear() == firstYear && current.getLastYear() == lastYear
+                    && current.getDefaultRule().equals(defaultRule) && current.getProgramRules().equals(programRules)) {
+                return true;
+            }
 
-            // Determine which semester deadline applies
-            // Bestimmen, welche Semester-Deadline gilt
-            LocalDate applicableDeadline = determineApplicableDeadline(appDate, winterDeadline, summerDeadline);
+            calendar = DeadlineCalendar.build(defaultRule, programRules, firstYear, lastYear);
+            calendarBuiltAt = LocalDateTime.now();
 
-            // Calculate the actual submission deadline (2 months before semester start)
-            // Echte Einreichungsdeadline berechnen (2 Monate vor Semesterbeginn)
-            LocalDate submissionDeadline = applicableDeadline.minusMonths(monthsBeforeDeadline);
+            System.out.println("=== DEADLINE CALENDAR BUILT ===");
+            System.out.println("Years / Jahre: " + firstYear + "-" + lastYear + ", program rules / Studiengangsregeln: "
+                    + programRules.size() + ", intakes / Zeiträume: " + calendar.getIntakeCount());
+            return true;
 
-            // Check if application was submitted on time
-            // Prüfen, ob Bewerbung rechtzeitig eingereicht wurde
-            boolean isOnTime = !appDate.isAfter(submissionDeadline);
+        } catch (Exception e) {
+            System.err.println("Error building deadline calendar, keeping the previous one / "
+                    + "Fehler beim Erstellen des Fristenkalenders, der bisherige bleibt aktiv: " + e.getMessage());
+            return false;
+        }
+    }
 
-            // Log the check for debugging / Check für Debugging protokollieren
-            System.out.println("=== DEADLINE CHECK ===");
-            System.out.println("Application Date: " + appDate);
-            System.out.println("Applicable Semester Deadline: " + applicableDeadline);
-            System.out.println("Submission Deadline: " + submissionDeadline);
-            System.out.println("Is On Time: " + isOnTime);
-            System.out.println("Days difference: " + java.time.temporal.ChronoUnit.DAYS.between(appDate, submissionDeadline));
-            System.out.println("======================");
+    /**
+     * Erstellt einen Kandidatenkalender für einen Backtest, ohne den aktiven zu ändern
+     * Builds a candidate calendar for a backtest without touching the active one
+     *
+     * Fields left null keep the active configuration; rules from study_programs still apply.
+     * Nicht gesetzte Felder übernehmen die aktive Konfiguration.
+     *
+     * @throws IllegalArgumentException bei ungültigen Werten / on invalid values
+     */
+    public DeadlineCalendar buildCandidateCalendar(String winter, String summer, Integer monthsBefore, List<String> programs) {
+        DeadlineCalendar.IntakeRule defaultRule = defaultRule(
+                winter != null ? winter : winterDeadlineStr,
+                summer != null ? summer : summerDeadlineStr,
+                monthsBefore != null ? monthsBefore : monthsBeforeDeadline);
+        List<DeadlineCalendar.IntakeRule> programRules = programRules(defaultRule,
+                programs != null ? programs : configuredProgramRules);
+        return DeadlineCalendar.build(defaultRule, programRules, firstYear, lastYear);
+    }
 
-            return isOnTime;
+    private List<DeadlineCalendar.IntakeRule> programRules(DeadlineCalendar.IntakeRule defaultRule, List<String> entries) {
+        Map<String, DeadlineCalendar.IntakeRule> rules = configuredRules(entries);
+        addDatabaseRules(rules, defaultRule);
+        List<DeadlineCalendar.IntakeRule> programRules = new ArrayList<>(rules.values());
+        programRules.sort((a, b) -> a.getProgramCode().compareTo(b.getProgramCode()));
+        return programRules;
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error checking application deadline: " + e.getMessage());
-            e.printStackTrace();
-            // In case of error, assume application is valid to avoid false rejections
-            // Bei Fehler annehmen, dass Bewerbung gültig ist, um falsche Ablehnungen zu vermeiden
-            return true;
+    private static DeadlineCalendar.IntakeRule defaultRule(String winter, String summer, int monthsBefore) {
+        return new DeadlineCalendar.IntakeRule(null, parseSemesterStart(winter), parseSemesterStart(summer), monthsBefore);
+    }
+
+    // Accepts yyyy-MM-dd as configured, or MM-dd / Akzeptiert yyyy-MM-dd wie konfiguriert oder MM-dd
+    private static MonthDay parseSemesterStart(String value) {
+        String trimmed = value.trim();
+        return trimmed.length() == 5 ? parseMonthDay(trimmed) : MonthDay.from(LocalDate.parse(trimmed, DATE_FORMATTER));
+    }
+
+    /**
+     * Regeln im Format CODE:MM-dd:MM-dd:Monate / Rules in the format CODE:MM-dd:MM-dd:months
+     */
+    private static Map<String, DeadlineCalendar.IntakeRule> configuredRules(List<String> entries) {
+        Map<String, DeadlineCalendar.IntakeRule> rules = new LinkedHashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Expected CODE:MM-dd:MM-dd:months / Erwartet CODE:MM-dd:MM-dd:Monate: " + entry);
+            }
+            rules.put(parts[0], new DeadlineCalendar.IntakeRule(parts[0], parseMonthDay(parts[1]),
+                    parseMonthDay(parts[2]), Integer.parseInt(parts[3])));
         }
+        return rules;
     }
+
     /**
-     * Bestimmt die anwendbare Deadline basierend auf dem Bewerbungsdatum
-     * Determines the applicable deadline based on the application date
+     * Regeln aus der Tabelle study_programs, fehlende Felder aus der Standardregel
+     * Rules from the study_programs table, missing fields from the default rule
+     */
+    private void addDatabaseRules(Map<String, DeadlineCalendar.IntakeRule> rules, DeadlineCalendar.IntakeRule defaultRule) {
+        for (StudyProgram program : studyProgramRepository.findWithIntakeRule()) {
+            try {
+                rules.put(program.getCode(), new DeadlineCalendar.IntakeRule(program.getCode(),
+                        program.getWinterSemesterStart() != null ? parseMonthDay(program.getWinterSemesterStart()) : defaultRule.getWinterStart(),
+                        program.getSummerSemesterStart() != null ? parseMonthDay(program.getSummerSemesterStart()) : defaultRule.getSummerStart(),
+                        program.getDeadlineMonthsBefore() != null ? program.getDeadlineMonthsBefore() : defaultRule.getMonthsBefore()));
+            } catch (RuntimeException e) {
+                // One faulty program must not block the others / Ein fehlerhafter Studiengang blockiert nicht die anderen
+                System.err.println("Invalid intake rule for program / Ungültige Fristenregel für Studiengang "
+                        + program.getCode() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static MonthDay parseMonthDay(String value) {
+        return MonthDay.parse("--" + value.trim());
+    }
+
+    /**
+     * Überprüft, ob die Bewerbung vor der Deadline eingereicht wurde
+     * Checks if the application was submitted before the deadline
      *
-     * Logic: If application is made in first half of year, it's for winter semester
-     * If made in second half, it's for next year's summer semester
+     * @param applicationDate Das Datum der Bewerbungseinreichung / The application submission date
+     * @return true wenn rechtzeitig, false wenn verspätet / true if on time, false if late
+     */
+    public boolean isApplicationOnTime(LocalDateTime applicationDate) {
+        return isApplicationOnTime(null, applicationDate);
+    }
+
+    /**
+     * Überprüft die Frist nach der Regel des Studiengangs
+     * Checks the deadline using the rule of the study program
      *
-     * Logik: Bewerbung in erster Jahreshälfte = Wintersemester
-     * Bewerbung in zweiter Jahreshälfte = Sommersemester nächstes Jahr
+     * @param programCode Studiengang oder null für die Standardregel / Study program or null for the default rule
      */
-    private LocalDate determineApplicableDeadline(LocalDate applicationDate, LocalDate winterDeadline, LocalDate summerDeadline) {
+    public boolean isApplicationOnTime(String programCode, LocalDateTime applicationDate) {
 
-        int applicationYear = applicationDate.getYear();
-        int applicationMonth = applicationDate.getMonthValue();
+        try {
+            return calendar.isOnTime(programCode, applicationDate.toLocalDate());
 
-        // If application is made January-June: target is winter semester of same year
-        // Wenn Bewerbung Januar-Juni: Ziel ist Wintersemester des gleichen Jahres
-        if (applicationMonth <= 6) {
-            return winterDeadline.withYear(applicationYear);
-        }
-        // If application is made July-December: target is summer semester of next year
-        // Wenn Bewerbung Juli-Dezember: Ziel ist Sommersemester des nächsten Jahres
-        else {
-            return summerDeadline.withYear(applicationYear + 1);
+        } catch (Exception e) {
+            System.err.println("Error checking application deadline: " + e.getMessage());
+            // In case of error, assume application is valid to avoid false rejections
+            // Bei Fehler annehmen, dass Bewerbung gültig ist, um falsche Ablehnungen zu vermeiden
+            return true;
         }
     }
 
@@ -115,27 +233,26 @@ public class ApplicationDeadlineService {
      * Returns detailed deadline information
      */
     public DeadlineCheckResult getDeadlineCheckResult(LocalDateTime applicationDate) {
+        return getDeadlineCheckResult(null, applicationDate);
+    }
+
+    /**
+     * Detaillierte Deadline-Information nach der Regel des Studiengangs
+     * Detailed deadline information using the rule of the study program
+     */
+    public DeadlineCheckResult getDeadlineCheckResult(String programCode, LocalDateTime applicationDate) {
 
         try {
-            LocalDate winterDeadline = LocalDate.parse(winterDeadlineStr, DATE_FORMATTER);
-            LocalDate summerDeadline = LocalDate.parse(summerDeadlineStr, DATE_FORMATTER);
             LocalDate appDate = applicationDate.toLocalDate();
+            DeadlineCalendar.Intake intake = calendar.intakeFor(programCode, appDate);
 
-            LocalDate applicableDeadline = determineApplicableDeadline(appDate, winterDeadline, summerDeadline);
-            LocalDate submissionDeadline = applicableDeadline.minusMonths(monthsBeforeDeadline);
-
-            boolean isOnTime = !appDate.isAfter(submissionDeadline);
-            long daysUntilDeadline = java.time.temporal.ChronoUnit.DAYS.between(appDate, submissionDeadline);
-
-            String semesterType = applicableDeadline.equals(winterDeadline.withYear(applicableDeadline.getYear()))
-                    ? "Wintersemester / Winter Semester"
-                    : "Sommersemester / Summer Semester";
+            long daysUntilDeadline = ChronoUnit.DAYS.between(appDate, intake.getSubmissionDeadline());
 
             return new DeadlineCheckResult(
-                    isOnTime,
-                    submissionDeadline,
-                    applicableDeadline,
-                    semesterType,
+                    daysUntilDeadline >= 0,
+                    intake.getSubmissionDeadline(),
+                    intake.getSemesterStart(),
+                    intake.getSemesterType().getLabel(),
                     daysUntilDeadline
             );
 
@@ -147,6 +264,17 @@ public class ApplicationDeadlineService {
         }
     }
 
+    /**
+     * Aktiver Fristenkalender / Active deadline calendar
+     */
+    public DeadlineCalendar getCalendar() {
+        return calendar;
+    }
+
+    public LocalDateTime getCalendarBuiltAt() {
+        return calendarBuiltAt;
+    }
+
     /**
      * Erstellt eine benutzerfreundliche Nachricht über das Deadline-Ergebnis
      * Creates a user-friendly message about the deadline result
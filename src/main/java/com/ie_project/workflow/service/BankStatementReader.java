@@ -0,0 +1,436 @@
+package com.ie_project.workflow.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming-Leser für Kontoauszüge (CSV oder CAMT.053)
+ * Streaming reader for bank statements (CSV or CAMT.053)
+ *
+ * Reads one booking at a time, so files with tens of thousands of lines are processed
+ * with constant memory. The format is detected from the file name or the first byte.
+ *
+ * Liest jeweils eine Buchung, sodass auch sehr große Dateien mit konstantem Speicher
+ * verarbeitet werden. Das Format wird anhand des Dateinamens oder des ersten Bytes erkannt.
+ *
+ * @author IE Project Team
+ */
+public abstract class BankStatementReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Öffnet einen passenden Leser für die Datei / Opens a matching reader for the file
+     *
+     * @param input Dateiinhalt / File content
+     * @param fileName Dateiname für die Formaterkennung / File name for format detection
+     */
+    public static BankStatementReader open(InputStream input, String fileName) throws IOException {
+
+        BufferedInputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+
+        if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".xml")) {
+            return new Camt053Reader(buffered);
+        }
+
+        // Skip BOM and whitespace to look at the first character / BOM und Leerzeichen überspringen
+        buffered.mark(256);
+        int first;
+        do {
+            first = buffered.read();
+        } while (first == 0xEF || first == 0xBB || first == 0xBF || (first != -1 && Character.isWhitespace(first)));
+        buffered.reset();
+
+        return first == '<' ? new Camt053Reader(buffered) : new CsvReader(buffered);
+    }
+
+    /**
+     * Name des erkannten Formats / Name of the detected format
+     */
+    public abstract String getFormat();
+
+    /**
+     * Nächste Buchung oder null am Dateiende / Next booking or null at end of file
+     */
+    public abstract StatementLine next() throws IOException;
+
+    // ===== CSV =====
+
+    /**
+     * CSV with a header line. Delimiter (; , or tab) and columns are detected from the header;
+     * German and English column names are supported. If no reference column is found the
+     * whole line is used as remittance information.
+     */
+    private static class CsvReader extends BankStatementReader {
+
+        private final BufferedReader reader;
+        private char delimiter = ';';
+        private int referenceColumn = -1;
+        private int amountColumn = -1;
+        private int currencyColumn = -1;
+        private int dateColumn = -1;
+        private int nameColumn = -1;
+        private long lineNumber;
+
+        CsvReader(InputStream input) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+            readHeader();
+        }
+
+        private void readHeader() throws IOException {
+            String header = reader.readLine();
+            lineNumber++;
+            if (header == null) {
+                return;
+            }
+            if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+                header = header.substring(1);
+            }
+
+            delimiter = detectDelimiter(header);
+            List<String> columns = split(header, delimiter);
+            for (int i = 0; i < columns.size(); i++) {
+                String column = columns.get(i).trim().toLowerCase(Locale.ROOT);
+                if (referenceColumn < 0 && (column.contains("verwendungszweck") || column.contains("reference")
+                        || column.contains("referenz") || column.contains("remittance") || column.contains("purpose"))) {
+                    referenceColumn = i;
+                } else if (amountColumn < 0 && (column.equals("amount") || column.equals("betrag") || column.startsWith("betrag"))) {
+                    amountColumn = i;
+                } else if (currencyColumn < 0 && (column.equals("currency") || column.equals("waehrung") || column.equals("währung"))) {
+                    currencyColumn = i;
+                } else if (dateColumn < 0 && (column.contains("date") || column.contains("buchungstag") || column.contains("datum"))) {
+                    dateColumn = i;
+                } else if (nameColumn < 0 && (column.contains("name") || column.contains("auftraggeber") || column.contains("debtor"))) {
+                    nameColumn = i;
+                }
+            }
+        }
+
+        @Override
+        public String getFormat() {
+            return "CSV";
+        }
+
+        @Override
+        public StatementLine next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            List<String> fields = split(line, delimiter);
+            BigDecimal amount = amountColumn >= 0 ? parseAmount(field(fields, amountColumn)) : null;
+
+            return new StatementLine(
+                    lineNumber,
+                    field(fields, dateColumn),
+                    amount,
+                    field(fields, currencyColumn),
+                    amount == null || amount.signum() > 0,
+                    referenceColumn >= 0 ? field(fields, referenceColumn) : line,
+                    field(fields, nameColumn),
+                    line);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private static char detectDelimiter(String header) {
+            int semicolons = count(header, ';');
+            int commas = count(header, ',');
+            int tabs = count(header, '\t');
+            if (tabs > semicolons && tabs > commas) {
+                return '\t';
+            }
+            return commas > semicolons ? ',' : ';';
+        }
+
+        private static int count(String value, char c) {
+            int count = 0;
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) == c) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index).trim() : null;
+        }
+
+        /**
+         * Splits a CSV line, honouring double quotes / Teilt eine CSV-Zeile unter Beachtung von Anführungszeichen
+         */
+        private static List<String> split(String line, char delimiter) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = !quoted;
+                    }
+                } else if (c == delimiter && !quoted) {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    // ===== CAMT.053 =====
+
+    /**
+     * CAMT.053 (BankToCustomerStatement) read with StAX. Every TxDtls of an Ntry becomes one
+     * line; entries without transaction details use the entry amount and remittance info.
+     */
+    private static class Camt053Reader extends BankStatementReader {
+
+        private final XMLStreamReader xml;
+        private final List<StatementLine> pending = new ArrayList<>();
+        private long entryNumber;
+
+        Camt053Reader(InputStream input) throws IOException {
+            try {
+                XMLInputFactory factory = XMLInputFactory.newFactory();
+                factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+                factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+                this.xml = factory.createXMLStreamReader(input);
+            } catch (XMLStreamException e) {
+                throw new IOException("Invalid CAMT.053 file / Ungültige CAMT.053-Datei: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public String getFormat() {
+            return "CAMT.053";
+        }
+
+        @Override
+        public StatementLine next() throws IOException {
+            try {
+                while (pending.isEmpty()) {
+                    if (!advanceToEntry()) {
+                        return null;
+                    }
+                    readEntry();
+                }
+                return pending.remove(0);
+            } catch (XMLStreamException e) {
+                throw new IOException("Invalid CAMT.053 file / Ungültige CAMT.053-Datei: " + e.getMessage(), e);
+            }
+        }
+
+        private boolean advanceToEntry() throws XMLStreamException {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && "Ntry".equals(xml.getLocalName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Reads one Ntry element up to its end tag / Liest ein Ntry-Element bis zum End-Tag
+         */
+        private void readEntry() throws XMLStreamException {
+            entryNumber++;
+
+            BigDecimal entryAmount = null;
+            String entryCurrency = null;
+            String entryIndicator = null;
+            String bookingDate = null;
+            StringBuilder entryRemittance = new StringBuilder();
+
+            BigDecimal txAmount = null;
+            String txCurrency = null;
+            String txIndicator = null;
+            String txName = null;
+            StringBuilder txRemittance = null;
+            int transactions = 0;
+
+            List<String> path = new ArrayList<>();
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    path.add(name);
+
+                    if ("TxDtls".equals(name)) {
+                        txAmount = null;
+                        txCurrency = null;
+                        txIndicator = null;
+                        txName = null;
+                        txRemittance = new StringBuilder();
+                    } else if ("Amt".equals(name)) {
+                        String currency = xml.getAttributeValue(null, "Ccy");
+                        BigDecimal amount = parseAmount(xml.getElementText());
+                        path.remove(path.size() - 1);
+                        if (txRemittance != null && path.contains("TxDtls")) {
+                            txAmount = amount;
+                            txCurrency = currency;
+                        } else if (path.size() == 0) {
+                            entryAmount = amount;
+                            entryCurrency = currency;
+                        }
+                    } else if ("CdtDbtInd".equals(name)) {
+                        String indicator = xml.getElementText();
+                        path.remove(path.size() - 1);
+                        if (txRemittance != null && path.contains("TxDtls")) {
+                            txIndicator = indicator;
+                        } else if (path.size() == 0) {
+                            entryIndicator = indicator;
+                        }
+                    } else if ("Ustrd".equals(name) || "Ref".equals(name) || "EndToEndId".equals(name) || "AddtlNtryInf".equals(name)) {
+                        String text = xml.getElementText();
+                        path.remove(path.size() - 1);
+                        StringBuilder target = txRemittance != null && path.contains("TxDtls") ? txRemittance : entryRemittance;
+                        target.append(text).append(' ');
+                    } else if ("Dt".equals(name) || "DtTm".equals(name)) {
+                        String text = xml.getElementText();
+                        path.remove(path.size() - 1);
+                        if (bookingDate == null && path.contains("BookgDt")) {
+                            bookingDate = text;
+                        }
+                    } else if ("Nm".equals(name)) {
+                        String text = xml.getElementText();
+                        path.remove(path.size() - 1);
+                        if (txRemittance != null && txName == null && path.contains("Dbtr")) {
+                            txName = text;
+                        }
+                    }
+
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("Ntry".equals(name)) {
+                        break;
+                    }
+                    if (!path.isEmpty()) {
+                        path.remove(path.size() - 1);
+                    }
+                    if ("TxDtls".equals(name) && txRemittance != null) {
+                        transactions++;
+                        String indicator = txIndicator != null ? txIndicator : entryIndicator;
+                        String remittance = txRemittance.toString().trim();
+                        pending.add(new StatementLine(
+                                entryNumber,
+                                bookingDate,
+                                txAmount != null ? txAmount : entryAmount,
+                                txCurrency != null ? txCurrency : entryCurrency,
+                                !"DBIT".equals(indicator),
+                                remittance.isEmpty() ? entryRemittance.toString().trim() : remittance,
+                                txName,
+                                "Ntry #" + entryNumber + " TxDtls #" + transactions));
+                        txRemittance = null;
+                    }
+                }
+            }
+
+            if (transactions == 0) {
+                pending.add(new StatementLine(
+                        entryNumber, bookingDate, entryAmount, entryCurrency,
+                        !"DBIT".equals(entryIndicator), entryRemittance.toString().trim(), null,
+                        "Ntry #" + entryNumber));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                xml.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    /**
+     * Parses German (1.234,56) and English (1,234.56) amounts / Parst deutsche und englische Beträge
+     */
+    static BigDecimal parseAmount(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        String normalized = value.trim().replace(" ", "").replace("\u00A0", "").replace("EUR", "").replace("€", "");
+        int lastComma = normalized.lastIndexOf(',');
+        int lastDot = normalized.lastIndexOf('.');
+        if (lastComma > lastDot) {
+            normalized = normalized.replace(".", "").replace(',', '.');
+        } else if (lastDot > lastComma) {
+            normalized = normalized.replace(",", "");
+        }
+
+        try {
+            return new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Eine Buchung aus dem Kontoauszug / One booking from the bank statement
+     */
+    public static class StatementLine {
+        private final long lineNumber;
+        private final String bookingDate;
+        private final BigDecimal amount;
+        private final String currency;
+        private final boolean credit;
+        private final String remittanceInformation;
+        private final String debtorName;
+        private final String source;
+
+        public StatementLine(long lineNumber, String bookingDate, BigDecimal amount, String currency, boolean credit,
+                             String remittanceInformation, String debtorName, String source) {
+            this.lineNumber = lineNumber;
+            this.bookingDate = bookingDate;
+            this.amount = amount;
+            this.currency = currency;
+            this.credit = credit;
+            this.remittanceInformation = remittanceInformation;
+            this.debtorName = debtorName;
+            this.source = source;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public String getBookingDate() { return bookingDate; }
+        public BigDecimal getAmount() { return amount; }
+        public String getCurrency() { return currency; }
+        public boolean isCredit() { return credit; }
+        public String getRemittanceInformation() { return remittanceInformation; }
+        public String getDebtorName() { return debtorName; }
+        public String getSource() { return source; }
+    }
+}
@@ -0,0 +1,187 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.repository.ApplicationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service für blockweise Massenaktualisierung von Zahlungen
+ * Service for chunked bulk payment updates
+ *
+ * Applications are selected in chunks by ID (keyset pagination) and updated with one
+ * UPDATE statement per chunk, each chunk in its own transaction. For every chunk that
+ * marks applications as paid, the waiting process instances are notified through a
+ * single Camunda batch (asynchronous message correlation) instead of one synchronous
+ * correlation per application.
+ *
+ * Bewerbungen werden blockweise nach ID ausgewählt und mit einem UPDATE pro Block
+ * aktualisiert, jeder Block in einer eigenen Transaktion. Wartende Prozessinstanzen
+ * werden pro Block über einen Camunda-Batch benachrichtigt.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class BulkPaymentService {
+
+    private static final int MAX_CHUNK_SIZE = 5000;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private PaymentCorrelationService paymentCorrelationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${application.payment.bulk-chunk-size:500}")
+    private int defaultChunkSize;
+
+    /**
+     * Aktualisiert den Zahlungsstatus aller passenden angenommenen Bewerbungen
+     * Updates the payment status of all matching accepted applications
+     *
+     * @param paid Neuer Zahlungsstatus / New payment status
+     * @param studyProgramId Optionaler Studiengang-Filter / Optional study program filter
+     * @param applicationIds Optionale ID-Liste / Optional ID list
+     * @param chunkSize Blockgröße, null für Standard / Chunk size, null for default
+     * @return Zusammenfassung der Aktualisierung / Summary of the update
+     */
+    public BulkPaymentResult updatePayments(boolean paid, Long studyProgramId, List<Long> applicationIds, Integer chunkSize) {
+
+        int size = chunkSize != null && chunkSize > 0 ? Math.min(chunkSize, MAX_CHUNK_SIZE) : defaultChunkSize;
+        long startTime = System.currentTimeMillis();
+        BulkPaymentResult result = new BulkPaymentResult(paid, size);
+
+        if (applicationIds != null && !applicationIds.isEmpty()) {
+            List<Long> distinctIds = applicationIds.stream().distinct().toList();
+            for (int from = 0; from < distinctIds.size(); from += size) {
+                List<Long> idChunk = distinctIds.subList(from, Math.min(from + size, distinctIds.size()));
+                transactionTemplate.executeWithoutResult(status -> processChunk(
+                        applicationRepository.findPaymentUpdateCandidatesByIds(idChunk, Application.ApplicationStatus.ACCEPTED, paid, studyProgramId),
+                        paid, result));
+            }
+        } else {
+            Long afterId = 0L;
+            while (afterId != null) {
+                Long lastId = afterId;
+                afterId = transactionTemplate.execute(status -> {
+                    List<Object[]> candidates = applicationRepository.findPaymentUpdateChunk(
+                            Application.ApplicationStatus.ACCEPTED, paid, lastId, studyProgramId, PageRequest.of(0, size));
+                    processChunk(candidates, paid, result);
+                    return candidates.size() < size ? null : (Long) candidates.get(candidates.size() - 1)[0];
+                });
+            }
+        }
+
+        result.setDurationMillis(System.currentTimeMillis() - startTime);
+
+        System.out.println("=== BULK PAYMENT UPDATE COMPLETED ===");
+        System.out.println("Payment Status: " + (paid ? "PAID" : "UNPAID"));
+        System.out.println("Study Program Filter: " + (studyProgramId != null ? studyProgramId : "ALL"));
+        System.out.println("ID Filter: " + (applicationIds != null && !applicationIds.isEmpty() ? applicationIds.size() + " IDs" : "NONE"));
+        System.out.println("Chunks: " + result.getChunkCount() + " (size " + size + ")");
+        System.out.println("Updated: " + result.getUpdatedCount());
+        System.out.println("Processes Notified: " + result.getProcessesNotified());
+        System.out.println("Correlation Batches: " + result.getCorrelationBatchIds());
+        System.out.println("Duration: " + result.getDurationMillis() + " ms");
+        System.out.println("=====================================");
+
+        return result;
+    }
+
+    /**
+     * Aktualisiert einen Block und startet die Batch-Korrelation in derselben Transaktion
+     * Updates one chunk and starts the batch correlation within the same transaction
+     */
+    private void processChunk(List<Object[]> candidates, boolean paid, BulkPaymentResult result) {
+
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(candidates.size());
+        List<String> processInstanceIds = new ArrayList<>(candidates.size());
+        for (Object[] row : candidates) {
+            ids.add((Long) row[0]);
+            if (row[1] != null) {
+                processInstanceIds.add((String) row[1]);
+            }
+        }
+
+        int updated = applicationRepository.updateTuitionFeePaid(ids, paid, LocalDateTime.now());
+        result.addChunk(updated, ids.get(0), ids.get(ids.size() - 1));
+
+        // Only newly paid applications resume the payment phase; instances that are not
+        // waiting for the message are skipped by the batch, the deadline check finds the payment
+        // Nur neu bezahlte Bewerbungen setzen die Zahlungsphase fort
+        if (paid && !processInstanceIds.isEmpty()) {
+            String batchId = paymentCorrelationService.correlatePaymentsReceivedAsync(processInstanceIds);
+            result.addBatch(batchId, processInstanceIds.size());
+        }
+        result.addWithoutProcessInstance(ids.size() - processInstanceIds.size());
+    }
+
+    /**
+     * Ergebnis einer Massenaktualisierung / Result of a bulk update
+     */
+    public static class BulkPaymentResult {
+        private final boolean paid;
+        private final int chunkSize;
+        private int chunkCount;
+        private int updatedCount;
+        private int processesNotified;
+        private int withoutProcessInstance;
+        private Long firstUpdatedId;
+        private Long lastUpdatedId;
+        private long durationMillis;
+        private final List<String> correlationBatchIds = new ArrayList<>();
+
+        public BulkPaymentResult(boolean paid, int chunkSize) {
+            this.paid = paid;
+            this.chunkSize = chunkSize;
+        }
+
+        void addChunk(int updated, Long firstId, Long lastId) {
+            chunkCount++;
+            updatedCount += updated;
+            if (firstUpdatedId == null) {
+                firstUpdatedId = firstId;
+            }
+            lastUpdatedId = lastId;
+        }
+
+        void addBatch(String batchId, int instances) {
+            correlationBatchIds.add(batchId);
+            processesNotified += instances;
+        }
+
+        void addWithoutProcessInstance(int count) {
+            withoutProcessInstance += count;
+        }
+
+        void setDurationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+        }
+
+        // Getters
+        public boolean isPaid() { return paid; }
+        public int getChunkSize() { return chunkSize; }
+        public int getChunkCount() { return chunkCount; }
+        public int getUpdatedCount() { return updatedCount; }
+        public int getProcessesNotified() { return processesNotified; }
+        public int getWithoutProcessInstance() { return withoutProcessInstance; }
+        public Long getFirstUpdatedId() { return firstUpdatedId; }
+        public Long getLastUpdatedId() { return lastUpdatedId; }
+        public long getDurationMillis() { return durationMillis; }
+        public List<String> getCorrelationBatchIds() { return correlationBatchIds; }
+    }
+}
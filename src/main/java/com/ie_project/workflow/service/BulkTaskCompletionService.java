@@ -0,0 +1,421 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.dto.TaskCompletionRequestDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.task.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service für den Massenabschluss von User Tasks
+ * Service for the bulk completion of user tasks
+ *
+ * A clerk's stack of verified files is completed in one request. All task ids are validated
+ * with a single task query (existence, suspension, expected task, required variables); the
+ * valid items are split into chunks that a bounded pool completes in parallel. Every task is
+ * completed in its own engine transaction, so one failing process instance is reported in
+ * its item result and does not roll back the others. Version conflicts of the engine are
+ * retried a few times before the item is reported as failed.
+ *
+ * Alle Task-IDs werden mit einer einzigen Abfrage geprüft; gültige Einträge werden blockweise
+ * von einem begrenzten Pool parallel abgeschlossen, jede Task in einer eigenen Transaktion.
+ * Fehler einzelner Einträge brechen den Stapel nicht ab.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class BulkTaskCompletionService {
+
+    public static final String DOCUMENT_VERIFICATION_TASK = "Task_DocumentVerification";
+
+    private static final int MAX_PARALLELISM = 16;
+    private static final int MAX_CHUNK_SIZE = 500;
+    private static final int MAX_COMPLETION_ATTEMPTS = 3;
+
+    // Boolean variables a completion must carry, per task / Pflicht-Boolean-Variablen je Task
+    private static final Map<String, List<String>> REQUIRED_BOOLEAN_VARIABLES = Map.of(
+            DOCUMENT_VERIFICATION_TASK, List.of("documentsComplete"));
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${application.tasks.bulk.max-items:1000}")
+    private int maxItems;
+
+    @Value("${application.tasks.bulk.parallelism:4}")
+    private int defaultParallelism;
+
+    @Value("${application.tasks.bulk.chunk-size:25}")
+    private int defaultChunkSize;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    /**
+     * Schließt viele User Tasks ab / Completes many user tasks
+     *
+     * @param items Task-IDs mit Variablen / Task ids with variables
+     * @param taskDefinitionKey Erwartete Task im Prozessmodell oder null / Expected model task or null
+     * @param parallelism Anzahl Worker, null für Standard / Number of workers, null for default
+     * @param chunkSize Tasks pro Block, null für Standard / Tasks per chunk, null for default
+     * @return Bericht mit einem Ergebnis pro Eintrag / Report with one result per item
+     * @throws IllegalArgumentException bei leerer oder zu großer Anfrage / on an empty or too large request
+     */
+    public BulkCompletionReport completeAll(List<TaskCompletionRequestDTO> items, String taskDefinitionKey,
+                                            Integer parallelism, Integer chunkSize) {
+
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one task is required / Mindestens eine Task ist erforderlich");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " tasks per request / Höchstens "
+                    + maxItems + " Tasks pro Anfrage");
+        }
+
+        int workers = parallelism != null && parallelism > 0 ? Math.min(parallelism, MAX_PARALLELISM) : defaultParallelism;
+        int size = chunkSize != null && chunkSize > 0 ? Math.min(chunkSize, MAX_CHUNK_SIZE) : defaultChunkSize;
+        long startTime = System.nanoTime();
+
+        BulkCompletionReport report = new BulkCompletionReport(items.size(), workers, size);
+        ItemResult[] results = new ItemResult[items.size()];
+        List<Integer> valid = validate(items, taskDefinitionKey, results);
+        report.validationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < valid.size(); from += size) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + size, valid.size()));
+            chunks.add(() -> {
+                for (int index : chunk) {
+                    results[index] = complete(index, items.get(index), results[index]);
+                }
+                return null;
+            });
+        }
+        report.chunkCount = chunks.size();
+
+        if (!chunks.isEmpty()) {
+            ForkJoinPool pool = new ForkJoinPool(Math.min(workers, chunks.size()));
+            try {
+                for (Future<Void> future : pool.invokeAll(chunks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Bulk completion interrupted / Massenabschluss unterbrochen", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Bulk completion worker failed / Worker des Massenabschlusses fehlgeschlagen", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        report.finish(Arrays.asList(results), System.nanoTime() - startTime);
+        batchCount.incrementAndGet();
+        completedCount.addAndGet(report.completed);
+        rejectedCount.addAndGet(report.rejected);
+        failedCount.addAndGet(report.failed);
+        busyNanos.addAndGet(System.nanoTime() - startTime);
+
+        System.out.println("=== BULK TASK COMPLETION FINISHED ===");
+        System.out.println("Task Filter: " + (taskDefinitionKey != null ? taskDefinitionKey : "ANY"));
+        System.out.println("Requested: " + report.requested);
+        System.out.println("Completed: " + report.completed);
+        System.out.println("Rejected: " + report.rejected);
+        System.out.println("Failed: " + report.failed);
+        System.out.println("Chunks: " + report.chunkCount + " (size " + size + ", workers " + workers + ")");
+        System.out.println("Duration: " + report.durationMillis + " ms (" + report.tasksPerSecond + " tasks/s)");
+        System.out.println("=====================================");
+
+        return report;
+    }
+
+    /**
+     * Prüft alle Einträge mit einer einzigen Task-Abfrage
+     * Validates all items with one task query
+     *
+     * @return Indizes der gültigen Einträge / Indexes of the valid items
+     */
+    private List<Integer> validate(List<TaskCompletionRequestDTO> items, String taskDefinitionKey, ItemResult[] results) {
+
+        Set<String> ids = new HashSet<>();
+        for (TaskCompletionRequestDTO item : items) {
+            if (item != null && item.getTaskId() != null && !item.getTaskId().isBlank()) {
+                ids.add(item.getTaskId());
+            }
+        }
+        Map<String, Task> tasks = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Task task : taskService.createTaskQuery().taskIdIn(ids.toArray(new String[0])).list()) {
+                tasks.put(task.getId(), task);
+            }
+        }
+
+        List<Integer> valid = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int index = 0; index < items.size(); index++) {
+            TaskCompletionRequestDTO item = items.get(index);
+            String taskId = item != null ? item.getTaskId() : null;
+
+            if (taskId == null || taskId.isBlank()) {
+                results[index] = ItemResult.of(index, taskId, null, ItemStatus.INVALID, "taskId is required / taskId ist erforderlich");
+                continue;
+            }
+            if (!seen.add(taskId)) {
+                results[index] = ItemResult.of(index, taskId, null, ItemStatus.DUPLICATE, "Task listed more than once / Task mehrfach angegeben");
+                continue;
+            }
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                results[index] = ItemResult.of(index, taskId, null, ItemStatus.NOT_FOUND, "Task not found or already completed / Task nicht gefunden oder bereits abgeschlossen");
+                continue;
+            }
+            if (task.isSuspended()) {
+                results[index] = ItemResult.of(index, taskId, task, ItemStatus.SUSPENDED, "Task is suspended / Task ist ausgesetzt");
+                continue;
+            }
+            if (taskDefinitionKey != null && !taskDefinitionKey.equals(task.getTaskDefinitionKey())) {
+                results[index] = ItemResult.of(index, taskId, task, ItemStatus.WRONG_TASK,
+                        "Expected " + taskDefinitionKey + " but was " + task.getTaskDefinitionKey() + " / Falscher Task-Typ");
+                continue;
+            }
+            Map<String, Object> variables = item.getVariables() != null ? item.getVariables() : Map.of();
+            String missing = missingRequiredVariable(task.getTaskDefinitionKey(), variables);
+            if (missing != null) {
+                results[index] = ItemResult.of(index, taskId, task, ItemStatus.INVALID,
+                        "Boolean variable " + missing + " is required / Boolean-Variable " + missing + " ist erforderlich");
+                continue;
+            }
+
+            // Placeholder carrying the task data until the worker completes it / Platzhalter bis zum Abschluss
+            results[index] = ItemResult.of(index, taskId, task, ItemStatus.PENDING, null);
+            valid.add(index);
+        }
+        return valid;
+    }
+
+    private static String missingRequiredVariable(String taskDefinitionKey, Map<String, Object> variables) {
+        for (String name : REQUIRED_BOOLEAN_VARIABLES.getOrDefault(taskDefinitionKey, List.of())) {
+            if (!(variables.get(name) instanceof Boolean)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Schließt eine Task in eigener Transaktion ab / Completes one task in its own transaction
+     */
+    private ItemResult complete(int index, TaskCompletionRequestDTO item, ItemResult pending) {
+
+        Map<String, Object> variables = item.getVariables() != null ? item.getVariables() : Map.of();
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                taskService.complete(item.getTaskId(), variables);
+                long nanos = System.nanoTime() - start;
+                record(pending.taskDefinitionKey, ItemStatus.COMPLETED, nanos);
+                return ItemResult.finished(index, pending, ItemStatus.COMPLETED, null, nanos, attempt);
+
+            } catch (OptimisticLockingException e) {
+                if (attempt >= MAX_COMPLETION_ATTEMPTS) {
+                    long nanos = System.nanoTime() - start;
+                    record(pending.taskDefinitionKey, ItemStatus.FAILED, nanos);
+                    return ItemResult.finished(index, pending, ItemStatus.FAILED, errorOf(e), nanos, attempt);
+                }
+                retriedCount.incrementAndGet();
+
+            } catch (Exception e) {
+                long nanos = System.nanoTime() - start;
+                record(pending.taskDefinitionKey, ItemStatus.FAILED, nanos);
+                System.err.println("Bulk completion of task " + item.getTaskId() + " failed / fehlgeschlagen: " + errorOf(e));
+                return ItemResult.finished(index, pending, ItemStatus.FAILED, errorOf(e), nanos, attempt);
+            }
+        }
+    }
+
+    private void record(String taskDefinitionKey, ItemStatus status, long nanos) {
+        Timer.builder("task.bulk.completion")
+                .description("Duration of one task completion within a bulk request / Dauer eines Task-Abschlusses im Massenabschluss")
+                .tag("task", taskDefinitionKey != null ? taskDefinitionKey : "unknown")
+                .tag("outcome", status.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String errorOf(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Statistiken seit dem Start / Statistics since startup
+     */
+    public Map<String, Object> getStatistics() {
+        long completed = completedCount.get();
+        long busyMillis = TimeUnit.NANOSECONDS.toMillis(busyNanos.get());
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("batches", batchCount.get());
+        statistics.put("completed", completed);
+        statistics.put("rejected", rejectedCount.get());
+        statistics.put("failed", failedCount.get());
+        statistics.put("retriedVersionConflicts", retriedCount.get());
+        statistics.put("busyMillis", busyMillis);
+        statistics.put("tasksPerSecond", busyMillis > 0 ? Math.round(completed * 100000.0 / busyMillis) / 100.0 : 0.0);
+        statistics.put("maxItems", maxItems);
+        statistics.put("defaultParallelism", defaultParallelism);
+        statistics.put("defaultChunkSize", defaultChunkSize);
+        statistics.put("timestamp", LocalDateTime.now());
+        return statistics;
+    }
+
+    /**
+     * Status eines Eintrags / Status of one item
+     */
+    public enum ItemStatus {
+        PENDING,     // Validated, not yet completed / Geprüft, noch nicht abgeschlossen
+        COMPLETED,   // Task completed / Task abgeschlossen
+        NOT_FOUND,   // Unknown or already completed / Unbekannt oder bereits abgeschlossen
+        SUSPENDED,   // Task or process instance suspended / Task oder Prozessinstanz ausgesetzt
+        WRONG_TASK,  // Different task than expected / Andere Task als erwartet
+        DUPLICATE,   // Same task twice in the request / Dieselbe Task zweimal in der Anfrage
+        INVALID,     // Missing id or required variable / Fehlende ID oder Pflichtvariable
+        FAILED       // Completion threw an error / Abschluss mit Fehler
+    }
+
+    /**
+     * Ergebnis eines Eintrags / Result of one item
+     */
+    public static class ItemResult {
+        private final int index;
+        private final String taskId;
+        private final String taskDefinitionKey;
+        private final String processInstanceId;
+        private final ItemStatus status;
+        private final String message;
+        private final long durationMillis;
+        private final int attempts;
+
+        private ItemResult(int index, String taskId, String taskDefinitionKey, String processInstanceId,
+                           ItemStatus status, String message, long durationMillis, int attempts) {
+            this.index = index;
+            this.taskId = taskId;
+            this.taskDefinitionKey = taskDefinitionKey;
+            this.processInstanceId = processInstanceId;
+            this.status = status;
+            this.message = message;
+            this.durationMillis = durationMillis;
+            this.attempts = attempts;
+        }
+
+        static ItemResult of(int index, String taskId, Task task, ItemStatus status, String message) {
+            return new ItemResult(index, taskId, task != null ? task.getTaskDefinitionKey() : null,
+                    task != null ? task.getProcessInstanceId() : null, status, message, 0, 0);
+        }
+
+        static ItemResult finished(int index, ItemResult pending, ItemStatus status, String message, long nanos, int attempts) {
+            return new ItemResult(index, pending.taskId, pending.taskDefinitionKey, pending.processInstanceId,
+                    status, message, TimeUnit.NANOSECONDS.toMillis(nanos), attempts);
+        }
+
+        public int getIndex() { return index; }
+        public String getTaskId() { return taskId; }
+        public String getTaskDefinitionKey() { return taskDefinitionKey; }
+        public String getProcessInstanceId() { return processInstanceId; }
+        public ItemStatus getStatus() { return status; }
+        public String getMessage() { return message; }
+        public long getDurationMillis() { return durationMillis; }
+        public int getAttempts() { return attempts; }
+    }
+
+    /**
+     * Bericht eines Massenabschlusses / Report of a bulk completion
+     */
+    public static class BulkCompletionReport {
+        private final int requested;
+        private final int parallelism;
+        private final int chunkSize;
+        private int chunkCount;
+        private int completed;
+        private int rejected;
+        private int failed;
+        private long validationMillis;
+        private long durationMillis;
+        private double tasksPerSecond;
+        private long p50ItemMillis;
+        private long p95ItemMillis;
+        private long maxItemMillis;
+        private List<ItemResult> items;
+
+        BulkCompletionReport(int requested, int parallelism, int chunkSize) {
+            this.requested = requested;
+            this.parallelism = parallelism;
+            this.chunkSize = chunkSize;
+        }
+
+        void finish(List<ItemResult> results, long nanos) {
+            List<Long> durations = new ArrayList<>();
+            for (ItemResult result : results) {
+                if (result.status == ItemStatus.COMPLETED) {
+                    completed++;
+                    durations.add(result.durationMillis);
+                } else if (result.status == ItemStatus.FAILED) {
+                    failed++;
+                    durations.add(result.durationMillis);
+                } else {
+                    rejected++;
+                }
+            }
+            durations.sort(null);
+            if (!durations.isEmpty()) {
+                p50ItemMillis = durations.get((durations.size() - 1) / 2);
+                p95ItemMillis = durations.get((int) Math.ceil(durations.size() * 0.95) - 1);
+                maxItemMillis = durations.get(durations.size() - 1);
+            }
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            tasksPerSecond = nanos > 0 ? Math.round(completed * 1e9 * 100 / nanos) / 100.0 : 0.0;
+            items = results;
+        }
+
+        public int getRequested() { return requested; }
+        public int getParallelism() { return parallelism; }
+        public int getChunkSize() { return chunkSize; }
+        public int getChunkCount() { return chunkCount; }
+        public int getCompleted() { return completed; }
+        public int getRejected() { return rejected; }
+        public int getFailed() { return failed; }
+        public long getValidationMillis() { return validationMillis; }
+        public long getDurationMillis() { return durationMillis; }
+        public double getTasksPerSecond() { return tasksPerSecond; }
+        public long getP50ItemMillis() { return p50ItemMillis; }
+        public long getP95ItemMillis() { return p95ItemMillis; }
+        public long getMaxItemMillis() { return maxItemMillis; }
+        public List<ItemResult> getItems() { return items; }
+    }
+}
@@ -0,0 +1,464 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.dto.DeadlineBacktestRequestDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backtest einer Kandidaten-Fristenkonfiguration gegen historische Bewerbungen
+ * Backtest of a candidate deadline configuration against historical applications
+ *
+ * Application timestamps are streamed from the applications table (or an uploaded CSV file
+ * with applicationId,timestamp[,programCode]) in batches of primitive arrays. A fixed pool
+ * evaluates every batch against both the active and the candidate DeadlineCalendar and
+ * tallies on-time and late counts per target semester and per application day; the tallies
+ * are merged afterwards. Batches in flight are limited, so the reader never holds more than a
+ * few batches in memory regardless of the input size. Applications whose verdict flips are
+ * listed up to application.deadline.backtest.max-flips, the total is always counted.
+ *
+ * Bewerbungszeitpunkte werden blockweise aus der Datenbank oder einer CSV-Datei gelesen und
+ * parallel gegen den aktiven und den Kandidatenkalender geprüft. Ergebnis sind Zählungen je
+ * Semester und Tag sowie die Bewerbungen, deren Ergebnis sich ändern würde.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class DeadlineBacktestService {
+
+    private static final String APPLICATIONS_SQL =
+            "SELECT a.id, a.created_at, p.code FROM applications a " +
+            "LEFT JOIN study_programs p ON p.id = a.study_program_id";
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    @Autowired
+    private ApplicationDeadlineService deadlineService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${application.deadline.backtest.parallelism:4}")
+    private int parallelism;
+
+    @Value("${application.deadline.backtest.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${application.deadline.backtest.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${application.deadline.backtest.max-flips:10000}")
+    private int maxFlips;
+
+    // One backtest at a time, it uses all evaluation threads / Ein Backtest gleichzeitig
+    private final Semaphore running = new Semaphore(1);
+
+    private ExecutorService evaluators;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        evaluators = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "deadline-backtest-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evaluators.shutdownNow();
+    }
+
+    /**
+     * Backtest über alle Bewerbungen der Datenbank / Backtest over all applications in the database
+     *
+     * @throws IllegalArgumentException bei ungültiger Kandidatenkonfiguration / on an invalid candidate configuration
+     * @throws IllegalStateException    wenn bereits ein Backtest läuft / if a backtest is already running
+     */
+    public BacktestReport backtestDatabase(DeadlineBacktestRequestDTO candidate) {
+
+        Run run = begin(candidate, "database");
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(APPLICATIONS_SQL);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, row -> {
+                Timestamp createdAt = row.getTimestamp(2);
+                if (createdAt == null) {
+                    run.error("Application " + row.getLong(1) + " without created_at / ohne created_at");
+                    return;
+                }
+                run.add(row.getLong(1), createdAt.toLocalDateTime().toLocalDate().toEpochDay(), row.getString(3));
+            });
+            return run.finish();
+        } finally {
+            run.close();
+        }
+    }
+
+    /**
+     * Backtest über eine hochgeladene CSV-Datei / Backtest over an uploaded CSV file
+     *
+     * Lines: applicationId,timestamp[,programCode]; timestamp as yyyy-MM-dd'T'HH:mm[:ss] or
+     * yyyy-MM-dd. A header line and invalid lines are skipped and counted.
+     */
+    public BacktestReport backtestFile(DeadlineBacktestRequestDTO candidate, InputStream input, String fileName) throws IOException {
+
+        Run run = begin(candidate, "file:" + fileName);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split("[,;]", -1);
+                try {
+                    long applicationId = Long.parseLong(fields[0].trim());
+                    String timestamp = fields.length > 1 ? fields[1].trim() : "";
+                    LocalDate date = timestamp.length() == 10 ? LocalDate.parse(timestamp) : LocalDateTime.parse(timestamp).toLocalDate();
+                    String programCode = fields.length > 2 && !fields[2].isBlank() ? fields[2].trim() : null;
+                    run.add(applicationId, date.toEpochDay(), programCode);
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    if (lineNumber > 1) {
+                        run.error("Line / Zeile " + lineNumber + ": " + line);
+                    }
+                }
+            }
+            return run.finish();
+        } finally {
+            run.close();
+        }
+    }
+
+    private Run begin(DeadlineBacktestRequestDTO candidate, String source) {
+        DeadlineCalendar candidateCalendar = deadlineService.buildCandidateCalendar(
+                candidate.getWinter(), candidate.getSummer(), candidate.getMonthsBefore(), candidate.getPrograms());
+        if (!running.tryAcquire()) {
+            throw new IllegalStateException("A backtest is already running / Es läuft bereits ein Backtest");
+        }
+        return new Run(source, deadlineService.getCalendar(), candidateCalendar);
+    }
+
+    /**
+     * Ein laufender Backtest / One running backtest
+     */
+    private class Run {
+        private final DeadlineCalendar current;
+        private final DeadlineCalendar candidate;
+        private final BacktestReport report;
+        private final Semaphore inFlight = new Semaphore(parallelism * 2);
+        private final List<Future<Tally>> futures = new ArrayList<>();
+        private final long startNanos = System.nanoTime();
+        private Batch batch = new Batch(batchSize);
+
+        Run(String source, DeadlineCalendar current, DeadlineCalendar candidate) {
+            this.current = current;
+            this.candidate = candidate;
+            this.report = new BacktestReport(source);
+        }
+
+        void add(long applicationId, long epochDay, String programCode) {
+            batch.add(applicationId, epochDay, programCode);
+            if (batch.size == batchSize) {
+                submit();
+            }
+        }
+
+        void error(String message) {
+            report.invalid++;
+            if (report.errors.size() < MAX_REPORTED_ERRORS) {
+                report.errors.add(message);
+            }
+        }
+
+        private void submit() {
+            Batch full = batch;
+            batch = new Batch(batchSize);
+            // Back-pressure: the reader waits while enough batches are queued / Gegendruck für den Leser
+            inFlight.acquireUninterruptibly();
+            futures.add(evaluators.submit(() -> {
+                try {
+                    return evaluate(full);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        }
+
+        private Tally evaluate(Batch work) {
+            Tally tally = new Tally();
+            for (int i = 0; i < work.size; i++) {
+                long epochDay = work.epochDays[i];
+                if (!current.covers(epochDay)) {
+                    tally.outOfRange++;
+                    continue;
+                }
+                String programCode = work.programCodes[i];
+                DeadlineCalendar.Intake intake = candidate.intakeFor(programCode, epochDay);
+                boolean candidateOnTime = intake.isOnTime(epochDay);
+                boolean currentOnTime = current.isOnTime(programCode, epochDay);
+
+                tally.semester(intake).record(currentOnTime, candidateOnTime);
+                tally.days.computeIfAbsent(epochDay, day -> new Counts()).record(currentOnTime, candidateOnTime);
+                tally.total++;
+
+                if (currentOnTime != candidateOnTime) {
+                    if (candidateOnTime) {
+                        tally.flippedToOnTime++;
+                    } else {
+                        tally.flippedToLate++;
+                    }
+                    // No batch can contribute more than the reported maximum / Kein Block liefert mehr als das Maximum
+                    if (tally.flips.size() < maxFlips) {
+                        tally.flips.add(new Flip(work.applicationIds[i], LocalDate.ofEpochDay(epochDay), programCode,
+                                currentOnTime, candidateOnTime, intake.getSubmissionDeadline()));
+                    }
+                }
+            }
+            return tally;
+        }
+
+        BacktestReport finish() {
+            if (batch.size > 0) {
+                submit();
+            }
+
+            Map<String, Counts> semesters = new TreeMap<>();
+            Map<Long, Counts> days = new TreeMap<>();
+            List<Flip> flips = new ArrayList<>();
+            for (Future<Tally> future : futures) {
+                Tally tally;
+                try {
+                    tally = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Backtest interrupted / Backtest unterbrochen", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Backtest failed / Backtest fehlgeschlagen: " + e.getCause().getMessage(), e.getCause());
+                }
+                report.applications += tally.total;
+                report.outOfRange += tally.outOfRange;
+                tally.semesters.forEach((key, counts) -> semesters.computeIfAbsent(key, k -> new Counts()).add(counts));
+                tally.days.forEach((day, counts) -> days.computeIfAbsent(day, d -> new Counts()).add(counts));
+                report.flippedToLate += tally.flippedToLate;
+                report.flippedToOnTime += tally.flippedToOnTime;
+                for (int i = 0; i < tally.flips.size() && flips.size() < maxFlips; i++) {
+                    flips.add(tally.flips.get(i));
+                }
+            }
+
+            semesters.forEach((key, counts) -> report.semesters.add(counts.toMap("semester", key)));
+            days.forEach((day, counts) -> report.days.add(counts.toMap("date", LocalDate.ofEpochDay(day))));
+            report.flips = flips;
+            report.flipsTruncated = report.flippedToLate + report.flippedToOnTime > flips.size();
+            report.batches = futures.size();
+            report.durationMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+            System.out.println("=== DEADLINE BACKTEST COMPLETED ===");
+            System.out.println("Source: " + report.source + ", applications: " + report.applications
+                    + ", batches: " + report.batches + ", invalid: " + report.invalid + ", out of range: " + report.outOfRange);
+            System.out.println("Flips to late: " + report.flippedToLate + ", to on time: " + report.flippedToOnTime);
+            System.out.println("Duration: " + report.durationMillis + " ms (" + report.getApplicationsPerSecond() + " applications/s)");
+            System.out.println("===================================");
+            return report;
+        }
+
+        void close() {
+            for (Future<Tally> future : futures) {
+                future.cancel(true);
+            }
+            running.release();
+        }
+    }
+
+    /**
+     * Ein Block von Bewerbungen in primitiven Arrays / One batch of applications in primitive arrays
+     */
+    private static class Batch {
+        private final long[] applicationIds;
+        private final long[] epochDays;
+        private final String[] programCodes;
+        private int size;
+
+        Batch(int capacity) {
+            applicationIds = new long[capacity];
+            epochDays = new long[capacity];
+            programCodes = new String[capacity];
+        }
+
+        void add(long applicationId, long epochDay, String programCode) {
+            applicationIds[size] = applicationId;
+            epochDays[size] = epochDay;
+            programCodes[size] = programCode;
+            size++;
+        }
+    }
+
+    /**
+     * Teilergebnis eines Blocks / Partial result of one batch
+     */
+    private static class Tally {
+        private final Map<DeadlineCalendar.Intake, Counts> semesterByIntake = new HashMap<>();
+        private final Map<String, Counts> semesters = new HashMap<>();
+        private final Map<Long, Counts> days = new HashMap<>();
+        private final List<Flip> flips = new ArrayList<>();
+        private long total;
+        private long outOfRange;
+        private long flippedToLate;
+        private long flippedToOnTime;
+
+        // Intakes are shared per calendar, so the identity lookup avoids building keys per row
+        // Zeiträume sind je Kalender geteilt; die Suche über die Identität spart Schlüssel je Zeile
+        Counts semester(DeadlineCalendar.Intake intake) {
+            Counts counts = semesterByIntake.get(intake);
+            if (counts == null) {
+                String key = intake.getSemesterStart().getYear() + " " + intake.getSemesterType().name();
+                counts = semesters.computeIfAbsent(key, k -> new Counts());
+                semesterByIntake.put(intake, counts);
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Zählungen unter aktiver und Kandidatenkonfiguration / Counts under active and candidate configuration
+     */
+    private static class Counts {
+        private long currentOnTime;
+        private long currentLate;
+        private long candidateOnTime;
+        private long candidateLate;
+
+        void record(boolean currentVerdict, boolean candidateVerdict) {
+            if (currentVerdict) {
+                currentOnTime++;
+            } else {
+                currentLate++;
+            }
+            if (candidateVerdict) {
+                candidateOnTime++;
+            } else {
+                candidateLate++;
+            }
+        }
+
+        void add(Counts other) {
+            currentOnTime += other.currentOnTime;
+            currentLate += other.currentLate;
+            candidateOnTime += other.candidateOnTime;
+            candidateLate += other.candidateLate;
+        }
+
+        Map<String, Object> toMap(String keyName, Object key) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put(keyName, key);
+            map.put("onTime", candidateOnTime);
+            map.put("late", candidateLate);
+            map.put("currentOnTime", currentOnTime);
+            map.put("currentLate", currentLate);
+            return map;
+        }
+    }
+
+    /**
+     * Bewerbung, deren Ergebnis sich ändern würde / Application whose verdict would flip
+     */
+    public static class Flip {
+        private final long applicationId;
+        private final LocalDate applicationDate;
+        private final String programCode;
+        private final boolean currentOnTime;
+        private final boolean candidateOnTime;
+        private final LocalDate candidateDeadline;
+
+        Flip(long applicationId, LocalDate applicationDate, String programCode,
+             boolean currentOnTime, boolean candidateOnTime, LocalDate candidateDeadline) {
+            this.applicationId = applicationId;
+            this.applicationDate = applicationDate;
+            this.programCode = programCode;
+            this.currentOnTime = currentOnTime;
+            this.candidateOnTime = candidateOnTime;
+            this.candidateDeadline = candidateDeadline;
+        }
+
+        public long getApplicationId() { return applicationId; }
+        public LocalDate getApplicationDate() { return applicationDate; }
+        public String getProgramCode() { return programCode; }
+        public boolean isCurrentOnTime() { return currentOnTime; }
+        public boolean isCandidateOnTime() { return candidateOnTime; }
+        public LocalDate getCandidateDeadline() { return candidateDeadline; }
+    }
+
+    /**
+     * Ergebnis eines Backtests / Result of a backtest
+     */
+    public static class BacktestReport {
+        private final String source;
+        private final String startedAt = LocalDateTime.now().toString();
+        private long applications;
+        private long invalid;
+        private long outOfRange;
+        private long flippedToLate;
+        private long flippedToOnTime;
+        private boolean flipsTruncated;
+        private int batches;
+        private long durationMillis;
+        private final List<Map<String, Object>> semesters = new ArrayList<>();
+        private final List<Map<String, Object>> days = new ArrayList<>();
+        private List<Flip> flips = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+
+        BacktestReport(String source) {
+            this.source = source;
+        }
+
+        public String getSource() { return source; }
+        public String getStartedAt() { return startedAt; }
+        public long getApplications() { return applications; }
+        public long getInvalid() { return invalid; }
+        public long getOutOfRange() { return outOfRange; }
+        public long getFlippedToLate() { return flippedToLate; }
+        public long getFlippedToOnTime() { return flippedToOnTime; }
+        public boolean isFlipsTruncated() { return flipsTruncated; }
+        public int getBatches() { return batches; }
+        public long getDurationMillis() { return durationMillis; }
+        public List<Map<String, Object>> getSemesters() { return semesters; }
+        public List<Map<String, Object>> getDays() { return days; }
+        public List<Flip> getFlips() { return flips; }
+        public List<String> getErrors() { return errors; }
+
+        public long getApplicationsPerSecond() {
+            return durationMillis > 0 ? applications * 1000 / durationMillis : applications;
+        }
+    }
+}
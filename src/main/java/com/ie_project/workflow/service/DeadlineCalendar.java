@@ -0,0 +1,271 @@
+package com.ie_project.workflow.service;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Unveränderlicher, vorberechneter Kalender der Bewerbungszeiträume
+ * Immutable, precomputed calendar of application intake windows
+ *
+ * Every year has two intake windows: applications from January to June target the winter
+ * semester of the same year, applications from July to December the summer semester of the
+ * next year. The semester start comes from the intake rule of the study program (or the
+ * default rule), the submission deadline lies monthsBefore months before it.
+ *
+ * All intakes of a program are built once for the configured range of years. The window start
+ * dates are kept as a sorted array of epoch days next to the intake objects, so a lookup is one
+ * binary search and returns a shared intake without allocating. A new configuration produces a
+ * new calendar; the ApplicationDeadlineService swaps the reference.
+ *
+ * Jedes Jahr hat zwei Bewerbungszeiträume (Januar-Juni für das Wintersemester, Juli-Dezember
+ * für das Sommersemester des Folgejahres). Alle Zeiträume werden einmal vorberechnet; die
+ * Suche ist eine binäre Suche über die Startdaten ohne Objekterzeugung.
+ *
+ * @author IE Project Team
+ */
+public final class DeadlineCalendar {
+
+    private final IntakeRule defaultRule;
+    private final ProgramCalendar defaultCalendar;
+    private final Map<String, ProgramCalendar> programCalendars;
+    private final int firstYear;
+    private final int lastYear;
+
+    private DeadlineCalendar(IntakeRule defaultRule, Collection<IntakeRule> programRules, int firstYear, int lastYear) {
+        this.defaultRule = defaultRule;
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.defaultCalendar = new ProgramCalendar(defaultRule, firstYear, lastYear);
+        Map<String, ProgramCalendar> calendars = new HashMap<>();
+        for (IntakeRule rule : programRules) {
+            calendars.put(rule.getProgramCode(), new ProgramCalendar(rule, firstYear, lastYear));
+        }
+        this.programCalendars = Collections.unmodifiableMap(calendars);
+    }
+
+    /**
+     * Berechnet einen Kalender für die Jahre firstYear bis einschließlich lastYear
+     * Builds a calendar for the years firstYear up to and including lastYear
+     *
+     * @param defaultRule  Regel für Studiengänge ohne eigene Regel / Rule for programs without their own rule
+     * @param programRules Abweichende Regeln je Studiengang / Deviating rules per study program
+     */
+    public static DeadlineCalendar build(IntakeRule defaultRule, Collection<IntakeRule> programRules, int firstYear, int lastYear) {
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("lastYear before firstYear / lastYear vor firstYear");
+        }
+        return new DeadlineCalendar(defaultRule, programRules, firstYear, lastYear);
+    }
+
+    /**
+     * Bewerbungszeitraum, in den das Datum fällt / Intake window the date falls into
+     *
+     * @param programCode Studiengang oder null für die Standardregel / Study program or null for the default rule
+     * @throws IllegalArgumentException wenn das Datum außerhalb des Kalenders liegt / if the date is outside the calendar
+     */
+    public Intake intakeFor(String programCode, LocalDate applicationDate) {
+        return calendarOf(programCode).intakeFor(applicationDate.toEpochDay());
+    }
+
+    /**
+     * Bewerbungszeitraum zu einem Tag seit der Epoche / Intake window for a day since the epoch
+     */
+    public Intake intakeFor(String programCode, long epochDay) {
+        return calendarOf(programCode).intakeFor(epochDay);
+    }
+
+    /**
+     * Rechtzeitig eingereicht? Ohne Objekterzeugung / Submitted on time? Without allocation
+     */
+    public boolean isOnTime(String programCode, LocalDate applicationDate) {
+        return isOnTime(programCode, applicationDate.toEpochDay());
+    }
+
+    public boolean isOnTime(String programCode, long epochDay) {
+        return epochDay <= calendarOf(programCode).intakeFor(epochDay).submissionDeadlineEpochDay;
+    }
+
+    /**
+     * Liegt der Tag im Kalender? / Is the day covered by the calendar?
+     */
+    public boolean covers(long epochDay) {
+        return epochDay >= defaultCalendar.opensOn[0] && epochDay <= defaultCalendar.closesAfter;
+    }
+
+    /**
+     * Alle Bewerbungszeiträume eines Studiengangs in einem Jahr
+     * All intake windows of a study program within one year
+     */
+    public List<Intake> intakesOfYear(String programCode, int year) {
+        List<Intake> intakes = new ArrayList<>(2);
+        for (Intake intake : calendarOf(programCode).intakes) {
+            if (intake.getOpensOn().getYear() == year) {
+                intakes.add(intake);
+            }
+        }
+        return intakes;
+    }
+
+    public IntakeRule getDefaultRule() { return defaultRule; }
+
+    public List<IntakeRule> getProgramRules() {
+        List<IntakeRule> rules = new ArrayList<>();
+        for (ProgramCalendar calendar : programCalendars.values()) {
+            rules.add(calendar.rule);
+        }
+        rules.sort((a, b) -> a.getProgramCode().compareTo(b.getProgramCode()));
+        return rules;
+    }
+
+    public int getFirstYear() { return firstYear; }
+    public int getLastYear() { return lastYear; }
+
+    public int getIntakeCount() {
+        int count = defaultCalendar.intakes.length;
+        for (ProgramCalendar calendar : programCalendars.values()) {
+            count += calendar.intakes.length;
+        }
+        return count;
+    }
+
+    private ProgramCalendar calendarOf(String programCode) {
+        if (programCode == null) {
+            return defaultCalendar;
+        }
+        ProgramCalendar calendar = programCalendars.get(programCode);
+        return calendar != null ? calendar : defaultCalendar;
+    }
+
+    /**
+     * Vorberechnete Zeiträume eines Studiengangs / Precomputed windows of one study program
+     */
+    private static final class ProgramCalendar {
+        private final IntakeRule rule;
+        private final long[] opensOn;
+        private final Intake[] intakes;
+        private final long closesAfter;
+
+        ProgramCalendar(IntakeRule rule, int firstYear, int lastYear) {
+            this.rule = rule;
+            int count = (lastYear - firstYear + 1) * 2;
+            this.opensOn = new long[count];
+            this.intakes = new Intake[count];
+            int index = 0;
+            for (int year = firstYear; year <= lastYear; year++) {
+                // January-June: winter semester of the same year / Januar-Juni: Wintersemester desselben Jahres
+                intakes[index] = new Intake(SemesterType.WINTER, LocalDate.of(year, 1, 1),
+                        rule.getWinterStart().atYear(year), rule.getMonthsBefore());
+                opensOn[index] = intakes[index].getOpensOn().toEpochDay();
+                index++;
+                // July-December: summer semester of the next year / Juli-Dezember: Sommersemester des Folgejahres
+                intakes[index] = new Intake(SemesterType.SUMMER, LocalDate.of(year, 7, 1),
+                        rule.getSummerStart().atYear(year + 1), rule.getMonthsBefore());
+                opensOn[index] = intakes[index].getOpensOn().toEpochDay();
+                index++;
+            }
+            this.closesAfter = LocalDate.of(lastYear, 12, 31).toEpochDay();
+        }
+
+        Intake intakeFor(long epochDay) {
+            int index = Arrays.binarySearch(opensOn, epochDay);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            if (index < 0 || epochDay > closesAfter) {
+                throw new IllegalArgumentException("Date outside of the deadline calendar / Datum außerhalb des Fristenkalenders: "
+                        + LocalDate.ofEpochDay(epochDay));
+            }
+            return intakes[index];
+        }
+    }
+
+    /**
+     * Semesterart / Semester type
+     */
+    public enum SemesterType {
+        WINTER("Wintersemester / Winter Semester"),
+        SUMMER("Sommersemester / Summer Semester");
+
+        private final String label;
+
+        SemesterType(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+    }
+
+    /**
+     * Fristenregel eines Studiengangs / Intake rule of a study program
+     */
+    public static final class IntakeRule {
+        private final String programCode;
+        private final MonthDay winterStart;
+        private final MonthDay summerStart;
+        private final int monthsBefore;
+
+        public IntakeRule(String programCode, MonthDay winterStart, MonthDay summerStart, int monthsBefore) {
+            if (monthsBefore < 0) {
+                throw new IllegalArgumentException("monthsBefore must not be negative / monthsBefore darf nicht negativ sein");
+            }
+            this.programCode = programCode;
+            this.winterStart = winterStart;
+            this.summerStart = summerStart;
+            this.monthsBefore = monthsBefore;
+        }
+
+        public String getProgramCode() { return programCode; }
+        public MonthDay getWinterStart() { return winterStart; }
+        public MonthDay getSummerStart() { return summerStart; }
+        public int getMonthsBefore() { return monthsBefore; }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof IntakeRule)) {
+                return false;
+            }
+            IntakeRule rule = (IntakeRule) other;
+            return Objects.equals(programCode, rule.programCode) && winterStart.equals(rule.winterStart)
+                    && summerStart.equals(rule.summerStart) && monthsBefore == rule.monthsBefore;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(programCode, winterStart, summerStart, monthsBefore);
+        }
+    }
+
+    /**
+     * Ein Bewerbungszeitraum mit Zielsemester und Einreichungsfrist
+     * One intake window with target semester and submission deadline
+     */
+    public static final class Intake {
+        private final SemesterType semesterType;
+        private final LocalDate opensOn;
+        private final LocalDate semesterStart;
+        private final LocalDate submissionDeadline;
+        private final long submissionDeadlineEpochDay;
+
+        Intake(SemesterType semesterType, LocalDate opensOn, LocalDate semesterStart, int monthsBefore) {
+            this.semesterType = semesterType;
+            this.opensOn = opensOn;
+            this.semesterStart = semesterStart;
+            this.submissionDeadline = semesterStart.minusMonths(monthsBefore);
+            this.submissionDeadlineEpochDay = submissionDeadline.toEpochDay();
+        }
+
+        public SemesterType getSemesterType() { return semesterType; }
+        public boolean isOnTime(long epochDay) { return epochDay <= submissionDeadlineEpochDay; }
+        public LocalDate getOpensOn() { return opensOn; }
+        public LocalDate getSemesterStart() { return semesterStart; }
+        public LocalDate getSubmissionDeadline() { return submissionDeadline; }
+    }
+}
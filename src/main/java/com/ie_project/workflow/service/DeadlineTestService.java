@@ -55,12 +55,10 @@ public class DeadlineTestService {
         System.out.println("Application Date: " + applicationDate.format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")));
 
         try {
-            // Check if application is on time / Prüfen ob Bewerbung rechtzeitig ist
-            boolean isOnTime = deadlineService.isApplicationOnTime(applicationDate);
-
             // Get detailed result / Detailliertes Ergebnis holen
             ApplicationDeadlineService.DeadlineCheckResult result =
                     deadlineService.getDeadlineCheckResult(applicationDate);
+            boolean isOnTime = result.isOnTime();
 
             // Create message / Nachricht erstellen
             String message = deadlineService.createDeadlineMessage(result, "Test Student");
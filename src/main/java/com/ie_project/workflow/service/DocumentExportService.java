@@ -0,0 +1,332 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.StoredDocument;
+import com.ie_project.workflow.repository.StoredDocumentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service für den Massenexport der Bescheide einer Bewerbungsrunde als Dateien
+ * Service for the bulk export of the letters of an application round as files
+ *
+ * The documents of all applications submitted in the round are selected by content id in
+ * chunks (metadata only). Each document is loaded and decompressed on a bounded fork-join
+ * pool; the number of documents in flight is capped at twice the parallelism, so the selection
+ * waits for the workers instead of piling up content in memory. Writes to disk are limited
+ * separately by max-concurrent-writes, the time spent waiting for a write slot is reported as
+ * back-pressure. A manifest with the SHA-256 checksum of every file is written at the end.
+ *
+ * Die Dokumente aller Bewerbungen der Runde werden blockweise ausgewählt, auf einem begrenzten
+ * Fork-Join-Pool geladen und dekomprimiert und mit begrenzter Anzahl paralleler Schreibvorgänge
+ * abgelegt. Am Ende wird ein Manifest mit SHA-256-Prüfsummen geschrieben.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class DocumentExportService {
+
+    /**
+     * Standardmäßig exportierte Dokumenttypen: Bescheide, Einladungen und Ablehnungen
+     * Document types exported by default: admission letters, invitations and rejections
+     */
+    public static final List<String> DEFAULT_DOCUMENT_TYPES = List.of(
+            "officialAdmissionLetter",
+            "officialExamInvitation",
+            "ncRejectionNotification",
+            "examRejectionNotification",
+            "paymentRejectionNotification",
+            "rejectionNotification"
+    );
+
+    public static final String MANIFEST_FILE = "manifest.csv";
+
+    private static final int MAX_PARALLELISM = 16;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final DateTimeFormatter JOB_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Autowired
+    private StoredDocumentRepository storedDocumentRepository;
+
+    @Value("${application.documents.export.directory:document-exports}")
+    private String exportDirectory;
+
+    @Value("${application.documents.export.parallelism:4}")
+    private int defaultParallelism;
+
+    @Value("${application.documents.export.max-concurrent-writes:2}")
+    private int maxConcurrentWrites;
+
+    @Value("${application.documents.export.page-size:500}")
+    private int pageSize;
+
+    /**
+     * Exportiert die Dokumente aller Bewerbungen einer Runde
+     * Exports the documents of all applications of a round
+     *
+     * @param submittedFrom Erster Einreichungstag (inklusive) / First submission day (inclusive)
+     * @param submittedTo Letzter Einreichungstag (inklusive) / Last submission day (inclusive)
+     * @param studyProgramId Optionaler Studiengang-Filter / Optional study program filter
+     * @param documentTypes Dokumenttypen, null für Standard / Document types, null for default
+     * @param parallelism Anzahl Worker, null für Standard / Number of workers, null for default
+     * @return Bericht des Exports / Export report
+     */
+    public DocumentExportReport exportRound(LocalDate submittedFrom, LocalDate submittedTo, Long studyProgramId,
+                                            List<String> documentTypes, Integer parallelism) throws IOException {
+
+        if (submittedFrom == null || submittedTo == null || submittedTo.isBefore(submittedFrom)) {
+            throw new IllegalArgumentException("Invalid round, submittedFrom must not be after submittedTo / Ungültige Runde: Beginn nach Ende");
+        }
+
+        List<String> types = documentTypes != null && !documentTypes.isEmpty() ? documentTypes : DEFAULT_DOCUMENT_TYPES;
+        for (String type : types) {
+            // Used as directory name / Wird als Verzeichnisname verwendet
+            if (!type.matches("[A-Za-z0-9_-]+")) {
+                throw new IllegalArgumentException("Invalid document type / Ungültiger Dokumenttyp: " + type);
+            }
+        }
+        int workers = parallelism != null && parallelism > 0 ? Math.min(parallelism, MAX_PARALLELISM) : defaultParallelism;
+        int inFlightLimit = workers * 2;
+
+        Path directory = Files.createDirectories(Paths.get(exportDirectory).resolve(
+                "round-" + submittedFrom + "_" + submittedTo
+                        + (studyProgramId != null ? "-program-" + studyProgramId : "")
+                        + "-" + LocalDateTime.now().format(JOB_TIMESTAMP)));
+
+        for (String type : types) {
+            Files.createDirectories(directory.resolve(type));
+        }
+
+        DocumentExportReport report = new DocumentExportReport(directory, types, workers, maxConcurrentWrites);
+        ConcurrentLinkedQueue<ManifestEntry> manifest = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(inFlightLimit);
+        Semaphore diskWrites = new Semaphore(Math.max(1, maxConcurrentWrites), true);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        long startTime = System.nanoTime();
+
+        try {
+            String afterContentId = "";
+            List<Object[]> chunk;
+            do {
+                chunk = storedDocumentRepository.findExportChunk(types, submittedFrom.atStartOfDay(),
+                        submittedTo.plusDays(1).atStartOfDay(), studyProgramId, afterContentId, PageRequest.of(0, pageSize));
+
+                for (Object[] row : chunk) {
+                    String contentId = (String) row[0];
+                    Long applicationId = (Long) row[1];
+                    String documentType = (String) row[2];
+
+                    // Back-pressure: wait until a worker finished / Gegendruck: warten bis ein Worker fertig ist
+                    acquire(inFlight, 1);
+                    report.selected.incrementAndGet();
+                    pool.execute(() -> {
+                        try {
+                            manifest.add(exportDocument(directory, contentId, applicationId, documentType, diskWrites, report));
+                        } catch (Exception e) {
+                            report.addFailure(contentId, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+                if (!chunk.isEmpty()) {
+                    afterContentId = (String) chunk.get(chunk.size() - 1)[0];
+                }
+            } while (chunk.size() == pageSize);
+
+            // Wait for the remaining documents / Auf die restlichen Dokumente warten
+            acquire(inFlight, inFlightLimit);
+
+        } finally {
+            pool.shutdown();
+        }
+
+        Path manifestFile = writeManifest(directory, manifest);
+        report.finish(manifestFile, System.nanoTime() - startTime);
+
+        System.out.println("=== DOCUMENT EXPORT COMPLETED ===");
+        System.out.println("Round: " + submittedFrom + " - " + submittedTo);
+        System.out.println("Study Program Filter: " + (studyProgramId != null ? studyProgramId : "ALL"));
+        System.out.println("Directory: " + report.getDirectory());
+        System.out.println("Documents Written: " + report.getWritten() + " / " + report.getSelected());
+        System.out.println("Failed: " + report.getFailed());
+        System.out.println("Bytes Written: " + report.getBytesWritten());
+        System.out.println("Workers: " + workers + ", concurrent writes: " + maxConcurrentWrites);
+        System.out.println("Disk Wait: " + report.getDiskWaitMillis() + " ms");
+        System.out.println("Duration: " + report.getDurationMillis() + " ms (" + report.getDocumentsPerSecond() + " documents/s)");
+        System.out.println("=================================");
+
+        return report;
+    }
+
+    /**
+     * Lädt, dekomprimiert und schreibt ein Dokument
+     * Loads, decompresses and writes one document
+     */
+    private ManifestEntry exportDocument(Path directory, String contentId, Long applicationId, String documentType,
+                                         Semaphore diskWrites, DocumentExportReport report) throws IOException {
+
+        StoredDocument document = storedDocumentRepository.findById(contentId)
+                .orElseThrow(() -> new IllegalStateException("Document disappeared / Dokument nicht mehr vorhanden: " + contentId));
+
+        // Render outside the write slot, only the disk access is limited
+        // Rendern außerhalb des Schreib-Slots, nur der Plattenzugriff ist begrenzt
+        byte[] content;
+        try (InputStream in = DocumentStoreService.openDecompressedStream(document)) {
+            content = in.readAllBytes();
+        }
+        String checksum = sha256(content);
+
+        Path file = directory.resolve(documentType).resolve(
+                (applicationId != null ? applicationId : "unassigned") + "-" + contentId.substring(0, 8) + ".txt");
+
+        long waitStart = System.nanoTime();
+        acquire(diskWrites, 1);
+        report.diskWaitNanos.addAndGet(System.nanoTime() - waitStart);
+        try {
+            Files.write(file, content);
+        } finally {
+            diskWrites.release();
+        }
+
+        report.written.incrementAndGet();
+        report.bytesWritten.addAndGet(content.length);
+        return new ManifestEntry(directory.relativize(file).toString().replace('\\', '/'),
+                applicationId, documentType, contentId, content.length, checksum);
+    }
+
+    /**
+     * Schreibt das Manifest sortiert nach Dateiname / Writes the manifest ordered by file name
+     */
+    private Path writeManifest(Path directory, ConcurrentLinkedQueue<ManifestEntry> entries) throws IOException {
+        List<ManifestEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(entry -> entry.file));
+
+        Path manifestFile = directory.resolve(MANIFEST_FILE);
+        try (BufferedWriter writer = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8)) {
+            writer.write("file;applicationId;documentType;contentId;bytes;sha256");
+            writer.newLine();
+            for (ManifestEntry entry : sorted) {
+                writer.write(entry.file + ";" + (entry.applicationId != null ? entry.applicationId : "") + ";"
+                        + entry.documentType + ";" + entry.contentId + ";" + entry.bytes + ";" + entry.sha256);
+                writer.newLine();
+            }
+        }
+        return manifestFile;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available / SHA-256 nicht verfügbar", e);
+        }
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Document export interrupted / Dokumentexport unterbrochen", e);
+        }
+    }
+
+    /**
+     * Eine Zeile des Manifests / One manifest line
+     */
+    private static class ManifestEntry {
+        private final String file;
+        private final Long applicationId;
+        private final String documentType;
+        private final String contentId;
+        private final int bytes;
+        private final String sha256;
+
+        ManifestEntry(String file, Long applicationId, String documentType, String contentId, int bytes, String sha256) {
+            this.file = file;
+            this.applicationId = applicationId;
+            this.documentType = documentType;
+            this.contentId = contentId;
+            this.bytes = bytes;
+            this.sha256 = sha256;
+        }
+    }
+
+    /**
+     * Bericht eines Dokumentexports / Report of a document export
+     */
+    public static class DocumentExportReport {
+        private final String directory;
+        private final List<String> documentTypes;
+        private final int parallelism;
+        private final int maxConcurrentWrites;
+        private final AtomicLong selected = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong bytesWritten = new AtomicLong();
+        private final AtomicLong diskWaitNanos = new AtomicLong();
+        private final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        private String manifestFile;
+        private long durationMillis;
+        private double documentsPerSecond;
+
+        DocumentExportReport(Path directory, List<String> documentTypes, int parallelism, int maxConcurrentWrites) {
+            this.directory = directory.toAbsolutePath().toString();
+            this.documentTypes = documentTypes;
+            this.parallelism = parallelism;
+            this.maxConcurrentWrites = maxConcurrentWrites;
+        }
+
+        void addFailure(String contentId, Exception e) {
+            failed.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(contentId + ": " + e.getMessage());
+            }
+            System.err.println("Document export failed / Dokumentexport fehlgeschlagen: " + contentId + " - " + e.getMessage());
+        }
+
+        void finish(Path manifest, long durationNanos) {
+            this.manifestFile = manifest.toAbsolutePath().toString();
+            this.durationMillis = durationNanos / 1_000_000;
+            double seconds = durationNanos / 1_000_000_000.0;
+            this.documentsPerSecond = seconds > 0 ? Math.round(written.get() * 10.0 / seconds) / 10.0 : 0.0;
+        }
+
+        public String getDirectory() { return directory; }
+        public String getManifestFile() { return manifestFile; }
+        public List<String> getDocumentTypes() { return documentTypes; }
+        public int getParallelism() { return parallelism; }
+        public int getMaxConcurrentWrites() { return maxConcurrentWrites; }
+        public long getSelected() { return selected.get(); }
+        public long getWritten() { return written.get(); }
+        public long getFailed() { return failed.get(); }
+        public long getBytesWritten() { return bytesWritten.get(); }
+        public long getDiskWaitMillis() { return diskWaitNanos.get() / 1_000_000; }
+        public long getDurationMillis() { return durationMillis; }
+        public double getDocumentsPerSecond() { return documentsPerSecond; }
+        public List<String> getErrors() { return new ArrayList<>(errors); }
+    }
+}
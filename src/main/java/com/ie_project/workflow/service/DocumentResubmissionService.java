@@ -0,0 +1,175 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.config.DocumentResubmissionSettings;
+import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.repository.ApplicationRepository;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service für nachgereichte Bewerbungsdokumente
+ * Service for resubmitted application documents
+ *
+ * After an incomplete document verification the process waits for the "DocumentsSubmitted"
+ * message instead of re-checking every minute. The escalating timer in the process is only
+ * a fallback that brings the application back to staff if the applicant never responds.
+ *
+ * Nach einer unvollständigen Dokumentenprüfung wartet der Prozess auf die Nachricht
+ * "DocumentsSubmitted" statt jede Minute erneut zu prüfen. Der eskalierende Timer ist
+ * nur ein Fallback, falls der Bewerber nicht reagiert.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class DocumentResubmissionService {
+
+    /**
+     * Name der BPMN-Nachricht / Name of the BPMN message
+     */
+    public static final String DOCUMENTS_SUBMITTED_MESSAGE = "DocumentsSubmitted";
+
+    private static final String WAIT_GATEWAY_ID = "Gateway_WaitForDocuments";
+    private static final String MESSAGE_EVENT_ID = "Event_WaitForDocuments";
+    private static final String TIMEOUT_EVENT_ID = "Event_DocumentsTimeout";
+
+    // Finished waits, their total duration and the PT1M jobs they would have needed (at least one per wait)
+    // Abgeschlossene Wartephasen, ihre Gesamtdauer und die Jobs der früheren PT1M-Schleife (mindestens einer)
+    private static final String FINISHED_WAITS_SQL =
+            "SELECT COUNT(*) AS WAITS, COALESCE(SUM(DURATION_), 0) AS TOTAL_MILLIS, " +
+            "COALESCE(SUM(GREATEST(1, FLOOR((DURATION_ + ? - 1) / ?))), 0) AS LEGACY_JOBS " +
+            "FROM ACT_HI_ACTINST WHERE ACT_ID_ = ? AND END_TIME_ IS NOT NULL";
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private DocumentResubmissionSettings settings;
+
+    /**
+     * Korreliert nachgereichte Dokumente mit der wartenden Prozessinstanz
+     * Correlates resubmitted documents with the waiting process instance
+     *
+     * @param applicationId Die Bewerbungs-ID / The application ID
+     * @param submittedDocuments Beschreibung der nachgereichten Dokumente / Description of the submitted documents
+     * @return true wenn eine wartende Instanz fortgesetzt wurde / true if a waiting instance was resumed
+     */
+    public boolean submitDocuments(Long applicationId, String submittedDocuments) {
+
+        Application application = applicationRepository.findById(applicationId)
+                .orElseThrow(() -> new IllegalArgumentException("Application not found / Bewerbung nicht gefunden: " + applicationId));
+
+        MessageCorrelationBuilder correlation = runtimeService.createMessageCorrelation(DOCUMENTS_SUBMITTED_MESSAGE)
+                .setVariable("resubmittedDocuments", submittedDocuments != null ? submittedDocuments : "")
+                .setVariable("documentsResubmittedAt", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+
+        if (application.getCamundaProcessInstanceId() != null) {
+            correlation.processInstanceId(application.getCamundaProcessInstanceId());
+        } else {
+            correlation.processInstanceVariableEquals("applicationId", applicationId);
+        }
+
+        List<MessageCorrelationResult> results = correlation.correlateAllWithResult();
+        boolean correlated = !results.isEmpty();
+
+        System.out.println("=== DOCUMENTS RESUBMITTED ===");
+        System.out.println("Application ID: " + applicationId);
+        System.out.println("Submitted Documents: " + submittedDocuments);
+        System.out.println("Correlated: " + (correlated ? "YES" : "NO (instance not waiting for documents)"));
+        System.out.println("=============================");
+
+        return correlated;
+    }
+
+    /**
+     * Statistik über Wartezeiten und eingesparte Jobs
+     * Statistics about waiting times and saved jobs
+     *
+     * Every wait creates exactly one timeout job. The former PT1M polling loop created one
+     * timer job and one new user task per minute of waiting; this is estimated from the
+     * recorded wait durations. Finished waits are aggregated in one SQL query over
+     * ACT_HI_ACTINST and the counts use history count queries, so only the waits that are
+     * still open are loaded.
+     *
+     * Jede Wartephase erzeugt genau einen Timeout-Job. Die frühere PT1M-Schleife erzeugte pro
+     * Warteminute einen Timer-Job und eine neue Benutzeraufgabe; dies wird aus den
+     * aufgezeichneten Wartezeiten geschätzt. Abgeschlossene Wartephasen werden per SQL
+     * aggregiert, geladen werden nur die noch offenen.
+     */
+    public Map<String, Object> getResubmissionStatistics() {
+
+        long legacyIntervalMillis = settings.getLegacyPollingInterval().toMillis();
+        long now = System.currentTimeMillis();
+
+        Map<String, Object> finished = jdbcTemplate.queryForMap(FINISHED_WAITS_SQL,
+                legacyIntervalMillis, legacyIntervalMillis, WAIT_GATEWAY_ID);
+        long waits = ((Number) finished.get("WAITS")).longValue();
+        long totalWaitMillis = ((Number) finished.get("TOTAL_MILLIS")).longValue();
+        long legacyTimerJobs = ((Number) finished.get("LEGACY_JOBS")).longValue();
+
+        List<HistoricActivityInstance> open = historyService.createHistoricActivityInstanceQuery()
+                .activityId(WAIT_GATEWAY_ID)
+                .unfinished()
+                .list();
+        long waitingNow = open.size();
+        for (HistoricActivityInstance wait : open) {
+            long waitMillis = Math.max(now - wait.getStartTime().getTime(), 0);
+            waits++;
+            totalWaitMillis += waitMillis;
+            legacyTimerJobs += Math.max(1, (waitMillis + legacyIntervalMillis - 1) / legacyIntervalMillis);
+        }
+
+        long resubmissions = historyService.createHistoricActivityInstanceQuery()
+                .activityId(MESSAGE_EVENT_ID).count();
+        long timeouts = historyService.createHistoricActivityInstanceQuery()
+                .activityId(TIMEOUT_EVENT_ID).count();
+        long pendingTimeoutJobs = managementService.createJobQuery()
+                .activityId(TIMEOUT_EVENT_ID).timers().count();
+
+        // One timeout timer per wait, plus one async continuation per resubmission
+        // Ein Timeout-Timer pro Wartephase, plus eine asynchrone Fortsetzung pro Nachreichung
+        long eventDrivenJobs = waits + resubmissions;
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("waits", waits);
+        statistics.put("waitingNow", waitingNow);
+        statistics.put("resubmissions", resubmissions);
+        statistics.put("timeouts", timeouts);
+        statistics.put("pendingTimeoutJobs", pendingTimeoutJobs);
+        statistics.put("averageWaitMinutes", waits > 0 ? Math.round(totalWaitMillis / 600.0 / waits) / 100.0 : 0.0);
+        statistics.put("jobsEventDriven", eventDrivenJobs);
+        statistics.put("jobsLegacyPollingEstimate", legacyTimerJobs);
+        statistics.put("jobsSaved", legacyTimerJobs - eventDrivenJobs);
+        statistics.put("userTasksEventDriven", resubmissions + timeouts);
+        statistics.put("userTasksLegacyPollingEstimate", legacyTimerJobs);
+        statistics.put("legacyPollingInterval", settings.getLegacyPollingInterval().toString());
+        statistics.put("baseTimeout", settings.getBaseTimeout().toString());
+        statistics.put("maxTimeout", settings.getMaxTimeout().toString());
+
+        return statistics;
+    }
+}
@@ -0,0 +1,294 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.StoredDocument;
+import com.ie_project.workflow.repository.StoredDocumentRepository;
+import com.ie_project.workflow.template.LetterTemplate;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.FilterOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service für die Auslagerung großer Dokumente aus den Prozessvariablen
+ * Service for offloading large documents out of process variables
+ *
+ * Delegates render multi-kilobyte letters and reports. Stored as String variables
+ * they are written to ACT_RU_VARIABLE and again to ACT_HI_VARINST (plus ACT_GE_BYTEARRAY
+ * above 4000 characters). This service stores them once, GZIP-compressed, in the
+ * stored_documents table and only the content id is kept as process variable.
+ *
+ * Delegates erzeugen mehrere Kilobyte große Bescheide und Berichte. Als String-Variablen
+ * werden sie in ACT_RU_VARIABLE und nochmals in ACT_HI_VARINST geschrieben (ab 4000 Zeichen
+ * zusätzlich in ACT_GE_BYTEARRAY). Dieser Service speichert sie einmalig GZIP-komprimiert
+ * in der Tabelle stored_documents; als Prozessvariable bleibt nur die Content-ID.
+ *
+ * @author IE Project Team
+ */
+@Service
+@Transactional
+public class DocumentStoreService {
+
+    /**
+     * Suffix der Prozessvariable, die die Content-ID hält (z.B. "officialAdmissionLetterDocumentId")
+     * Suffix of the process variable holding the content id (e.g. "officialAdmissionLetterDocumentId")
+     */
+    public static final String DOCUMENT_ID_SUFFIX = "DocumentId";
+
+    // Number of copies Camunda writes per String variable (runtime + history)
+    // Anzahl Kopien, die Camunda pro String-Variable schreibt (Runtime + Historie)
+    private static final int ENGINE_VARIABLE_COPIES = 2;
+
+    @Autowired
+    private StoredDocumentRepository storedDocumentRepository;
+
+    /**
+     * Speichert ein Dokument komprimiert und setzt nur dessen ID als Prozessvariable
+     * Stores a document compressed and sets only its id as process variable
+     *
+     * @param execution Die aktuelle Ausführung / The current execution
+     * @param applicationId Die Bewerbungs-ID / The application ID
+     * @param documentType Der bisherige Variablenname, z.B. "ncRankingReport" / The former variable name
+     * @param content Der Dokumentinhalt / The document content
+     * @return Die Content-ID / The content id
+     */
+    public String storeAsVariable(DelegateExecution execution, Long applicationId, String documentType, String content) {
+        String contentId = store(applicationId, applicationProcessInstanceId(execution), documentType, content);
+        execution.setVariable(documentType + DOCUMENT_ID_SUFFIX, contentId);
+        return contentId;
+    }
+
+    /**
+     * Rendert eine Briefvorlage direkt in den komprimierten Speicher und setzt die ID als Prozessvariable
+     * Renders a letter template straight into compressed storage and sets the id as process variable
+     *
+     * The text is written through the GZIP stream while it is rendered, so the full
+     * document never exists as String or uncompressed byte array.
+     *
+     * Der Text wird beim Rendern direkt durch den GZIP-Stream geschrieben.
+     */
+    public String storeAsVariable(DelegateExecution execution, Long applicationId, String documentType,
+                                  LetterTemplate template, Map<String, ?> model) {
+
+        validateDocumentType(documentType);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        long originalSize;
+        try {
+            CountingOutputStream counter = new CountingOutputStream(new GZIPOutputStream(buffer));
+            try (Writer writer = new OutputStreamWriter(counter, StandardCharsets.UTF_8)) {
+                template.render(model, writer);
+            }
+            originalSize = counter.count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error rendering document / Fehler beim Rendern des Dokuments: " + template.getName(), e);
+        }
+
+        String contentId = save(applicationId, applicationProcessInstanceId(execution), documentType, (int) originalSize, buffer.toByteArray());
+        execution.setVariable(documentType + DOCUMENT_ID_SUFFIX, contentId);
+        return contentId;
+    }
+
+    /**
+     * Speichert ein Dokument GZIP-komprimiert
+     * Stores a document GZIP-compressed
+     *
+     * @return Die Content-ID / The content id
+     */
+    public String store(Long applicationId, String processInstanceId, String documentType, String content) {
+
+        validateDocumentType(documentType);
+
+        byte[] raw = (content != null ? content : "").getBytes(StandardCharsets.UTF_8);
+        return save(applicationId, processInstanceId, documentType, raw.length, compress(raw));
+    }
+
+    /**
+     * Prozessinstanz der Bewerbung, auch aus einem aufgerufenen Teilprozess
+     * Process instance of the application, also from within a called process
+     *
+     * Documents of the NC and entrance exam call activities are filed under the main application
+     * process, so the statistics per process instance still cover the whole application. On an
+     * external task the worker has already resolved it, the task offers no process instance tree.
+     */
+    private static String applicationProcessInstanceId(DelegateExecution execution) {
+        String resolved = ExternalTaskDelegateExecution.applicationProcessInstanceId(execution);
+        if (resolved != null) {
+            return resolved;
+        }
+        DelegateExecution processInstance = execution.getProcessInstance();
+        while (processInstance.getSuperExecution() != null) {
+            processInstance = processInstance.getSuperExecution().getProcessInstance();
+        }
+        return processInstance.getId();
+    }
+
+    private String save(Long applicationId, String processInstanceId, String documentType, int originalSize, byte[] compressed) {
+
+        StoredDocument document = new StoredDocument();
+        document.setContentId(UUID.randomUUID().toString());
+        document.setApplicationId(applicationId);
+        document.setProcessInstanceId(processInstanceId);
+        document.setDocumentType(documentType);
+        document.setOriginalSize(originalSize);
+        document.setCompressedSize(compressed.length);
+        document.setContent(compressed);
+
+        storedDocumentRepository.save(document);
+
+        System.out.println("=== DOCUMENT STORED ===");
+        System.out.println("Content ID: " + document.getContentId());
+        System.out.println("Document Type: " + documentType);
+        System.out.println("Size: " + originalSize + " -> " + compressed.length + " bytes");
+        System.out.println("=======================");
+
+        return document.getContentId();
+    }
+
+    /**
+     * Findet ein gespeichertes Dokument
+     * Finds a stored document
+     */
+    @Transactional(readOnly = true)
+    public Optional<StoredDocument> findDocument(String contentId) {
+        return storedDocumentRepository.findById(contentId);
+    }
+
+    /**
+     * Lädt und dekomprimiert ein Dokument vollständig
+     * Loads and fully decompresses a document
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> loadContent(String contentId) {
+        return storedDocumentRepository.findById(contentId).map(this::readContent);
+    }
+
+    /**
+     * Dekomprimiert den Inhalt eines bereits geladenen Dokuments
+     * Decompresses the content of an already loaded document
+     */
+    public String readContent(StoredDocument document) {
+        return new String(decompress(document.getContent()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Öffnet einen dekomprimierenden Stream auf den Dokumentinhalt
+     * Opens a decompressing stream on the document content
+     */
+    public static InputStream openDecompressedStream(StoredDocument document) throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(document.getContent()));
+    }
+
+    /**
+     * Berechnet die Einsparung an geschriebenen Bytes für eine Prozessinstanz
+     * Calculates the reduction of bytes written for a process instance
+     *
+     * Legacy bytes assume one runtime and one history copy of each String variable;
+     * offloaded bytes are the compressed blob plus the two copies of the id variable.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStorageStatistics(String processInstanceId) {
+
+        List<Object[]> rows = storedDocumentRepository.findMetadataByProcessInstanceId(processInstanceId);
+
+        long legacyBytes = 0;
+        long offloadedBytes = 0;
+        List<Map<String, Object>> documents = new ArrayList<>();
+
+        for (Object[] row : rows) {
+            String contentId = (String) row[0];
+            int originalSize = ((Number) row[2]).intValue();
+            int compressedSize = ((Number) row[3]).intValue();
+
+            legacyBytes += (long) originalSize * ENGINE_VARIABLE_COPIES;
+            offloadedBytes += compressedSize + (long) contentId.length() * ENGINE_VARIABLE_COPIES;
+
+            Map<String, Object> document = new LinkedHashMap<>();
+            document.put("contentId", contentId);
+            document.put("documentType", row[1]);
+            document.put("originalSize", originalSize);
+            document.put("compressedSize", compressedSize);
+            documents.add(document);
+        }
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("processInstanceId", processInstanceId);
+        statistics.put("documentCount", rows.size());
+        statistics.put("bytesWrittenAsVariables", legacyBytes);
+        statistics.put("bytesWrittenOffloaded", offloadedBytes);
+        statistics.put("bytesSaved", legacyBytes - offloadedBytes);
+        statistics.put("reductionPercent", legacyBytes > 0
+                ? Math.round((legacyBytes - offloadedBytes) * 1000.0 / legacyBytes) / 10.0
+                : 0.0);
+        statistics.put("documents", documents);
+
+        return statistics;
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    private static void validateDocumentType(String documentType) {
+        if (documentType == null || documentType.trim().isEmpty()) {
+            throw new IllegalArgumentException("Document type must not be empty / Dokumenttyp darf nicht leer sein");
+        }
+    }
+
+    private static byte[] compress(byte[] raw) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error compressing document / Fehler beim Komprimieren des Dokuments", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error decompressing document / Fehler beim Dekomprimieren des Dokuments", e);
+        }
+    }
+
+    /**
+     * Zählt die unkomprimierten Bytes / Counts the uncompressed bytes
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.config.ExternalNotificationTaskPlugin;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.camunda.bpm.engine.ExternalTaskService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.BadUserRequestException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.externaltask.ExternalTaskQueryTopicBuilder;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetch-and-Lock-Worker für die externen Benachrichtigungs-Tasks
+ * Fetch-and-lock workers for the external notification tasks
+ *
+ * Each of application.notification.external-tasks.worker.workers threads fetches and locks up to
+ * batch-size tasks of the notification topics (highest priority first, with their variables) and
+ * runs the original delegate for each of them against an ExternalTaskDelegateExecution. Only the
+ * public ExternalTaskService is used: the delegate and ExternalTaskService.complete with the
+ * variables it set run in one Spring transaction, which the engine joins, so documents and outbox
+ * rows commit together with the completion and a failure rolls back everything. The failure is
+ * then reported with handleFailure and the remaining retries and becomes an incident when they
+ * run out. If the lock was lost in the meantime, complete fails and the delegate is rolled back.
+ * An idle worker waits up to long-poll-timeout and is woken as soon as a task created on this
+ * node committed. The workers are independent of the job executor threads; another node can run
+ * them alone (worker.enabled with camunda.bpm.job-execution.enabled: false).
+ *
+ * Metrics per topic: external.task.lock.wait (creation until lock), external.task.execution
+ * (tag outcome), external.task.fetch and the busy workers in external.task.workers.busy.
+ *
+ * Jeder Worker-Thread holt und sperrt bis zu batch-size Tasks und führt den ursprünglichen
+ * Delegate zusammen mit ExternalTaskService.complete in einer Transaktion aus. Fehler werden mit
+ * Wiederholungen gemeldet. Ein untätiger Worker wartet bis long-poll-timeout oder bis ein Task
+ * dieses Knotens committet wurde.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class ExternalNotificationTaskWorker {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${application.notification.external-tasks.worker.enabled:${application.notification.external-tasks.enabled:false}}")
+    private boolean enabled;
+
+    // Worker threads, independent of the job executor / Worker-Threads, unabhängig vom Job-Executor
+    @Value("${application.notification.external-tasks.worker.workers:4}")
+    private int workers;
+
+    // Tasks per fetch and lock / Tasks pro Fetch-and-Lock
+    @Value("${application.notification.external-tasks.worker.batch-size:10}")
+    private int batchSize;
+
+    @Value("${application.notification.external-tasks.worker.lock-duration:PT5M}")
+    private Duration lockDuration;
+
+    // Maximum idle wait before the next fetch / Maximale Wartezeit bis zum nächsten Fetch
+    @Value("${application.notification.external-tasks.worker.long-poll-timeout:PT20S}")
+    private Duration longPollTimeout;
+
+    @Value("${application.notification.external-tasks.worker.retries:3}")
+    private int retries;
+
+    @Value("${application.notification.external-tasks.worker.retry-timeout:PT30S}")
+    private Duration retryTimeout;
+
+    private ExternalTaskService externalTaskService;
+    private RuntimeService runtimeService;
+    private final Map<String, JavaDelegate> delegatesByTopic = new HashMap<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final Object wakeUp = new Object();
+    private final AtomicLong wakeUps = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong lostLockCount = new AtomicLong();
+    private final AtomicLong totalLockWaitMillis = new AtomicLong();
+    private final AtomicLong maxLockWaitMillis = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+
+    private Timer fetchTimer;
+    private final Map<String, Timer> lockWaitTimers = new HashMap<>();
+    private final Map<String, Timer> executionTimers = new HashMap<>();
+
+    /**
+     * Startet die Worker, sobald die Engine läuft / Starts the workers once the engine is running
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        ProcessEngine processEngine = applicationContext.getBean(ProcessEngine.class);
+        externalTaskService = processEngine.getExternalTaskService();
+        runtimeService = processEngine.getRuntimeService();
+
+        fetchTimer = Timer.builder("external.task.fetch")
+                .description("Fetch and lock round trip / Dauer eines Fetch-and-Lock")
+                .register(meterRegistry);
+        Gauge.builder("external.task.workers.busy", busyWorkers, AtomicInteger::get)
+                .description("Workers executing tasks / Worker, die Tasks ausführen")
+                .register(meterRegistry);
+        ExternalNotificationTaskPlugin.TOPICS_BY_DELEGATE.forEach((delegateName, topic) -> {
+            delegatesByTopic.put(topic, applicationContext.getBean(delegateName, JavaDelegate.class));
+            lockWaitTimers.put(topic, Timer.builder("external.task.lock.wait")
+                    .description("Creation of the task until its lock / Anlage des Tasks bis zur Sperre")
+                    .tag("topic", topic).publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry));
+            for (String outcome : List.of("completed", "failed", "lost")) {
+                executionTimers.put(topic + "/" + outcome, Timer.builder("external.task.execution")
+                        .description("Execution and completion of a task / Ausführung und Abschluss eines Tasks")
+                        .tag("topic", topic).tag("outcome", outcome).register(meterRegistry));
+            }
+        });
+
+        String workerIdPrefix = ManagementFactory.getRuntimeMXBean().getName();
+        for (int i = 1; i <= workers; i++) {
+            String workerId = workerIdPrefix + "-notify-worker-" + i;
+            Thread thread = new Thread(() -> workLoop(workerId), "external-task-worker-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        startedAt = LocalDateTime.now();
+
+        System.out.println("=== EXTERNAL NOTIFICATION TASK WORKERS STARTED ===");
+        System.out.println("Workers: " + workers + ", batch size: " + batchSize + ", lock duration: " + lockDuration
+                + ", long poll timeout: " + longPollTimeout);
+        System.out.println("==================================================");
+    }
+
+    /**
+     * Weckt wartende Worker nach dem Commit der anlegenden Transaktion
+     * Wakes waiting workers after the creating transaction committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskCreated(ExternalNotificationTaskPlugin.ExternalNotificationTaskCreated event) {
+        if (!running.get()) {
+            return;
+        }
+        synchronized (wakeUp) {
+            wakeUps.incrementAndGet();
+            wakeUp.notifyAll();
+        }
+    }
+
+    private void workLoop(String workerId) {
+        while (running.get()) {
+            long seenWakeUps = wakeUps.get();
+            List<LockedExternalTask> tasks;
+            try {
+                tasks = fetchAndLock(workerId);
+            } catch (Exception e) {
+                // Concurrent fetches of other workers or a database hiccup / Parallele Fetches oder Datenbankfehler
+                System.err.println("External task fetch failed / Abruf externer Tasks fehlgeschlagen: " + e.getMessage());
+                tasks = List.of();
+            }
+
+            if (tasks.isEmpty()) {
+                awaitTasks(seenWakeUps);
+                continue;
+            }
+            busyWorkers.incrementAndGet();
+            try {
+                for (LockedExternalTask task : tasks) {
+                    if (!running.get()) {
+                        break;
+                    }
+                    execute(task, workerId);
+                }
+            } finally {
+                busyWorkers.decrementAndGet();
+            }
+        }
+    }
+
+    private List<LockedExternalTask> fetchAndLock(String workerId) {
+        long started = System.nanoTime();
+        ExternalTaskQueryTopicBuilder query = null;
+        for (String topic : delegatesByTopic.keySet()) {
+            query = (query == null ? externalTaskService.fetchAndLock(batchSize, workerId, true) : query)
+                    .topic(topic, lockDuration.toMillis())
+                    .enableCustomObjectDeserialization();
+        }
+        List<LockedExternalTask> tasks = query.execute();
+        fetchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return tasks;
+    }
+
+    /**
+     * Wartet bis zum Long-Poll-Timeout oder einem Weckruf / Waits for the long poll timeout or a wake-up
+     */
+    private void awaitTasks(long seenWakeUps) {
+        synchronized (wakeUp) {
+            if (wakeUps.get() != seenWakeUps || !running.get()) {
+                return;
+            }
+            try {
+                wakeUp.wait(longPollTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running.set(false);
+            }
+        }
+    }
+
+    /**
+     * Führt den Delegate aus und schließt den Task in derselben Transaktion ab
+     * Runs the delegate and completes the task in the same transaction
+     */
+    private void execute(LockedExternalTask task, String workerId) {
+
+        long lockWaitMillis = Math.max(0, System.currentTimeMillis() - task.getCreateTime().getTime());
+        lockWaitTimers.get(task.getTopicName()).record(lockWaitMillis, TimeUnit.MILLISECONDS);
+        totalLockWaitMillis.addAndGet(lockWaitMillis);
+        maxLockWaitMillis.accumulateAndGet(lockWaitMillis, Math::max);
+
+        JavaDelegate delegate = delegatesByTopic.get(task.getTopicName());
+        long started = System.nanoTime();
+        AtomicBoolean completing = new AtomicBoolean(false);
+        String outcome;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                ExternalTaskDelegateExecution execution = new ExternalTaskDelegateExecution(task,
+                        applicationProcessInstanceId(task.getProcessInstanceId()));
+                try {
+                    delegate.execute(execution.execution());
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ProcessEngineException(e.getMessage(), e);
+                }
+                completing.set(true);
+                externalTaskService.complete(task.getId(), workerId,
+                        execution.variablesToComplete(), execution.localVariablesToComplete());
+            });
+            outcome = "completed";
+        } catch (BadUserRequestException e) {
+            if (!completing.get()) {
+                outcome = "failed";
+                reportFailure(task, workerId, e);
+            } else {
+                // Completed, cancelled or locked by another worker after the lock expired, the delegate was rolled back
+                // Abgeschlossen, abgebrochen oder nach Ablauf der Sperre von einem anderen Worker gesperrt, Delegate zurückgerollt
+                outcome = "lost";
+            }
+        } catch (Exception e) {
+            outcome = "failed";
+            reportFailure(task, workerId, e);
+        }
+
+        executionTimers.get(task.getTopicName() + "/" + outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        switch (outcome) {
+            case "completed" -> completedCount.incrementAndGet();
+            case "lost" -> lostLockCount.incrementAndGet();
+            default -> failedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Prozessinstanz der Bewerbung, auch aus einem aufgerufenen Teilprozess
+     * Process instance of the application, also from within a called process
+     */
+    private String applicationProcessInstanceId(String processInstanceId) {
+        String rootId = processInstanceId;
+        ProcessInstance superInstance;
+        while ((superInstance = runtimeService.createProcessInstanceQuery().subProcessInstanceId(rootId).singleResult()) != null) {
+            rootId = superInstance.getId();
+        }
+        return rootId;
+    }
+
+    /**
+     * Meldet den Fehler mit verbleibenden Wiederholungen, bei 0 entsteht ein Incident
+     * Reports the failure with the remaining retries, at 0 an incident is created
+     */
+    private void reportFailure(LockedExternalTask task, String workerId, Exception e) {
+        int remainingRetries = (task.getRetries() != null ? task.getRetries() : retries) - 1;
+        StringWriter details = new StringWriter();
+        e.printStackTrace(new PrintWriter(details));
+
+        System.err.println("=== ERROR IN EXTERNAL NOTIFICATION TASK ===");
+        System.err.println("Topic: " + task.getTopicName() + ", process instance: " + task.getProcessInstanceId());
+        System.err.println("Error: " + e.getMessage() + ", retries left: " + Math.max(0, remainingRetries));
+        System.err.println("===========================================");
+        try {
+            externalTaskService.handleFailure(task.getId(), workerId, e.getMessage(), details.toString(),
+                    Math.max(0, remainingRetries), retryTimeout.toMillis());
+        } catch (Exception reportError) {
+            // Lock lost, the task is fetched again after the lock expired / Sperre verloren, Task wird nach Ablauf erneut geholt
+            System.err.println("Could not report failure / Fehler nicht meldbar: " + reportError.getMessage());
+        }
+    }
+
+    /**
+     * Statistiken der Worker / Worker statistics
+     */
+    public Map<String, Object> getStatistics() {
+
+        long completed = completedCount.get();
+        long handled = completed + failedCount.get() + lostLockCount.get();
+        long runningSeconds = startedAt != null ? Math.max(1, Duration.between(startedAt, LocalDateTime.now()).getSeconds()) : 0;
+
+        Map<String, Object> topics = new LinkedHashMap<>();
+        if (running.get()) {
+            for (String topic : delegatesByTopic.keySet()) {
+                topics.put(topic, externalTaskService.createExternalTaskQuery().topicName(topic).notLocked().count());
+            }
+        }
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("running", running.get());
+        statistics.put("workers", workers);
+        statistics.put("busyWorkers", busyWorkers.get());
+        statistics.put("batchSize", batchSize);
+        statistics.put("lockDuration", lockDuration.toString());
+        statistics.put("longPollTimeout", longPollTimeout.toString());
+        statistics.put("waitingTasksByTopic", topics);
+        statistics.put("completed", completed);
+        statistics.put("failed", failedCount.get());
+        statistics.put("lostLocks", lostLockCount.get());
+        statistics.put("averageLockWaitMillis", handled > 0 ? totalLockWaitMillis.get() / handled : 0);
+        statistics.put("maxLockWaitMillis", maxLockWaitMillis.get());
+        statistics.put("completedPerSecond", runningSeconds > 0 ? Math.round(completed * 100.0 / runningSeconds) / 100.0 : 0);
+        statistics.put("startedAt", startedAt);
+        statistics.put("timestamp", LocalDateTime.now());
+        return statistics;
+    }
+
+    /**
+     * Beendet die Worker; gesperrte Tasks werden nach Ablauf der Sperre erneut geholt
+     * Stops the workers; locked tasks are fetched again once their lock expired
+     */
+    @PreDestroy
+    void shutdown() {
+        running.set(false);
+        synchronized (wakeUp) {
+            wakeUp.notifyAll();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.ie_project.workflow.service;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.externaltask.LockedExternalTask;
+import org.camunda.bpm.engine.variable.VariableMap;
+import org.camunda.bpm.engine.variable.Variables;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DelegateExecution-Sicht auf einen gesperrten externen Task
+ * DelegateExecution view on a locked external task
+ *
+ * Lets the notification delegates run unchanged on an ExternalNotificationTaskWorker: variables
+ * are read from the ones fetched with the task, and everything the delegate sets is collected
+ * and handed to ExternalTaskService.complete. Only the identifiers and variable methods the
+ * delegates use are supported; any other call fails with UnsupportedOperationException instead
+ * of silently touching the engine outside the public API. The process instance tree is not
+ * reachable either, so the worker resolves the application's root process instance beforehand
+ * and DocumentStoreService reads it through applicationProcessInstanceId.
+ *
+ * Variablen kommen aus dem Fetch-and-Lock, gesetzte Variablen werden für complete gesammelt.
+ * Andere Methoden werfen UnsupportedOperationException. Die Wurzel-Prozessinstanz der
+ * Bewerbung löst der Worker vorab auf.
+ *
+ * @author IE Project Team
+ */
+final class ExternalTaskDelegateExecution implements InvocationHandler {
+
+    private final LockedExternalTask task;
+    private final String applicationProcessInstanceId;
+    private final VariableMap variables;
+    private final Map<String, Object> variablesToComplete = new HashMap<>();
+    private final Map<String, Object> localVariablesToComplete = new HashMap<>();
+    private final DelegateExecution execution;
+
+    ExternalTaskDelegateExecution(LockedExternalTask task, String applicationProcessInstanceId) {
+        this.task = task;
+        this.applicationProcessInstanceId = applicationProcessInstanceId;
+        this.variables = Variables.fromMap(task.getVariables() != null ? task.getVariables() : Map.of());
+        this.execution = (DelegateExecution) Proxy.newProxyInstance(DelegateExecution.class.getClassLoader(),
+                new Class<?>[]{DelegateExecution.class}, this);
+    }
+
+    /**
+     * Wurzel-Prozessinstanz, wenn die Ausführung eine externe Task-Sicht ist, sonst null
+     * Root process instance if the execution is an external task view, otherwise null
+     */
+    static String applicationProcessInstanceId(DelegateExecution execution) {
+        if (Proxy.isProxyClass(execution.getClass())
+                && Proxy.getInvocationHandler(execution) instanceof ExternalTaskDelegateExecution view) {
+            return view.applicationProcessInstanceId;
+        }
+        return null;
+    }
+
+    /**
+     * Die an den Delegate übergebene Ausführung / The execution passed to the delegate
+     */
+    DelegateExecution execution() {
+        return execution;
+    }
+
+    /**
+     * Vom Delegate gesetzte Variablen / Variables set by the delegate
+     */
+    Map<String, Object> variablesToComplete() {
+        return variablesToComplete;
+    }
+
+    /**
+     * Vom Delegate lokal gesetzte Variablen / Variables set locally by the delegate
+     */
+    Map<String, Object> localVariablesToComplete() {
+        return localVariablesToComplete;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method invoked, Object[] args) {
+        String method = invoked.getName();
+        int argCount = args == null ? 0 : args.length;
+        switch (method) {
+            case "getId":
+                return task.getExecutionId();
+            case "getProcessInstanceId":
+                return task.getProcessInstanceId();
+            case "getProcessDefinitionId":
+                return task.getProcessDefinitionId();
+            case "getCurrentActivityId":
+                return task.getActivityId();
+            case "getActivityInstanceId":
+                return task.getActivityInstanceId();
+            case "getBusinessKey":
+            case "getProcessBusinessKey":
+                return task.getBusinessKey();
+            case "getTenantId":
+                return task.getTenantId();
+            case "getVariable":
+            case "getVariableLocal":
+                if (argCount == 1) {
+                    return variables.get((String) args[0]);
+                }
+                break;
+            case "hasVariable":
+            case "hasVariableLocal":
+                if (argCount == 1) {
+                    return variables.containsKey((String) args[0]);
+                }
+                break;
+            case "getVariables":
+            case "getVariablesLocal":
+                if (argCount == 0) {
+                    return new HashMap<>(variables);
+                }
+                break;
+            case "getVariableNames":
+            case "getVariableNamesLocal":
+                return variables.keySet();
+            case "setVariable":
+                if (argCount == 2) {
+                    variables.put((String) args[0], args[1]);
+                    variablesToComplete.put((String) args[0], args[1]);
+                    return null;
+                }
+                break;
+            case "setVariableLocal":
+                if (argCount == 2) {
+                    variables.put((String) args[0], args[1]);
+                    localVariablesToComplete.put((String) args[0], args[1]);
+                    return null;
+                }
+                break;
+            case "toString":
+                return "ExternalTaskDelegateExecution[" + task.getId() + "]";
+            case "hashCode":
+                return System.identityHashCode(this);
+            case "equals":
+                return argCount == 1 && args[0] == execution;
+            default:
+                break;
+        }
+        throw new UnsupportedOperationException("Not available for external notification tasks / Für externe Benachrichtigungs-Tasks nicht verfügbar: "
+                + method);
+    }
+}
@@ -0,0 +1,531 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.NotificationDeliveryRecord;
+import com.ie_project.workflow.entity.OutboxNotification;
+import com.ie_project.workflow.repository.OutboxNotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zustellung der Benachrichtigungs-Outbox außerhalb der Engine-Threads
+ * Delivery of the notification outbox outside of the engine threads
+ *
+ * Delegates only insert outbox rows, so a process step no longer blocks on the mail or SMS
+ * gateway. After the inserting transaction committed (or on the poll interval) the dispatcher
+ * claims due rows per channel, up to the free capacity of that channel's worker pool, and
+ * hands them to the workers. Each channel has its own bounded pool, so a slow SMS gateway
+ * cannot starve email delivery and neither gateway sees more than its configured concurrency.
+ * Failed deliveries are retried with exponential backoff and jitter and dead-lettered after
+ * max-attempts. Results are collected and written back in JDBC batches instead of one
+ * transaction per notification. Emails are handed over in batches of email.batch-size and
+ * sent over one pooled SMTP session each (see SmtpSessionPool). Every attempt is appended to the
+ * delivery ledger in the same batch as the status update and recorded in NotificationMetrics.
+ *
+ * Delegates fügen nur Outbox-Zeilen ein. Nach dem Commit (oder im Abfrageintervall) übernimmt
+ * der Dispatcher fällige Zeilen je Kanal bis zur freien Kapazität des Worker-Pools. Jeder Kanal
+ * hat einen eigenen begrenzten Pool. Fehlgeschlagene Zustellungen werden mit Backoff und Jitter
+ * wiederholt und nach max-attempts als tot markiert. Ergebnisse werden gebündelt per JDBC-Batch
+ * zurückgeschrieben.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE notification_outbox SET status = 'SENT', attempts = attempts + 1, sent_at = ?, claimed_at = NULL, last_error = NULL WHERE id = ?";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE notification_outbox SET status = ?, attempts = attempts + 1, next_attempt_at = ?, claimed_at = NULL, last_error = ? WHERE id = ?";
+
+    private static final String INSERT_LEDGER_SQL =
+            "INSERT INTO notification_delivery_ledger (outbox_id, channel, notification_type, attempt, outcome, latency_millis, queue_millis, error, attempted_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private OutboxNotificationRepository outboxNotificationRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationMetrics notificationMetrics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${application.notification.dispatcher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.notification.dispatcher.email-concurrency:8}")
+    private int emailConcurrency;
+
+    @Value("${application.notification.dispatcher.sms-concurrency:4}")
+    private int smsConcurrency;
+
+    @Value("${application.notification.dispatcher.batch-size:100}")
+    private int batchSize;
+
+    @Value("${application.notification.dispatcher.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${application.notification.dispatcher.backoff-base:PT10S}")
+    private Duration backoffBase;
+
+    @Value("${application.notification.dispatcher.backoff-max:PT10M}")
+    private Duration backoffMax;
+
+    @Value("${application.notification.dispatcher.claim-timeout:PT5M}")
+    private Duration claimTimeout;
+
+    // Emails per SMTP batch, 0 or 1 sends one at a time / E-Mails pro SMTP-Batch, 0 oder 1 einzeln
+    @Value("${application.notification.email.batch-size:50}")
+    private int emailBatchSize;
+
+    private final Map<OutboxNotification.Channel, ThreadPoolExecutor> workers = new EnumMap<>(OutboxNotification.Channel.class);
+    private final Map<OutboxNotification.Channel, AtomicInteger> inFlight = new EnumMap<>(OutboxNotification.Channel.class);
+    private final Queue<DeliveryResult> results = new ConcurrentLinkedQueue<>();
+
+    private ExecutorService poller;
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean(false);
+    private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong deadCount = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong ledgerRowsWritten = new AtomicLong();
+
+    /**
+     * Startet die Worker-Pools / Starts the worker pools
+     *
+     * Bounded platform-thread pools; each delivery blocks one worker for the gateway round trip
+     * Begrenzte Plattform-Thread-Pools; jede Zustellung belegt einen Worker für den Gateway-Aufruf
+     */
+    @PostConstruct
+    void start() {
+        workers.put(OutboxNotification.Channel.EMAIL, newPool("notify-email-", emailConcurrency));
+        workers.put(OutboxNotification.Channel.SMS, newPool("notify-sms-", smsConcurrency));
+        for (OutboxNotification.Channel channel : OutboxNotification.Channel.values()) {
+            inFlight.put(channel, new AtomicInteger());
+        }
+        poller = newPool("notify-dispatch-", 1);
+    }
+
+    /**
+     * Geplante Abfrage für Wiederholungen und verpasste Weckrufe
+     * Scheduled poll for retries and missed wake-ups
+     */
+    @Scheduled(fixedDelayString = "${application.notification.dispatcher.poll-interval:PT1S}",
+               initialDelayString = "${application.notification.dispatcher.initial-delay:PT5S}")
+    public void scheduledDispatch() {
+        requestDispatch();
+    }
+
+    /**
+     * Weckt den Dispatcher nach dem Commit der einreihenden Transaktion
+     * Wakes the dispatcher after the queueing transaction committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationsQueued(NotificationService.NotificationsQueued event) {
+        requestDispatch();
+    }
+
+    /**
+     * Fordert einen Dispatch-Lauf an; mehrfache Anforderungen werden zusammengefasst
+     * Requests a dispatch run; concurrent requests are coalesced
+     */
+    public void requestDispatch() {
+        if (!enabled || shuttingDown.get()) {
+            return;
+        }
+        if (dispatchRequested.compareAndSet(false, true)) {
+            poller.execute(this::dispatchLoop);
+        }
+    }
+
+    private void dispatchLoop() {
+        dispatchRequested.set(false);
+        try {
+            flushResults();
+            dispatch();
+        } catch (Exception e) {
+            System.err.println("Notification dispatch failed / Benachrichtigungsversand fehlgeschlagen: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Übernimmt fällige Benachrichtigungen je Kanal und übergibt sie den Workern
+     * Claims due notifications per channel and hands them to the workers
+     */
+    private void dispatch() {
+
+        // Millisecond precision so the claim timestamp compares equal after the round trip
+        // Millisekundengenau, damit der Übernahmezeitpunkt nach dem Lesen gleich ist
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        transactionTemplate.executeWithoutResult(status -> {
+            int released = outboxNotificationRepository.releaseStaleClaims(now.minus(claimTimeout));
+            if (released > 0) {
+                System.out.println("Stale notification claims released / Verwaiste Übernahmen freigegeben: " + released);
+            }
+        });
+
+        for (OutboxNotification.Channel channel : OutboxNotification.Channel.values()) {
+            ThreadPoolExecutor pool = workers.get(channel);
+            AtomicInteger channelInFlight = inFlight.get(channel);
+
+            // Claim at most what the pool can start now, the rest stays PENDING for other nodes
+            // Nur so viel übernehmen, wie der Pool sofort starten kann
+            int perTask = perTask(channel);
+            int capacity = Math.min(Math.max(batchSize, perTask * pool.getMaximumPoolSize()),
+                    pool.getMaximumPoolSize() * perTask * 2 - channelInFlight.get());
+            if (capacity <= 0) {
+                continue;
+            }
+
+            List<OutboxNotification> claimed = transactionTemplate.execute(status -> {
+                List<OutboxNotification> due = outboxNotificationRepository.findDue(channel, now, PageRequest.of(0, capacity));
+                if (due.isEmpty()) {
+                    return due;
+                }
+                List<Long> ids = new ArrayList<>();
+                for (OutboxNotification notification : due) {
+                    ids.add(notification.getId());
+                }
+                // Another node may have claimed rows in between; those are skipped by the status check
+                // Ein anderer Knoten kann Zeilen übernommen haben; diese werden über den Status ausgelassen
+                if (outboxNotificationRepository.claim(ids, now) < ids.size()) {
+                    return outboxNotificationRepository.findAllById(ids).stream()
+                            .filter(n -> n.getStatus() == OutboxNotification.Status.SENDING && now.equals(n.getClaimedAt()))
+                            .toList();
+                }
+                return due;
+            });
+
+            channelInFlight.addAndGet(claimed.size());
+            if (perTask > 1) {
+                // Same recipient into the same batch so it can be coalesced into one digest
+                // Gleicher Empfänger in denselben Batch, damit er zusammengefasst werden kann
+                List<OutboxNotification> sorted = new ArrayList<>(claimed);
+                sorted.sort(Comparator.comparing(NotificationService::recipientKey));
+                int from = 0;
+                while (from < sorted.size()) {
+                    int to = Math.min(sorted.size(), from + perTask);
+                    while (to < sorted.size()
+                            && NotificationService.recipientKey(sorted.get(to)).equals(NotificationService.recipientKey(sorted.get(to - 1)))) {
+                        to++;
+                    }
+                    List<OutboxNotification> batch = sorted.subList(from, to);
+                    pool.execute(() -> deliverBatch(batch, channelInFlight));
+                    from = to;
+                }
+            } else {
+                for (OutboxNotification notification : claimed) {
+                    pool.execute(() -> deliver(notification, channelInFlight));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stellt eine Benachrichtigung auf einem Worker zu / Delivers one notification on a worker
+     */
+    private void deliver(OutboxNotification notification, AtomicInteger channelInFlight) {
+        long start = System.nanoTime();
+        try {
+            notificationService.deliver(notification);
+            recordSent(notification, System.nanoTime() - start);
+
+        } catch (Exception e) {
+            recordFailure(notification, errorOf(e), System.nanoTime() - start);
+        } finally {
+            // The next free slot triggers the next claim round / Ein freier Platz löst die nächste Übernahme aus
+            channelInFlight.decrementAndGet();
+            requestDispatch();
+        }
+    }
+
+    /**
+     * Stellt einen E-Mail-Batch über eine SMTP-Sitzung zu / Delivers an email batch over one SMTP session
+     */
+    private void deliverBatch(List<OutboxNotification> batch, AtomicInteger channelInFlight) {
+        long start = System.nanoTime();
+        try {
+            Map<Long, String> failures = notificationService.deliverEmailBatch(batch);
+            // Each mail waited for the whole session / Jede E-Mail hat auf die ganze Sitzung gewartet
+            long latencyNanos = System.nanoTime() - start;
+            for (OutboxNotification notification : batch) {
+                String error = failures.get(notification.getId());
+                if (error == null) {
+                    recordSent(notification, latencyNanos);
+                } else {
+                    recordFailure(notification, error, latencyNanos);
+                }
+            }
+
+        } catch (Exception e) {
+            // Session failed as a whole, the batch is retried / Sitzung insgesamt fehlgeschlagen, Batch wird wiederholt
+            String error = errorOf(e);
+            long latencyNanos = System.nanoTime() - start;
+            for (OutboxNotification notification : batch) {
+                recordFailure(notification, error, latencyNanos);
+            }
+        } finally {
+            channelInFlight.addAndGet(-batch.size());
+            requestDispatch();
+        }
+    }
+
+    private void recordSent(OutboxNotification notification, long latencyNanos) {
+        LocalDateTime now = LocalDateTime.now();
+        results.add(new DeliveryResult(notification, OutboxNotification.Status.SENT, now, null,
+                NotificationDeliveryRecord.Outcome.SENT, latencyNanos, now));
+        notificationMetrics.record(notification.getChannel(), notification.getNotificationType(),
+                NotificationDeliveryRecord.Outcome.SENT, latencyNanos);
+        sentCount.incrementAndGet();
+        totalLatencyMillis.addAndGet(Duration.between(notification.getCreatedAt(), now).toMillis());
+    }
+
+    private void recordFailure(OutboxNotification notification, String error, long latencyNanos) {
+        LocalDateTime now = LocalDateTime.now();
+        int attempts = notification.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            results.add(new DeliveryResult(notification, OutboxNotification.Status.DEAD, now, error,
+                    NotificationDeliveryRecord.Outcome.DEAD, latencyNanos, now));
+            notificationMetrics.record(notification.getChannel(), notification.getNotificationType(),
+                    NotificationDeliveryRecord.Outcome.DEAD, latencyNanos);
+            deadCount.incrementAndGet();
+            System.err.println("Notification dead-lettered / Benachrichtigung aufgegeben: " + notification.getId()
+                    + " after " + attempts + " attempts: " + error);
+        } else {
+            results.add(new DeliveryResult(notification, OutboxNotification.Status.PENDING, now.plus(backoff(attempts)), error,
+                    NotificationDeliveryRecord.Outcome.RETRY, latencyNanos, now));
+            notificationMetrics.record(notification.getChannel(), notification.getNotificationType(),
+                    NotificationDeliveryRecord.Outcome.RETRY, latencyNanos);
+            retriedCount.incrementAndGet();
+        }
+    }
+
+    private String errorOf(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Benachrichtigungen pro Worker-Aufgabe / Notifications per worker task
+     */
+    private int perTask(OutboxNotification.Channel channel) {
+        return channel == OutboxNotification.Channel.EMAIL ? Math.max(1, emailBatchSize) : 1;
+    }
+
+    /**
+     * Schreibt gesammelte Zustellergebnisse gebündelt zurück
+     * Writes collected delivery results back in batches
+     *
+     * Status updates and ledger rows share one transaction, so the ledger never shows an
+     * attempt whose outcome was not stored on the outbox row, and vice versa.
+     * Statusänderungen und Protokollzeilen teilen sich eine Transaktion.
+     */
+    private void flushResults() {
+
+        List<Object[]> sent = new ArrayList<>();
+        List<Object[]> failed = new ArrayList<>();
+        List<Object[]> ledger = new ArrayList<>();
+        DeliveryResult result;
+        while ((result = results.poll()) != null) {
+            String error = result.error != null && result.error.length() > 500 ? result.error.substring(0, 500) : result.error;
+            if (result.status == OutboxNotification.Status.SENT) {
+                sent.add(new Object[]{ Timestamp.valueOf(result.at), result.id });
+            } else {
+                failed.add(new Object[]{ result.status.name(), Timestamp.valueOf(result.at), error, result.id });
+            }
+            ledger.add(new Object[]{ result.id, result.channel.name(), result.notificationType, result.attempt,
+                    result.outcome.name(), result.latencyMillis, result.queueMillis, error, Timestamp.valueOf(result.attemptedAt) });
+        }
+
+        if (ledger.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                jdbcTemplate.batchUpdate(MARK_SENT_SQL, sent);
+            }
+            if (!failed.isEmpty()) {
+                jdbcTemplate.batchUpdate(MARK_FAILED_SQL, failed);
+            }
+            jdbcTemplate.batchUpdate(INSERT_LEDGER_SQL, ledger);
+        });
+        ledgerRowsWritten.addAndGet(ledger.size());
+    }
+
+    /**
+     * Exponentieller Backoff mit Jitter / Exponential backoff with jitter
+     */
+    private Duration backoff(int attempts) {
+        long ceiling = Math.min(backoffMax.toMillis(), backoffBase.toMillis() << Math.min(attempts - 1, 20));
+        return Duration.ofMillis(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+    }
+
+    /**
+     * Stellt tote Benachrichtigungen erneut in die Warteschlange
+     * Requeues dead-lettered notifications
+     *
+     * @return Anzahl erneut eingereihter Benachrichtigungen / Number of requeued notifications
+     */
+    public int requeueDead(List<Long> ids) {
+        Integer requeued = transactionTemplate.execute(status -> outboxNotificationRepository.requeueDead(ids, LocalDateTime.now()));
+        requestDispatch();
+        return requeued != null ? requeued : 0;
+    }
+
+    /**
+     * Tote Benachrichtigungen, neueste zuerst / Dead-lettered notifications, newest first
+     */
+    public List<OutboxNotification> getDeadLetters(int limit) {
+        return outboxNotificationRepository.findByStatusOrderByIdDesc(OutboxNotification.Status.DEAD,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+    }
+
+    /**
+     * Statistiken des Dispatchers / Dispatcher statistics
+     */
+    public Map<String, Object> getStatistics() {
+
+        Map<String, Object> outbox = new LinkedHashMap<>();
+        for (Object[] row : outboxNotificationRepository.countByChannelAndStatus()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> byStatus = (Map<String, Object>) outbox.computeIfAbsent(row[0].toString(), key -> new LinkedHashMap<>());
+            byStatus.put(row[1].toString(), row[2]);
+        }
+
+        Map<String, Object> channels = new LinkedHashMap<>();
+        for (OutboxNotification.Channel channel : OutboxNotification.Channel.values()) {
+            ThreadPoolExecutor pool = workers.get(channel);
+            Map<String, Object> channelStatistics = new LinkedHashMap<>();
+            channelStatistics.put("concurrency", pool.getMaximumPoolSize());
+            channelStatistics.put("notificationsPerTask", perTask(channel));
+            channelStatistics.put("active", pool.getActiveCount());
+            channelStatistics.put("inFlight", inFlight.get(channel).get());
+            channels.put(channel.name(), channelStatistics);
+        }
+
+        long sent = sentCount.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("maxAttempts", maxAttempts);
+        statistics.put("channels", channels);
+        statistics.put("outbox", outbox);
+        statistics.put("sent", sent);
+        statistics.put("retried", retriedCount.get());
+        statistics.put("deadLettered", deadCount.get());
+        statistics.put("pendingResultWrites", results.size());
+        statistics.put("averageQueueToSendMillis", sent > 0 ? totalLatencyMillis.get() / sent : 0);
+        statistics.put("ledgerRowsWritten", ledgerRowsWritten.get());
+        statistics.put("delivery", notificationMetrics.snapshot());
+        statistics.put("emailDelivery", notificationService.getEmailDeliveryStatistics());
+        statistics.put("timestamp", LocalDateTime.now());
+        return statistics;
+    }
+
+    /**
+     * Beendet die Worker und schreibt offene Ergebnisse zurück
+     * Stops the workers and writes back outstanding results
+     *
+     * Rows still SENDING afterwards are released by the claim timeout on the next start
+     * Danach noch auf SENDING stehende Zeilen werden beim nächsten Start über das Timeout freigegeben
+     */
+    @PreDestroy
+    void shutdown() {
+        shuttingDown.set(true);
+        poller.shutdown();
+        for (ThreadPoolExecutor pool : workers.values()) {
+            pool.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor pool : workers.values()) {
+                pool.awaitTermination(10, TimeUnit.SECONDS);
+            }
+            poller.awaitTermination(5, TimeUnit.SECONDS);
+            flushResults();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Notification results not written on shutdown / Ergebnisse beim Beenden nicht geschrieben: " + e.getMessage());
+        }
+    }
+
+    private ThreadPoolExecutor newPool(String namePrefix, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Ergebnis einer Zustellung / Result of one delivery
+     */
+    private static class DeliveryResult {
+        private final Long id;
+        private final OutboxNotification.Status status;
+        // Sent time or next attempt / Versandzeit oder nächster Versuch
+        private final LocalDateTime at;
+        private final String error;
+
+        // Ledger fields / Protokollfelder
+        private final OutboxNotification.Channel channel;
+        private final String notificationType;
+        private final int attempt;
+        private final NotificationDeliveryRecord.Outcome outcome;
+        private final long latencyMillis;
+        private final long queueMillis;
+        private final LocalDateTime attemptedAt;
+
+        private DeliveryResult(OutboxNotification notification, OutboxNotification.Status status, LocalDateTime at, String error,
+                               NotificationDeliveryRecord.Outcome outcome, long latencyNanos, LocalDateTime attemptedAt) {
+            this.id = notification.getId();
+            this.status = status;
+            this.at = at;
+            this.error = error;
+            this.channel = notification.getChannel();
+            this.notificationType = notification.getNotificationType();
+            this.attempt = notification.getAttempts() + 1;
+            this.outcome = outcome;
+            this.latencyMillis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+            this.queueMillis = Duration.between(notification.getCreatedAt(), attemptedAt).toMillis();
+            this.attemptedAt = attemptedAt;
+        }
+    }
+}
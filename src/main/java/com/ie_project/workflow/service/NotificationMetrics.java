@@ -0,0 +1,172 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.NotificationDeliveryRecord;
+import com.ie_project.workflow.entity.OutboxNotification;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Laufzeitmetriken der Benachrichtigungszustellung
+ * Runtime metrics of notification delivery
+ *
+ * Every send attempt is recorded in a Micrometer timer "notification.delivery" tagged with
+ * channel, type and outcome; the timers publish client-side p50/p95/p99, so they show up
+ * under /actuator/metrics and in any attached registry. Per channel a sliding
+ * one-minute window counts attempts for the current throughput. The durable history lives in
+ * the delivery ledger (notification_delivery_ledger), these numbers cover the running node.
+ *
+ * Jeder Zustellversuch wird in einem Micrometer-Timer "notification.delivery" mit Kanal, Typ
+ * und Ergebnis erfasst. Je Kanal zählt ein gleitendes Minutenfenster den aktuellen Durchsatz.
+ *
+ * @author IE Project Team
+ */
+@Component
+public class NotificationMetrics {
+
+    public static final String TIMER_NAME = "notification.delivery";
+    public static final String THROUGHPUT_GAUGE_NAME = "notification.delivery.throughput";
+
+    private static final int WINDOW_SECONDS = 60;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<OutboxNotification.Channel, ThroughputWindow> throughput = new EnumMap<>(OutboxNotification.Channel.class);
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    @PostConstruct
+    void registerGauges() {
+        for (OutboxNotification.Channel channel : OutboxNotification.Channel.values()) {
+            ThroughputWindow window = new ThroughputWindow();
+            throughput.put(channel, window);
+            Gauge.builder(THROUGHPUT_GAUGE_NAME, window, ThroughputWindow::perSecond)
+                    .description("Send attempts per second over the last minute / Zustellversuche pro Sekunde in der letzten Minute")
+                    .tag("channel", channel.name())
+                    .baseUnit("attempts/s")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Erfasst einen Zustellversuch / Records one send attempt
+     *
+     * @param latencyNanos Dauer des Gateway-Aufrufs / Duration of the gateway call
+     */
+    public void record(OutboxNotification.Channel channel, String notificationType,
+                       NotificationDeliveryRecord.Outcome outcome, long latencyNanos) {
+        timer(channel, notificationType, outcome).record(latencyNanos, TimeUnit.NANOSECONDS);
+        throughput.get(channel).increment(System.currentTimeMillis() / 1000);
+    }
+
+    private Timer timer(OutboxNotification.Channel channel, String notificationType, NotificationDeliveryRecord.Outcome outcome) {
+        String key = channel.name() + '|' + notificationType + '|' + outcome.name();
+        return timers.computeIfAbsent(key, k -> Timer.builder(TIMER_NAME)
+                .description("Notification gateway latency per send attempt / Gateway-Latenz je Zustellversuch")
+                .tag("channel", channel.name())
+                .tag("type", notificationType)
+                .tag("outcome", outcome.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .percentilePrecision(2)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Momentaufnahme aller Zähler und Latenzen
+     * Snapshot of all counters and latencies
+     *
+     * Percentiles decay over the Micrometer distribution window (two minutes by default),
+     * counts and means cover the whole uptime of this node.
+     */
+    public Map<String, Object> snapshot() {
+
+        Map<String, Object> channels = new LinkedHashMap<>();
+        for (OutboxNotification.Channel channel : OutboxNotification.Channel.values()) {
+            Map<String, Object> channelSnapshot = new LinkedHashMap<>();
+            channelSnapshot.put("attemptsPerSecond", throughput.get(channel).perSecond());
+            for (NotificationDeliveryRecord.Outcome outcome : NotificationDeliveryRecord.Outcome.values()) {
+                channelSnapshot.put(outcome.name().toLowerCase(), 0L);
+            }
+            channels.put(channel.name(), channelSnapshot);
+        }
+
+        List<Map<String, Object>> types = new ArrayList<>();
+        for (Timer timer : timers.values()) {
+            String channel = timer.getId().getTag("channel");
+            String outcome = timer.getId().getTag("outcome");
+            HistogramSnapshot histogram = timer.takeSnapshot();
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> channelSnapshot = (Map<String, Object>) channels.get(channel);
+            channelSnapshot.merge(outcome.toLowerCase(), histogram.count(), (a, b) -> (Long) a + (Long) b);
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("channel", channel);
+            entry.put("type", timer.getId().getTag("type"));
+            entry.put("outcome", outcome);
+            entry.put("count", histogram.count());
+            entry.put("meanMillis", round(histogram.mean(TimeUnit.MILLISECONDS)));
+            entry.put("maxMillis", round(histogram.max(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile percentile : histogram.percentileValues()) {
+                entry.put("p" + Math.round(percentile.percentile() * 100) + "Millis", round(percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            types.add(entry);
+        }
+        types.sort((a, b) -> (a.get("channel") + "|" + a.get("type") + "|" + a.get("outcome"))
+                .compareTo(b.get("channel") + "|" + b.get("type") + "|" + b.get("outcome")));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("since", startedAt);
+        snapshot.put("throughputWindowSeconds", WINDOW_SECONDS);
+        snapshot.put("channels", channels);
+        snapshot.put("types", types);
+        return snapshot;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Gleitendes Fenster aus Sekunden-Buckets / Sliding window of one-second buckets
+     */
+    private static final class ThroughputWindow {
+        private final long[] seconds = new long[WINDOW_SECONDS];
+        private final long[] counts = new long[WINDOW_SECONDS];
+
+        synchronized void increment(long second) {
+            int index = (int) (second % WINDOW_SECONDS);
+            if (seconds[index] != second) {
+                seconds[index] = second;
+                counts[index] = 0;
+            }
+            counts[index]++;
+        }
+
+        synchronized double perSecond() {
+            long now = System.currentTimeMillis() / 1000;
+            long total = 0;
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                if (now - seconds[i] < WINDOW_SECONDS) {
+                    total += counts[i];
+                }
+            }
+            return round((double) total / WINDOW_SECONDS);
+        }
+    }
+}
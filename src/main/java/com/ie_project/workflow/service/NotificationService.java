@@ -1,11 +1,26 @@
 package com.ie_project.workflow.service;
 
 import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.entity.NotificationDeliveryRecord;
+import com.ie_project.workflow.entity.OutboxNotification;
 import com.ie_project.workflow.entity.Student;
+import com.ie_project.workflow.repository.NotificationDeliveryRecordRepository;
+import com.ie_project.workflow.repository.OutboxNotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service für das Versenden von Benachrichtigungen
@@ -19,11 +34,44 @@ import java.time.format.DateTimeFormatter;
  * Immatrikulationsprozesses versendet werden. In einer Produktionsumgebung würde
  * dieser Service mit E-Mail-Diensten, SMS-Anbietern und anderen Kommunikationskanälen integriert.
  *
+ * The send methods only write to the notification outbox within the caller's transaction;
+ * delivery through sendEmail / sendSMS happens later on the NotificationDispatcher workers.
+ *
+ * Die send-Methoden schreiben nur in die Benachrichtigungs-Outbox (Transaktion des Aufrufers);
+ * die Zustellung über sendEmail / sendSMS erfolgt danach durch den NotificationDispatcher.
+ *
  * @author IE Project Team
  */
 @Service
 public class NotificationService {
 
+    @Autowired
+    private OutboxNotificationRepository outboxNotificationRepository;
+
+    @Autowired
+    private NotificationDeliveryRecordRepository deliveryRecordRepository;
+
+    @Autowired
+    private NotificationMetrics notificationMetrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SmtpSessionPool smtpSessionPool;
+
+    // Emails to the same recipient created within this window are merged into one digest
+    // E-Mails an denselben Empfänger innerhalb dieses Fensters werden zu einer Sammelnachricht zusammengefasst
+    @Value("${application.notification.email.coalesce-window:PT5M}")
+    private Duration coalesceWindow;
+
+    private final AtomicLong coalescedNotifications = new AtomicLong();
+    private final AtomicLong digestsSent = new AtomicLong();
+
+    // Share of simulated gateway failures, to exercise retries / Anteil simulierter Gateway-Fehler
+    @Value("${application.notification.simulated-failure-rate:0.0}")
+    private double simulatedFailureRate;
+
     /**
      * Versendet das Willkommenspaket an einen neuen Studenten
      * Sends the welcome package to a new student
@@ -53,24 +101,29 @@ public class NotificationService {
             System.out.println("Timestamp: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
             System.out.println("===============================");
 
-            // In production: Send actual email via SMTP service
-            // In Produktion: Tatsächliche E-Mail über SMTP-Service senden
-            boolean emailSent = sendEmail(student.getEmail(), "Willkommen an der Universität Riedtal / Welcome to University Riedtal", welcomePackageContent);
+            Long applicationId = student.getApplication() != null ? student.getApplication().getId() : null;
+            String processInstanceId = student.getApplication() != null ? student.getApplication().getCamundaProcessInstanceId() : null;
 
-            // Optional: Send SMS notification
-            // Optional: SMS-Benachrichtigung senden
-            boolean smsSent = sendSMS(student, "Willkommen an der Uni Riedtal! Ihr Willkommenspaket wurde per E-Mail versendet. / Welcome to Uni Riedtal! Your welcome package has been sent via email.");
+            // Queue email and SMS, delivered after the process step committed
+            // E-Mail und SMS einreihen, Zustellung nach Abschluss des Prozessschritts
+            enqueue(createNotification(OutboxNotification.Channel.EMAIL, "WELCOME_PACKAGE", student.getEmail(),
+                    "Willkommen an der Universität Riedtal / Welcome to University Riedtal", welcomePackageContent,
+                    applicationId, processInstanceId));
 
-            // Log the complete welcome package / Vollständiges Willkommenspaket protokollieren
-            System.out.println("=== COMPLETE WELCOME PACKAGE CONTENT ===");
-            System.out.println(welcomePackageContent);
-            System.out.println("======================================");
+            String phoneNumber = extractPhoneNumber(student);
+            boolean smsQueued = phoneNumber != null && !phoneNumber.trim().isEmpty();
+            if (smsQueued) {
+                enqueue(createNotification(OutboxNotification.Channel.SMS, "WELCOME_PACKAGE", phoneNumber, student.getFullName(),
+                        "Willkommen an der Uni Riedtal! Ihr Willkommenspaket wurde per E-Mail versendet. / Welcome to Uni Riedtal! Your welcome package has been sent via email.",
+                        applicationId, processInstanceId));
+            }
 
-            // Create delivery confirmation / Zustellungsbestätigung erstellen
-            String deliveryConfirmation = createDeliveryConfirmation(student, emailSent, smsSent);
-            System.out.println(deliveryConfirmation);
+            // The delivery outcome is recorded in the ledger by the dispatcher
+            // Das Zustellergebnis protokolliert der Dispatcher im Zustellungsprotokoll
+            System.out.println("Welcome package queued / Willkommenspaket eingereiht: " + student.getStudentNumber()
+                    + " (E-Mail" + (smsQueued ? " + SMS" : "") + ")");
 
-            return emailSent; // Main success indicator is email delivery
+            return true; // Queued for delivery / Zur Zustellung eingereiht
 
         } catch (Exception e) {
             System.err.println("ERROR sending welcome package to " + student.getEmail() + ": " + e.getMessage());
@@ -99,6 +152,7 @@ public class NotificationService {
 
             // Simulate email sending delay / E-Mail-Versand-Verzögerung simulieren
             Thread.sleep(500);
+            simulateGatewayFailure();
 
             System.out.println("STATUS: EMAIL SENT SUCCESSFULLY");
             System.out.println("========================");
@@ -123,26 +177,41 @@ public class NotificationService {
      */
     public boolean sendSMS(Student student, String message) {
 
-        try {
-            // In production: Extract phone number from student profile
-            // In Produktion: Telefonnummer aus Studentenprofil extrahieren
-            String phoneNumber = extractPhoneNumber(student);
+        // In production: Extract phone number from student profile
+        // In Produktion: Telefonnummer aus Studentenprofil extrahieren
+        String phoneNumber = extractPhoneNumber(student);
 
-            if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
-                System.out.println("=== SMS NOTIFICATION SKIPPED ===");
-                System.out.println("Reason: No phone number available for " + student.getFullName());
-                System.out.println("================================");
-                return false;
-            }
+        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
+            System.out.println("=== SMS NOTIFICATION SKIPPED ===");
+            System.out.println("Reason: No phone number available for " + student.getFullName());
+            System.out.println("================================");
+            return false;
+        }
 
+        return sendSMS(phoneNumber, student.getFullName(), message);
+    }
+
+    /**
+     * Sendet eine SMS an eine Telefonnummer (Simulation für Entwicklung)
+     * Sends an SMS to a phone number (simulation for development)
+     *
+     * @param phoneNumber Die Telefonnummer / The phone number
+     * @param recipientName Der Name des Empfängers / The recipient name
+     * @param message Die Nachricht / The message
+     * @return true wenn erfolgreich / true if successful
+     */
+    public boolean sendSMS(String phoneNumber, String recipientName, String message) {
+
+        try {
             System.out.println("=== SMS SIMULATION ===");
             System.out.println("TO: " + phoneNumber);
-            System.out.println("RECIPIENT: " + student.getFullName());
+            System.out.println("RECIPIENT: " + recipientName);
             System.out.println("MESSAGE: " + message);
             System.out.println("TIMESTAMP: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
 
             // Simulate SMS sending delay / SMS-Versand-Verzögerung simulieren
             Thread.sleep(300);
+            simulateGatewayFailure();
 
             System.out.println("STATUS: SMS SENT SUCCESSFULLY");
             System.out.println("======================");
@@ -177,7 +246,9 @@ public class NotificationService {
         System.out.println("Applicant: " + application.getFirstName() + " " + application.getLastName());
         System.out.println("Program: " + application.getStudyProgram().getName());
 
-        return sendEmail(application.getEmail(), subject, admissionContent);
+        enqueue(createNotification(OutboxNotification.Channel.EMAIL, "ADMISSION_LETTER", application.getEmail(), subject,
+                admissionContent, application.getId(), application.getCamundaProcessInstanceId()));
+        return true;
     }
 
     /**
@@ -202,7 +273,9 @@ public class NotificationService {
         System.out.println("Program: " + application.getStudyProgram().getName());
         System.out.println("Reason: " + rejectionReason);
 
-        return sendEmail(application.getEmail(), subject, rejectionContent);
+        enqueue(createNotification(OutboxNotification.Channel.EMAIL, "REJECTION", application.getEmail(), subject,
+                rejectionContent, application.getId(), application.getCamundaProcessInstanceId()));
+        return true;
     }
 
     /**
@@ -227,9 +300,16 @@ public class NotificationService {
 
         // Also send SMS for urgent payment reminders / Auch SMS für dringende Zahlungserinnerungen
         String smsMessage = "Zahlungserinnerung: Bitte überweisen Sie den Semesterbeitrag bis zum angegebenen Datum. / Payment reminder: Please transfer the semester fee by the specified date.";
-        sendSMS(convertApplicationToStudent(application), smsMessage);
+        String phoneNumber = extractPhoneNumber(convertApplicationToStudent(application));
+        if (phoneNumber != null) {
+            enqueue(createNotification(OutboxNotification.Channel.SMS, "PAYMENT_REMINDER", phoneNumber,
+                    application.getFirstName() + " " + application.getLastName(), smsMessage,
+                    application.getId(), application.getCamundaProcessInstanceId()));
+        }
 
-        return sendEmail(application.getEmail(), subject, reminderContent);
+        enqueue(createNotification(OutboxNotification.Channel.EMAIL, "PAYMENT_REMINDER", application.getEmail(), subject,
+                reminderContent, application.getId(), application.getCamundaProcessInstanceId()));
+        return true;
     }
 
     /**
@@ -252,38 +332,189 @@ public class NotificationService {
         System.out.println("Candidate: " + application.getFirstName() + " " + application.getLastName());
         System.out.println("Program: " + application.getStudyProgram().getName());
 
-        return sendEmail(application.getEmail(), subject, examContent);
+        enqueue(createNotification(OutboxNotification.Channel.EMAIL, "EXAM_INVITATION", application.getEmail(), subject,
+                examContent, application.getId(), application.getCamundaProcessInstanceId()));
+        return true;
+    }
+
+    /**
+     * Erstellt eine Outbox-Benachrichtigung (noch nicht gespeichert)
+     * Creates an outbox notification (not yet saved)
+     *
+     * For SMS the subject holds the recipient name / Bei SMS enthält der Betreff den Empfängernamen
+     */
+    public OutboxNotification createNotification(OutboxNotification.Channel channel, String notificationType, String recipient,
+                                                 String subject, String content, Long applicationId, String processInstanceId) {
+        OutboxNotification notification = new OutboxNotification();
+        notification.setChannel(channel);
+        notification.setNotificationType(notificationType);
+        notification.setRecipient(recipient);
+        notification.setSubject(subject);
+        notification.setContent(content);
+        notification.setApplicationId(applicationId);
+        notification.setProcessInstanceId(processInstanceId);
+        return notification;
+    }
+
+    /**
+     * Reiht eine E-Mail mit fertigem Inhalt ein (z.B. von Delegates erzeugte Dokumente)
+     * Queues an email with ready-made content (e.g. documents created by delegates)
+     */
+    public OutboxNotification queueEmail(String notificationType, String recipient, String subject, String content,
+                                         Long applicationId, String processInstanceId) {
+        return enqueue(createNotification(OutboxNotification.Channel.EMAIL, notificationType, recipient, subject,
+                content, applicationId, processInstanceId));
+    }
+
+    /**
+     * Reiht eine Benachrichtigung in der Transaktion des Aufrufers ein
+     * Queues a notification within the caller's transaction
+     */
+    public OutboxNotification enqueue(OutboxNotification notification) {
+        OutboxNotification saved = outboxNotificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationsQueued(1));
+
+        System.out.println("=== NOTIFICATION QUEUED ===");
+        System.out.println("Outbox ID: " + saved.getId());
+        System.out.println("Channel: " + saved.getChannel());
+        System.out.println("Type: " + saved.getNotificationType());
+        System.out.println("TO: " + saved.getRecipient());
+        System.out.println("===========================");
+
+        return saved;
+    }
+
+    /**
+     * Reiht mehrere Benachrichtigungen in der Transaktion des Aufrufers ein
+     * Queues several notifications within the caller's transaction
+     */
+    public List<OutboxNotification> enqueueAll(List<OutboxNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return notifications;
+        }
+        List<OutboxNotification> saved = outboxNotificationRepository.saveAll(notifications);
+        eventPublisher.publishEvent(new NotificationsQueued(saved.size()));
+        System.out.println("Notifications queued / Benachrichtigungen eingereiht: " + saved.size());
+        return saved;
+    }
+
+    /**
+     * Stellt eine Outbox-Benachrichtigung über den passenden Kanal zu (Aufruf durch den Dispatcher)
+     * Delivers an outbox notification through its channel (called by the dispatcher)
+     *
+     * @throws IllegalStateException wenn die Zustellung fehlschlägt / if delivery fails
+     */
+    public void deliver(OutboxNotification notification) {
+        boolean delivered = notification.getChannel() == OutboxNotification.Channel.SMS
+                ? sendSMS(notification.getRecipient(), notification.getSubject(), notification.getContent())
+                : sendEmail(notification.getRecipient(), notification.getSubject(), notification.getContent());
+
+        if (!delivered) {
+            throw new IllegalStateException(notification.getChannel() + " delivery failed / Zustellung fehlgeschlagen");
+        }
+    }
+
+    /**
+     * Stellt mehrere E-Mails gebündelt über eine gepoolte SMTP-Sitzung zu (Aufruf durch den Dispatcher)
+     * Delivers several emails as one batch over a pooled SMTP session (called by the dispatcher)
+     *
+     * Notifications to the same recipient created within the coalesce window are merged into
+     * one digest, so a student gets one email instead of several in quick succession.
+     *
+     * Benachrichtigungen an denselben Empfänger innerhalb des Zeitfensters werden zu einer
+     * Sammelnachricht zusammengefasst.
+     *
+     * @param notifications E-Mail-Benachrichtigungen / Email notifications
+     * @return Fehler je Outbox-ID, leer wenn alle zugestellt / Errors per outbox ID, empty if all delivered
+     */
+    public Map<Long, String> deliverEmailBatch(List<OutboxNotification> notifications) {
+
+        Map<String, List<List<OutboxNotification>>> byRecipient = new LinkedHashMap<>();
+        for (OutboxNotification notification : notifications) {
+            List<List<OutboxNotification>> groups = byRecipient.computeIfAbsent(
+                    recipientKey(notification), recipient -> new ArrayList<>());
+            List<OutboxNotification> last = groups.isEmpty() ? null : groups.get(groups.size() - 1);
+            if (last != null && !last.get(0).getCreatedAt().plus(coalesceWindow).isBefore(notification.getCreatedAt())) {
+                last.add(notification);
+            } else {
+                List<OutboxNotification> group = new ArrayList<>();
+                group.add(notification);
+                groups.add(group);
+            }
+        }
+
+        List<List<OutboxNotification>> groups = new ArrayList<>();
+        List<SmtpSessionPool.SmtpMessage> messages = new ArrayList<>();
+        for (List<List<OutboxNotification>> recipientGroups : byRecipient.values()) {
+            for (List<OutboxNotification> group : recipientGroups) {
+                groups.add(group);
+                messages.add(group.size() == 1 ? toMessage(group.get(0)) : createDigest(group));
+            }
+        }
+
+        Map<Integer, String> failures = smtpSessionPool.sendBatch(messages);
+
+        Map<Long, String> failedIds = new HashMap<>();
+        failures.forEach((index, error) -> {
+            for (OutboxNotification notification : groups.get(index)) {
+                failedIds.put(notification.getId(), error);
+            }
+        });
+        return failedIds;
     }
 
     /**
-     * Erstellt eine Zustellungsbestätigung
-     * Creates a delivery confirmation
+     * Schlüssel für das Zusammenfassen je Empfänger / Key for coalescing per recipient
      */
-    private String createDeliveryConfirmation(Student student, boolean emailSent, boolean smsSent) {
-
-        StringBuilder confirmation = new StringBuilder();
-
-        confirmation.append("=== ZUSTELLUNGSBESTÄTIGUNG / DELIVERY CONFIRMATION ===\n");
-        confirmation.append("Empfänger / Recipient: ").append(student.getFullName()).append("\n");
-        confirmation.append("Matrikelnummer / Student Number: ").append(student.getStudentNumber()).append("\n");
-        confirmation.append("E-Mail: ").append(student.getEmail()).append("\n");
-        confirmation.append("Zeitstempel / Timestamp: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"))).append("\n\n");
-
-        confirmation.append("Versandstatus / Delivery Status:\n");
-        confirmation.append(" E-Mail: ").append(emailSent ? " ERFOLGREICH / SUCCESSFUL" : " FEHLGESCHLAGEN / FAILED").append("\n");
-        confirmation.append(" SMS: ").append(smsSent ? " ERFOLGREICH / SUCCESSFUL" : " FEHLGESCHLAGEN / FAILED").append("\n\n");
-
-        if (emailSent) {
-            confirmation.append(" Willkommenspaket erfolgreich zugestellt\n");
-            confirmation.append(" Welcome package successfully delivered\n");
-        } else {
-            confirmation.append(" Fehler beim Versand des Willkommenspakets\n");
-            confirmation.append(" Error delivering welcome package\n");
+    public static String recipientKey(OutboxNotification notification) {
+        return notification.getRecipient().trim().toLowerCase();
+    }
+
+    private SmtpSessionPool.SmtpMessage toMessage(OutboxNotification notification) {
+        return new SmtpSessionPool.SmtpMessage(notification.getRecipient(), notification.getSubject(), notification.getContent());
+    }
+
+    /**
+     * Fasst mehrere Benachrichtigungen an einen Empfänger zusammen
+     * Merges several notifications to one recipient
+     */
+    private SmtpSessionPool.SmtpMessage createDigest(List<OutboxNotification> group) {
+        StringBuilder digest = new StringBuilder();
+        digest.append("=== IHRE BENACHRICHTIGUNGEN / YOUR NOTIFICATIONS ===\n\n");
+        digest.append("Sie haben ").append(group.size()).append(" neue Nachrichten der Universität Riedtal.\n");
+        digest.append("You have ").append(group.size()).append(" new messages from University Riedtal.\n\n");
+
+        int number = 1;
+        for (OutboxNotification notification : group) {
+            digest.append("--- ").append(number++).append(". ").append(notification.getSubject()).append(" ---\n\n");
+            digest.append(notification.getContent()).append("\n\n");
         }
 
-        confirmation.append("=====================================================");
+        coalescedNotifications.addAndGet(group.size());
+        digestsSent.incrementAndGet();
+        return new SmtpSessionPool.SmtpMessage(group.get(0).getRecipient(),
+                "Ihre Benachrichtigungen / Your notifications (" + group.size() + ") - Universität Riedtal",
+                digest.toString());
+    }
 
-        return confirmation.toString();
+    /**
+     * Statistiken der gebündelten E-Mail-Zustellung / Statistics of batched email delivery
+     */
+    public Map<String, Object> getEmailDeliveryStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>(smtpSessionPool.getStatistics());
+        statistics.put("coalesceWindow", coalesceWindow.toString());
+        statistics.put("digestsSent", digestsSent.get());
+        statistics.put("coalescedNotifications", coalescedNotifications.get());
+        return statistics;
+    }
+
+    /**
+     * Simuliert einen Ausfall des Gateways / Simulates a gateway failure
+     */
+    private void simulateGatewayFailure() {
+        if (simulatedFailureRate > 0 && ThreadLocalRandom.current().nextDouble() < simulatedFailureRate) {
+            throw new IllegalStateException("Simulated gateway failure / Simulierter Gateway-Fehler");
+        }
     }
 
     /**
@@ -319,39 +550,88 @@ public class NotificationService {
     }
 
     /**
-     * Erstellt eine Benachrichtigungsstatistik
-     * Creates notification statistics
+     * Zusammenfassung des Zustellungsprotokolls seit einem Zeitpunkt
+     * Summary of the delivery ledger since a point in time
      *
+     * @return Zeilen je Kanal, Typ und Ergebnis / Rows per channel, type and outcome
+     */
+    public List<Map<String, Object>> getLedgerSummary(LocalDateTime since) {
+        List<Map<String, Object>> summary = new ArrayList<>();
+        for (Object[] row : deliveryRecordRepository.summarizeSince(since)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("channel", row[0].toString());
+            entry.put("type", row[1]);
+            entry.put("outcome", row[2].toString());
+            entry.put("attempts", row[3]);
+            entry.put("averageLatencyMillis", row[4] != null ? Math.round(((Number) row[4]).doubleValue()) : 0L);
+            entry.put("maxLatencyMillis", row[5]);
+            summary.add(entry);
+        }
+        return summary;
+    }
+
+    /**
+     * Erstellt eine Benachrichtigungsstatistik aus Zustellungsprotokoll und Laufzeitmetriken
+     * Creates notification statistics from the delivery ledger and the runtime metrics
+     *
+     * @param since Beginn des Protokollzeitraums / Start of the ledger period
      * @return Statistikbericht / Statistics report
      */
-    public String generateNotificationStatistics() {
+    @SuppressWarnings("unchecked")
+    public String generateNotificationStatistics(LocalDateTime since) {
 
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
         StringBuilder stats = new StringBuilder();
 
         stats.append("=== BENACHRICHTIGUNGSSTATISTIK / NOTIFICATION STATISTICS ===\n");
-        stats.append("Zeitraum / Period: Aktuelle Sitzung / Current Session\n\n");
-
-        // In production: Query actual statistics from database
-        // In Produktion: Tatsächliche Statistiken aus Datenbank abfragen
-        stats.append(" VERSENDETE BENACHRICHTIGUNGEN / SENT NOTIFICATIONS:\n");
-        stats.append("    E-Mails: Simulation Mode\n");
-        stats.append("    SMS: Simulation Mode\n");
-        stats.append("    Willkommenspakete: Simulation Mode\n");
-        stats.append("    Zulassungsbescheide: Simulation Mode\n");
-        stats.append("    Ablehnungen: Simulation Mode\n");
-        stats.append("   Zahlungserinnerungen: Simulation Mode\n\n");
-
-        stats.append("  HINWEIS / NOTE:\n");
-        stats.append("   Dieses System läuft im Entwicklungsmodus.\n");
-        stats.append("   Alle Benachrichtigungen werden nur simuliert.\n");
-        stats.append("   This system runs in development mode.\n");
-        stats.append("   All notifications are only simulated.\n\n");
-
-        stats.append("Bericht erstellt am / Report generated on: ");
-        stats.append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+        stats.append("Zeitraum / Period: ").append(since.format(formatter)).append(" - ").append(LocalDateTime.now().format(formatter)).append("\n\n");
+
+        // Durable totals from the ledger / Dauerhafte Summen aus dem Protokoll
+        stats.append(" ZUSTELLVERSUCHE / SEND ATTEMPTS (Kanal, Typ, Ergebnis / channel, type, outcome):\n");
+        List<Map<String, Object>> ledger = getLedgerSummary(since);
+        if (ledger.isEmpty()) {
+            stats.append("    keine / none\n");
+        }
+        for (Map<String, Object> row : ledger) {
+            stats.append(String.format("    %-5s %-28s %-5s %8s  avg %6s ms  max %6s ms%n",
+                    row.get("channel"), row.get("type"), row.get("outcome"), row.get("attempts"),
+                    row.get("averageLatencyMillis"), row.get("maxLatencyMillis")));
+        }
+
+        // Live numbers of this node / Aktuelle Werte dieses Knotens
+        Map<String, Object> snapshot = notificationMetrics.snapshot();
+        stats.append("\n DURCHSATZ / THROUGHPUT (letzte Minute / last minute):\n");
+        ((Map<String, Map<String, Object>>) snapshot.get("channels")).forEach((channel, values) ->
+                stats.append(String.format("    %-5s %6s Versuche/s / attempts/s%n", channel, values.get("attemptsPerSecond"))));
+
+        stats.append("\n LATENZ / LATENCY (seit / since ").append(((LocalDateTime) snapshot.get("since")).format(formatter)).append("):\n");
+        for (Map<String, Object> row : (List<Map<String, Object>>) snapshot.get("types")) {
+            if (!NotificationDeliveryRecord.Outcome.SENT.name().equals(row.get("outcome"))) {
+                continue;
+            }
+            stats.append(String.format("    %-5s %-28s p50 %6s ms  p95 %6s ms  p99 %6s ms%n",
+                    row.get("channel"), row.get("type"), row.get("p50Millis"), row.get("p95Millis"), row.get("p99Millis")));
+        }
+
+        stats.append("\nBericht erstellt am / Report generated on: ");
+        stats.append(LocalDateTime.now().format(formatter));
         stats.append("\n");
         stats.append("============================================================");
 
         return stats.toString();
     }
+
+    /**
+     * Ereignis nach dem Einreihen, weckt den Dispatcher nach dem Commit
+     * Event after queueing, wakes the dispatcher after commit
+     */
+    public static class NotificationsQueued {
+        private final int count;
+
+        public NotificationsQueued(int count) {
+            this.count = count;
+        }
+
+        public int getCount() { return count; }
+    }
 }
@@ -0,0 +1,182 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.entity.Student;
+import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.repository.StudentRepository;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Service für Schreibzugriffe mit optimistischer Sperre und automatischer Wiederholung
+ * Service for writes with optimistic locking and automatic retry
+ *
+ * Application and Student carry a @Version column, so a read-modify-write based on a stale
+ * copy fails instead of silently overwriting a concurrent update. Outside of a transaction
+ * (REST controllers, services) each attempt runs in its own transaction and conflicts are
+ * retried with exponential backoff and full jitter. Inside an existing transaction (Camunda
+ * delegates run on the engine transaction) a retry is not possible because the transaction is
+ * already marked for rollback; the write is flushed immediately and the conflict is rethrown,
+ * so the job fails and is retried by Camunda according to the failed job retry cycle.
+ *
+ * Application und Student besitzen eine @Version-Spalte. Außerhalb einer Transaktion wird jeder
+ * Versuch in einer eigenen Transaktion ausgeführt und Konflikte mit Backoff und Jitter wiederholt.
+ * Innerhalb einer bestehenden Transaktion (Camunda-Delegates) wird der Konflikt weitergereicht
+ * und der Job von Camunda erneut ausgeführt.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class OptimisticRetryService {
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${application.persistence.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${application.persistence.retry.backoff-base-millis:25}")
+    private long backoffBaseMillis;
+
+    @Value("${application.persistence.retry.backoff-max-millis:500}")
+    private long backoffMaxMillis;
+
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    /**
+     * Lädt eine Bewerbung, wendet die Änderung an und speichert sie mit Versionsprüfung
+     * Loads an application, applies the change and saves it with a version check
+     *
+     * The change is applied to a freshly loaded copy on every attempt, so it must only
+     * depend on the application passed in.
+     *
+     * @param applicationId Die Bewerbungs-ID / The application ID
+     * @param change Die Änderung / The change
+     * @return Die gespeicherte Bewerbung / The saved application
+     */
+    public Application updateApplication(Long applicationId, Consumer<Application> change) {
+        return execute("update application " + applicationId, () -> {
+            Application application = applicationRepository.findById(applicationId)
+                    .orElseThrow(() -> new IllegalArgumentException("Application not found / Bewerbung nicht gefunden: " + applicationId));
+            change.accept(application);
+            return applicationRepository.saveAndFlush(application);
+        });
+    }
+
+    /**
+     * Lädt einen Studenten, wendet die Änderung an und speichert ihn mit Versionsprüfung
+     * Loads a student, applies the change and saves it with a version check
+     *
+     * @param studentId Die Student-ID / The student ID
+     * @param change Die Änderung / The change
+     * @return Der gespeicherte Student / The saved student
+     */
+    public Student updateStudent(Long studentId, Consumer<Student> change) {
+        return execute("update student " + studentId, () -> {
+            Student student = studentRepository.findById(studentId)
+                    .orElseThrow(() -> new IllegalArgumentException("Student not found / Student nicht gefunden: " + studentId));
+            change.accept(student);
+            return studentRepository.saveAndFlush(student);
+        });
+    }
+
+    /**
+     * Führt eine Schreiboperation mit Wiederholung bei Versionskonflikten aus
+     * Executes a write operation with retry on version conflicts
+     *
+     * @param operation Beschreibung für das Log / Description for the log
+     * @param action Die Operation, muss bei Wiederholung neu lesen / The operation, must re-read on retry
+     * @return Ergebnis der Operation / Result of the operation
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+
+        // Part of a larger unit of work: flush now, let the caller (e.g. the Camunda job) retry
+        // Teil einer größeren Einheit: sofort schreiben, Wiederholung durch den Aufrufer (z.B. Camunda-Job)
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (isOptimisticLockFailure(e)) {
+                    conflicts.incrementAndGet();
+                    System.err.println("Version conflict in transaction / Versionskonflikt in Transaktion: " + operation
+                            + " - retried by the caller / Wiederholung durch den Aufrufer");
+                }
+                throw e;
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    System.err.println("Version conflict not resolved / Versionskonflikt nicht aufgelöst: " + operation
+                            + " after " + attempt + " attempts");
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Wartet exponentiell mit vollem Jitter, damit konkurrierende Schreiber nicht im Gleichtakt wiederholen
+     * Waits exponentially with full jitter so competing writers do not retry in lockstep
+     */
+    private void backoff(int attempt) {
+        long ceiling = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for retry / Beim Warten auf Wiederholung unterbrochen", e);
+        }
+    }
+
+    /**
+     * Prüft die Ursachenkette auf einen Versionskonflikt
+     * Checks the cause chain for a version conflict
+     */
+    public static boolean isOptimisticLockFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException
+                    || cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    public long getConflictCount() { return conflicts.get(); }
+
+    public long getExhaustedCount() { return exhausted.get(); }
+}
@@ -0,0 +1,114 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.Application;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.batch.Batch;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Service für die Korrelation von Zahlungseingängen mit wartenden Prozessinstanzen
+ * Service for correlating incoming payments with waiting process instances
+ *
+ * Instead of polling the payment status with timers, the payment phase waits on a
+ * "PaymentReceived" message. Every payment source (payment simulation, imports)
+ * calls this service after persisting tuition_fee_paid. Deadlines are evaluated by the
+ * PaymentReminderSweeper, which also correlates PaymentReceived again for paid applications
+ * that are still waiting.
+ *
+ * Statt den Zahlungsstatus per Timer abzufragen, wartet die Zahlungsphase auf die
+ * Nachricht "PaymentReceived". Jede Zahlungsquelle ruft diesen Service nach dem
+ * Speichern von tuition_fee_paid auf. Fristen und der Abgleich verpasster Korrelationen
+ * liegen beim PaymentReminderSweeper.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class PaymentCorrelationService {
+
+    /**
+     * Name der BPMN-Nachricht / Name of the BPMN message
+     */
+    public static final String PAYMENT_RECEIVED_MESSAGE = "PaymentReceived";
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    /**
+     * Korreliert einen Zahlungseingang mit der wartenden Prozessinstanz
+     * Correlates a received payment with the waiting process instance
+     *
+     * If the instance is not waiting for the message (e.g. it has not reached the payment
+     * phase yet or the job after a reminder is still queued) nothing happens here. The
+     * PaymentReminderSweeper correlates again for paid applications that are still ACCEPTED
+     * after application.payment.sweeper.reconcile-after, so the instance resumes with the
+     * first sweep after it reached a payment wait state.
+     *
+     * @param application Die bezahlte Bewerbung / The paid application
+     * @return true wenn eine Instanz fortgesetzt wurde / true if an instance was resumed
+     */
+    public boolean correlatePaymentReceived(Application application) {
+
+        if (application == null || !application.isTuitionFeePaid()) {
+            return false;
+        }
+
+        MessageCorrelationBuilder correlation = runtimeService.createMessageCorrelation(PAYMENT_RECEIVED_MESSAGE)
+                .setVariable("paymentReceivedAt", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")));
+
+        // Prefer the stored process instance id, fall back to the applicationId variable
+        // Bevorzugt die gespeicherte Prozessinstanz-ID, sonst die Variable applicationId
+        if (application.getCamundaProcessInstanceId() != null) {
+            correlation.processInstanceId(application.getCamundaProcessInstanceId());
+        } else {
+            correlation.processInstanceVariableEquals("applicationId", application.getId());
+        }
+
+        List<MessageCorrelationResult> results = correlation.correlateAllWithResult();
+        boolean correlated = !results.isEmpty();
+
+        System.out.println("=== PAYMENT MESSAGE CORRELATION ===");
+        System.out.println("Application ID: " + application.getId());
+        System.out.println("Process Instance ID: " + application.getCamundaProcessInstanceId());
+        System.out.println("Correlated: " + (correlated ? "YES" : "NO (instance not waiting for payment)"));
+        System.out.println("===================================");
+
+        return correlated;
+    }
+
+    /**
+     * Korreliert Zahlungseingänge für viele Prozessinstanzen über einen Camunda-Batch
+     * Correlates received payments for many process instances through one Camunda batch
+     *
+     * The batch correlates asynchronously on the job executor; instances that are not
+     * waiting for the message are skipped. Called within the transaction that persisted
+     * the payments, so the batch only exists if the update commits.
+     *
+     * @param processInstanceIds Prozessinstanzen der bezahlten Bewerbungen / Process instances of the paid applications
+     * @return Batch-ID oder null wenn keine Instanzen übergeben wurden / Batch ID or null if no instances were given
+     */
+    public String correlatePaymentsReceivedAsync(List<String> processInstanceIds) {
+
+        if (processInstanceIds == null || processInstanceIds.isEmpty()) {
+            return null;
+        }
+
+        Batch batch = runtimeService.createMessageCorrelationAsync(PAYMENT_RECEIVED_MESSAGE)
+                .processInstanceIds(processInstanceIds)
+                .setVariable("paymentReceivedAt", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")))
+                .correlateAllAsync();
+
+        System.out.println("=== PAYMENT BATCH CORRELATION ===");
+        System.out.println("Batch ID: " + batch.getId());
+        System.out.println("Process Instances: " + processInstanceIds.size());
+        System.out.println("=================================");
+
+        return batch.getId();
+    }
+}
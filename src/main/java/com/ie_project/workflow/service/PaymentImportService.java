@@ -0,0 +1,542 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.repository.ApplicationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service für den Import von Kontoauszügen (Studiengebühren)
+ * Service for importing bank statements (tuition fees)
+ *
+ * Statement files are streamed line by line and matched against an in-memory index of
+ * the admission references of all accepted applications. Matched payments are written
+ * with JDBC batch updates and the waiting process instances are resumed through one
+ * Camunda batch correlation per JDBC batch. Lines that cannot be applied are written to
+ * an exceptions file next to the import, together with the reason.
+ *
+ * Kontoauszüge werden zeilenweise gelesen und über einen In-Memory-Index der
+ * Zulassungsreferenzen zugeordnet. Zahlungen werden per JDBC-Batch gespeichert, wartende
+ * Prozessinstanzen per Camunda-Batch fortgesetzt. Nicht zuordenbare Zeilen landen mit
+ * Begründung in einer Ausnahmedatei.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class PaymentImportService {
+
+    /**
+     * Format von AdmissionLetterDelegate: ZUL-{Studiengang}-{Jahr}-{ID} / Format of AdmissionLetterDelegate
+     */
+    private static final Pattern REFERENCE_PATTERN = Pattern.compile("ZUL-([A-Z0-9]+)-(\\d{4})-(\\d{6,})", Pattern.CASE_INSENSITIVE);
+
+    private static final String UPDATE_PAYMENT_SQL =
+            "UPDATE applications SET tuition_fee_paid = TRUE, updated_at = ?, version = version + 1 WHERE id = ? AND tuition_fee_paid = FALSE";
+
+    private static final int MAX_RECENT_REPORTS = 50;
+
+    // Exception reasons / Ausnahmegründe
+    public static final String NOT_A_CREDIT = "NOT_A_CREDIT";
+    public static final String NO_REFERENCE = "NO_REFERENCE";
+    public static final String UNKNOWN_REFERENCE = "UNKNOWN_REFERENCE";
+    public static final String ALREADY_PAID = "ALREADY_PAID";
+    public static final String DUPLICATE_IN_FILE = "DUPLICATE_IN_FILE";
+    public static final String AMOUNT_TOO_LOW = "AMOUNT_TOO_LOW";
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PaymentCorrelationService paymentCorrelationService;
+
+    @Value("${application.payment.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${application.payment.import.expected-amount:350.00}")
+    private BigDecimal expectedAmount;
+
+    @Value("${application.payment.import.inbox-dir:payment-imports/inbox}")
+    private String inboxDir;
+
+    @Value("${application.payment.import.processed-dir:payment-imports/processed}")
+    private String processedDir;
+
+    @Value("${application.payment.import.exceptions-dir:payment-imports/exceptions}")
+    private String exceptionsDir;
+
+    private final Deque<PaymentImportReport> recentReports = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Importiert einen Kontoauszug / Imports a bank statement
+     *
+     * @param input Dateiinhalt (wird gestreamt) / File content (streamed)
+     * @param fileName Ursprünglicher Dateiname / Original file name
+     * @return Bericht mit Durchsatz und Ausnahmen / Report with throughput and exceptions
+     */
+    public PaymentImportReport importStatement(InputStream input, String fileName) throws IOException {
+
+        long startTime = System.currentTimeMillis();
+        ReferenceIndex index = buildReferenceIndex();
+        long indexMillis = System.currentTimeMillis() - startTime;
+
+        PaymentImportReport report = new PaymentImportReport(fileName);
+        report.setIndexSize(index.size());
+        report.setIndexBuildMillis(indexMillis);
+
+        List<PendingPayment> pending = new ArrayList<>(batchSize);
+
+        try (BankStatementReader reader = BankStatementReader.open(input, fileName);
+             ExceptionWriter exceptions = new ExceptionWriter(fileName, report)) {
+
+            report.setFormat(reader.getFormat());
+
+            BankStatementReader.StatementLine line;
+            while ((line = reader.next()) != null) {
+                report.linesRead++;
+
+                if (!line.isCredit()) {
+                    exceptions.write(line, NOT_A_CREDIT, null);
+                    continue;
+                }
+                report.credits++;
+
+                String remittance = line.getRemittanceInformation() != null ? line.getRemittanceInformation() : "";
+                Matcher matcher = REFERENCE_PATTERN.matcher(remittance);
+                if (!matcher.find()) {
+                    exceptions.write(line, NO_REFERENCE, null);
+                    continue;
+                }
+
+                String reference = matcher.group().toUpperCase(Locale.ROOT);
+                IndexEntry entry = index.lookup(reference, matcher);
+                if (entry == null) {
+                    exceptions.write(line, UNKNOWN_REFERENCE, reference);
+                    continue;
+                }
+                if (entry.paidByImport) {
+                    exceptions.write(line, DUPLICATE_IN_FILE, reference);
+                    continue;
+                }
+                if (entry.paid) {
+                    exceptions.write(line, ALREADY_PAID, reference);
+                    continue;
+                }
+                if (line.getAmount() != null && expectedAmount != null && line.getAmount().compareTo(expectedAmount) < 0) {
+                    exceptions.write(line, AMOUNT_TOO_LOW, reference);
+                    continue;
+                }
+
+                entry.paidByImport = true;
+                report.matched++;
+                pending.add(new PendingPayment(line, entry, reference));
+
+                if (pending.size() >= batchSize) {
+                    flush(pending, exceptions, report);
+                }
+            }
+
+            flush(pending, exceptions, report);
+        }
+
+        report.setDurationMillis(System.currentTimeMillis() - startTime);
+        remember(report);
+
+        System.out.println("=== BANK STATEMENT IMPORTED ===");
+        System.out.println("File: " + fileName + " (" + report.getFormat() + ")");
+        System.out.println("Reference Index: " + report.getIndexSize() + " entries in " + indexMillis + " ms");
+        System.out.println("Lines: " + report.getLinesRead() + ", Credits: " + report.getCredits());
+        System.out.println("Matched: " + report.getMatched() + ", Updated: " + report.getUpdated());
+        System.out.println("Processes Notified: " + report.getProcessesNotified() + " in " + report.getCorrelationBatchIds().size() + " batches");
+        System.out.println("Exceptions: " + report.getExceptions() + " " + report.getExceptionsByReason());
+        System.out.println("Exceptions File: " + report.getExceptionsFile());
+        System.out.println("Duration: " + report.getDurationMillis() + " ms (" + report.getLinesPerSecond() + " lines/s)");
+        System.out.println("===============================");
+
+        return report;
+    }
+
+    /**
+     * Importiert alle Dateien aus dem Eingangsverzeichnis / Imports all files from the inbox directory
+     *
+     * Processed files are moved to the processed directory; a file that fails stays in the
+     * inbox and the error is reported for that file.
+     */
+    public List<PaymentImportReport> importInbox() throws IOException {
+
+        Path inbox = Paths.get(inboxDir);
+        List<PaymentImportReport> reports = new ArrayList<>();
+        if (!Files.isDirectory(inbox)) {
+            return reports;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(inbox)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+
+        Path processed = Files.createDirectories(Paths.get(processedDir));
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            try (InputStream input = Files.newInputStream(file)) {
+                reports.add(importStatement(input, fileName));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("=== ERROR IN BANK STATEMENT IMPORT ===");
+                System.err.println("File: " + fileName);
+                System.err.println("Error: " + e.getMessage());
+                System.err.println("======================================");
+
+                PaymentImportReport failed = new PaymentImportReport(fileName);
+                failed.setError(e.getMessage());
+                remember(failed);
+                reports.add(failed);
+                continue;
+            }
+            Files.move(file, processed.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return reports;
+    }
+
+    /**
+     * Letzte Importberichte, neueste zuerst / Recent import reports, newest first
+     */
+    public List<PaymentImportReport> getRecentReports() {
+        return new ArrayList<>(recentReports);
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    /**
+     * Lädt alle angenommenen Bewerbungen in den Referenzindex / Loads all accepted applications into the reference index
+     */
+    private ReferenceIndex buildReferenceIndex() {
+        List<Object[]> rows = applicationRepository.findPaymentReferenceIndexRows(Application.ApplicationStatus.ACCEPTED);
+        ReferenceIndex index = new ReferenceIndex(rows.size());
+        for (Object[] row : rows) {
+            index.add(new IndexEntry((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (Boolean) row[4]));
+        }
+        return index;
+    }
+
+    /**
+     * Schreibt einen JDBC-Batch und startet die Batch-Korrelation in derselben Transaktion
+     * Writes one JDBC batch and starts the batch correlation within the same transaction
+     *
+     * Drivers may report Statement.SUCCESS_NO_INFO instead of a row count; those rows are
+     * checked again by the updated_at written in this batch. The report counters are only
+     * updated after the commit, so a rolled back batch leaves them untouched.
+     */
+    private void flush(List<PendingPayment> pending, ExceptionWriter exceptions, PaymentImportReport report) throws IOException {
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Column precision, so the SUCCESS_NO_INFO check compares equal / Spaltengenauigkeit
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        List<Object[]> arguments = new ArrayList<>(pending.size());
+        for (PendingPayment payment : pending) {
+            arguments.add(new Object[]{now, payment.entry.id});
+        }
+
+        List<PendingPayment> skipped = new ArrayList<>();
+        List<String> processInstanceIds = new ArrayList<>();
+        String batchId = transactionTemplate.execute(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_PAYMENT_SQL, arguments);
+            Set<Long> updatedWithoutInfo = findUpdatedWithoutInfo(pending, counts, now);
+
+            for (int i = 0; i < counts.length; i++) {
+                PendingPayment payment = pending.get(i);
+                if (counts[i] > 0 || updatedWithoutInfo.contains(payment.entry.id)) {
+                    if (payment.entry.processInstanceId != null) {
+                        processInstanceIds.add(payment.entry.processInstanceId);
+                    }
+                } else {
+                    // Paid concurrently since the index was built / Seit dem Indexaufbau anderweitig bezahlt
+                    skipped.add(payment);
+                }
+            }
+
+            return paymentCorrelationService.correlatePaymentsReceivedAsync(processInstanceIds);
+        });
+
+        // Committed / Festgeschrieben
+        report.updated += pending.size() - skipped.size();
+        if (batchId != null) {
+            report.getCorrelationBatchIds().add(batchId);
+            report.processesNotified += processInstanceIds.size();
+        }
+
+        for (PendingPayment payment : skipped) {
+            exceptions.write(payment.line, ALREADY_PAID, payment.reference);
+        }
+
+        report.jdbcBatches++;
+        pending.clear();
+    }
+
+    /**
+     * Prüft Zeilen ohne Zeilenanzahl (SUCCESS_NO_INFO) erneut in der Datenbank
+     * Checks rows reported without row count (SUCCESS_NO_INFO) again in the database
+     *
+     * A row counts as updated by this batch if it is paid and carries the batch timestamp;
+     * a row paid concurrently in between keeps the timestamp of the other writer.
+     */
+    private Set<Long> findUpdatedWithoutInfo(List<PendingPayment> pending, int[] counts, Timestamp batchTimestamp) {
+        List<Long> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(pending.get(i).entry.id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return Set.of();
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(unknown.size(), "?"));
+        List<Object> parameters = new ArrayList<>(unknown.size() + 1);
+        parameters.add(batchTimestamp);
+        parameters.addAll(unknown);
+
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM applications WHERE tuition_fee_paid = TRUE AND updated_at = ? AND id IN (" + placeholders + ")",
+                Long.class, parameters.toArray()));
+    }
+
+    private void remember(PaymentImportReport report) {
+        recentReports.addFirst(report);
+        while (recentReports.size() > MAX_RECENT_REPORTS) {
+            recentReports.pollLast();
+        }
+    }
+
+    // ===== INTERNAL CLASSES / INTERNE KLASSEN =====
+
+    /**
+     * In-Memory-Index der Zulassungsreferenzen / In-memory index of admission references
+     *
+     * Applications accepted before the reference was stored are found through the
+     * application ID and study program code encoded in the reference.
+     */
+    private static class ReferenceIndex {
+        private final Map<String, IndexEntry> byReference;
+        private final Map<Long, IndexEntry> byId;
+
+        ReferenceIndex(int expectedSize) {
+            this.byReference = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+            this.byId = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+        }
+
+        void add(IndexEntry entry) {
+            byId.put(entry.id, entry);
+            if (entry.reference != null) {
+                byReference.put(entry.reference.toUpperCase(Locale.ROOT), entry);
+            }
+        }
+
+        IndexEntry lookup(String reference, Matcher matcher) {
+            IndexEntry entry = byReference.get(reference);
+            if (entry != null) {
+                return entry;
+            }
+
+            entry = byId.get(Long.parseLong(matcher.group(3)));
+            if (entry != null && entry.reference == null && matcher.group(1).equalsIgnoreCase(entry.studyProgramCode)) {
+                return entry;
+            }
+            return null;
+        }
+
+        int size() {
+            return byId.size();
+        }
+    }
+
+    private static class IndexEntry {
+        private final Long id;
+        private final String reference;
+        private final String studyProgramCode;
+        private final String processInstanceId;
+        private final boolean paid;
+        private boolean paidByImport;
+
+        IndexEntry(Long id, String reference, String studyProgramCode, String processInstanceId, Boolean paid) {
+            this.id = id;
+            this.reference = reference;
+            this.studyProgramCode = studyProgramCode;
+            this.processInstanceId = processInstanceId;
+            this.paid = Boolean.TRUE.equals(paid);
+        }
+    }
+
+    private static class PendingPayment {
+        private final BankStatementReader.StatementLine line;
+        private final IndexEntry entry;
+        private final String reference;
+
+        PendingPayment(BankStatementReader.StatementLine line, IndexEntry entry, String reference) {
+            this.line = line;
+            this.entry = entry;
+            this.reference = reference;
+        }
+    }
+
+    /**
+     * Schreibt nicht verbuchte Zeilen als CSV, die Datei wird erst bei der ersten Ausnahme angelegt
+     * Writes lines that were not applied as CSV; the file is only created on the first exception
+     */
+    private class ExceptionWriter implements AutoCloseable {
+        private final String fileName;
+        private final PaymentImportReport report;
+        private BufferedWriter writer;
+
+        ExceptionWriter(String fileName, PaymentImportReport report) {
+            this.fileName = fileName;
+            this.report = report;
+        }
+
+        void write(BankStatementReader.StatementLine line, String reason, String reference) throws IOException {
+            report.addException(reason);
+
+            if (writer == null) {
+                String baseName = fileName != null ? Paths.get(fileName).getFileName().toString().replaceAll("[^A-Za-z0-9._-]", "_") : "statement";
+                Path file = Files.createDirectories(Paths.get(exceptionsDir)).resolve(
+                        baseName + "-exceptions-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writer.write("line;reason;reference;amount;currency;bookingDate;debtorName;remittanceInformation;source");
+                writer.newLine();
+                report.setExceptionsFile(file.toAbsolutePath().toString());
+            }
+
+            writer.write(String.join(";",
+                    String.valueOf(line.getLineNumber()),
+                    reason,
+                    quote(reference),
+                    line.getAmount() != null ? line.getAmount().toPlainString() : "",
+                    quote(line.getCurrency()),
+                    quote(line.getBookingDate()),
+                    quote(line.getDebtorName()),
+                    quote(line.getRemittanceInformation()),
+                    quote(line.getSource())));
+            writer.newLine();
+        }
+
+        private String quote(String value) {
+            return value == null ? "" : "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Bericht über einen importierten Kontoauszug / Report for one imported bank statement
+     */
+    public static class PaymentImportReport {
+        private final String fileName;
+        private final String importedAt;
+        private String format;
+        private long linesRead;
+        private long credits;
+        private long matched;
+        private long updated;
+        private long processesNotified;
+        private long jdbcBatches;
+        private long exceptions;
+        private final Map<String, Long> exceptionsByReason = new LinkedHashMap<>();
+        private final List<String> correlationBatchIds = new ArrayList<>();
+        private String exceptionsFile;
+        private int indexSize;
+        private long indexBuildMillis;
+        private long durationMillis;
+        private String error;
+
+        public PaymentImportReport(String fileName) {
+            this.fileName = fileName;
+            this.importedAt = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"));
+        }
+
+        void addException(String reason) {
+            exceptions++;
+            exceptionsByReason.merge(reason, 1L, Long::sum);
+        }
+
+        void setFormat(String format) { this.format = format; }
+        void setExceptionsFile(String exceptionsFile) { this.exceptionsFile = exceptionsFile; }
+        void setIndexSize(int indexSize) { this.indexSize = indexSize; }
+        void setIndexBuildMillis(long indexBuildMillis) { this.indexBuildMillis = indexBuildMillis; }
+        void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+        void setError(String error) { this.error = error; }
+
+        // Getters
+        public String getFileName() { return fileName; }
+        public String getImportedAt() { return importedAt; }
+        public String getFormat() { return format; }
+        public long getLinesRead() { return linesRead; }
+        public long getCredits() { return credits; }
+        public long getMatched() { return matched; }
+        public long getUpdated() { return updated; }
+        public long getProcessesNotified() { return processesNotified; }
+        public long getJdbcBatches() { return jdbcBatches; }
+        public long getExceptions() { return exceptions; }
+        public Map<String, Long> getExceptionsByReason() { return exceptionsByReason; }
+        public List<String> getCorrelationBatchIds() { return correlationBatchIds; }
+        public String getExceptionsFile() { return exceptionsFile; }
+        public int getIndexSize() { return indexSize; }
+        public long getIndexBuildMillis() { return indexBuildMillis; }
+        public long getDurationMillis() { return durationMillis; }
+        public String getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+
+        public long getLinesPerSecond() {
+            return durationMillis > 0 ? linesRead * 1000 / durationMillis : linesRead;
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.config.PaymentDeadlineSettings;
+import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.entity.OutboxNotification;
+import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.template.LetterTemplates;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zentraler Sweeper für überfällige Zahlungen
+ * Central sweeper for overdue payments
+ *
+ * Replaces the two timers per process instance in the payment phase. A scheduled sweep
+ * pages through all unpaid accepted applications whose payment phase is older than the
+ * first deadline and determines the reminder stage from the age of the payment request.
+ * Per application the reminder is queued in the outbox, the waiting process instance is
+ * correlated (PaymentReminderDue / PaymentOverdue) and the stage is stored in one
+ * transaction; an instance that is not waiting yet keeps its stage and is retried by the next
+ * sweep. The engine therefore holds no timer jobs for waiting students; the cost is one
+ * indexed query per page and one short transaction per due reminder.
+ *
+ * Each sweep also reconciles paid applications that are still ACCEPTED after reconcile-after:
+ * PaymentReceived is correlated again, so an instance whose first correlation missed (it was
+ * not at a payment wait state yet) resumes once it waits there.
+ *
+ * Ersetzt die zwei Timer pro Prozessinstanz in der Zahlungsphase. Ein geplanter Lauf
+ * durchsucht seitenweise alle unbezahlten angenommenen Bewerbungen und bestimmt die
+ * Erinnerungsstufe aus dem Alter der Zahlungsaufforderung. Je Bewerbung werden Erinnerung,
+ * Korrelation und Stufe in einer Transaktion gespeichert; wartet die Instanz noch nicht,
+ * bleibt die Stufe und der nächste Lauf versucht es erneut. Bezahlte, noch angenommene
+ * Bewerbungen erhalten PaymentReceived erneut, falls die erste Korrelation ins Leere ging.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class PaymentReminderSweeper {
+
+    public static final String PAYMENT_REMINDER_DUE_MESSAGE = "PaymentReminderDue";
+    public static final String PAYMENT_OVERDUE_MESSAGE = "PaymentOverdue";
+
+    private static final int MAX_PAGE_SIZE = 5000;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    /**
+     * Erinnerungsstufen in aufsteigender Reihenfolge
+     * Reminder stages in ascending order
+     */
+    public enum ReminderStage {
+        FRIENDLY_REMINDER,
+        STANDARD_REMINDER,
+        OVERDUE_NOTICE,
+        FINAL_CHECK
+    }
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private PaymentDeadlineSettings paymentDeadlineSettings;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private PaymentCorrelationService paymentCorrelationService;
+
+    @Autowired
+    private LetterTemplates letterTemplates;
+
+    // Semester fee in the reminder, the amount the payment import expects / Semesterbeitrag, wie ihn der Zahlungsimport erwartet
+    @Value("${application.payment.import.expected-amount:350.00}")
+    private String semesterFeeAmount;
+
+    @Value("${application.payment.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.payment.sweeper.page-size:500}")
+    private int pageSize;
+
+    // Paid applications older than this are correlated again / Ältere bezahlte Bewerbungen werden erneut korreliert
+    @Value("${application.payment.sweeper.reconcile-after:PT1M}")
+    private Duration reconcileAfter;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong sweepCount = new AtomicLong();
+    private final AtomicLong remindersSent = new AtomicLong();
+    private final AtomicLong correlations = new AtomicLong();
+    private final AtomicLong notWaiting = new AtomicLong();
+    private final AtomicLong reconciled = new AtomicLong();
+    private volatile SweepResult lastSweep;
+
+    /**
+     * Geplanter Lauf / Scheduled run
+     */
+    @Scheduled(fixedDelayString = "${application.payment.sweeper.interval:PT1M}",
+               initialDelayString = "${application.payment.sweeper.initial-delay:PT30S}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Führt einen Lauf über alle überfälligen Zahlungen aus
+     * Runs one sweep over all overdue payments
+     *
+     * @return Ergebnis des Laufs oder null wenn bereits ein Lauf aktiv ist / Sweep result or null if a sweep is already running
+     */
+    public SweepResult sweep() {
+
+        if (!running.compareAndSet(false, true)) {
+            System.out.println("Payment reminder sweep already running / Zahlungserinnerungslauf läuft bereits");
+            return null;
+        }
+
+        try {
+            long startTime = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            SweepResult result = new SweepResult(now);
+            LocalDateTime requestedBefore = now.minus(paymentDeadlineSettings.getFirstDeadline());
+            int size = Math.min(pageSize, MAX_PAGE_SIZE);
+
+            Long afterId = 0L;
+            while (afterId != null) {
+                List<Application> page = applicationRepository.findOverduePayments(
+                        requestedBefore, afterId, PageRequest.of(0, size));
+                processPage(page, now, result);
+                afterId = page.size() < size ? null : page.get(page.size() - 1).getId();
+            }
+
+            afterId = 0L;
+            while (afterId != null) {
+                List<Application> page = applicationRepository.findPaidAwaitingEnrollment(
+                        now.minus(reconcileAfter), afterId, PageRequest.of(0, size));
+                page.forEach(application -> reconcilePayment(application, result));
+                afterId = page.size() < size ? null : page.get(page.size() - 1).getId();
+            }
+
+            result.setDurationMillis(System.currentTimeMillis() - startTime);
+            lastSweep = result;
+            sweepCount.incrementAndGet();
+
+            System.out.println("=== PAYMENT REMINDER SWEEP COMPLETED ===");
+            System.out.println("Pages: " + result.getPageCount());
+            System.out.println("Overdue Scanned: " + result.getScannedCount());
+            System.out.println("Reminders Sent: " + result.getRemindersByStage());
+            System.out.println("Escalated To Final Check: " + result.getEscalatedCount());
+            System.out.println("Correlations: " + result.getCorrelatedCount() + " (not waiting: " + result.getNotWaitingCount() + ")");
+            System.out.println("Paid Instances Reconciled: " + result.getReconciledCount());
+            System.out.println("Duration: " + result.getDurationMillis() + " ms");
+            System.out.println("========================================");
+
+            return result;
+
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Verarbeitet eine Seite: Stufen bestimmen, dann je Bewerbung Erinnerung, Korrelation und Stufe
+     * Processes one page: determine stages, then reminder, correlation and stage per application
+     */
+    private void processPage(List<Application> page, LocalDateTime now, SweepResult result) {
+
+        if (page.isEmpty()) {
+            return;
+        }
+        result.addPage(page.size());
+
+        int queued = 0;
+        for (Application application : page) {
+            ReminderStage previous = parseStage(application.getPaymentReminderStage());
+            LocalDateTime requestedAt = application.getPaymentRequestedAt() != null
+                    ? application.getPaymentRequestedAt() : application.getUpdatedAt();
+            ReminderStage target = stageFor(Duration.between(requestedAt, now));
+
+            // The overdue notice is always sent before the final check, at least one sweep apart
+            // Die Mahnung geht immer mindestens einen Lauf vor der finalen Prüfung raus
+            if (target == ReminderStage.FINAL_CHECK && isBefore(previous, ReminderStage.OVERDUE_NOTICE)) {
+                target = ReminderStage.OVERDUE_NOTICE;
+            }
+            if (target != null && isBefore(previous, target)
+                    && applyReminder(new DueReminder(application, previous, target), now, result)
+                    && target != ReminderStage.FINAL_CHECK) {
+                queued++;
+            }
+        }
+
+        System.out.println("REMINDER EMAILS QUEUED / ERINNERUNGS-E-MAILS EINGEREIHT: " + queued);
+    }
+
+    /**
+     * Erinnerung einreihen, Instanz fortsetzen und Stufe speichern in einer Transaktion
+     * Queues the reminder, resumes the instance and stores the stage in one transaction
+     *
+     * If a required correlation finds no waiting instance (e.g. its asyncAfter job has not run
+     * yet) or fails, the whole unit is rolled back: no reminder is queued, the stage stays and
+     * the next sweep tries again. A crash between the steps therefore never sends a reminder
+     * twice or skips a stage.
+     *
+     * Findet eine nötige Korrelation keine wartende Instanz oder schlägt sie fehl, wird alles
+     * zurückgerollt und der nächste Lauf versucht es erneut.
+     *
+     * @return true wenn die Stufe fortgeschrieben wurde / true if the stage was advanced
+     */
+    private boolean applyReminder(DueReminder reminder, LocalDateTime now, SweepResult result) {
+
+        Application application = reminder.application;
+        boolean applied;
+        try {
+            applied = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                // Instances still at the first wait state move on to the reminder task
+                // Instanzen im ersten Wartezustand gehen weiter zur Erinnerungsaufgabe
+                if (reminder.previous == null && !correlate(application, PAYMENT_REMINDER_DUE_MESSAGE, Map.of(
+                        "reminderType", reminder.target.name(),
+                        "reminderSentBySweeper", true))) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                if (reminder.target == ReminderStage.FINAL_CHECK && !correlate(application, PAYMENT_OVERDUE_MESSAGE, Map.of(
+                        "paymentOverdueAt", now.format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"))))) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+
+                if (reminder.target != ReminderStage.FINAL_CHECK) {
+                    notificationService.enqueueAll(List.of(notificationService.createNotification(OutboxNotification.Channel.EMAIL,
+                            "PAYMENT_REMINDER_" + reminder.target.name(), application.getEmail(),
+                            subjectFor(reminder.target) + " (Ref: " + application.getAdmissionReference() + ")",
+                            createReminderText(application, reminder.target, now),
+                            application.getId(), application.getCamundaProcessInstanceId())));
+                }
+                applicationRepository.updatePaymentReminderStage(List.of(application.getId()), reminder.target.name());
+                return true;
+            }));
+        } catch (Exception e) {
+            // One broken instance must not stop the sweep / Eine fehlerhafte Instanz darf den Lauf nicht stoppen
+            System.err.println("Payment reminder failed / Zahlungserinnerung fehlgeschlagen for application "
+                    + application.getId() + ": " + e.getMessage());
+            applied = false;
+        }
+
+        // Counted after the commit only / Erst nach dem Commit gezählt
+        if (!applied) {
+            result.addNotWaiting();
+            notWaiting.incrementAndGet();
+            return false;
+        }
+        if (reminder.previous == null || reminder.target == ReminderStage.FINAL_CHECK) {
+            result.addCorrelated();
+            correlations.incrementAndGet();
+        }
+        if (reminder.target == ReminderStage.FINAL_CHECK) {
+            result.addEscalated();
+        } else {
+            result.addReminder(reminder.target);
+            remindersSent.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Setzt eine bezahlte Instanz fort, deren Zahlungskorrelation ins Leere ging
+     * Resumes a paid instance whose payment correlation missed
+     *
+     * Instances that are not waiting (e.g. already on their way to enrollment) are left alone.
+     */
+    private void reconcilePayment(Application application, SweepResult result) {
+        try {
+            if (paymentCorrelationService.correlatePaymentReceived(application)) {
+                result.addReconciled();
+                reconciled.incrementAndGet();
+            }
+        } catch (Exception e) {
+            // Retried by the next sweep / Wird im nächsten Lauf erneut versucht
+            System.err.println("Payment reconciliation failed / Zahlungsabgleich fehlgeschlagen for application "
+                    + application.getId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Erstellt den Text einer Erinnerung aus der Vorlage payment-reminder
+     * Creates the text of one reminder from the payment-reminder template
+     *
+     * Same letter as PaymentReminderDelegate; the deadline is derived from the payment request and
+     * first-deadline, since the sweeper does not read process variables.
+     */
+    private String createReminderText(Application application, ReminderStage stage, LocalDateTime now) {
+        LocalDateTime requestedAt = application.getPaymentRequestedAt() != null
+                ? application.getPaymentRequestedAt() : application.getUpdatedAt();
+        LocalDate deadline = requestedAt.plus(paymentDeadlineSettings.getFirstDeadline()).toLocalDate();
+        long daysDifference = ChronoUnit.DAYS.between(now.toLocalDate(), deadline);
+        boolean deadlineExpired = stage == ReminderStage.OVERDUE_NOTICE;
+
+        String daysInfo;
+        if (deadlineExpired || daysDifference < 0) {
+            daysInfo = Math.abs(daysDifference) + " Tage überfällig";
+        } else if (daysDifference == 0) {
+            daysInfo = "Deadline heute!";
+        } else {
+            daysInfo = daysDifference + " Tage verbleibend";
+        }
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("deadlineExpired", deadlineExpired);
+        model.put("admissionReference", application.getAdmissionReference());
+        model.put("firstName", application.getFirstName());
+        model.put("lastName", application.getLastName());
+        model.put("email", application.getEmail());
+        model.put("studyProgramName", application.getStudyProgram().getName());
+        model.put("semesterFeeAmount", semesterFeeAmount);
+        model.put("paymentDeadline", deadline.format(DATE_FORMAT));
+        model.put("daysInfo", daysInfo);
+
+        return letterTemplates.render("payment-reminder", model);
+    }
+
+    /**
+     * Korreliert eine Nachricht mit der wartenden Prozessinstanz (in der Transaktion des Aufrufers)
+     * Correlates a message with the waiting process instance (within the caller's transaction)
+     *
+     * @return false wenn keine Instanz wartet / false if no instance is waiting
+     */
+    private boolean correlate(Application application, String messageName, Map<String, Object> variables) {
+
+        MessageCorrelationBuilder correlation = runtimeService.createMessageCorrelation(messageName)
+                .setVariables(variables);
+        if (application.getCamundaProcessInstanceId() != null) {
+            correlation.processInstanceId(application.getCamundaProcessInstanceId());
+        } else {
+            correlation.processInstanceVariableEquals("applicationId", application.getId());
+        }
+
+        return !correlation.correlateAllWithResult().isEmpty();
+    }
+
+    /**
+     * Bestimmt die Stufe aus dem Alter der Zahlungsaufforderung
+     * Determines the stage from the age of the payment request
+     */
+    private ReminderStage stageFor(Duration age) {
+        if (age.compareTo(paymentDeadlineSettings.getFinalCheckAfter()) >= 0) {
+            return ReminderStage.FINAL_CHECK;
+        } else if (age.compareTo(paymentDeadlineSettings.getOverdueNoticeAfter()) >= 0) {
+            return ReminderStage.OVERDUE_NOTICE;
+        } else if (age.compareTo(paymentDeadlineSettings.getStandardReminderAfter()) >= 0) {
+            return ReminderStage.STANDARD_REMINDER;
+        } else if (age.compareTo(paymentDeadlineSettings.getFirstDeadline()) >= 0) {
+            return ReminderStage.FRIENDLY_REMINDER;
+        }
+        return null;
+    }
+
+    private boolean isBefore(ReminderStage previous, ReminderStage target) {
+        return previous == null || previous.compareTo(target) < 0;
+    }
+
+    private ReminderStage parseStage(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ReminderStage.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String subjectFor(ReminderStage stage) {
+        switch (stage) {
+            case OVERDUE_NOTICE:
+                return "DRINGEND: Überfällige Zahlung - Semesterbeitrag";
+            case FRIENDLY_REMINDER:
+                return "Erinnerung: Semesterbeitrag - Universität Riedtal";
+            default:
+                return "Zahlungserinnerung - Universität Riedtal";
+        }
+    }
+
+    /**
+     * Statistiken des Sweepers / Sweeper statistics
+     */
+    public Map<String, Object> getStatistics() {
+
+        Map<String, Object> pendingByStage = new LinkedHashMap<>();
+        for (Object[] row : applicationRepository.countPendingPaymentsByReminderStage()) {
+            pendingByStage.put(row[0] != null ? (String) row[0] : "AWAITING_FIRST_DEADLINE", row[1]);
+        }
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("pageSize", pageSize);
+        statistics.put("firstDeadline", paymentDeadlineSettings.getFirstDeadline().toString());
+        statistics.put("secondDeadline", paymentDeadlineSettings.getSecondDeadline().toString());
+        statistics.put("overdueGrace", paymentDeadlineSettings.getOverdueGrace().toString());
+        statistics.put("sweepCount", sweepCount.get());
+        statistics.put("remindersSent", remindersSent.get());
+        statistics.put("correlations", correlations.get());
+        statistics.put("notWaiting", notWaiting.get());
+        statistics.put("reconcileAfter", reconcileAfter.toString());
+        statistics.put("reconciled", reconciled.get());
+        statistics.put("pendingPaymentsByStage", pendingByStage);
+        // Should stay 0: the payment phase no longer creates timer jobs / Sollte 0 bleiben: keine Timer-Jobs mehr
+        statistics.put("paymentTimerJobs", managementService.createJobQuery().timers()
+                .activityId("Event_PaymentDeadline").count()
+                + managementService.createJobQuery().timers().activityId("Event_SecondPaymentDeadline").count());
+        statistics.put("lastSweep", lastSweep);
+        statistics.put("timestamp", LocalDateTime.now());
+        return statistics;
+    }
+
+    /**
+     * Fällige Erinnerung einer Bewerbung / Due reminder of one application
+     */
+    private static class DueReminder {
+        private final Application application;
+        private final ReminderStage previous;
+        private final ReminderStage target;
+
+        DueReminder(Application application, ReminderStage previous, ReminderStage target) {
+            this.application = application;
+            this.previous = previous;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Ergebnis eines Laufs / Result of one sweep
+     */
+    public static class SweepResult {
+        private final LocalDateTime startedAt;
+        private int pageCount;
+        private int scannedCount;
+        private int escalatedCount;
+        private int correlatedCount;
+        private int notWaitingCount;
+        private int reconciledCount;
+        private long durationMillis;
+        private final Map<ReminderStage, Integer> remindersByStage = new EnumMap<>(ReminderStage.class);
+
+        public SweepResult(LocalDateTime startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        void addPage(int size) {
+            pageCount++;
+            scannedCount += size;
+        }
+
+        void addReminder(ReminderStage stage) {
+            remindersByStage.merge(stage, 1, Integer::sum);
+        }
+
+        void addEscalated() { escalatedCount++; }
+
+        void addCorrelated() { correlatedCount++; }
+
+        void addNotWaiting() { notWaitingCount++; }
+
+        void addReconciled() { reconciledCount++; }
+
+        void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+        // Getters
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public int getPageCount() { return pageCount; }
+        public int getScannedCount() { return scannedCount; }
+        public int getEscalatedCount() { return escalatedCount; }
+        public int getCorrelatedCount() { return correlatedCount; }
+        public int getNotWaitingCount() { return notWaitingCount; }
+        public int getReconciledCount() { return reconciledCount; }
+        public long getDurationMillis() { return durationMillis; }
+        public Map<ReminderStage, Integer> getRemindersByStage() { return remindersByStage; }
+    }
+}
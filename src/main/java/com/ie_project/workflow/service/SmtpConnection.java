@@ -0,0 +1,231 @@
+package com.ie_project.workflow.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eine SMTP-Verbindung zu einem Relay (RFC 5321, Pipelining nach RFC 2920)
+ * One SMTP connection to a relay (RFC 5321, pipelining per RFC 2920)
+ *
+ * Used by SmtpSessionPool when application.notification.smtp.simulated is false. The connection
+ * greets with EHLO and pipelines if the relay advertises PIPELINING: the message data of one
+ * message and the MAIL FROM / RCPT TO / DATA of the next go out in one write, so every message
+ * costs one round trip instead of four. Bodies are sent base64 encoded, so no dot-stuffing or
+ * 8BITMIME is needed. A rejected sender or recipient only fails that message; the transaction
+ * is reset and the connection stays usable. I/O errors leave the connection broken and are
+ * thrown to the caller.
+ *
+ * Begrüßt mit EHLO und nutzt Pipelining, wenn der Relay es anbietet: eine Nachricht kostet dann
+ * einen Roundtrip statt vier. Abgelehnte Empfänger betreffen nur ihre Nachricht.
+ *
+ * @author IE Project Team
+ */
+final class SmtpConnection implements Closeable {
+
+    private static final String CRLF = "\r\n";
+
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final OutputStream out;
+    private final boolean pipelining;
+
+    private SmtpConnection(Socket socket, BufferedReader reader, OutputStream out, boolean pipelining) {
+        this.socket = socket;
+        this.reader = reader;
+        this.out = out;
+        this.pipelining = pipelining;
+    }
+
+    /**
+     * Baut die Verbindung auf und begrüßt den Relay / Connects and greets the relay
+     */
+    static SmtpConnection open(String host, int port, int timeoutMillis, String clientName) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+
+            expect(readReply(reader), 220, "greeting");
+            write(out, "EHLO " + clientName + CRLF);
+            Reply ehlo = readReply(reader);
+            boolean pipelining = false;
+            if (ehlo.code == 250) {
+                pipelining = ehlo.lines.stream().anyMatch(line -> line.toUpperCase().startsWith("PIPELINING"));
+            } else {
+                write(out, "HELO " + clientName + CRLF);
+                expect(readReply(reader), 250, "HELO");
+            }
+            return new SmtpConnection(socket, reader, out, pipelining);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    boolean isPipelining() {
+        return pipelining;
+    }
+
+    /**
+     * Überträgt die Nachrichten und liefert die Fehler je Index
+     * Transmits the messages and returns the errors per index
+     */
+    Map<Integer, String> send(String from, List<SmtpSessionPool.SmtpMessage> messages) throws IOException {
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        boolean envelopeSent = false;
+
+        for (int i = 0; i < messages.size(); i++) {
+            SmtpSessionPool.SmtpMessage message = messages.get(i);
+
+            Reply mail;
+            Reply rcpt;
+            Reply data;
+            if (pipelining) {
+                if (!envelopeSent) {
+                    write(out, envelope(from, message));
+                }
+                mail = readReply(reader);
+                rcpt = readReply(reader);
+                data = readReply(reader);
+            } else {
+                mail = command("MAIL FROM:<" + from + ">");
+                rcpt = mail.code == 250 ? command("RCPT TO:<" + message.getRecipient() + ">") : mail;
+                data = rcpt.code == 250 || rcpt.code == 251 ? command("DATA") : rcpt;
+            }
+            envelopeSent = false;
+
+            if (data.code != 354) {
+                // Sender or recipient rejected, reset the transaction / Absender oder Empfänger abgelehnt, Transaktion zurücksetzen
+                failures.put(i, firstError(mail, rcpt, data));
+                command("RSET");
+                continue;
+            }
+
+            StringBuilder payload = new StringBuilder(content(from, message)).append('.').append(CRLF);
+            if (pipelining && i + 1 < messages.size()) {
+                // Message data may start a group, the next envelope follows in the same write
+                // Nachrichtendaten dürfen eine Gruppe beginnen, die nächste Hülle folgt im selben Schreibvorgang
+                payload.append(envelope(from, messages.get(i + 1)));
+                envelopeSent = true;
+            }
+            write(out, payload.toString());
+            Reply accepted = readReply(reader);
+            if (accepted.code != 250) {
+                failures.put(i, accepted.text());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Beendet die Sitzung mit QUIT / Ends the session with QUIT
+     */
+    @Override
+    public void close() {
+        try {
+            if (!socket.isClosed()) {
+                write(out, "QUIT" + CRLF);
+                readReply(reader);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The relay may already have closed the connection / Der Relay hat die Verbindung evtl. schon geschlossen
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Nothing left to release / Nichts mehr freizugeben
+            }
+        }
+    }
+
+    private Reply command(String line) throws IOException {
+        write(out, line + CRLF);
+        return readReply(reader);
+    }
+
+    private static String envelope(String from, SmtpSessionPool.SmtpMessage message) {
+        return "MAIL FROM:<" + from + ">" + CRLF
+                + "RCPT TO:<" + message.getRecipient() + ">" + CRLF
+                + "DATA" + CRLF;
+    }
+
+    /**
+     * Kopfzeilen und base64-kodierter Text / Headers and base64 encoded body
+     */
+    private static String content(String from, SmtpSessionPool.SmtpMessage message) {
+        String body = Base64.getMimeEncoder().encodeToString(message.getContent().getBytes(StandardCharsets.UTF_8));
+        return "From: <" + from + ">" + CRLF
+                + "To: <" + message.getRecipient() + ">" + CRLF
+                + "Subject: =?UTF-8?B?" + Base64.getEncoder().encodeToString(message.getSubject().getBytes(StandardCharsets.UTF_8)) + "?=" + CRLF
+                + "Date: " + ZonedDateTime.now().format(DateTimeFormatter.RFC_1123_DATE_TIME) + CRLF
+                + "MIME-Version: 1.0" + CRLF
+                + "Content-Type: text/plain; charset=UTF-8" + CRLF
+                + "Content-Transfer-Encoding: base64" + CRLF
+                + CRLF
+                + body + CRLF;
+    }
+
+    private static String firstError(Reply... replies) {
+        for (Reply reply : replies) {
+            if (reply.code >= 400) {
+                return reply.text();
+            }
+        }
+        return replies[replies.length - 1].text();
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void expect(Reply reply, int code, String step) {
+        if (reply.code != code) {
+            throw new IllegalStateException("SMTP " + step + " rejected / abgelehnt: " + reply.text());
+        }
+    }
+
+    /**
+     * Liest eine (ggf. mehrzeilige) Antwort / Reads a (possibly multi-line) reply
+     */
+    private static Reply readReply(BufferedReader reader) throws IOException {
+        Reply reply = new Reply();
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null || line.length() < 3) {
+                throw new IOException("SMTP connection closed / SMTP-Verbindung geschlossen");
+            }
+            reply.code = Integer.parseInt(line.substring(0, 3));
+            reply.lines.add(line.length() > 4 ? line.substring(4) : "");
+        } while (line.length() > 3 && line.charAt(3) == '-');
+        return reply;
+    }
+
+    /**
+     * Antwort des Relays / Reply of the relay
+     */
+    private static final class Reply {
+        private int code;
+        private final List<String> lines = new ArrayList<>();
+
+        String text() {
+            return code + " " + String.join(" ", lines);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.ie_project.workflow.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool wiederverwendbarer SMTP-Sitzungen
+ * Pool of reusable SMTP sessions
+ *
+ * Opening an SMTP conversation (TCP, TLS, EHLO, AUTH) costs far more than sending one message
+ * over an open one. The pool keeps up to pool-size sessions open, hands idle sessions out again
+ * and recycles them after max-messages-per-session or idle-timeout, as most relays limit both.
+ * Messages of one batch are pipelined: the envelope commands of all messages go out in one
+ * round trip and only the message data is paid per message.
+ *
+ * With application.notification.smtp.simulated (the default for development) connection setup
+ * and transfer are only simulated with the configured delays, so the figures in getStatistics
+ * reflect those delays and not a relay. With simulated: false each session is a real
+ * SmtpConnection to host:port.
+ *
+ * Das Öffnen einer SMTP-Sitzung kostet deutlich mehr als das Senden über eine offene Sitzung.
+ * Der Pool hält bis zu pool-size Sitzungen offen und verwendet sie wieder. Nachrichten eines
+ * Batches werden per Pipelining in einem Roundtrip übertragen.
+ *
+ * @author IE Project Team
+ */
+@Component
+public class SmtpSessionPool {
+
+    // false sends over real SMTP connections / false sendet über echte SMTP-Verbindungen
+    @Value("${application.notification.smtp.simulated:true}")
+    private boolean simulated;
+
+    @Value("${application.notification.smtp.host:localhost}")
+    private String host;
+
+    @Value("${application.notification.smtp.port:25}")
+    private int port;
+
+    @Value("${application.notification.smtp.pool-size:4}")
+    private int poolSize;
+
+    @Value("${application.notification.smtp.max-messages-per-session:100}")
+    private int maxMessagesPerSession;
+
+    @Value("${application.notification.smtp.idle-timeout:PT30S}")
+    private Duration idleTimeout;
+
+    @Value("${application.notification.smtp.from:bewerbung@riedtal.de}")
+    private String from;
+
+    // Connect and read timeout of real connections / Verbindungs- und Lese-Timeout echter Verbindungen
+    @Value("${application.notification.smtp.timeout:PT10S}")
+    private Duration timeout;
+
+    // Simulated cost of TCP + TLS + EHLO + AUTH / Simulierte Kosten für Verbindungsaufbau
+    @Value("${application.notification.smtp.connect-millis:300}")
+    private long connectMillis;
+
+    // Simulated round trip of the pipelined envelope / Simulierter Roundtrip der Umschläge
+    @Value("${application.notification.smtp.round-trip-millis:50}")
+    private long roundTripMillis;
+
+    // Simulated transfer per message / Simulierte Übertragung pro Nachricht
+    @Value("${application.notification.smtp.message-millis:10}")
+    private long messageMillis;
+
+    @Value("${application.notification.simulated-failure-rate:0.0}")
+    private double simulatedFailureRate;
+
+    private final ConcurrentLinkedDeque<SmtpSession> idleSessions = new ConcurrentLinkedDeque<>();
+    private Semaphore permits;
+
+    private final AtomicLong sessionIds = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong sessionsReused = new AtomicLong();
+    private final AtomicLong sessionsRecycled = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesFailed = new AtomicLong();
+    private final AtomicLong transmitNanos = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(Math.max(1, poolSize), true);
+    }
+
+    /**
+     * Schließt die offenen Sitzungen mit QUIT / Closes the open sessions with QUIT
+     */
+    @PreDestroy
+    void shutdown() {
+        SmtpSession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            session.close();
+        }
+    }
+
+    /**
+     * Sendet einen Batch über eine gepoolte Sitzung
+     * Sends a batch over a pooled session
+     *
+     * @param messages Die Nachrichten / The messages
+     * @return Fehler je Nachrichtenindex, leer wenn alle angenommen / Errors per message index, empty if all accepted
+     */
+    public Map<Integer, String> sendBatch(List<SmtpMessage> messages) {
+
+        if (messages.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an SMTP session / Beim Warten auf SMTP-Sitzung unterbrochen", e);
+        }
+
+        SmtpSession session = null;
+        try {
+            long start = System.nanoTime();
+            session = borrow();
+            Map<Integer, String> failures = transmit(session, messages);
+            transmitNanos.addAndGet(System.nanoTime() - start);
+            batchesSent.incrementAndGet();
+            messagesSent.addAndGet(messages.size() - failures.size());
+            messagesFailed.addAndGet(failures.size());
+
+            System.out.println("SMTP batch sent / SMTP-Batch versendet: session " + session.id + " (" + host + ":" + port + "), "
+                    + (messages.size() - failures.size()) + "/" + messages.size() + " accepted, "
+                    + session.messagesSent + " messages on this session");
+            return failures;
+
+        } catch (RuntimeException e) {
+            // A broken connection is not returned to the pool / Eine gestörte Verbindung geht nicht zurück in den Pool
+            if (session != null) {
+                session.close();
+            }
+            session = null;
+            throw e;
+        } finally {
+            if (session != null) {
+                session.lastUsedAt = LocalDateTime.now();
+                idleSessions.addFirst(session);
+            }
+            permits.release();
+        }
+    }
+
+    /**
+     * Liefert eine offene Sitzung oder baut eine neue auf
+     * Returns an open session or opens a new one
+     */
+    private SmtpSession borrow() {
+        SmtpSession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            if (session.messagesSent < maxMessagesPerSession
+                    && session.lastUsedAt.plus(idleTimeout).isAfter(LocalDateTime.now())) {
+                sessionsReused.incrementAndGet();
+                return session;
+            }
+            // QUIT, the relay would close it anyway / QUIT, der Relay würde sie ohnehin schließen
+            session.close();
+            sessionsRecycled.incrementAndGet();
+        }
+
+        session = new SmtpSession(sessionIds.incrementAndGet());
+        session.connection = connect();
+        return session;
+    }
+
+    /**
+     * Baut eine echte Verbindung auf oder simuliert den Aufbau
+     * Opens a real connection or simulates opening one
+     */
+    private SmtpConnection connect() {
+        connectionsOpened.incrementAndGet();
+        if (simulated) {
+            sleep(connectMillis);
+            return null;
+        }
+        try {
+            return SmtpConnection.open(host, port, (int) timeout.toMillis(), InetAddress.getLocalHost().getHostName());
+        } catch (IOException e) {
+            throw new UncheckedIOException("SMTP connection to " + host + ":" + port + " failed / SMTP-Verbindung fehlgeschlagen", e);
+        }
+    }
+
+    /**
+     * Überträgt die Nachrichten per Pipelining (MAIL FROM / RCPT TO / DATA in einem Roundtrip)
+     * Transmits the messages pipelined (MAIL FROM / RCPT TO / DATA in one round trip)
+     *
+     * @throws UncheckedIOException wenn die Verbindung abbricht / if the connection breaks
+     */
+    private Map<Integer, String> transmit(SmtpSession session, List<SmtpMessage> messages) {
+        Map<Integer, String> failures = new LinkedHashMap<>();
+
+        // Split at the session limit: the rest goes over a fresh session
+        // Aufteilung an der Sitzungsgrenze: der Rest geht über eine neue Sitzung
+        int index = 0;
+        while (index < messages.size()) {
+            if (session.messagesSent >= maxMessagesPerSession) {
+                sessionsRecycled.incrementAndGet();
+                session.close();
+                session.reopen(sessionIds.incrementAndGet());
+                session.connection = connect();
+            }
+            int end = Math.min(messages.size(), index + (maxMessagesPerSession - session.messagesSent));
+            if (session.connection != null) {
+                try {
+                    int offset = index;
+                    session.connection.send(from, messages.subList(index, end))
+                            .forEach((i, error) -> failures.put(offset + i, error));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("SMTP transfer failed / SMTP-Übertragung fehlgeschlagen", e);
+                }
+            } else {
+                sleep(roundTripMillis + messageMillis * (end - index));
+                for (int i = index; i < end; i++) {
+                    if (simulatedFailureRate > 0 && ThreadLocalRandom.current().nextDouble() < simulatedFailureRate) {
+                        failures.put(i, "451 Simulated temporary failure / Simulierter temporärer Fehler");
+                    }
+                }
+            }
+            session.messagesSent += end - index;
+            index = end;
+        }
+        return failures;
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during SMTP transfer / SMTP-Übertragung unterbrochen", e);
+        }
+    }
+
+    /**
+     * Statistiken des Pools / Pool statistics
+     */
+    public Map<String, Object> getStatistics() {
+        long sent = messagesSent.get();
+        long opened = connectionsOpened.get();
+        long borrows = opened + sessionsReused.get();
+        double transmitSeconds = transmitNanos.get() / 1_000_000_000.0;
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("mode", simulated ? "simulated" : "smtp");
+        statistics.put("host", host + ":" + port);
+        statistics.put("poolSize", poolSize);
+        statistics.put("idleSessions", idleSessions.size());
+        statistics.put("connectionsOpened", opened);
+        statistics.put("sessionsReused", sessionsReused.get());
+        statistics.put("sessionsRecycled", sessionsRecycled.get());
+        // Share of batches served by an already open session / Anteil der Batches über eine offene Sitzung
+        statistics.put("connectionReuseRatio", borrows > 0 ? Math.round(sessionsReused.get() * 1000.0 / borrows) / 1000.0 : 0.0);
+        statistics.put("messagesPerConnection", opened > 0 ? Math.round(sent * 10.0 / opened) / 10.0 : 0.0);
+        statistics.put("batchesSent", batchesSent.get());
+        statistics.put("messagesSent", sent);
+        statistics.put("messagesFailed", messagesFailed.get());
+        // Throughput of one session while sending, connection setup included / Durchsatz einer Sitzung inkl. Verbindungsaufbau
+        statistics.put("messagesPerSecond", transmitSeconds > 0 ? Math.round(sent * 10.0 / transmitSeconds) / 10.0 : 0.0);
+        return statistics;
+    }
+
+    /**
+     * Eine offene SMTP-Sitzung / One open SMTP session
+     */
+    private static class SmtpSession {
+        private long id;
+        private int messagesSent;
+        private LocalDateTime lastUsedAt = LocalDateTime.now();
+        // Null in simulation mode / Im Simulationsmodus null
+        private SmtpConnection connection;
+
+        SmtpSession(long id) {
+            this.id = id;
+        }
+
+        void reopen(long newId) {
+            this.id = newId;
+            this.messagesSent = 0;
+        }
+
+        void close() {
+            if (connection != null) {
+                connection.close();
+                connection = null;
+            }
+        }
+    }
+
+    /**
+     * Eine zu sendende Nachricht / One message to send
+     */
+    public static class SmtpMessage {
+        private final String recipient;
+        private final String subject;
+        private final String content;
+
+        public SmtpMessage(String recipient, String subject, String content) {
+            this.recipient = recipient;
+            this.subject = subject;
+            this.content = content;
+        }
+
+        public String getRecipient() { return recipient; }
+        public String getSubject() { return subject; }
+        public String getContent() { return content; }
+    }
+}
@@ -6,6 +6,7 @@ import com.ie_project.workflow.entity.StudyProgram;
 import com.ie_project.workflow.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -30,6 +31,9 @@ public class StudentEnrollmentService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
     /**
      * Erstellt einen Studentendatensatz aus einer genehmigten Bewerbung
      * Creates a student record from an approved application
@@ -106,8 +110,9 @@ public class StudentEnrollmentService {
         student.setCreatedAt(now);
         student.setUpdatedAt(now);
 
-        // Save student record / Studentendatensatz speichern
-        Student savedStudent = studentRepository.save(student);
+        // Save student record, flushed so conflicts surface here / Studentendatensatz speichern, sofort geschrieben
+        Student savedStudent = optimisticRetryService.execute("create student " + studentNumber,
+                () -> studentRepository.saveAndFlush(student));
 
         System.out.println("=== STUDENT RECORD CREATED SUCCESSFULLY ===");
         System.out.println("Student ID: " + savedStudent.getId());
@@ -129,10 +134,14 @@ public class StudentEnrollmentService {
      * Aktualisiert das Semester eines Studenten
      * Updates a student's semester
      *
+     * Joins the caller's transaction if there is one; otherwise each attempt runs in its own
+     * transaction, so version conflicts are retried by the OptimisticRetryService.
+     *
      * @param studentId Die Student-ID / The student ID
      * @param newSemester Das neue Semester / The new semester
      * @return Der aktualisierte Student / The updated student
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Student updateStudentSemester(Long studentId, int newSemester) {
 
         if (studentId == null) {
@@ -143,13 +152,10 @@ public class StudentEnrollmentService {
             throw new IllegalArgumentException("Semester must be between 1 and 20 / Semester muss zwischen 1 und 20 liegen");
         }
 
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException("Student not found / Student nicht gefunden: " + studentId));
-
-        student.setCurrentSemester(newSemester);
-        student.setUpdatedAt(LocalDateTime.now());
-
-        Student updatedStudent = studentRepository.save(student);
+        Student updatedStudent = optimisticRetryService.updateStudent(studentId, student -> {
+            student.setCurrentSemester(newSemester);
+            student.setUpdatedAt(LocalDateTime.now());
+        });
 
         System.out.println("=== STUDENT SEMESTER UPDATED ===");
         System.out.println("Student: " + updatedStudent.getFullName());
@@ -168,19 +174,27 @@ public class StudentEnrollmentService {
      * @param studentId Die Student-ID / The student ID
      * @return Der aktualisierte Student / The updated student
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Student advanceStudentToNextSemester(Long studentId) {
 
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException("Student not found / Student nicht gefunden: " + studentId));
-
-        int currentSemester = student.getCurrentSemester();
-        int nextSemester = currentSemester + 1;
+        // The next semester is computed from the copy read in each attempt, not from an earlier read
+        // Das nächste Semester wird aus der im jeweiligen Versuch gelesenen Kopie berechnet
+        Student updatedStudent = optimisticRetryService.updateStudent(studentId, student -> {
+            int nextSemester = student.getCurrentSemester() + 1;
+            if (nextSemester > 20) {
+                throw new IllegalStateException("Cannot advance beyond semester 20 / Kann nicht über Semester 20 hinaus befördern");
+            }
+            student.setCurrentSemester(nextSemester);
+            student.setUpdatedAt(LocalDateTime.now());
+        });
 
-        if (nextSemester > 20) {
-            throw new IllegalStateException("Cannot advance beyond semester 20 / Kann nicht über Semester 20 hinaus befördern");
-        }
+        System.out.println("=== STUDENT ADVANCED TO NEXT SEMESTER ===");
+        System.out.println("Student: " + updatedStudent.getFullName());
+        System.out.println("Student Number: " + updatedStudent.getStudentNumber());
+        System.out.println("New Semester: " + updatedStudent.getCurrentSemester());
+        System.out.println("=========================================");
 
-        return updateStudentSemester(studentId, nextSemester);
+        return updatedStudent;
     }
 
     /**
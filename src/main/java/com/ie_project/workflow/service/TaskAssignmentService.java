@@ -0,0 +1,303 @@
+package com.ie_project.workflow.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.camunda.bpm.engine.IdentityService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.identity.User;
+import org.camunda.bpm.engine.task.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lastabhängige Zuweisung der Dokumentenprüfung an Sachbearbeiter
+ * Load-based assignment of document verification tasks to staff
+ *
+ * The TaskAssignmentListener asks for an assignee when a task is created. Eligible are the
+ * configured staff roster and the members of the task's candidate groups in the Camunda
+ * identity service. A user's load is the number of open tasks assigned to the user divided by
+ * the user's weight; the lowest load below the user's capacity wins, ties go to the user who
+ * received fewer tasks so far. If everyone is at capacity the task stays unassigned in the
+ * group queue.
+ *
+ * The open-task counters live in memory and are derived from a task id to assignee map, so
+ * complete, delete and reassignment simply move or drop the task's entry. A new assignment is
+ * reserved immediately so concurrent creations see it, and released again if the engine
+ * transaction rolls back. On startup the map is rebuilt from the open tasks in the engine.
+ *
+ * Der TaskAssignmentListener fragt beim Anlegen einer Aufgabe nach einem Bearbeiter. Gewählt
+ * wird der Sachbearbeiter mit der geringsten gewichteten Zahl offener Aufgaben unterhalb
+ * seiner Kapazität. Die Zähler liegen im Speicher und werden beim Start aus der Engine
+ * wiederhergestellt.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class TaskAssignmentService {
+
+    public static final String OPEN_TASKS_GAUGE_NAME = "task.assignment.open";
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private IdentityService identityService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${application.tasks.assignment.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.tasks.assignment.task-definition-key:Task_DocumentVerification}")
+    private String taskDefinitionKey;
+
+    // Staff roster, eligible for every task of the managed type / Sachbearbeiter, für jede Aufgabe des Typs zuständig
+    @Value("${application.tasks.assignment.users:demo}")
+    private List<String> rosterUsers;
+
+    // Relative share per user, default 1.0 / Relativer Anteil je Benutzer, Standard 1.0
+    @Value("#{${application.tasks.assignment.weights:{:}}}")
+    private Map<String, Double> weights;
+
+    // Maximum open tasks per user / Maximale Zahl offener Aufgaben je Benutzer
+    @Value("#{${application.tasks.assignment.capacities:{:}}}")
+    private Map<String, Integer> capacities;
+
+    @Value("${application.tasks.assignment.default-capacity:50}")
+    private int defaultCapacity;
+
+    private final Object lock = new Object();
+    private final Map<String, String> assigneeByTask = new HashMap<>();
+    private final Map<String, Integer> openTasks = new HashMap<>();
+    private final Map<String, Long> assignedTotal = new HashMap<>();
+    private final Set<String> gaugedUsers = new LinkedHashSet<>();
+
+    private final AtomicLong autoAssigned = new AtomicLong();
+    private final AtomicLong unassigned = new AtomicLong();
+    private final AtomicLong reassigned = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong rolledBack = new AtomicLong();
+    private volatile LocalDateTime lastRebuild;
+
+    public boolean manages(String taskDefinitionKey) {
+        return enabled && this.taskDefinitionKey.equals(taskDefinitionKey);
+    }
+
+    /**
+     * Wählt den am geringsten ausgelasteten Bearbeiter und reserviert die Aufgabe
+     * Chooses the least-loaded assignee and reserves the task
+     *
+     * @param candidateGroups Kandidatengruppen der Aufgabe / Candidate groups of the task
+     * @return Benutzer-ID oder null, wenn alle ausgelastet sind / User id or null if everyone is at capacity
+     */
+    public String assign(String taskId, Collection<String> candidateGroups) {
+
+        Set<String> eligible = eligibleUsers(candidateGroups);
+
+        synchronized (lock) {
+            String best = null;
+            double bestLoad = Double.MAX_VALUE;
+            long bestTotal = Long.MAX_VALUE;
+            for (String user : eligible) {
+                int open = openTasks.getOrDefault(user, 0);
+                if (open >= capacityOf(user)) {
+                    continue;
+                }
+                double load = (open + 1) / weightOf(user);
+                long total = assignedTotal.getOrDefault(user, 0L);
+                if (load < bestLoad || (load == bestLoad && total < bestTotal)) {
+                    best = user;
+                    bestLoad = load;
+                    bestTotal = total;
+                }
+            }
+
+            if (best == null) {
+                unassigned.incrementAndGet();
+                return null;
+            }
+            track(taskId, best);
+            assignedTotal.merge(best, 1L, Long::sum);
+            autoAssigned.incrementAndGet();
+            return best;
+        }
+    }
+
+    /**
+     * Gibt eine Reservierung nach einem Rollback wieder frei
+     * Releases a reservation after a rollback
+     */
+    public void cancelReservation(String taskId, String assignee) {
+        synchronized (lock) {
+            if (assignee.equals(assigneeByTask.get(taskId))) {
+                untrack(taskId);
+                assignedTotal.merge(assignee, -1L, Long::sum);
+                rolledBack.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Übernimmt einen geänderten Bearbeiter (claim, unclaim, delegate, setAssignee)
+     * Applies a changed assignee (claim, unclaim, delegate, setAssignee)
+     */
+    public void assigneeChanged(String taskId, String assignee) {
+        synchronized (lock) {
+            String previous = assigneeByTask.get(taskId);
+            if (previous == null ? assignee == null : previous.equals(assignee)) {
+                return;
+            }
+            untrack(taskId);
+            if (assignee != null) {
+                track(taskId, assignee);
+            }
+            reassigned.incrementAndGet();
+        }
+    }
+
+    /**
+     * Entfernt eine abgeschlossene oder gelöschte Aufgabe aus den Zählern
+     * Removes a completed or deleted task from the counters
+     */
+    public void taskClosed(String taskId) {
+        synchronized (lock) {
+            if (untrack(taskId) != null) {
+                released.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Baut die Zähler aus den offenen Aufgaben der Engine neu auf
+     * Rebuilds the counters from the open tasks in the engine
+     *
+     * @return Anzahl übernommener Aufgaben / Number of tasks taken over
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int rebuild() {
+        List<Task> tasks = taskService.createTaskQuery()
+                .taskDefinitionKey(taskDefinitionKey)
+                .taskAssigned()
+                .list();
+
+        synchronized (lock) {
+            assigneeByTask.clear();
+            openTasks.clear();
+            for (Task task : tasks) {
+                track(task.getId(), task.getAssignee());
+            }
+            for (String user : rosterUsers) {
+                openTasks.putIfAbsent(user.trim(), 0);
+                registerGauge(user.trim());
+            }
+            lastRebuild = LocalDateTime.now();
+        }
+
+        System.out.println("=== TASK ASSIGNMENT COUNTERS REBUILT ===");
+        System.out.println("Open assigned tasks / Offene zugewiesene Aufgaben: " + tasks.size());
+        return tasks.size();
+    }
+
+    /**
+     * Statistiken und aktuelle Auslastung je Benutzer / Statistics and current load per user
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("taskDefinitionKey", taskDefinitionKey);
+        statistics.put("autoAssigned", autoAssigned.get());
+        statistics.put("unassigned", unassigned.get());
+        statistics.put("reassigned", reassigned.get());
+        statistics.put("released", released.get());
+        statistics.put("rolledBack", rolledBack.get());
+
+        List<Map<String, Object>> users = new ArrayList<>();
+        synchronized (lock) {
+            for (Map.Entry<String, Integer> entry : new TreeMap<>(openTasks).entrySet()) {
+                String user = entry.getKey();
+                Map<String, Object> load = new LinkedHashMap<>();
+                load.put("userId", user);
+                load.put("openTasks", entry.getValue());
+                load.put("capacity", capacityOf(user));
+                load.put("weight", weightOf(user));
+                load.put("load", Math.round(entry.getValue() / weightOf(user) * 100.0) / 100.0);
+                load.put("assignedTotal", assignedTotal.getOrDefault(user, 0L));
+                users.add(load);
+            }
+            statistics.put("trackedTasks", assigneeByTask.size());
+        }
+        statistics.put("users", users);
+        statistics.put("lastRebuild", lastRebuild);
+        statistics.put("timestamp", LocalDateTime.now());
+        return statistics;
+    }
+
+    private Set<String> eligibleUsers(Collection<String> candidateGroups) {
+        Set<String> eligible = new LinkedHashSet<>();
+        for (String user : rosterUsers) {
+            if (!user.isBlank()) {
+                eligible.add(user.trim());
+            }
+        }
+        for (String group : candidateGroups) {
+            for (User user : identityService.createUserQuery().memberOfGroup(group).list()) {
+                eligible.add(user.getId());
+            }
+        }
+        return eligible;
+    }
+
+    // Callers hold the lock / Aufrufer halten die Sperre
+    private void track(String taskId, String assignee) {
+        assigneeByTask.put(taskId, assignee);
+        openTasks.merge(assignee, 1, Integer::sum);
+        registerGauge(assignee);
+    }
+
+    private String untrack(String taskId) {
+        String assignee = assigneeByTask.remove(taskId);
+        if (assignee != null) {
+            openTasks.merge(assignee, -1, Integer::sum);
+        }
+        return assignee;
+    }
+
+    private void registerGauge(String user) {
+        if (gaugedUsers.add(user)) {
+            Gauge.builder(OPEN_TASKS_GAUGE_NAME, () -> {
+                        synchronized (lock) {
+                            return openTasks.getOrDefault(user, 0);
+                        }
+                    })
+                    .description("Open assigned tasks per user / Offene zugewiesene Aufgaben je Benutzer")
+                    .tag("user", user)
+                    .register(meterRegistry);
+        }
+    }
+
+    private double weightOf(String user) {
+        Double weight = weights.get(user);
+        return weight != null && weight > 0 ? weight : 1.0;
+    }
+
+    private int capacityOf(String user) {
+        Integer capacity = capacities.get(user);
+        return capacity != null ? capacity : defaultCapacity;
+    }
+}
@@ -0,0 +1,336 @@
+package com.ie_project.workflow.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verteilt Aufgabenereignisse per Server-Sent Events an den Live-Eingang
+ * Fans task events out to the live inbox via server-sent events
+ *
+ * The TaskEventListener publishes created, assigned and completed events after the engine
+ * transaction committed. Each event is kept in a bounded history and offered to every
+ * subscriber whose candidate groups match. Subscribers have their own bounded buffer that a
+ * small sender pool drains into the SseEmitter, so a slow client never blocks the engine or
+ * other clients. A subscriber whose buffer overflows is disconnected; the browser reconnects
+ * with Last-Event-ID and receives the missed events from the history. If the id is no longer
+ * in the history (or stems from an earlier server run) a "reset" event tells the client to
+ * reload the inbox.
+ *
+ * Der TaskEventListener veröffentlicht Ereignisse nach dem Commit. Jeder Abonnent hat einen
+ * eigenen begrenzten Puffer; läuft er über, wird die Verbindung getrennt und der Client setzt
+ * mit Last-Event-ID aus der Historie fort.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class TaskEventBroadcaster {
+
+    public static final String RESET_EVENT = "reset";
+
+    @Value("${application.tasks.events.history-size:1000}")
+    private int historySize;
+
+    @Value("${application.tasks.events.subscriber-buffer:256}")
+    private int subscriberBuffer;
+
+    @Value("${application.tasks.events.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${application.tasks.events.emitter-timeout:PT30M}")
+    private Duration emitterTimeout;
+
+    // Distinguishes event ids of this server run from those of earlier runs
+    // Unterscheidet Ereignis-IDs dieses Serverlaufs von früheren Läufen
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Object lock = new Object();
+    private final Deque<TaskEvent> history = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private long sequence;
+
+    private ThreadPoolExecutor senders;
+
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong overflowDisconnects = new AtomicLong();
+    private final AtomicLong resumedCount = new AtomicLong();
+    private final AtomicLong resetCount = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "task-events-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Veröffentlicht ein Ereignis an alle passenden Abonnenten
+     * Publishes an event to all matching subscribers
+     *
+     * Called after commit; never blocks on a client / Aufruf nach dem Commit; blockiert nie auf einen Client
+     */
+    public void publish(String type, Map<String, Object> task, Collection<String> candidateGroups) {
+        synchronized (lock) {
+            TaskEvent event = new TaskEvent(runId + "-" + (++sequence), type, Set.copyOf(candidateGroups), task, LocalDateTime.now());
+            history.addLast(event);
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+            publishedCount.incrementAndGet();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.matches(event)) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Meldet einen Abonnenten an, optional ab einer Ereignis-ID
+     * Subscribes a client, optionally resuming after an event id
+     *
+     * @param groups      Kandidatengruppen, leer für alle / Candidate groups, empty for all
+     * @param lastEventId Zuletzt empfangenes Ereignis oder null / Last received event or null
+     */
+    public SseEmitter subscribe(Set<String> groups, String lastEventId) {
+
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, groups);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<TaskEvent> missed = eventsAfter(lastEventId.trim());
+                if (missed == null || missed.size() > subscriberBuffer) {
+                    // Gap cannot be filled, the client reloads the inbox / Lücke nicht füllbar, Client lädt neu
+                    subscriber.offer(new TaskEvent(currentEventId(), RESET_EVENT, Set.of(), Map.of(), LocalDateTime.now()));
+                    resetCount.incrementAndGet();
+                } else {
+                    for (TaskEvent event : missed) {
+                        if (subscriber.matches(event)) {
+                            subscriber.offer(event);
+                        }
+                    }
+                    resumedCount.incrementAndGet();
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Ereignisse nach der ID oder null, wenn die ID nicht mehr in der Historie liegt
+     * Events after the id, or null if the id is no longer covered by the history
+     */
+    private List<TaskEvent> eventsAfter(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !runId.equals(lastEventId.substring(0, separator))) {
+            return null;
+        }
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (lastSequence > sequence) {
+            return null;
+        }
+        long oldest = history.isEmpty() ? sequence + 1 : sequenceOf(history.peekFirst());
+        if (lastSequence < oldest - 1) {
+            return null;
+        }
+        List<TaskEvent> missed = new ArrayList<>();
+        for (TaskEvent event : history) {
+            if (sequenceOf(event) > lastSequence) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private String currentEventId() {
+        return runId + "-" + sequence;
+    }
+
+    private static long sequenceOf(TaskEvent event) {
+        return Long.parseLong(event.getId().substring(event.getId().lastIndexOf('-') + 1));
+    }
+
+    /**
+     * Hält Verbindungen über Proxys offen und erkennt getrennte Clients
+     * Keeps connections open through proxies and detects gone clients
+     */
+    @Scheduled(fixedDelayString = "${application.tasks.events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            senders.execute(subscriber::heartbeat);
+        }
+    }
+
+    /**
+     * Statistiken des Broadcasters / Broadcaster statistics
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("subscribers", subscribers.size());
+        statistics.put("published", publishedCount.get());
+        statistics.put("delivered", deliveredCount.get());
+        statistics.put("overflowDisconnects", overflowDisconnects.get());
+        statistics.put("resumed", resumedCount.get());
+        statistics.put("resets", resetCount.get());
+        synchronized (lock) {
+            statistics.put("lastEventId", currentEventId());
+            statistics.put("historySize", history.size());
+        }
+        statistics.put("historyCapacity", historySize);
+        statistics.put("subscriberBuffer", subscriberBuffer);
+        statistics.put("timestamp", LocalDateTime.now());
+        return statistics;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        senders.shutdownNow();
+    }
+
+    /**
+     * Ein verbundener Client mit eigenem Puffer / One connected client with its own buffer
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> groups;
+        private final BlockingQueue<TaskEvent> buffer = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Set<String> groups) {
+            this.emitter = emitter;
+            this.groups = groups;
+        }
+
+        boolean matches(TaskEvent event) {
+            if (groups.isEmpty() || RESET_EVENT.equals(event.getType())) {
+                return true;
+            }
+            for (String group : event.getCandidateGroups()) {
+                if (groups.contains(group)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void offer(TaskEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                // Slow client: disconnect, it resumes from the history / Langsamer Client: trennen, setzt aus der Historie fort
+                closed = true;
+                subscribers.remove(this);
+                overflowDisconnects.incrementAndGet();
+                senders.execute(emitter::complete);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                TaskEvent event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(event.getId())
+                            .name(event.getType())
+                            .data(event, MediaType.APPLICATION_JSON));
+                    deliveredCount.incrementAndGet();
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // An event may have arrived after the last poll / Nach dem letzten poll kann ein Ereignis eingetroffen sein
+            if (!closed && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void heartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            emitter.completeWithError(new IOException("Client disconnected / Client getrennt"));
+        }
+    }
+
+    /**
+     * Ereignis zu einer User Task / Event about a user task
+     */
+    public static class TaskEvent {
+        private final String id;
+        private final String type;
+        private final Set<String> candidateGroups;
+        private final Map<String, Object> task;
+        private final LocalDateTime timestamp;
+
+        TaskEvent(String id, String type, Set<String> candidateGroups, Map<String, Object> task, LocalDateTime timestamp) {
+            this.id = id;
+            this.type = type;
+            this.candidateGroups = candidateGroups;
+            this.task = task;
+            this.timestamp = timestamp;
+        }
+
+        public String getId() { return id; }
+        public String getType() { return type; }
+        public Set<String> getCandidateGroups() { return candidateGroups; }
+        public Map<String, Object> getTask() { return task; }
+        public LocalDateTime getTimestamp() { return timestamp; }
+    }
+}
@@ -0,0 +1,238 @@
+package com.ie_project.workflow.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.engine.runtime.VariableInstanceQuery;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.task.TaskQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Service für den Aufgabeneingang der Sachbearbeiter
+ * Service for the staff task inbox
+ *
+ * The inbox is read page by page. For all tasks of a page the requested variables are loaded
+ * with one VariableInstanceQuery over the task executions and their process instances, instead
+ * of one getVariables call per task that also pulls every large report string. Variables of the
+ * task execution take precedence over those of the process instance, as in the engine's own
+ * scope resolution for this flat process model.
+ *
+ * Der Eingang wird seitenweise gelesen. Die angeforderten Variablen aller Aufgaben einer Seite
+ * werden mit einer einzigen VariableInstanceQuery geladen statt mit einem Aufruf pro Aufgabe.
+ *
+ * @author IE Project Team
+ */
+@Service
+public class TaskInboxService {
+
+    private static final Pattern VARIABLE_NAME = Pattern.compile("[A-Za-z0-9_]+");
+    private static final int MAX_VARIABLE_NAMES = 50;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${application.tasks.inbox.max-page-size:200}")
+    private int maxPageSize;
+
+    // Variables returned when the request names none / Variablen, wenn die Anfrage keine nennt
+    @Value("${application.tasks.inbox.default-variables:applicationId,firstName,lastName,email,studyProgramCode,studyProgramName,applicationDate}")
+    private List<String> defaultVariables;
+
+    /**
+     * Lädt eine Seite des Aufgabeneingangs / Loads one page of the task inbox
+     *
+     * @param taskDefinitionKey Filter auf die Aufgabe im Prozessmodell (optional) / Filter on the model task (optional)
+     * @param assignee          Filter auf den Bearbeiter (optional) / Filter on the assignee (optional)
+     * @param candidateGroup    Filter auf die Kandidatengruppe (optional) / Filter on the candidate group (optional)
+     * @param variableNames     Whitelist der Variablen, null für die Standardliste / Variable whitelist, null for the default list
+     * @throws IllegalArgumentException bei ungültigen Parametern / on invalid parameters
+     */
+    public InboxPage loadPage(String taskDefinitionKey, String assignee, String candidateGroup,
+                              int firstResult, int maxResults, Collection<String> variableNames) {
+
+        if (firstResult < 0) {
+            throw new IllegalArgumentException("firstResult must not be negative / firstResult darf nicht negativ sein");
+        }
+        if (maxResults < 1 || maxResults > maxPageSize) {
+            throw new IllegalArgumentException("maxResults must be between 1 and " + maxPageSize
+                    + " / maxResults muss zwischen 1 und " + maxPageSize + " liegen");
+        }
+        List<String> names = validateVariableNames(variableNames != null ? variableNames : defaultVariables);
+
+        TaskQuery query = taskService.createTaskQuery().active();
+        if (taskDefinitionKey != null && !taskDefinitionKey.isBlank()) {
+            query.taskDefinitionKey(taskDefinitionKey);
+        }
+        if (assignee != null && !assignee.isBlank()) {
+            query.taskAssignee(assignee);
+        }
+        if (candidateGroup != null && !candidateGroup.isBlank()) {
+            query.taskCandidateGroup(candidateGroup);
+        }
+
+        long total = query.count();
+        // Task id as tie breaker keeps pages stable for equal creation times
+        // Task-ID als zweites Kriterium hält die Seiten bei gleicher Erstellungszeit stabil
+        List<Task> tasks = query.orderByTaskCreateTime().desc().orderByTaskId().asc().listPage(firstResult, maxResults);
+
+        return new InboxPage(total, firstResult, maxResults, names, tasks, loadVariables(tasks, names));
+    }
+
+    /**
+     * Lädt die Variablen mehrerer Aufgaben mit einer Abfrage
+     * Loads the variables of several tasks with one query
+     *
+     * @param variableNames Whitelist, null lädt alle Variablen / Whitelist, null loads all variables
+     * @return Variablen je Task-ID / Variables per task id
+     */
+    public Map<String, Map<String, Object>> loadVariables(List<Task> tasks, Collection<String> variableNames) {
+
+        Map<String, Map<String, Object>> variablesByTask = new HashMap<>();
+        if (tasks.isEmpty() || (variableNames != null && variableNames.isEmpty())) {
+            for (Task task : tasks) {
+                variablesByTask.put(task.getId(), new LinkedHashMap<>());
+            }
+            return variablesByTask;
+        }
+
+        Set<String> executionIds = new LinkedHashSet<>();
+        for (Task task : tasks) {
+            if (task.getProcessInstanceId() != null) {
+                executionIds.add(task.getProcessInstanceId());
+            }
+            if (task.getExecutionId() != null) {
+                executionIds.add(task.getExecutionId());
+            }
+        }
+
+        VariableInstanceQuery variableQuery = runtimeService.createVariableInstanceQuery()
+                .executionIdIn(executionIds.toArray(new String[0]));
+        if (variableNames != null) {
+            variableQuery.variableNameIn(variableNames.toArray(new String[0]));
+        }
+
+        Map<String, Map<String, Object>> variablesByExecution = new HashMap<>();
+        for (VariableInstance variable : variableQuery.list()) {
+            variablesByExecution.computeIfAbsent(variable.getExecutionId(), id -> new HashMap<>())
+                    .put(variable.getName(), variable.getValue());
+        }
+
+        for (Task task : tasks) {
+            Map<String, Object> variables = new LinkedHashMap<>();
+            Map<String, Object> processScope = variablesByExecution.get(task.getProcessInstanceId());
+            if (processScope != null) {
+                variables.putAll(processScope);
+            }
+            Map<String, Object> executionScope = variablesByExecution.get(task.getExecutionId());
+            if (executionScope != null && executionScope != processScope) {
+                variables.putAll(executionScope);
+            }
+            variablesByTask.put(task.getId(), variables);
+        }
+        return variablesByTask;
+    }
+
+    /**
+     * Schreibt eine Seite als JSON direkt in den Ausgabestrom
+     * Writes a page as JSON straight into the output stream
+     */
+    public void writeJson(InboxPage page, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("total", page.getTotal());
+            json.writeNumberField("firstResult", page.getFirstResult());
+            json.writeNumberField("maxResults", page.getMaxResults());
+            json.writeObjectField("variables", page.getVariableNames());
+
+            json.writeArrayFieldStart("tasks");
+            for (Task task : page.getTasks()) {
+                json.writeStartObject();
+                json.writeStringField("id", task.getId());
+                json.writeStringField("name", task.getName());
+                json.writeStringField("description", task.getDescription());
+                json.writeStringField("assignee", task.getAssignee());
+                json.writeObjectField("created", task.getCreateTime());
+                json.writeStringField("processInstanceId", task.getProcessInstanceId());
+                json.writeStringField("processDefinitionId", task.getProcessDefinitionId());
+                json.writeStringField("taskDefinitionKey", task.getTaskDefinitionKey());
+                json.writeNumberField("priority", task.getPriority());
+                json.writeObjectField("variables", page.getVariables().get(task.getId()));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+    }
+
+    private List<String> validateVariableNames(Collection<String> variableNames) {
+        List<String> names = new ArrayList<>();
+        for (String name : variableNames) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty() || names.contains(trimmed)) {
+                continue;
+            }
+            if (!VARIABLE_NAME.matcher(trimmed).matches()) {
+                throw new IllegalArgumentException("Invalid variable name / Ungültiger Variablenname: " + trimmed);
+            }
+            names.add(trimmed);
+        }
+        if (names.size() > MAX_VARIABLE_NAMES) {
+            throw new IllegalArgumentException("At most " + MAX_VARIABLE_NAMES + " variables / Höchstens "
+                    + MAX_VARIABLE_NAMES + " Variablen");
+        }
+        return names;
+    }
+
+    /**
+     * Eine Seite des Aufgabeneingangs / One page of the task inbox
+     */
+    public static class InboxPage {
+        private final long total;
+        private final int firstResult;
+        private final int maxResults;
+        private final List<String> variableNames;
+        private final List<Task> tasks;
+        private final Map<String, Map<String, Object>> variables;
+
+        InboxPage(long total, int firstResult, int maxResults, List<String> variableNames,
+                  List<Task> tasks, Map<String, Map<String, Object>> variables) {
+            this.total = total;
+            this.firstResult = firstResult;
+            this.maxResults = maxResults;
+            this.variableNames = variableNames;
+            this.tasks = tasks;
+            this.variables = variables;
+        }
+
+        public long getTotal() { return total; }
+        public int getFirstResult() { return firstResult; }
+        public int getMaxResults() { return maxResults; }
+        public List<String> getVariableNames() { return variableNames; }
+        public List<Task> getTasks() { return tasks; }
+        public Map<String, Map<String, Object>> getVariables() { return variables; }
+    }
+}
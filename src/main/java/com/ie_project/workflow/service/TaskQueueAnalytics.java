@@ -0,0 +1,377 @@
+package com.ie_project.workflow.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Warteschlangen-Analyse: Rückstand und Altersverteilung je Aufgabe und Kandidatengruppe
+ * Work-queue analytics: backlog and age histogram per task and candidate group
+ *
+ * A queue is one task definition key and one candidate group; a task with several candidate
+ * groups is counted in each of them, a task without one in the group "none". The
+ * TaskQueueListener adds and removes tasks after the engine transaction committed, so the
+ * numbers never include rolled-back work. On startup the queues are rebuilt from the runtime
+ * task and identity link tables with one query.
+ *
+ * Each queue keeps its tasks in age buckets (application.tasks.queues.age-buckets). New tasks
+ * enter the first bucket, and a periodic aging pass moves tasks from the head of a bucket into
+ * the next one once they are older than the bucket's bound. Tasks stay ordered by creation
+ * time inside a bucket, so the pass only looks at tasks that actually move. Reading the
+ * statistics therefore costs O(queues x buckets) and never touches the engine.
+ *
+ * Eine Warteschlange ist ein Aufgabentyp mit einer Kandidatengruppe. Die Aufgaben liegen in
+ * Altersklassen; ein periodischer Durchlauf verschiebt gealterte Aufgaben in die nächste
+ * Klasse. Das Auslesen kostet nur O(Warteschlangen x Klassen).
+ *
+ * @author IE Project Team
+ */
+@Service
+public class TaskQueueAnalytics {
+
+    public static final String SIZE_GAUGE_NAME = "task.queue.size";
+    public static final String UNASSIGNED_GAUGE_NAME = "task.queue.unassigned";
+    public static final String OLDEST_GAUGE_NAME = "task.queue.oldest.age";
+    public static final String AGE_GAUGE_NAME = "task.queue.age";
+    public static final String NO_GROUP = "none";
+
+    private static final int REMOVED_MEMORY = 1000;
+
+    private static final String REBUILD_SQL =
+            "SELECT t.ID_, t.TASK_DEF_KEY_, t.ASSIGNEE_, t.CREATE_TIME_, l.GROUP_ID_ " +
+            "FROM ACT_RU_TASK t " +
+            "LEFT JOIN ACT_RU_IDENTITYLINK l ON l.TASK_ID_ = t.ID_ AND l.TYPE_ = 'candidate' AND l.GROUP_ID_ IS NOT NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Upper bounds of the age buckets, ascending / Obergrenzen der Altersklassen, aufsteigend
+    @Value("${application.tasks.queues.age-buckets:PT1H,PT4H,P1D,P3D,P7D}")
+    private List<Duration> ageBuckets;
+
+    private final Object lock = new Object();
+    private final Map<String, Queue> queues = new TreeMap<>();
+    private final Map<String, OpenTask> openTasks = new HashMap<>();
+
+    // Tasks closed before their creation was applied (listeners of different threads)
+    // Aufgaben, deren Abschluss vor ihrer Anlage gemeldet wurde (Listener verschiedener Threads)
+    private final Map<String, Boolean> recentlyRemoved = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > REMOVED_MEMORY;
+        }
+    };
+
+    private long[] boundsMillis;
+    private String[] bucketLabels;
+    private volatile LocalDateTime lastRebuild;
+    private volatile LocalDateTime lastAging;
+
+    @PostConstruct
+    void init() {
+        List<Duration> sorted = new ArrayList<>(ageBuckets);
+        sorted.sort(null);
+        boundsMillis = new long[sorted.size()];
+        bucketLabels = new String[sorted.size() + 1];
+        for (int i = 0; i < sorted.size(); i++) {
+            boundsMillis[i] = sorted.get(i).toMillis();
+            bucketLabels[i] = "le_" + sorted.get(i).toString().substring(2).toLowerCase();
+        }
+        bucketLabels[sorted.size()] = "older";
+    }
+
+    /**
+     * Nimmt eine angelegte Aufgabe auf / Adds a created task
+     */
+    public void taskCreated(String taskId, String taskDefinitionKey, Collection<String> candidateGroups,
+                            String assignee, long createdMillis) {
+        synchronized (lock) {
+            if (recentlyRemoved.remove(taskId) != null || openTasks.containsKey(taskId)) {
+                return;
+            }
+            add(taskId, taskDefinitionKey, candidateGroups, assignee != null, createdMillis);
+        }
+    }
+
+    /**
+     * Übernimmt den Bearbeiter einer Aufgabe / Applies a task's assignee
+     */
+    public void assigneeChanged(String taskId, String assignee) {
+        synchronized (lock) {
+            OpenTask task = openTasks.get(taskId);
+            if (task == null || task.assigned == (assignee != null)) {
+                return;
+            }
+            task.assigned = assignee != null;
+            for (String group : task.groups) {
+                queues.get(queueKey(task.taskDefinitionKey, group)).unassigned += task.assigned ? -1 : 1;
+            }
+        }
+    }
+
+    /**
+     * Entfernt eine abgeschlossene oder gelöschte Aufgabe / Removes a completed or deleted task
+     */
+    public void taskClosed(String taskId) {
+        synchronized (lock) {
+            OpenTask task = openTasks.remove(taskId);
+            if (task == null) {
+                recentlyRemoved.put(taskId, Boolean.TRUE);
+                return;
+            }
+            for (String group : task.groups) {
+                Queue queue = queues.get(queueKey(task.taskDefinitionKey, group));
+                queue.buckets.get(queue.bucketOf.remove(taskId)).remove(taskId);
+                if (!task.assigned) {
+                    queue.unassigned--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Verschiebt gealterte Aufgaben in die nächste Altersklasse
+     * Moves aged tasks into the next age bucket
+     */
+    @Scheduled(fixedDelayString = "${application.tasks.queues.aging-interval:PT30S}")
+    public void age() {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            for (Queue queue : queues.values()) {
+                for (int bucket = 0; bucket < boundsMillis.length; bucket++) {
+                    Iterator<Map.Entry<String, Long>> iterator = queue.buckets.get(bucket).entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<String, Long> entry = iterator.next();
+                        String taskId = entry.getKey();
+                        long createdMillis = entry.getValue();
+                        if (now - createdMillis <= boundsMillis[bucket]) {
+                            break;
+                        }
+                        iterator.remove();
+                        queue.buckets.get(bucket + 1).put(taskId, createdMillis);
+                        queue.bucketOf.put(taskId, bucket + 1);
+                    }
+                }
+            }
+            lastAging = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Baut alle Warteschlangen aus den Laufzeittabellen der Engine neu auf
+     * Rebuilds all queues from the engine's runtime tables
+     *
+     * @return Anzahl offener Aufgaben / Number of open tasks
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int rebuild() {
+
+        Map<String, OpenTask> loaded = new LinkedHashMap<>();
+        jdbcTemplate.query(REBUILD_SQL, row -> {
+            String taskId = row.getString("ID_");
+            OpenTask task = loaded.get(taskId);
+            if (task == null) {
+                Timestamp created = row.getTimestamp("CREATE_TIME_");
+                task = new OpenTask(row.getString("TASK_DEF_KEY_"), row.getString("ASSIGNEE_") != null,
+                        created != null ? created.getTime() : System.currentTimeMillis());
+                loaded.put(taskId, task);
+            }
+            String group = row.getString("GROUP_ID_");
+            if (group != null) {
+                task.groups.add(group);
+            }
+        });
+
+        // Oldest first keeps every bucket ordered by creation time / Älteste zuerst hält die Klassen sortiert
+        List<Map.Entry<String, OpenTask>> ordered = new ArrayList<>(loaded.entrySet());
+        ordered.sort(Map.Entry.comparingByValue((a, b) -> Long.compare(a.createdMillis, b.createdMillis)));
+
+        synchronized (lock) {
+            for (Queue queue : queues.values()) {
+                queue.clear();
+            }
+            openTasks.clear();
+            recentlyRemoved.clear();
+            for (Map.Entry<String, OpenTask> entry : ordered) {
+                OpenTask task = entry.getValue();
+                add(entry.getKey(), task.taskDefinitionKey, task.groups, task.assigned, task.createdMillis);
+            }
+            lastRebuild = LocalDateTime.now();
+        }
+        age();
+
+        System.out.println("=== TASK QUEUES REBUILT ===");
+        System.out.println("Open tasks / Offene Aufgaben: " + loaded.size() + ", queues / Warteschlangen: " + queues.size());
+        return loaded.size();
+    }
+
+    /**
+     * Rückstand und Altersverteilung aller Warteschlangen
+     * Backlog and age histogram of all queues
+     */
+    public Map<String, Object> getStatistics() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> result = new ArrayList<>();
+        int total;
+        synchronized (lock) {
+            for (Queue queue : queues.values()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("taskDefinitionKey", queue.taskDefinitionKey);
+                entry.put("candidateGroup", queue.group);
+                entry.put("open", queue.size());
+                entry.put("unassigned", queue.unassigned);
+                entry.put("oldestAgeSeconds", queue.oldestAgeMillis(now) / 1000);
+                Map<String, Integer> ages = new LinkedHashMap<>();
+                for (int bucket = 0; bucket < bucketLabels.length; bucket++) {
+                    ages.put(bucketLabels[bucket], queue.buckets.get(bucket).size());
+                }
+                entry.put("ageHistogram", ages);
+                result.add(entry);
+            }
+            total = openTasks.size();
+        }
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("openTasks", total);
+        statistics.put("queues", result);
+        statistics.put("lastRebuild", lastRebuild);
+        statistics.put("lastAging", lastAging);
+        statistics.put("timestamp", LocalDateTime.now());
+        return statistics;
+    }
+
+    // Callers hold the lock / Aufrufer halten die Sperre
+    private void add(String taskId, String taskDefinitionKey, Collection<String> candidateGroups,
+                     boolean assigned, long createdMillis) {
+        OpenTask task = new OpenTask(taskDefinitionKey, assigned, createdMillis);
+        task.groups.addAll(candidateGroups);
+        if (task.groups.isEmpty()) {
+            task.groups.add(NO_GROUP);
+        }
+        openTasks.put(taskId, task);
+        for (String group : task.groups) {
+            Queue queue = queues.computeIfAbsent(queueKey(taskDefinitionKey, group), key -> newQueue(taskDefinitionKey, group));
+            queue.buckets.get(0).put(taskId, createdMillis);
+            queue.bucketOf.put(taskId, 0);
+            if (!task.assigned) {
+                queue.unassigned++;
+            }
+        }
+    }
+
+    private Queue newQueue(String taskDefinitionKey, String group) {
+        Queue queue = new Queue(taskDefinitionKey, group, bucketLabels.length);
+        Gauge.builder(SIZE_GAUGE_NAME, () -> read(queue::size))
+                .description("Open tasks per queue / Offene Aufgaben je Warteschlange")
+                .tags("taskDefinitionKey", taskDefinitionKey, "group", group)
+                .register(meterRegistry);
+        Gauge.builder(UNASSIGNED_GAUGE_NAME, () -> read(() -> queue.unassigned))
+                .description("Unassigned tasks per queue / Nicht zugewiesene Aufgaben je Warteschlange")
+                .tags("taskDefinitionKey", taskDefinitionKey, "group", group)
+                .register(meterRegistry);
+        Gauge.builder(OLDEST_GAUGE_NAME, () -> read(() -> queue.oldestAgeMillis(System.currentTimeMillis()) / 1000))
+                .description("Age of the oldest open task / Alter der ältesten offenen Aufgabe")
+                .tags("taskDefinitionKey", taskDefinitionKey, "group", group)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        for (int bucket = 0; bucket < bucketLabels.length; bucket++) {
+            Map<String, Long> tasks = queue.buckets.get(bucket);
+            Gauge.builder(AGE_GAUGE_NAME, () -> read(tasks::size))
+                    .description("Open tasks per age bucket / Offene Aufgaben je Altersklasse")
+                    .tags("taskDefinitionKey", taskDefinitionKey, "group", group, "age", bucketLabels[bucket])
+                    .register(meterRegistry);
+        }
+        return queue;
+    }
+
+    private Number read(Supplier<Number> value) {
+        synchronized (lock) {
+            return value.get();
+        }
+    }
+
+    private static String queueKey(String taskDefinitionKey, String group) {
+        return taskDefinitionKey + '|' + group;
+    }
+
+    /**
+     * Eine offene Aufgabe / One open task
+     */
+    private static class OpenTask {
+        private final String taskDefinitionKey;
+        private final List<String> groups = new ArrayList<>(2);
+        private final long createdMillis;
+        private boolean assigned;
+
+        OpenTask(String taskDefinitionKey, boolean assigned, long createdMillis) {
+            this.taskDefinitionKey = taskDefinitionKey;
+            this.assigned = assigned;
+            this.createdMillis = createdMillis;
+        }
+    }
+
+    /**
+     * Aufgaben einer Warteschlange nach Altersklassen / Tasks of one queue by age bucket
+     */
+    private static class Queue {
+        private final String taskDefinitionKey;
+        private final String group;
+        // Per bucket task id to creation time, ordered by creation time / Je Klasse Task-ID zu Erstellungszeit
+        private final List<LinkedHashMap<String, Long>> buckets = new ArrayList<>();
+        private final Map<String, Integer> bucketOf = new HashMap<>();
+        private int unassigned;
+
+        Queue(String taskDefinitionKey, String group, int bucketCount) {
+            this.taskDefinitionKey = taskDefinitionKey;
+            this.group = group;
+            for (int i = 0; i < bucketCount; i++) {
+                buckets.add(new LinkedHashMap<>());
+            }
+        }
+
+        int size() {
+            return bucketOf.size();
+        }
+
+        long oldestAgeMillis(long now) {
+            for (int bucket = buckets.size() - 1; bucket >= 0; bucket--) {
+                LinkedHashMap<String, Long> tasks = buckets.get(bucket);
+                if (!tasks.isEmpty()) {
+                    return now - tasks.values().iterator().next();
+                }
+            }
+            return 0;
+        }
+
+        void clear() {
+            for (Map<String, Long> tasks : buckets) {
+                tasks.clear();
+            }
+            bucketOf.clear();
+            unassigned = 0;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.ie_project.workflow.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vorkompilierte Briefvorlage
+ * Precompiled letter template
+ *
+ * A template is parsed once into a tree of nodes: literal text, variables, conditionals,
+ * loops and switches. Rendering walks the tree and writes straight into a Writer, so no
+ * intermediate strings are built apart from the variable values themselves.
+ *
+ * Syntax:
+ * <pre>
+ *   {{name}}                                   variable, null renders as empty text
+ *   {{#if name}} ... {{else}} ... {{/if}}      non-null, not false, not empty
+ *   {{#each name}} ... {{.}} ... {{/each}}     iterates an Iterable or array
+ *   {{#switch name}}{{#case A}} ... {{#default}} ... {{/switch}}
+ * </pre>
+ * Lines that contain only a block tag are removed completely.
+ *
+ * Eine Vorlage wird einmalig in einen Knotenbaum übersetzt und beim Rendern direkt in einen
+ * Writer geschrieben.
+ *
+ * @author IE Project Team
+ */
+public final class LetterTemplate {
+
+    private final String name;
+    private final Node[] nodes;
+    private final int literalLength;
+
+    LetterTemplate(String name, List<Node> nodes) {
+        this.name = name;
+        this.nodes = nodes.toArray(new Node[0]);
+        this.literalLength = literalLength(this.nodes);
+    }
+
+    public String getName() { return name; }
+
+    /**
+     * Schreibt die Vorlage mit den Variablen in einen Writer
+     * Writes the template with the variables into a writer
+     */
+    public void render(Map<String, ?> model, Writer out) throws IOException {
+        Scope scope = new Scope(model, null);
+        for (Node node : nodes) {
+            node.render(scope, out);
+        }
+    }
+
+    /**
+     * Rendert die Vorlage in einen String / Renders the template into a string
+     */
+    public String render(Map<String, ?> model) {
+        StringBuilderWriter out = new StringBuilderWriter(literalLength + 512);
+        try {
+            render(model, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error rendering template / Fehler beim Rendern der Vorlage: " + name, e);
+        }
+        return out.toString();
+    }
+
+    private static int literalLength(Node[] nodes) {
+        int length = 0;
+        for (Node node : nodes) {
+            length += node.literalLength();
+        }
+        return length;
+    }
+
+    static boolean isTruthy(Object value) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return false;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() > 0;
+        }
+        if (value instanceof Iterable) {
+            return ((Iterable<?>) value).iterator().hasNext();
+        }
+        return true;
+    }
+
+    // ===== NODES / KNOTEN =====
+
+    /**
+     * Variablenbereich, innerhalb von each mit dem aktuellen Element
+     * Variable scope, inside each with the current item
+     */
+    static final class Scope {
+        private final Map<String, ?> model;
+        private final Object current;
+
+        Scope(Map<String, ?> model, Object current) {
+            this.model = model;
+            this.current = current;
+        }
+
+        Object resolve(String key) {
+            return ".".equals(key) ? current : model.get(key);
+        }
+    }
+
+    interface Node {
+        void render(Scope scope, Writer out) throws IOException;
+
+        default int literalLength() { return 0; }
+    }
+
+    static final class TextNode implements Node {
+        private final String text;
+
+        TextNode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            out.write(text);
+        }
+
+        @Override
+        public int literalLength() { return text.length(); }
+    }
+
+    static final class VariableNode implements Node {
+        private final String key;
+
+        VariableNode(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            Object value = scope.resolve(key);
+            if (value != null) {
+                out.write(value.toString());
+            }
+        }
+    }
+
+    static final class IfNode implements Node {
+        private final String key;
+        private final Node[] then;
+        private final Node[] otherwise;
+
+        IfNode(String key, List<Node> then, List<Node> otherwise) {
+            this.key = key;
+            this.then = then.toArray(new Node[0]);
+            this.otherwise = otherwise.toArray(new Node[0]);
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            for (Node node : isTruthy(scope.resolve(key)) ? then : otherwise) {
+                node.render(scope, out);
+            }
+        }
+
+        @Override
+        public int literalLength() { return Math.max(LetterTemplate.literalLength(then), LetterTemplate.literalLength(otherwise)); }
+    }
+
+    static final class EachNode implements Node {
+        private final String key;
+        private final Node[] body;
+
+        EachNode(String key, List<Node> body) {
+            this.key = key;
+            this.body = body.toArray(new Node[0]);
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            Object value = scope.resolve(key);
+            if (value instanceof Object[]) {
+                value = List.of((Object[]) value);
+            }
+            if (!(value instanceof Iterable)) {
+                return;
+            }
+            for (Object item : (Iterable<?>) value) {
+                Scope itemScope = new Scope(scope.model, item);
+                for (Node node : body) {
+                    node.render(itemScope, out);
+                }
+            }
+        }
+    }
+
+    static final class SwitchNode implements Node {
+        private final String key;
+        private final Map<String, Node[]> cases;
+        private final Node[] fallback;
+
+        SwitchNode(String key, Map<String, Node[]> cases, List<Node> fallback) {
+            this.key = key;
+            this.cases = cases;
+            this.fallback = fallback.toArray(new Node[0]);
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            Object value = scope.resolve(key);
+            Node[] branch = value != null ? cases.getOrDefault(value.toString(), fallback) : fallback;
+            for (Node node : branch) {
+                node.render(scope, out);
+            }
+        }
+
+        @Override
+        public int literalLength() { return LetterTemplate.literalLength(fallback); }
+    }
+
+    /**
+     * Writer auf einen StringBuilder ohne Synchronisation (anders als StringWriter)
+     * Writer on a StringBuilder without synchronization (unlike StringWriter)
+     */
+    static final class StringBuilderWriter extends Writer {
+        private final StringBuilder buffer;
+
+        StringBuilderWriter(int capacity) {
+            this.buffer = new StringBuilder(capacity);
+        }
+
+        @Override
+        public void write(String text) {
+            buffer.append(text);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            buffer.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+}
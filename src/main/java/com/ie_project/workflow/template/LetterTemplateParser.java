@@ -0,0 +1,277 @@
+package com.ie_project.workflow.template;
+
+import com.ie_project.workflow.template.LetterTemplate.EachNode;
+import com.ie_project.workflow.template.LetterTemplate.IfNode;
+import com.ie_project.workflow.template.LetterTemplate.Node;
+import com.ie_project.workflow.template.LetterTemplate.SwitchNode;
+import com.ie_project.workflow.template.LetterTemplate.TextNode;
+import com.ie_project.workflow.template.LetterTemplate.VariableNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Übersetzt den Vorlagentext in einen Knotenbaum
+ * Translates the template text into a node tree
+ *
+ * @author IE Project Team
+ */
+final class LetterTemplateParser {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final List<Token> tokens = new ArrayList<>();
+    private int position;
+
+    private LetterTemplateParser(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Übersetzt eine Vorlage / Compiles a template
+     *
+     * @throws IllegalArgumentException bei Syntaxfehlern / on syntax errors
+     */
+    static LetterTemplate compile(String name, String source) {
+        LetterTemplateParser parser = new LetterTemplateParser(name);
+        parser.tokenize(source);
+        parser.removeStandaloneLines();
+        List<Node> nodes = parser.parseUntil();
+        if (parser.position < parser.tokens.size()) {
+            Token token = parser.tokens.get(parser.position);
+            throw parser.error(token, "unexpected {{" + token.tag + "}}");
+        }
+        return new LetterTemplate(name, nodes);
+    }
+
+    private void tokenize(String source) {
+        int index = 0;
+        int line = 1;
+        while (index < source.length()) {
+            int open = source.indexOf(OPEN, index);
+            if (open < 0) {
+                tokens.add(Token.text(source.substring(index)));
+                break;
+            }
+            if (open > index) {
+                String text = source.substring(index, open);
+                tokens.add(Token.text(text));
+                line += countLines(text);
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Template " + name + " line " + line + ": unclosed {{ / nicht geschlossenes {{");
+            }
+            tokens.add(Token.tag(source.substring(open + OPEN.length(), close).trim(), line));
+            index = close + CLOSE.length();
+        }
+    }
+
+    /**
+     * Entfernt Zeilen, die nur aus einem Block-Tag bestehen
+     * Removes lines that consist of a block tag only
+     */
+    private void removeStandaloneLines() {
+        // Decide on the original text first, neighbouring tags may share one text token
+        // Zuerst auf dem Originaltext entscheiden, benachbarte Tags können sich ein Text-Token teilen
+        int[] keepFrom = new int[tokens.size()];
+        int[] keepTo = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            keepTo[i] = tokens.get(i).text != null ? tokens.get(i).text.length() : 0;
+        }
+
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.text != null || !token.isBlockTag()) {
+                continue;
+            }
+            Token before = i > 0 ? tokens.get(i - 1) : null;
+            Token after = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+
+            int lineStart = -1;
+            if (before == null) {
+                lineStart = 0;
+            } else if (before.text != null) {
+                int newline = before.text.lastIndexOf('\n');
+                if (isBlank(before.text, newline + 1, before.text.length()) && (newline >= 0 || i == 1)) {
+                    lineStart = newline + 1;
+                }
+            }
+            int lineEnd = -1;
+            if (after == null) {
+                lineEnd = 0;
+            } else if (after.text != null) {
+                int newline = after.text.indexOf('\n');
+                if (newline >= 0 && isBlank(after.text, 0, newline)) {
+                    lineEnd = newline + 1;
+                } else if (newline < 0 && i + 2 == tokens.size() && isBlank(after.text, 0, after.text.length())) {
+                    lineEnd = after.text.length();
+                }
+            }
+
+            if (lineStart >= 0 && lineEnd >= 0) {
+                if (before != null) {
+                    keepTo[i - 1] = lineStart;
+                }
+                if (after != null) {
+                    keepFrom[i + 1] = lineEnd;
+                }
+            }
+        }
+
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.text != null) {
+                token.text = token.text.substring(keepFrom[i], Math.max(keepFrom[i], keepTo[i]));
+            }
+        }
+    }
+
+    /**
+     * Liest Knoten bis zum nächsten Block-Ende, else, case oder default
+     * Reads nodes up to the next block end, else, case or default
+     */
+    private List<Node> parseUntil() {
+        List<Node> nodes = new ArrayList<>();
+        while (position < tokens.size()) {
+            Token token = tokens.get(position);
+            if (token.text != null) {
+                position++;
+                if (!token.text.isEmpty()) {
+                    nodes.add(new TextNode(token.text));
+                }
+                continue;
+            }
+
+            String tag = token.tag;
+            if (tag.startsWith("/") || tag.equals("else") || tag.startsWith("#case ") || tag.equals("#default")) {
+                return nodes;
+            }
+            position++;
+
+            if (tag.startsWith("#if ")) {
+                String key = argument(token, "#if ");
+                List<Node> then = parseUntil();
+                List<Node> otherwise = List.of();
+                if (peekTag("else")) {
+                    position++;
+                    otherwise = parseUntil();
+                }
+                expectEnd(token, "/if");
+                nodes.add(new IfNode(key, then, otherwise));
+
+            } else if (tag.startsWith("#each ")) {
+                String key = argument(token, "#each ");
+                List<Node> body = parseUntil();
+                expectEnd(token, "/each");
+                nodes.add(new EachNode(key, body));
+
+            } else if (tag.startsWith("#switch ")) {
+                String key = argument(token, "#switch ");
+                // Only whitespace allowed before the first case / Vor dem ersten case nur Leerraum
+                List<Node> leading = parseUntil();
+                if (!leading.isEmpty()) {
+                    throw error(token, "text before first {{#case}}");
+                }
+                Map<String, Node[]> cases = new LinkedHashMap<>();
+                List<Node> fallback = List.of();
+                while (position < tokens.size() && tokens.get(position).tag != null) {
+                    Token branch = tokens.get(position);
+                    if (branch.tag.startsWith("#case ")) {
+                        position++;
+                        cases.put(argument(branch, "#case "), parseUntil().toArray(new Node[0]));
+                    } else if (branch.tag.equals("#default")) {
+                        position++;
+                        fallback = parseUntil();
+                    } else {
+                        break;
+                    }
+                }
+                expectEnd(token, "/switch");
+                nodes.add(new SwitchNode(key, cases, fallback));
+
+            } else if (tag.startsWith("#")) {
+                throw error(token, "unknown block {{" + tag + "}}");
+
+            } else {
+                nodes.add(new VariableNode(tag));
+            }
+        }
+        return nodes;
+    }
+
+    private boolean peekTag(String tag) {
+        return position < tokens.size() && tag.equals(tokens.get(position).tag);
+    }
+
+    private void expectEnd(Token start, String end) {
+        if (!peekTag(end)) {
+            throw error(start, "missing {{" + end + "}}");
+        }
+        position++;
+    }
+
+    private String argument(Token token, String prefix) {
+        String argument = token.tag.substring(prefix.length()).trim();
+        if (argument.isEmpty()) {
+            throw error(token, "missing argument");
+        }
+        return argument;
+    }
+
+    private IllegalArgumentException error(Token token, String message) {
+        return new IllegalArgumentException("Template " + name + " line " + token.line + ": " + message
+                + " / Syntaxfehler in der Vorlage");
+    }
+
+    private static boolean isBlank(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int countLines(String text) {
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Text- oder Tag-Token / Text or tag token
+     */
+    private static final class Token {
+        private String text;
+        private final String tag;
+        private final int line;
+
+        private Token(String text, String tag, int line) {
+            this.text = text;
+            this.tag = tag;
+            this.line = line;
+        }
+
+        static Token text(String text) {
+            return new Token(text, null, 0);
+        }
+
+        static Token tag(String tag, int line) {
+            return new Token(null, tag, line);
+        }
+
+        boolean isBlockTag() {
+            return tag.startsWith("#") || tag.startsWith("/") || tag.equals("else");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ie_project.workflow.template;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Register der vorkompilierten Briefvorlagen
+ * Registry of the precompiled letter templates
+ *
+ * All templates under templates/letters are parsed once at startup. The file name is the
+ * template name; a suffix _de or _en marks a locale variant (admission-letter_en.txt), the
+ * file without suffix is the bilingual default. A syntax error stops the startup instead of
+ * failing later inside a process instance.
+ *
+ * Alle Vorlagen werden beim Start einmalig übersetzt. Der Dateiname ist der Vorlagenname,
+ * ein Suffix _de oder _en kennzeichnet eine Sprachvariante.
+ *
+ * @author IE Project Team
+ */
+@Component
+public class LetterTemplates {
+
+    @Value("${application.templates.letters-location:classpath*:templates/letters/*.txt}")
+    private String location;
+
+    private final Map<String, LetterTemplate> templates = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void compileAll() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location);
+        for (Resource resource : resources) {
+            String fileName = resource.getFilename();
+            if (fileName == null) {
+                continue;
+            }
+            String key = fileName.substring(0, fileName.lastIndexOf('.'));
+            String source;
+            try (InputStream in = resource.getInputStream()) {
+                source = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            }
+            templates.put(key, LetterTemplateParser.compile(key, source));
+        }
+        System.out.println("=== LETTER TEMPLATES COMPILED / BRIEFVORLAGEN ÜBERSETZT: " + templates.size() + " ===");
+    }
+
+    /**
+     * Liefert die zweisprachige Standardvorlage / Returns the bilingual default template
+     */
+    public LetterTemplate get(String name) {
+        return get(name, null);
+    }
+
+    /**
+     * Liefert die Vorlage in der Sprache oder die Standardvorlage
+     * Returns the template in the locale or the default template
+     *
+     * @throws IllegalArgumentException wenn keine Vorlage existiert / if no template exists
+     */
+    public LetterTemplate get(String name, Locale locale) {
+        LetterTemplate template = null;
+        if (locale != null && !locale.getLanguage().isEmpty()) {
+            template = templates.get(name + "_" + locale.getLanguage());
+        }
+        if (template == null) {
+            template = templates.get(name);
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown letter template / Unbekannte Briefvorlage: " + name);
+        }
+        return template;
+    }
+
+    /**
+     * Rendert die Standardvorlage in einen String / Renders the default template into a string
+     */
+    public String render(String name, Map<String, ?> model) {
+        return get(name).render(model);
+    }
+
+    /**
+     * Rendert eine Vorlage direkt in einen Writer / Renders a template straight into a writer
+     */
+    public void render(String name, Locale locale, Map<String, ?> model, Writer out) throws IOException {
+        get(name, locale).render(model, out);
+    }
+}
@@ -0,0 +1,259 @@
+package com.ie_project.workflow.variable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kompaktes, versioniertes Binärformat für strukturierte Prozessvariablen
+ * Compact, versioned binary format for structured process variables
+ *
+ * Layout: [magic][version][typeId][fieldCount] followed by the fields in schema order.
+ * INT = 4 bytes, LONG/DOUBLE = 8 bytes, BOOLEAN = 1 byte,
+ * STRING = 4 byte length (-1 for null) + UTF-8 bytes.
+ *
+ * A record is a read-only view over the byte array handed out by the engine: nothing is
+ * copied, field offsets are computed on the first access and Strings are decoded on demand.
+ * Fields appended in a later version are ignored by older readers, so data written with a
+ * newer version is read as long as its first fields keep the schema; fields missing in older
+ * data are read as default values by newer readers.
+ *
+ * Ein Record ist eine schreibgeschützte Sicht auf das Byte-Array der Engine: nichts wird
+ * kopiert, Feld-Offsets werden beim ersten Zugriff berechnet, Strings erst bei Bedarf dekodiert.
+ *
+ * @author IE Project Team
+ */
+public final class CompactRecord {
+
+    public static final byte MAGIC = (byte) 0xC7;
+    public static final byte CURRENT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 4;
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * Feldtypen des Formats / Field types of the format
+     */
+    public enum FieldType {
+        INT, LONG, DOUBLE, BOOLEAN, STRING
+    }
+
+    private final byte[] data;
+    private final ByteBuffer buffer;
+    private final FieldType[] schema;
+    private final int storedFieldCount;
+    private final String[] stringCache;
+
+    // Computed lazily on first field access / Wird beim ersten Feldzugriff berechnet
+    private int[] offsets;
+
+    private CompactRecord(byte[] data, FieldType[] schema) {
+        this.data = data;
+        this.buffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+        this.schema = schema;
+        this.storedFieldCount = Math.min(data[3] & 0xFF, schema.length);
+        this.stringCache = new String[schema.length];
+    }
+
+    /**
+     * Erstellt eine Sicht auf serialisierte Daten (ohne Kopie)
+     * Creates a view on serialized data (without copying)
+     */
+    public static CompactRecord wrap(byte[] data, int expectedTypeId, FieldType[] schema) {
+
+        if (data == null || data.length < HEADER_SIZE || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a compact record / Kein kompakter Datensatz");
+        }
+
+        // Newer versions only append fields, which are skipped / Neuere Versionen hängen nur Felder an
+        if (data[1] < 1) {
+            throw new IllegalArgumentException("Unsupported compact record version / Nicht unterstützte Version: " + data[1]);
+        }
+
+        if ((data[2] & 0xFF) != expectedTypeId) {
+            throw new IllegalArgumentException("Unexpected compact type id / Unerwartete Typ-ID: " + (data[2] & 0xFF)
+                    + " (expected " + expectedTypeId + ")");
+        }
+
+        return new CompactRecord(data, schema);
+    }
+
+    /**
+     * Liest die Typ-ID aus dem Header / Reads the type id from the header
+     */
+    public static int readTypeId(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a compact record / Kein kompakter Datensatz");
+        }
+        return data[2] & 0xFF;
+    }
+
+    /**
+     * Liefert das zugrunde liegende Array (ohne Kopie, nicht verändern!)
+     * Returns the underlying array (not copied, do not modify!)
+     */
+    public byte[] bytes() {
+        return data;
+    }
+
+    public int getInt(int field) {
+        int offset = offsetOf(field, FieldType.INT);
+        return offset < 0 ? 0 : buffer.getInt(offset);
+    }
+
+    public long getLong(int field) {
+        int offset = offsetOf(field, FieldType.LONG);
+        return offset < 0 ? 0L : buffer.getLong(offset);
+    }
+
+    public double getDouble(int field) {
+        int offset = offsetOf(field, FieldType.DOUBLE);
+        return offset < 0 ? 0.0 : buffer.getDouble(offset);
+    }
+
+    public boolean getBoolean(int field) {
+        int offset = offsetOf(field, FieldType.BOOLEAN);
+        return offset >= 0 && data[offset] != 0;
+    }
+
+    public String getString(int field) {
+        String cached = stringCache[field];
+        if (cached != null) {
+            return cached;
+        }
+
+        int offset = offsetOf(field, FieldType.STRING);
+        if (offset < 0) {
+            return null;
+        }
+
+        int length = buffer.getInt(offset);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+
+        String value = new String(data, offset + 4, length, StandardCharsets.UTF_8);
+        stringCache[field] = value;
+        return value;
+    }
+
+    /**
+     * Ermittelt den Offset eines Feldes; -1 wenn das Feld in dieser Version fehlt
+     * Determines the offset of a field; -1 if the field is missing in this version
+     */
+    private int offsetOf(int field, FieldType expectedType) {
+        if (schema[field] != expectedType) {
+            throw new IllegalArgumentException("Field " + field + " is " + schema[field] + ", not " + expectedType);
+        }
+
+        if (field >= storedFieldCount) {
+            return -1;
+        }
+
+        if (offsets == null) {
+            offsets = computeOffsets();
+        }
+
+        return offsets[field];
+    }
+
+    private int[] computeOffsets() {
+        int[] result = new int[storedFieldCount];
+        int position = HEADER_SIZE;
+
+        for (int i = 0; i < storedFieldCount; i++) {
+            result[i] = position;
+            switch (schema[i]) {
+                case INT:
+                    position += 4;
+                    break;
+                case LONG:
+                case DOUBLE:
+                    position += 8;
+                    break;
+                case BOOLEAN:
+                    position += 1;
+                    break;
+                case STRING:
+                    int length = buffer.getInt(position);
+                    position += 4 + Math.max(length, 0);
+                    break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Schreibt einen kompakten Datensatz / Writes a compact record
+     */
+    public static final class Writer {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        private final ByteBuffer scratch = ByteBuffer.allocate(8);
+        private final FieldType[] schema;
+        private int field = 0;
+
+        public Writer(int typeId, FieldType[] schema) {
+            this.schema = schema;
+            out.write(MAGIC);
+            out.write(CURRENT_VERSION);
+            out.write(typeId);
+            out.write(schema.length);
+        }
+
+        public Writer writeInt(int value) {
+            expect(FieldType.INT);
+            scratch.clear();
+            out.write(scratch.putInt(value).array(), 0, 4);
+            return this;
+        }
+
+        public Writer writeLong(long value) {
+            expect(FieldType.LONG);
+            scratch.clear();
+            out.write(scratch.putLong(value).array(), 0, 8);
+            return this;
+        }
+
+        public Writer writeDouble(double value) {
+            expect(FieldType.DOUBLE);
+            scratch.clear();
+            out.write(scratch.putDouble(value).array(), 0, 8);
+            return this;
+        }
+
+        public Writer writeBoolean(boolean value) {
+            expect(FieldType.BOOLEAN);
+            out.write(value ? 1 : 0);
+            return this;
+        }
+
+        public Writer writeString(String value) {
+            expect(FieldType.STRING);
+            scratch.clear();
+            if (value == null) {
+                out.write(scratch.putInt(NULL_LENGTH).array(), 0, 4);
+            } else {
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                out.write(scratch.putInt(utf8.length).array(), 0, 4);
+                out.write(utf8, 0, utf8.length);
+            }
+            return this;
+        }
+
+        public byte[] toByteArray() {
+            if (field != schema.length) {
+                throw new IllegalStateException("Not all fields written / Nicht alle Felder geschrieben: " + field + "/" + schema.length);
+            }
+            return out.toByteArray();
+        }
+
+        private void expect(FieldType type) {
+            if (field >= schema.length || schema[field] != type) {
+                throw new IllegalStateException("Unexpected field type at " + field + " / Unerwarteter Feldtyp: " + type);
+            }
+            field++;
+        }
+    }
+}
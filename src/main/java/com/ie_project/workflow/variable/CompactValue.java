@@ -0,0 +1,51 @@
+package com.ie_project.workflow.variable;
+
+import java.util.Map;
+
+/**
+ * Basisklasse für Wertobjekte, die im kompakten Binärformat gespeichert werden
+ * Base class for value objects stored in the compact binary format
+ *
+ * Instances are immutable views on a {@link CompactRecord}. New structured process
+ * variables should extend this class and register their type id in
+ * {@link CompactValueSerializer} instead of being stored as Java- or JSON-serialized objects.
+ *
+ * @author IE Project Team
+ */
+public abstract class CompactValue {
+
+    protected final CompactRecord record;
+
+    protected CompactValue(CompactRecord record) {
+        this.record = record;
+    }
+
+    /**
+     * Typ-ID im Header des Datensatzes / Type id in the record header
+     */
+    public abstract int getTypeId();
+
+    /**
+     * Felder als Map (für REST-Antworten und Vergleiche)
+     * Fields as map (for REST responses and comparisons)
+     */
+    public abstract Map<String, Object> toMap();
+
+    /**
+     * Liest alle Felder und schreibt sie neu über {@link CompactRecord.Writer}
+     * Reads all fields and writes them anew through {@link CompactRecord.Writer}
+     */
+    public abstract CompactValue reencode();
+
+    /**
+     * Serialisierte Form ohne Kopie / Serialized form without copying
+     */
+    public byte[] toByteArray() {
+        return record.bytes();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + toMap();
+    }
+}
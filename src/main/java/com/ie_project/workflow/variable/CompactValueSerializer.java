@@ -0,0 +1,93 @@
+package com.ie_project.workflow.variable;
+
+import org.camunda.bpm.engine.impl.variable.serializer.AbstractObjectValueSerializer;
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+
+/**
+ * Camunda-Serializer für {@link CompactValue}-Objekte
+ * Camunda serializer for {@link CompactValue} objects
+ *
+ * Stores value objects in the compact binary format instead of Java serialization
+ * or Spin JSON. Deserialization wraps the byte array from the engine without copying;
+ * fields are decoded lazily when a delegate reads them.
+ *
+ * Speichert Wertobjekte im kompakten Binärformat statt per Java-Serialisierung oder
+ * Spin-JSON. Beim Deserialisieren wird das Byte-Array der Engine ohne Kopie umhüllt;
+ * Felder werden erst beim Lesen im Delegate dekodiert.
+ *
+ * @author IE Project Team
+ */
+public class CompactValueSerializer extends AbstractObjectValueSerializer {
+
+    public static final String DATA_FORMAT = "application/x-ie-compact";
+
+    // Stored in the TYPE_ column of the variable tables / Wird in der Spalte TYPE_ der Variablentabellen gespeichert
+    public static final String SERIALIZER_NAME = "ie-compact";
+
+    public CompactValueSerializer() {
+        super(DATA_FORMAT);
+    }
+
+    /**
+     * Erstellt eine typisierte Variable im kompakten Format
+     * Creates a typed variable in the compact format
+     *
+     * Required because Spin JSON is the engine default for object values.
+     * Notwendig, da Spin-JSON der Standard der Engine für Objektwerte ist.
+     */
+    public static ObjectValue objectValue(CompactValue value) {
+        return Variables.objectValue(value)
+                .serializationDataFormat(DATA_FORMAT)
+                .create();
+    }
+
+    /**
+     * Erstellt ein Wertobjekt anhand der Typ-ID im Header
+     * Creates a value object based on the type id in the header
+     */
+    public static CompactValue fromBytes(byte[] data) {
+        int typeId = CompactRecord.readTypeId(data);
+
+        switch (typeId) {
+            case NcRankingResult.TYPE_ID:
+                return NcRankingResult.fromBytes(data);
+            case PaymentSnapshot.TYPE_ID:
+                return PaymentSnapshot.fromBytes(data);
+            case ExamSchedule.TYPE_ID:
+                return ExamSchedule.fromBytes(data);
+            default:
+                throw new IllegalArgumentException("Unknown compact type id / Unbekannte Typ-ID: " + typeId);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return SERIALIZER_NAME;
+    }
+
+    @Override
+    protected String getTypeNameForDeserialized(Object deserializedObject) {
+        return deserializedObject.getClass().getName();
+    }
+
+    @Override
+    protected byte[] serializeToByteArray(Object deserializedObject) throws Exception {
+        return ((CompactValue) deserializedObject).toByteArray();
+    }
+
+    @Override
+    protected Object deserializeFromByteArray(byte[] object, String objectTypeName) throws Exception {
+        return fromBytes(object);
+    }
+
+    @Override
+    protected boolean isSerializationTextBased() {
+        return false;
+    }
+
+    @Override
+    protected boolean canSerializeValue(Object value) {
+        return value instanceof CompactValue;
+    }
+}
@@ -0,0 +1,120 @@
+package com.ie_project.workflow.variable;
+
+import com.ie_project.workflow.variable.CompactRecord.FieldType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Termin einer Aufnahmeprüfung als eine kompakte Prozessvariable
+ * Entrance exam schedule as one compact process variable
+ *
+ * Replaces examTime, examDateTime, examLocation, examRoom, examCommittee, examType,
+ * examDuration, maxExamScore, passingScore and scheduledAt. examDate stays a plain
+ * String because the exam result form pre-fills it.
+ *
+ * @author IE Project Team
+ */
+public final class ExamSchedule extends CompactValue {
+
+    public static final int TYPE_ID = 3;
+
+    // Field order is the wire format - only append new fields
+    // Feldreihenfolge ist das Datenformat - neue Felder nur anhängen
+    private static final int APPLICATION_ID = 0;
+    private static final int EXAM_DATE_TIME = 1;
+    private static final int LOCATION = 2;
+    private static final int ROOM = 3;
+    private static final int COMMITTEE = 4;
+    private static final int DURATION_MINUTES = 5;
+    private static final int MAX_SCORE = 6;
+    private static final int PASSING_SCORE = 7;
+    private static final int SCHEDULED_AT = 8;
+
+    static final FieldType[] SCHEMA = {
+            FieldType.LONG, FieldType.STRING, FieldType.STRING, FieldType.STRING, FieldType.STRING,
+            FieldType.INT, FieldType.INT, FieldType.INT, FieldType.STRING
+    };
+
+    ExamSchedule(CompactRecord record) {
+        super(record);
+    }
+
+    /**
+     * @param examDateTime Prüfungstermin im Format dd.MM.yyyy HH:mm / Exam date in format dd.MM.yyyy HH:mm
+     */
+    public static ExamSchedule of(Long applicationId, String examDateTime, String location, String room,
+                                  String committee, int durationMinutes, int maxScore, int passingScore,
+                                  String scheduledAt) {
+        byte[] data = new CompactRecord.Writer(TYPE_ID, SCHEMA)
+                .writeLong(applicationId != null ? applicationId : 0L)
+                .writeString(examDateTime)
+                .writeString(location)
+                .writeString(room)
+                .writeString(committee)
+                .writeInt(durationMinutes)
+                .writeInt(maxScore)
+                .writeInt(passingScore)
+                .writeString(scheduledAt)
+                .toByteArray();
+        return fromBytes(data);
+    }
+
+    public static ExamSchedule fromBytes(byte[] data) {
+        return new ExamSchedule(CompactRecord.wrap(data, TYPE_ID, SCHEMA));
+    }
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public ExamSchedule reencode() {
+        return of(getApplicationId(), getExamDateTime(), getLocation(), getRoom(), getCommittee(),
+                getDurationMinutes(), getMaxScore(), getPassingScore(), getScheduledAt());
+    }
+
+    public long getApplicationId() { return record.getLong(APPLICATION_ID); }
+    public String getExamDateTime() { return record.getString(EXAM_DATE_TIME); }
+    public String getLocation() { return record.getString(LOCATION); }
+    public String getRoom() { return record.getString(ROOM); }
+    public String getCommittee() { return record.getString(COMMITTEE); }
+    public int getDurationMinutes() { return record.getInt(DURATION_MINUTES); }
+    public int getMaxScore() { return record.getInt(MAX_SCORE); }
+    public int getPassingScore() { return record.getInt(PASSING_SCORE); }
+    public String getScheduledAt() { return record.getString(SCHEDULED_AT); }
+
+    /**
+     * Datumsteil (dd.MM.yyyy) / Date part (dd.MM.yyyy)
+     */
+    public String getExamDate() {
+        String dateTime = getExamDateTime();
+        int separator = dateTime != null ? dateTime.indexOf(' ') : -1;
+        return separator > 0 ? dateTime.substring(0, separator) : dateTime;
+    }
+
+    /**
+     * Uhrzeitteil (HH:mm) / Time part (HH:mm)
+     */
+    public String getExamTime() {
+        String dateTime = getExamDateTime();
+        int separator = dateTime != null ? dateTime.indexOf(' ') : -1;
+        return separator > 0 ? dateTime.substring(separator + 1) : null;
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("applicationId", getApplicationId());
+        map.put("examDateTime", getExamDateTime());
+        map.put("location", getLocation());
+        map.put("room", getRoom());
+        map.put("committee", getCommittee());
+        map.put("durationMinutes", getDurationMinutes());
+        map.put("maxScore", getMaxScore());
+        map.put("passingScore", getPassingScore());
+        map.put("scheduledAt", getScheduledAt());
+        return map;
+    }
+}
@@ -0,0 +1,90 @@
+package com.ie_project.workflow.variable;
+
+import com.ie_project.workflow.variable.CompactRecord.FieldType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ergebnis der NC-Rangberechnung als eine kompakte Prozessvariable
+ * Result of the NC ranking calculation as one compact process variable
+ *
+ * Replaces the separate variables currentApplicationRank, currentApplicationGrade,
+ * totalApplicationsWithGrades and maxStudents.
+ *
+ * @author IE Project Team
+ */
+public final class NcRankingResult extends CompactValue {
+
+    public static final int TYPE_ID = 1;
+
+    // Field order is the wire format - only append new fields
+    // Feldreihenfolge ist das Datenformat - neue Felder nur anhängen
+    private static final int APPLICATION_ID = 0;
+    private static final int STUDY_PROGRAM_CODE = 1;
+    private static final int RANK = 2;
+    private static final int TOTAL_APPLICATIONS = 3;
+    private static final int MAX_STUDENTS = 4;
+    private static final int GRADE = 5;
+
+    static final FieldType[] SCHEMA = {
+            FieldType.LONG, FieldType.STRING, FieldType.INT, FieldType.INT, FieldType.INT, FieldType.DOUBLE
+    };
+
+    NcRankingResult(CompactRecord record) {
+        super(record);
+    }
+
+    public static NcRankingResult of(Long applicationId, String studyProgramCode, int rank,
+                                     int totalApplications, int maxStudents, double grade) {
+        byte[] data = new CompactRecord.Writer(TYPE_ID, SCHEMA)
+                .writeLong(applicationId != null ? applicationId : 0L)
+                .writeString(studyProgramCode)
+                .writeInt(rank)
+                .writeInt(totalApplications)
+                .writeInt(maxStudents)
+                .writeDouble(grade)
+                .toByteArray();
+        return fromBytes(data);
+    }
+
+    public static NcRankingResult fromBytes(byte[] data) {
+        return new NcRankingResult(CompactRecord.wrap(data, TYPE_ID, SCHEMA));
+    }
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public NcRankingResult reencode() {
+        return of(getApplicationId(), getStudyProgramCode(), getRank(), getTotalApplications(), getMaxStudents(), getGrade());
+    }
+
+    public long getApplicationId() { return record.getLong(APPLICATION_ID); }
+    public String getStudyProgramCode() { return record.getString(STUDY_PROGRAM_CODE); }
+    public int getRank() { return record.getInt(RANK); }
+    public int getTotalApplications() { return record.getInt(TOTAL_APPLICATIONS); }
+    public int getMaxStudents() { return record.getInt(MAX_STUDENTS); }
+    public double getGrade() { return record.getDouble(GRADE); }
+
+    /**
+     * Rangplatz innerhalb der verfügbaren Plätze / Rank within the available seats
+     */
+    public boolean isWithinCapacity() {
+        return getRank() <= getMaxStudents();
+    }
+
+    @Override
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("applicationId", getApplicationId());
+        map.put("studyProgramCode", getStudyProgramCode());
+        map.put("rank", getRank());
+        map.put("totalApplications", getTotalApplications());
+        map.put("maxStudents", getMaxStudents());
+        map.put("grade", getGrade());
+        return map;
+    }
+}
@@ -0,0 +1,90 @@
+package com.ie_project.workflow.variable;
+
+import com.ie_project.workflow.variable.CompactRecord.FieldType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ergebnis einer Zahlungsprüfung als eine kompakte Prozessvariable
+ * Result of a payment check as one compact process variable
+ *
+ * Replaces the separate variables paymentCheckCompleted, paymentStatus, deadlineExpired
+ * and paymentCheckDate. paymentReceived stays a plain Boolean because the gateway reads it.
+ *
+ * @author IE Project Team
+ */
+public final class PaymentSnapshot extends CompactValue {
+
+    public static final int TYPE_ID = 2;
+
+    // Field order is the wire format - only append new fields
+    // Feldreihenfolge ist das Datenformat - neue Felder nur anhängen
+    private static final int APPLICATION_ID = 0;
+    private static final int ADMISSION_REFERENCE = 1;
+    private static final int PAYMENT_RECEIVED = 2;
+    private static final int DEADLINE_EXPIRED = 3;
+    private static final int PAYMENT_STATUS = 4;
+    private static final int PAYMENT_DEADLINE = 5;
+    private static final int CHECKED_AT = 6;
+
+    static final FieldType[] SCHEMA = {
+            FieldType.LONG, FieldType.STRING, FieldType.BOOLEAN, FieldType.BOOLEAN,
+            FieldType.STRING, FieldType.STRING, FieldType.STRING
+    };
+
+    PaymentSnapshot(CompactRecord record) {
+        super(record);
+    }
+
+    public static PaymentSnapshot of(Long applicationId, String admissionReference, boolean paymentReceived,
+                                     boolean deadlineExpired, String paymentStatus, String paymentDeadline,
+                                     String checkedAt) {
+        byte[] data = new CompactRecord.Writer(TYPE_ID, SCHEMA)
+                .writeLong(applicationId != null ? applicationId : 0L)
+                .writeString(admissionReference)
+                .writeBoolean(paymentReceived)
+                .writeBoolean(deadlineExpired)
+                .writeString(paymentStatus)
+                .writeString(paymentDeadline)
+                .writeString(checkedAt)
+                .toByteArray();
+        return fromBytes(data);
+    }
+
+    public static PaymentSnapshot fromBytes(byte[] data) {
+        return new PaymentSnapshot(CompactRecord.wrap(data, TYPE_ID, SCHEMA));
+    }
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public PaymentSnapshot reencode() {
+        return of(getApplicationId(), getAdmissionReference(), isPaymentReceived(), isDeadlineExpired(),
+                getPaymentStatus(), getPaymentDeadline(), getCheckedAt());
+    }
+
+    public long getApplicationId() { return record.getLong(APPLICATION_ID); }
+    public String getAdmissionReference() { return record.getString(ADMISSION_REFERENCE); }
+    public boolean isPaymentReceived() { return record.getBoolean(PAYMENT_RECEIVED); }
+    public boolean isDeadlineExpired() { return record.getBoolean(DEADLINE_EXPIRED); }
+    public String getPaymentStatus() { return record.getString(PAYMENT_STATUS); }
+    public String getPaymentDeadline() { return record.getString(PAYMENT_DEADLINE); }
+    public String getCheckedAt() { return record.getString(CHECKED_AT); }
+
+    @Override
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("applicationId", getApplicationId());
+        map.put("admissionReference", getAdmissionReference());
+        map.put("paymentReceived", isPaymentReceived());
+        map.put("deadlineExpired", isDeadlineExpired());
+        map.put("paymentStatus", getPaymentStatus());
+        map.put("paymentDeadline", getPaymentDeadline());
+        map.put("checkedAt", getCheckedAt());
+        return map;
+    }
+}
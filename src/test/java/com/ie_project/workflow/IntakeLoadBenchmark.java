@@ -0,0 +1,177 @@
+package com.ie_project.workflow;
+
+import com.ie_project.workflow.entity.StudyProgram;
+import com.ie_project.workflow.repository.StudyProgramRepository;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.TaskService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lastharness für den Bewerbungseingang: API-Latenz und Ende-zu-Ende-Durchsatz
+ * Load harness for the application intake: API latency and end-to-end throughput
+ *
+ * Starts the full application on an in-memory H2 database with a random port, creates one open
+ * study program and submits applications through POST /api/applications from a number of
+ * parallel clients. A submission counts as done end to end when its instance reached the
+ * document verification task, i.e. the async save job (save, welcome message, deadline check)
+ * has run. Printed are the API latency (p50, p95), the time until all instances arrived and
+ * the resulting throughput. A warm-up round of the same size runs first and is not counted.
+ *
+ * Another intake variant can be measured by passing a BPMN file in -Dintake.bpmn; it is
+ * deployed as the newest version of the process, so all submissions start on it. The parallel
+ * welcome/deadline split measured for the README is the BPMN before commit f938b5a:
+ *   git show f938b5a^:src/main/resources/application-process.bpmn > /tmp/intake-split.bpmn
+ *
+ * Nicht Teil von mvn test. Ausführen mit (Anzahl Bewerbungen, parallele Clients):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        [-Dintake.bpmn=/tmp/intake-split.bpmn] com.ie_project.workflow.IntakeLoadBenchmark 100 1
+ *
+ * @author IE Project Team
+ */
+public class IntakeLoadBenchmark {
+
+    private static final String VERIFICATION_TASK = "Task_DocumentVerification";
+
+    /**
+     * Die Komponenten von Application ohne die Test-Konfigurationen auf dem Test-Classpath
+     * The components of Application without the test configurations on the test classpath
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @ComponentScan(basePackages = "com.ie_project", excludeFilters = {
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = Application.class),
+            @ComponentScan.Filter(type = FilterType.REGEX, pattern = ".*(Test|Benchmark)(\\$.*)?")
+    })
+    static class IntakeConfiguration {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int submissions = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        String variant = System.getProperty("intake.bpmn");
+
+        ConfigurableApplicationContext context = SpringApplication.run(IntakeConfiguration.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:intakeload;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--logging.level.root=WARN",
+                "--logging.level.org.camunda=WARN");
+        try {
+            if (variant != null) {
+                try (InputStream in = new FileInputStream(variant)) {
+                    context.getBean(RepositoryService.class).createDeployment()
+                            .addInputStream("application-process.bpmn", in).deploy();
+                }
+            }
+
+            StudyProgram studyProgram = new StudyProgram("Informatik", "INF", StudyProgram.AdmissionType.OPEN);
+            studyProgram.setMaxStudents(100_000);
+            Long studyProgramId = context.getBean(StudyProgramRepository.class).save(studyProgram).getId();
+
+            String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/applications";
+            TaskService taskService = context.getBean(TaskService.class);
+
+            run("warm-up", url, studyProgramId, submissions, clients, taskService);
+            Result result = run("measured", url, studyProgramId, submissions, clients, taskService);
+
+            System.out.println("=== INTAKE LOAD BENCHMARK / LASTTEST BEWERBUNGSEINGANG ===");
+            System.out.println("Variant: " + (variant != null ? variant : "deployed application-process.bpmn"));
+            System.out.println(String.format("N=%d clients=%d submit=%.2fs api p50=%dms p95=%dms end-to-end=%.2fs throughput=%.1f/s reached=%d",
+                    submissions, clients, result.submitSeconds, result.percentileMillis(50), result.percentileMillis(95),
+                    result.endToEndSeconds, submissions / result.endToEndSeconds, result.reached));
+            System.out.println("==========================================================");
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result run(String phase, String url, Long studyProgramId, int submissions, int clients,
+                              TaskService taskService) throws Exception {
+
+        HttpClient http = HttpClient.newHttpClient();
+        long base = verificationTasks(taskService);
+        Result result = new Result();
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < submissions; i++) {
+                futures.add(executor.submit(() -> submit(http, url, studyProgramId)));
+            }
+            for (Future<Long> future : futures) {
+                result.latencies.add(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        result.submitSeconds = (System.nanoTime() - start) / 1e9;
+
+        // Wait until every instance reached document verification / Warten, bis jede Instanz die Dokumentenprüfung erreicht hat
+        long deadline = System.nanoTime() + 300_000_000_000L;
+        while (verificationTasks(taskService) - base < submissions && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        result.endToEndSeconds = (System.nanoTime() - start) / 1e9;
+        result.reached = verificationTasks(taskService) - base;
+        System.out.println(phase + ": " + result.reached + "/" + submissions + " instances reached " + VERIFICATION_TASK);
+        return result;
+    }
+
+    private static long submit(HttpClient http, String url, Long studyProgramId) throws IOException, InterruptedException {
+        String body = "{\"firstName\":\"Max\",\"lastName\":\"Bench\",\"sex\":\"M\",\"email\":\"" + UUID.randomUUID() + "@example.com\","
+                + "\"dateOfBirth\":\"1995-05-15\",\"street\":\"Hauptstraße 1\",\"city\":\"Riedtal\",\"postalCode\":\"12345\","
+                + "\"country\":\"DE\",\"phone\":\"1\",\"studyProgramId\":" + studyProgramId + ",\"highSchoolGrade\":2.1}";
+        long started = System.nanoTime();
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Submission rejected / Bewerbung abgelehnt: " + response.statusCode() + " " + response.body());
+        }
+        return millis;
+    }
+
+    private static long verificationTasks(TaskService taskService) {
+        return taskService.createTaskQuery().taskDefinitionKey(VERIFICATION_TASK).count();
+    }
+
+    /**
+     * Messwerte einer Runde / Figures of one round
+     */
+    private static final class Result {
+        final List<Long> latencies = new ArrayList<>();
+        double submitSeconds;
+        double endToEndSeconds;
+        long reached;
+
+        long percentileMillis(int percent) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+            return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+        }
+    }
+}
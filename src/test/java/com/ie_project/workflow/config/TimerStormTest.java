@@ -0,0 +1,296 @@
+package com.ie_project.workflow.config;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.AcquireJobsCommandFactory;
+import org.camunda.bpm.engine.impl.jobexecutor.DefaultAcquireJobsCommandFactory;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Timer-Sturm: 10.000 Bewerbungen in einer Minute
+ * Timer storm: 10,000 applications within one minute
+ *
+ * Starts 10,000 instances of a minimal process with the NC wait timer
+ * (#{timerJitterSettings.jittered('PT5M')}) while the engine clock moves through one minute, so
+ * the submissions arrive like a real burst. Two things are measured:
+ *
+ * - Due profile: the peak number of timers due per second (5 second average), with the configured
+ *   jitter, against the same submissions without jitter (submission time + PT5M). With ratio 0.1
+ *   the jitter is 30 s, shorter than the one minute burst: it stretches the storm and flattens its
+ *   edges, but the plateau stays at about 167 timers per second. Capping the rate is the job of
+ *   the token bucket.
+ * - Execution profile: half of the instances use process key A, half B. With the clock moved past
+ *   all due dates, A's 5,000 timers run with the plain acquisition and B's with the
+ *   RateLimitedJobAcquisitionPlugin token bucket. Reported are the completions per second, the
+ *   acquisition queries and the executions rejected by the full job executor queue (each one
+ *   acquired, locked and unlocked again for nothing).
+ *
+ * Sized for one CPU and the in-memory H2 database; the rate limit is raised to 200 jobs/s so the
+ * test finishes in about two minutes. Tagged load, so mvn test skips it; run it with
+ * mvn test -Pload. Engine logging is lowered to INFO, the DEBUG SQL of 10,000 instances would
+ * fill the surefire report with several hundred MB.
+ *
+ * Startet 10.000 Instanzen innerhalb einer Minute Engine-Zeit und vergleicht die Fälligkeiten
+ * mit und ohne Jitter sowie die Ausführung mit und ohne Token-Bucket. Lasttest, nur mit -Pload.
+ *
+ * @author IE Project Team
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:timerstorm;DB_CLOSE_DELAY=-1",
+        "camunda.bpm.auto-deployment-enabled=false",
+        "camunda.bpm.history-level=none",
+        "application.timers.jitter.ratio=0.1",
+        "application.timers.jitter.max=PT2M",
+        "application.jobs.acquisition.rate-limit.enabled=true",
+        "application.jobs.acquisition.rate-limit.jobs-per-second=200",
+        "application.jobs.acquisition.rate-limit.burst=50",
+        "logging.level.org.camunda=INFO",
+        "logging.level.org.springframework.web=INFO"
+})
+@Tag("load")
+class TimerStormTest {
+
+    private static final int SUBMISSIONS = 10_000;
+    private static final long SUBMISSION_WINDOW_MILLIS = 60_000;
+    private static final long TIMER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int RATE_LIMIT = 200;
+    private static final int BURST = 50;
+
+    /**
+     * Nur Engine, Jitter und Token-Bucket / Only engine, jitter and token bucket
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import({TimerJitterSettings.class, RateLimitedJobAcquisitionPlugin.class})
+    static class TimerStormConfiguration {
+
+        @Bean
+        CompletionProbe timerStormProbe() {
+            return new CompletionProbe();
+        }
+    }
+
+    /**
+     * Merkt sich den Abschlusszeitpunkt jedes Timer-Jobs / Records the completion time of every timer job
+     */
+    static class CompletionProbe implements JavaDelegate {
+
+        final ConcurrentLinkedQueue<Long> completions = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void execute(DelegateExecution execution) {
+            completions.add(System.nanoTime());
+        }
+    }
+
+    @Autowired
+    private ProcessEngine processEngine;
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private CompletionProbe probe;
+
+    @AfterEach
+    void resetClock() {
+        ClockUtil.reset();
+    }
+
+    @Test
+    void jitterAndRateLimitSmoothTimerStorm() throws Exception {
+        JobExecutor jobExecutor = ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration()).getJobExecutor();
+        AcquireJobsCommandFactory rateLimited = jobExecutor.getAcquireJobsCmdFactory();
+        assertThat(rateLimited).isInstanceOf(RateLimitedJobAcquisitionPlugin.RateLimitedAcquireJobsCommandFactory.class);
+
+        for (String key : List.of("stormA", "stormB")) {
+            repositoryService.createDeployment().addModelInstance(key + ".bpmn", Bpmn.createExecutableProcess(key)
+                    .startEvent()
+                    .intermediateCatchEvent("Event_WaitToCalculate").timerWithDuration("#{timerJitterSettings.jittered('PT5M')}")
+                    .serviceTask("Task_Probe").camundaDelegateExpression("#{timerStormProbe}")
+                    .endEvent()
+                    .done()).deploy();
+        }
+
+        // 10,000 submissions within one minute of engine time / 10.000 Bewerbungen in einer Minute Engine-Zeit
+        long start = System.currentTimeMillis();
+        long submitStarted = System.nanoTime();
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            ClockUtil.setCurrentTime(new Date(start + i * SUBMISSION_WINDOW_MILLIS / SUBMISSIONS));
+            runtimeService.startProcessInstanceByKey(i % 2 == 0 ? "stormA" : "stormB");
+        }
+        long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitStarted);
+
+        // Due profile / Fälligkeitsprofil
+        List<Job> timers = managementService.createJobQuery().timers().list();
+        assertThat(timers).hasSize(SUBMISSIONS);
+        Map<Long, Integer> jitteredDue = new TreeMap<>();
+        Map<Long, Integer> plainDue = new TreeMap<>();
+        long latestDue = 0;
+        for (Job timer : timers) {
+            jitteredDue.merge(timer.getDuedate().getTime() / 1000, 1, Integer::sum);
+            latestDue = Math.max(latestDue, timer.getDuedate().getTime());
+        }
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            plainDue.merge((start + i * SUBMISSION_WINDOW_MILLIS / SUBMISSIONS + TIMER_MILLIS) / 1000, 1, Integer::sum);
+        }
+        int jitteredPeak = peakOverFiveSeconds(jitteredDue);
+        int plainPeak = peakOverFiveSeconds(plainDue);
+
+        // Execution profile: B waits while A runs without the token bucket / Ausführungsprofil: B wartet, A läuft ohne Token-Bucket
+        managementService.suspendJobDefinitionByProcessDefinitionKey("stormB", true);
+        ClockUtil.setCurrentTime(new Date(latestDue + 1000));
+
+        jobExecutor.setAcquireJobsCmdFactory(new DefaultAcquireJobsCommandFactory(jobExecutor));
+        Phase plain = runPhase("plain acquisition", "stormA");
+
+        jobExecutor.setAcquireJobsCmdFactory(rateLimited);
+        managementService.activateJobDefinitionByProcessDefinitionKey("stormB", true);
+        Phase limited = runPhase("token bucket " + RATE_LIMIT + "/s", "stormB");
+
+        System.out.println("=== TIMER STORM TEST ===");
+        System.out.println("Submissions: " + SUBMISSIONS + " within " + SUBMISSION_WINDOW_MILLIS / 1000 + " s engine time ("
+                + submitMillis + " ms wall clock)");
+        System.out.println("Timers due per second, peak of 5 s averages: without jitter " + plainPeak + ", with jitter " + jitteredPeak
+                + " (spread over " + plainDue.size() + " s vs " + jitteredDue.size() + " s)");
+        for (Phase phase : List.of(plain, limited)) {
+            System.out.println(phase);
+        }
+        System.out.println("========================");
+
+        assertThat(plain.completed).isEqualTo(SUBMISSIONS / 2);
+        assertThat(limited.completed).isEqualTo(SUBMISSIONS / 2);
+        // Jitter stretches the storm but cannot lower a plateau longer than the jitter itself
+        // Jitter streckt den Sturm, senkt aber kein Plateau, das länger ist als der Jitter selbst
+        assertThat(jitteredDue.size()).isGreaterThanOrEqualTo(plainDue.size() + 20);
+        assertThat(jitteredPeak).isLessThanOrEqualTo(plainPeak + plainPeak / 10);
+        // Completions are counted per wall clock second, so allow some spill-over / Abschlüsse je Sekunde, etwas Überlauf erlaubt
+        assertThat(limited.completed * 1000L / limited.millis).isLessThanOrEqualTo(RATE_LIMIT + BURST);
+        assertThat(limited.peakPerSecondAfterFirst).isLessThanOrEqualTo(RATE_LIMIT + RATE_LIMIT / 4);
+        assertThat(limited.perSecond.get(0)).isLessThanOrEqualTo(RATE_LIMIT + BURST + RATE_LIMIT / 4);
+        assertThat(limited.rejected).isLessThanOrEqualTo(plain.rejected);
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    private Phase runPhase(String name, String processKey) throws InterruptedException {
+        probe.completions.clear();
+        managementService.reportDbMetricsNow();
+        long attemptsBefore = metric(Metrics.JOB_ACQUISITION_ATTEMPT);
+        long rejectedBefore = metric(Metrics.JOB_EXECUTION_REJECTED);
+        long failedAcquisitionsBefore = metric(Metrics.JOB_ACQUIRED_FAILURE);
+
+        long started = System.nanoTime();
+        // Wake the acquisition thread for the moved clock / Weckt den Akquisitions-Thread für die verstellte Uhr
+        ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration()).getJobExecutor().jobWasAdded();
+        long deadline = started + TimeUnit.MINUTES.toNanos(5);
+        while (runtimeService.createProcessInstanceQuery().processDefinitionKey(processKey).count() > 0) {
+            assertThat(System.nanoTime()).as("storm of " + processKey + " finished within 5 minutes").isLessThan(deadline);
+            Thread.sleep(200);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        managementService.reportDbMetricsNow();
+        List<Integer> perSecond = new ArrayList<>();
+        for (long completion : probe.completions) {
+            int second = (int) TimeUnit.NANOSECONDS.toSeconds(completion - started);
+            while (perSecond.size() <= second) {
+                perSecond.add(0);
+            }
+            perSecond.set(second, perSecond.get(second) + 1);
+        }
+
+        return new Phase(name, probe.completions.size(), millis, perSecond,
+                metric(Metrics.JOB_ACQUISITION_ATTEMPT) - attemptsBefore,
+                metric(Metrics.JOB_EXECUTION_REJECTED) - rejectedBefore,
+                metric(Metrics.JOB_ACQUIRED_FAILURE) - failedAcquisitionsBefore);
+    }
+
+    private long metric(String name) {
+        return managementService.createMetricsQuery().name(name).sum();
+    }
+
+    /**
+     * Höchster Durchschnitt über 5 Sekunden, glättet das Zufallsrauschen / Highest 5 second average, smooths the random noise
+     */
+    private static int peakOverFiveSeconds(Map<Long, Integer> countsPerSecond) {
+        long first = countsPerSecond.keySet().stream().mapToLong(Long::longValue).min().orElse(0);
+        long last = countsPerSecond.keySet().stream().mapToLong(Long::longValue).max().orElse(0);
+        int peak = 0;
+        for (long second = first; second <= last; second++) {
+            int sum = 0;
+            for (long s = second; s < second + 5; s++) {
+                sum += countsPerSecond.getOrDefault(s, 0);
+            }
+            peak = Math.max(peak, sum / 5);
+        }
+        return peak;
+    }
+
+    /**
+     * Ergebnis einer Ausführungsphase / Result of one execution phase
+     */
+    private static final class Phase {
+
+        final String name;
+        final int completed;
+        final long millis;
+        final List<Integer> perSecond;
+        final int peakPerSecondAfterFirst;
+        final long acquisitions;
+        final long rejected;
+        final long failedAcquisitions;
+
+        Phase(String name, int completed, long millis, List<Integer> perSecond,
+              long acquisitions, long rejected, long failedAcquisitions) {
+            this.name = name;
+            this.completed = completed;
+            this.millis = millis;
+            this.perSecond = perSecond;
+            this.peakPerSecondAfterFirst = perSecond.stream().skip(1).mapToInt(Integer::intValue).max().orElse(0);
+            this.acquisitions = acquisitions;
+            this.rejected = rejected;
+            this.failedAcquisitions = failedAcquisitions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-22s %d jobs in %d ms, per second %s, acquisitions %d, rejected %d, failed acquisitions %d",
+                    name, completed, millis, perSecond, acquisitions, rejected, failedAcquisitions);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.config.ExternalNotificationTaskPlugin;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.runtime.Incident;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fehler- und Wiederholungstest für ExternalNotificationTaskWorker
+ * Failure and retry test for ExternalNotificationTaskWorker
+ *
+ * A small process with a welcome package service task runs with external tasks enabled. The test
+ * delegate fails a configurable number of times; every failure must be reported with one retry
+ * less, a later success must complete the task with the variables the delegate set, and running
+ * out of retries must end in an incident with the process still waiting at the task.
+ *
+ * Ein kleiner Prozess mit dem Willkommenspaket als externem Task. Der Test-Delegate schlägt
+ * mehrfach fehl; Wiederholungen, Abschluss mit Variablen und der Incident werden geprüft.
+ *
+ * @author IE Project Team
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:externaltasks;DB_CLOSE_DELAY=-1",
+        "camunda.bpm.auto-deployment-enabled=false",
+        "camunda.bpm.job-execution.enabled=false",
+        "application.notification.external-tasks.enabled=true",
+        "application.notification.external-tasks.worker.workers=1",
+        "application.notification.external-tasks.worker.long-poll-timeout=PT1S",
+        "application.notification.external-tasks.worker.retries=3",
+        "application.notification.external-tasks.worker.retry-timeout=PT0S"
+})
+class ExternalNotificationTaskWorkerTest {
+
+    private static final String PROCESS_KEY = "externalNotificationTest";
+
+    /**
+     * Nur Engine, Plugin und Worker, ohne die übrigen Komponenten / Only engine, plugin and worker, without the other components
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import({ExternalNotificationTaskPlugin.class, ExternalNotificationTaskWorker.class})
+    static class ExternalTaskConfiguration {
+
+        @Bean
+        FailingDelegate welcomePackageDelegate() {
+            return new FailingDelegate();
+        }
+
+        @Bean
+        FailingDelegate examInvitationDelegate() {
+            return new FailingDelegate();
+        }
+    }
+
+    /**
+     * Schlägt failuresLeft-mal fehl und setzt danach eine Variable / Fails failuresLeft times, then sets a variable
+     */
+    static class FailingDelegate implements JavaDelegate {
+
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void execute(DelegateExecution execution) {
+            calls.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("SMTP server unavailable / SMTP-Server nicht erreichbar");
+            }
+            execution.setVariable("welcomePackageSent", true);
+            execution.setVariable("sentFor", execution.getVariable("applicationId"));
+        }
+    }
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private ManagementService managementService;
+
+    @Autowired
+    private FailingDelegate welcomePackageDelegate;
+
+    private static boolean deployed;
+
+    @BeforeEach
+    void setUp() {
+        if (!deployed) {
+            BpmnModelInstance model = Bpmn.createExecutableProcess(PROCESS_KEY)
+                    .startEvent()
+                    .serviceTask("Task_WelcomePackage").camundaDelegateExpression("#{welcomePackageDelegate}")
+                    .userTask("Task_AfterWelcome")
+                    .endEvent()
+                    .done();
+            repositoryService.createDeployment().addModelInstance(PROCESS_KEY + ".bpmn", model).deploy();
+            deployed = true;
+        }
+        welcomePackageDelegate.calls.set(0);
+    }
+
+    @Test
+    void failedTaskIsRetriedAndCompletedWithDelegateVariables() throws Exception {
+        welcomePackageDelegate.failuresLeft.set(2);
+
+        String processInstanceId = runtimeService.startProcessInstanceByKey(PROCESS_KEY, Map.of("applicationId", 42L)).getId();
+
+        awaitCondition(() -> runtimeService.createExecutionQuery().processInstanceId(processInstanceId)
+                .activityId("Task_AfterWelcome").count() == 1);
+
+        assertThat(welcomePackageDelegate.calls.get()).isEqualTo(3);
+        assertThat(runtimeService.getVariable(processInstanceId, "welcomePackageSent")).isEqualTo(true);
+        assertThat(runtimeService.getVariable(processInstanceId, "sentFor")).isEqualTo(42L);
+        assertThat(managementService.createJobQuery().processInstanceId(processInstanceId).count()).isZero();
+    }
+
+    @Test
+    void exhaustedRetriesCreateIncident() throws Exception {
+        welcomePackageDelegate.failuresLeft.set(Integer.MAX_VALUE);
+
+        String processInstanceId = runtimeService.startProcessInstanceByKey(PROCESS_KEY, Map.of("applicationId", 7L)).getId();
+
+        awaitCondition(() -> runtimeService.createIncidentQuery().processInstanceId(processInstanceId).count() == 1);
+
+        Incident incident = runtimeService.createIncidentQuery().processInstanceId(processInstanceId).singleResult();
+        assertThat(incident.getIncidentType()).isEqualTo(Incident.EXTERNAL_TASK_HANDLER_TYPE);
+        assertThat(incident.getIncidentMessage()).contains("SMTP server unavailable");
+        assertThat(welcomePackageDelegate.calls.get()).isEqualTo(3);
+        assertThat(runtimeService.getVariable(processInstanceId, "welcomePackageSent")).isNull();
+        assertThat(runtimeService.createExecutionQuery().processInstanceId(processInstanceId)
+                .activityId("Task_WelcomePackage").count()).isEqualTo(1);
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition reached within 30 s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.config.ExternalNotificationTaskPlugin;
+import com.ie_project.workflow.delegate.WelcomePackageDelegate;
+import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.entity.StoredDocument;
+import com.ie_project.workflow.entity.Student;
+import com.ie_project.workflow.entity.StudyProgram;
+import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.repository.StoredDocumentRepository;
+import com.ie_project.workflow.repository.StudentRepository;
+import com.ie_project.workflow.repository.StudyProgramRepository;
+import com.ie_project.workflow.template.LetterTemplates;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Der echte WelcomePackageDelegate als externer Task in einem aufgerufenen Teilprozess
+ * The real WelcomePackageDelegate as external task inside a called process
+ *
+ * The delegate stores its documents through DocumentStoreService, which files them under the
+ * application's root process instance. On an external task that instance is resolved by the worker,
+ * so the task must complete, set the document id variables and file the documents under the
+ * calling process, not under the called one.
+ *
+ * Der Delegate speichert Dokumente unter der Wurzel-Prozessinstanz der Bewerbung; im externen
+ * Task löst der Worker sie auf. Geprüft werden Abschluss, Variablen und Zuordnung.
+ *
+ * @author IE Project Team
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:externalwelcome;DB_CLOSE_DELAY=-1",
+        "camunda.bpm.auto-deployment-enabled=false",
+        "camunda.bpm.job-execution.enabled=false",
+        "application.notification.external-tasks.enabled=true",
+        "application.notification.external-tasks.worker.workers=1",
+        "application.notification.external-tasks.worker.long-poll-timeout=PT1S",
+        "application.notification.external-tasks.worker.retries=1"
+})
+class ExternalWelcomePackageTaskTest {
+
+    private static final String PARENT_KEY = "externalWelcomeParent";
+    private static final String CHILD_KEY = "externalWelcomeChild";
+
+    /**
+     * Engine, Worker und der echte Delegate mit seinen Diensten / Engine, worker and the real delegate with its services
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ie_project.workflow.entity")
+    @EnableJpaRepositories("com.ie_project.workflow.repository")
+    @Import({ExternalNotificationTaskPlugin.class, ExternalNotificationTaskWorker.class, WelcomePackageDelegate.class,
+            NotificationService.class, NotificationMetrics.class, SmtpSessionPool.class, DocumentStoreService.class,
+            LetterTemplates.class})
+    static class WelcomePackageConfiguration {
+
+        @Bean
+        JavaDelegate examInvitationDelegate() {
+            return execution -> { };
+        }
+    }
+
+    @Autowired
+    private RepositoryService repositoryService;
+
+    @Autowired
+    private RuntimeService runtimeService;
+
+    @Autowired
+    private StudyProgramRepository studyProgramRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StoredDocumentRepository storedDocumentRepository;
+
+    @Test
+    void welcomePackageCompletesAndFilesDocumentsUnderApplicationProcess() throws Exception {
+        repositoryService.createDeployment()
+                .addModelInstance(CHILD_KEY + ".bpmn", Bpmn.createExecutableProcess(CHILD_KEY)
+                        .startEvent()
+                        .serviceTask("Task_WelcomePackage").camundaDelegateExpression("#{welcomePackageDelegate}")
+                        .userTask("Task_AfterWelcome")
+                        .endEvent()
+                        .done())
+                .addModelInstance(PARENT_KEY + ".bpmn", Bpmn.createExecutableProcess(PARENT_KEY)
+                        .startEvent()
+                        .callActivity("Call_Enrollment").calledElement(CHILD_KEY)
+                        .camundaIn("applicationId", "applicationId")
+                        .camundaIn("studentId", "studentId")
+                        .camundaIn("finalStudentNumber", "finalStudentNumber")
+                        .camundaIn("studentRecordCreated", "studentRecordCreated")
+                        .endEvent()
+                        .done())
+                .deploy();
+
+        StudyProgram studyProgram = studyProgramRepository.save(new StudyProgram("Informatik", "INF", StudyProgram.AdmissionType.OPEN));
+        Application application = new Application();
+        application.setFirstName("Erika");
+        application.setLastName("Mustermann");
+        application.setEmail("erika.mustermann@example.com");
+        application.setSex(Application.Sex.F);
+        application.setDateOfBirth(LocalDate.of(2005, 3, 14));
+        application.setStudyProgram(studyProgram);
+        application.setHighSchoolGrade(new BigDecimal("1.70"));
+        application.setStatus(Application.ApplicationStatus.ENROLLED);
+        application = applicationRepository.save(application);
+        Student student = studentRepository.save(new Student("2026000001", "Erika", "Mustermann",
+                "erika.mustermann@example.com", studyProgram, application));
+
+        ProcessInstance parent = runtimeService.startProcessInstanceByKey(PARENT_KEY, Map.of(
+                "applicationId", application.getId(),
+                "studentId", student.getId(),
+                "finalStudentNumber", "2026000001",
+                "studentRecordCreated", true));
+
+        awaitCondition(() -> runtimeService.createExecutionQuery().processDefinitionKey(CHILD_KEY)
+                .activityId("Task_AfterWelcome").count() == 1);
+
+        ProcessInstance child = runtimeService.createProcessInstanceQuery().superProcessInstanceId(parent.getId()).singleResult();
+        assertThat(runtimeService.createIncidentQuery().count()).isZero();
+        assertThat(runtimeService.getVariable(child.getId(), "welcomePackageSent")).isEqualTo(true);
+
+        for (String documentType : new String[]{"processCompletionSummary", "welcomePackageContent"}) {
+            Object contentId = runtimeService.getVariable(child.getId(), documentType + DocumentStoreService.DOCUMENT_ID_SUFFIX);
+            assertThat(contentId).as(documentType).isInstanceOf(String.class);
+            StoredDocument document = storedDocumentRepository.findById((String) contentId).orElseThrow();
+            assertThat(document.getApplicationId()).isEqualTo(application.getId());
+            assertThat(document.getProcessInstanceId()).isEqualTo(parent.getId());
+        }
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition reached within 30 s").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
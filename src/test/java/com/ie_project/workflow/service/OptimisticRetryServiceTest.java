@@ -0,0 +1,244 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.Application;
+import com.ie_project.workflow.entity.Student;
+import com.ie_project.workflow.entity.StudyProgram;
+import com.ie_project.workflow.repository.ApplicationRepository;
+import com.ie_project.workflow.repository.StudentRepository;
+import com.ie_project.workflow.repository.StudyProgramRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Nebenläufigkeitstest für OptimisticRetryService
+ * Concurrency stress test for OptimisticRetryService
+ *
+ * Several threads increment a counter on the same row. Every update that reports success must be
+ * visible in the final state (no lost update), and the version must have grown by exactly that
+ * number. The same workload under PESSIMISTIC_WRITE gives the throughput comparison.
+ *
+ * Mehrere Threads erhöhen einen Zähler in derselben Zeile. Jede erfolgreiche Änderung muss im
+ * Endzustand sichtbar sein. Dieselbe Last mit PESSIMISTIC_WRITE dient als Durchsatzvergleich.
+ *
+ * @author IE Project Team
+ */
+@DataJpaTest(properties = {
+        "application.persistence.retry.max-attempts=50",
+        "application.persistence.retry.backoff-base-millis=1",
+        "application.persistence.retry.backoff-max-millis=20"
+})
+@Import({OptimisticRetryService.class, StudentEnrollmentService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OptimisticRetryServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 25;
+
+    /**
+     * Nur JPA, ohne Camunda und die übrigen Komponenten / JPA only, without Camunda and the other components
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan("com.ie_project.workflow.entity")
+    @EnableJpaRepositories("com.ie_project.workflow.repository")
+    static class JpaOnlyConfiguration {
+    }
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private StudentEnrollmentService studentEnrollmentService;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudyProgramRepository studyProgramRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private StudyProgram studyProgram;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        applicationRepository.deleteAll();
+        studyProgramRepository.deleteAll();
+        studyProgram = studyProgramRepository.save(new StudyProgram("Informatik", "INF", StudyProgram.AdmissionType.OPEN));
+    }
+
+    @Test
+    void concurrentOptimisticUpdatesAreNotLost() throws Exception {
+        Application application = createApplication("optimistic@example.com");
+        long initialVersion = application.getVersion();
+
+        AtomicInteger exhausted = new AtomicInteger();
+        long millis = runConcurrently(() -> {
+            try {
+                optimisticRetryService.updateApplication(application.getId(), OptimisticRetryServiceTest::increment);
+                return true;
+            } catch (RuntimeException e) {
+                if (!OptimisticRetryService.isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                exhausted.incrementAndGet();
+                return false;
+            }
+        });
+
+        int succeeded = THREADS * UPDATES_PER_THREAD - exhausted.get();
+        Application result = applicationRepository.findById(application.getId()).orElseThrow();
+        report("optimistic (retry)", succeeded, millis);
+
+        assertThat(counter(result)).isEqualTo(succeeded);
+        assertThat(result.getVersion()).isEqualTo(initialVersion + succeeded);
+        assertThat(exhausted.get()).isZero();
+    }
+
+    @Test
+    void concurrentPessimisticUpdatesAreNotLost() throws Exception {
+        Application application = createApplication("pessimistic@example.com");
+
+        long millis = runConcurrently(() -> transactionTemplate.execute(status -> {
+            Application locked = entityManager.find(Application.class, application.getId(), LockModeType.PESSIMISTIC_WRITE);
+            increment(locked);
+            return true;
+        }));
+
+        Application result = applicationRepository.findById(application.getId()).orElseThrow();
+        report("pessimistic (PESSIMISTIC_WRITE)", THREADS * UPDATES_PER_THREAD, millis);
+
+        assertThat(counter(result)).isEqualTo(THREADS * UPDATES_PER_THREAD);
+    }
+
+    @Test
+    void concurrentSemesterAdvancesAreRetried() throws Exception {
+        Application application = createApplication("student@example.com");
+        Student student = new Student();
+        student.setStudentNumber("2025000001");
+        student.setFirstName("Erika");
+        student.setLastName("Mustermann");
+        student.setEmail("student@example.com");
+        student.setStudyProgram(studyProgram);
+        student.setEnrollmentDate(LocalDate.now());
+        student.setCurrentSemester(1);
+        student.setApplication(application);
+        student.setCreatedAt(LocalDateTime.now());
+        Long studentId = studentRepository.save(student).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Student>> futures = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                futures.add(executor.submit(() -> studentEnrollmentService.advanceStudentToNextSemester(studentId)));
+            }
+            for (Future<Student> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(studentRepository.findById(studentId).orElseThrow().getCurrentSemester()).isEqualTo(13);
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    /**
+     * Startet alle Threads gleichzeitig und misst die Gesamtdauer / Starts all threads at once and measures the total duration
+     */
+    private long runConcurrently(Callable<Boolean> update) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        update.call();
+                    }
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Application createApplication(String email) {
+        Application application = new Application();
+        application.setFirstName("Erika");
+        application.setLastName("Mustermann");
+        application.setEmail(email);
+        application.setSex(Application.Sex.F);
+        application.setDateOfBirth(LocalDate.of(2005, 3, 14));
+        application.setStudyProgram(studyProgram);
+        application.setHighSchoolGrade(new BigDecimal("1.70"));
+        application.setStatus(Application.ApplicationStatus.ACCEPTED);
+        application.setPhone("0");
+        return applicationRepository.save(application);
+    }
+
+    /**
+     * Der Zähler liegt im Telefonfeld, damit das Schema unverändert bleibt / The counter lives in the phone field so the schema stays unchanged
+     */
+    private static void increment(Application application) {
+        application.setPhone(String.valueOf(counter(application) + 1));
+    }
+
+    private static int counter(Application application) {
+        return Integer.parseInt(application.getPhone());
+    }
+
+    private void report(String strategy, int updates, long millis) {
+        System.out.println("=== LOCKING STRESS TEST ===");
+        System.out.println("Strategy: " + strategy);
+        System.out.println("Threads: " + THREADS + ", Updates: " + updates);
+        System.out.println("Duration: " + millis + " ms (" + (millis > 0 ? updates * 1000L / millis : updates) + " updates/s)");
+        System.out.println("Conflicts so far: " + optimisticRetryService.getConflictCount());
+        System.out.println("===========================");
+    }
+}
@@ -0,0 +1,377 @@
+package com.ie_project.workflow.service;
+
+import com.ie_project.workflow.entity.OutboxNotification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test der gebündelten E-Mail-Zustellung gegen einen eingebetteten SMTP-Empfänger
+ * Test of batched email delivery against an embedded SMTP sink
+ *
+ * SmtpSessionPool runs with simulated: false against SmtpSink, a minimal SMTP server on a local
+ * port that stores every message and counts connections and round trips (a round trip is every
+ * time the sink answers because the client waits for it). All figures are measured over
+ * loopback, where a round trip costs almost nothing; the round trips per message show what a
+ * remote relay would add per message at its latency.
+ *
+ * SmtpSessionPool sendet über echte Verbindungen an einen lokalen SMTP-Empfänger, der Nachrichten,
+ * Verbindungen und Roundtrips zählt. Alle Werte sind über Loopback gemessen.
+ *
+ * @author IE Project Team
+ */
+class SmtpSessionPoolTest {
+
+    private static final int MESSAGES = 1000;
+    private static final int SENDER_THREADS = 4;
+
+    private SmtpSink sink;
+
+    @AfterEach
+    void stopSink() throws IOException {
+        if (sink != null) {
+            sink.close();
+        }
+    }
+
+    @Test
+    void pooledPipelinedBatchesReuseConnections() throws Exception {
+        sink = new SmtpSink(true);
+        Run single = send("one message per connection", pool(sink, 1), 1);
+
+        sink.close();
+        sink = new SmtpSink(true);
+        Run pooled = send("pooled, batches of 50", pool(sink, 100), 50);
+
+        sink.close();
+        sink = new SmtpSink(false);
+        Run lockstep = send("pooled, no pipelining", pool(sink, 100), 50);
+
+        System.out.println("=== SMTP SINK TEST (loopback) ===");
+        for (Run run : List.of(single, pooled, lockstep)) {
+            System.out.println(run);
+        }
+        System.out.println("=================================");
+
+        for (Run run : List.of(single, pooled, lockstep)) {
+            assertThat(run.delivered).isEqualTo(MESSAGES);
+            assertThat(run.failed).isZero();
+        }
+        assertThat(single.connections).isEqualTo(MESSAGES);
+        // 100 messages per session, at most one partly used session per sender / 100 Nachrichten je Sitzung
+        assertThat(pooled.connections).isLessThanOrEqualTo(MESSAGES / 100 + SENDER_THREADS);
+        assertThat(pooled.reuseRatio).isGreaterThan(single.reuseRatio);
+        assertThat(pooled.roundTripsPerMessage).isLessThan(1.5);
+        assertThat(lockstep.roundTripsPerMessage).isGreaterThanOrEqualTo(4.0);
+        assertThat(single.roundTripsPerMessage).isGreaterThan(lockstep.roundTripsPerMessage);
+    }
+
+    @Test
+    void messagesArriveIntactAndRejectedRecipientFailsOnlyItsMessage() throws Exception {
+        sink = new SmtpSink(true);
+        SmtpSessionPool pool = pool(sink, 100);
+
+        List<SmtpSessionPool.SmtpMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String recipient = i == 2 ? "reject-me@example.com" : "student" + i + "@example.com";
+            batch.add(new SmtpSessionPool.SmtpMessage(recipient, "Zulassungsbescheid " + i + " – Prüfung",
+                    "Sehr geehrte Bewerberin,\n.\n..führender Punkt / leading dot\nÜmläute äöü ß"));
+        }
+
+        Map<Integer, String> failures = pool.sendBatch(batch);
+        assertThat(failures).containsOnlyKeys(2);
+        assertThat(failures.get(2)).startsWith("550");
+        assertThat(sink.messages).hasSize(4);
+
+        ReceivedMessage first = sink.messages.peek();
+        assertThat(first.recipient).isEqualTo("student0@example.com");
+        assertThat(first.subject()).isEqualTo("Zulassungsbescheid 0 – Prüfung");
+        assertThat(first.body()).isEqualTo("Sehr geehrte Bewerberin,\n.\n..führender Punkt / leading dot\nÜmläute äöü ß");
+
+        // The session survived the rejection and is reused / Die Sitzung übersteht die Ablehnung
+        assertThat(pool.sendBatch(List.of(batch.get(0)))).isEmpty();
+        assertThat(sink.connections.get()).isEqualTo(1);
+        assertThat(pool.getStatistics().get("sessionsReused")).isEqualTo(1L);
+    }
+
+    @Test
+    void notificationsToSameRecipientAreCoalescedIntoDigest() throws Exception {
+        sink = new SmtpSink(true);
+        NotificationService notificationService = new NotificationService();
+        ReflectionTestUtils.setField(notificationService, "smtpSessionPool", pool(sink, 100));
+        ReflectionTestUtils.setField(notificationService, "coalesceWindow", Duration.ofMinutes(5));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxNotification> notifications = List.of(
+                notification(1L, "erika@example.com", "Bewerbung eingegangen", now),
+                notification(2L, "max@example.com", "Bewerbung eingegangen", now),
+                notification(3L, "Erika@example.com", "Dokumente geprüft", now.plusMinutes(1)),
+                notification(4L, "erika@example.com", "Zahlungserinnerung", now.plusMinutes(2)),
+                notification(5L, "erika@example.com", "Zulassung", now.plusMinutes(20)));
+
+        assertThat(notificationService.deliverEmailBatch(notifications)).isEmpty();
+
+        assertThat(sink.messages).hasSize(3);
+        List<String> subjects = sink.messages.stream().map(ReceivedMessage::subject).toList();
+        assertThat(subjects).containsExactly(
+                "Ihre Benachrichtigungen / Your notifications (3) - Universität Riedtal",
+                "Zulassung",
+                "Bewerbung eingegangen");
+        assertThat(sink.messages.peek().body()).contains("Dokumente geprüft", "Zahlungserinnerung");
+        assertThat(notificationService.getEmailDeliveryStatistics().get("coalescedNotifications")).isEqualTo(3L);
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    private Run send(String name, SmtpSessionPool pool, int batchSize) throws Exception {
+        ExecutorService senders = Executors.newFixedThreadPool(SENDER_THREADS);
+        AtomicInteger failed = new AtomicInteger();
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < SENDER_THREADS; t++) {
+                int thread = t;
+                futures.add(senders.submit(() -> {
+                    for (int offset = thread * batchSize; offset < MESSAGES; offset += SENDER_THREADS * batchSize) {
+                        List<SmtpSessionPool.SmtpMessage> batch = new ArrayList<>();
+                        for (int i = offset; i < Math.min(MESSAGES, offset + batchSize); i++) {
+                            batch.add(new SmtpSessionPool.SmtpMessage("applicant" + i + "@example.com",
+                                    "Zahlungserinnerung / Payment reminder", "Bitte überweisen Sie die Studiengebühr. " + i));
+                        }
+                        failed.addAndGet(pool.sendBatch(batch).size());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            senders.shutdownNow();
+        }
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        pool.shutdown();
+        sink.awaitIdle();
+
+        Map<String, Object> statistics = pool.getStatistics();
+        return new Run(name, sink.messages.size(), failed.get(), millis, sink.connections.get(),
+                (Double) statistics.get("connectionReuseRatio"), sink.roundTrips.get() / (double) MESSAGES);
+    }
+
+    private static SmtpSessionPool pool(SmtpSink sink, int maxMessagesPerSession) {
+        SmtpSessionPool pool = new SmtpSessionPool();
+        ReflectionTestUtils.setField(pool, "simulated", false);
+        ReflectionTestUtils.setField(pool, "host", "localhost");
+        ReflectionTestUtils.setField(pool, "port", sink.port());
+        ReflectionTestUtils.setField(pool, "poolSize", SENDER_THREADS);
+        ReflectionTestUtils.setField(pool, "maxMessagesPerSession", maxMessagesPerSession);
+        ReflectionTestUtils.setField(pool, "idleTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(pool, "from", "bewerbung@riedtal.de");
+        ReflectionTestUtils.setField(pool, "timeout", Duration.ofSeconds(10));
+        pool.init();
+        return pool;
+    }
+
+    private static OutboxNotification notification(Long id, String recipient, String subject, LocalDateTime createdAt) {
+        OutboxNotification notification = new OutboxNotification();
+        notification.setId(id);
+        notification.setChannel(OutboxNotification.Channel.EMAIL);
+        notification.setRecipient(recipient);
+        notification.setSubject(subject);
+        notification.setContent(subject + " - Inhalt / content");
+        notification.setCreatedAt(createdAt);
+        return notification;
+    }
+
+    /**
+     * Ergebnis eines Versandlaufs / Result of one sending run
+     */
+    private record Run(String name, int delivered, int failed, long millis, int connections,
+                       double reuseRatio, double roundTripsPerMessage) {
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %d messages in %d ms (%d/s), connections %d, reuse ratio %.3f, round trips per message %.2f",
+                    name, delivered, millis, delivered * 1000L / millis, connections, reuseRatio, roundTripsPerMessage);
+        }
+    }
+
+    /**
+     * Eine empfangene Nachricht / One received message
+     */
+    private record ReceivedMessage(String recipient, String data) {
+
+        String subject() {
+            String header = data.lines().filter(line -> line.startsWith("Subject: ")).findFirst().orElseThrow();
+            String encoded = header.substring("Subject: =?UTF-8?B?".length(), header.length() - 2);
+            return new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
+        }
+
+        String body() {
+            String encoded = data.substring(data.indexOf("\r\n\r\n") + 4);
+            return new String(Base64.getMimeDecoder().decode(encoded), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Minimaler eingebetteter SMTP-Server / Minimal embedded SMTP server
+     *
+     * Answers EHLO (with or without PIPELINING), MAIL, RCPT, DATA, RSET, NOOP and QUIT. Recipients
+     * starting with "reject" get 550. Replies are buffered and flushed only when no further client
+     * input is waiting, so every flush is one round trip the client had to wait for.
+     */
+    private static final class SmtpSink implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final boolean pipelining;
+        private final ExecutorService handlers = Executors.newCachedThreadPool();
+        private final AtomicInteger open = new AtomicInteger();
+
+        final ConcurrentLinkedQueue<ReceivedMessage> messages = new ConcurrentLinkedQueue<>();
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger roundTrips = new AtomicInteger();
+
+        SmtpSink(boolean pipelining) throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            this.pipelining = pipelining;
+            Thread acceptor = new Thread(this::accept, "smtp-sink");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    open.incrementAndGet();
+                    handlers.execute(() -> handle(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (socket) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = socket.getOutputStream();
+                StringBuilder replies = new StringBuilder("220 sink.local ESMTP\r\n");
+                flush(out, replies);
+
+                String recipient = null;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO" -> replies.append(pipelining ? "250-sink.local\r\n250-PIPELINING\r\n250 SIZE 10240000\r\n"
+                                : "250-sink.local\r\n250 SIZE 10240000\r\n");
+                        case "HELO", "NOOP" -> replies.append("250 OK\r\n");
+                        case "MAIL" -> {
+                            recipient = null;
+                            replies.append("250 OK\r\n");
+                        }
+                        case "RCPT" -> {
+                            String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                            if (address.startsWith("reject")) {
+                                replies.append("550 No such user\r\n");
+                            } else {
+                                recipient = address;
+                                replies.append("250 OK\r\n");
+                            }
+                        }
+                        case "DATA" -> {
+                            if (recipient == null) {
+                                replies.append("554 No valid recipients\r\n");
+                                break;
+                            }
+                            replies.append("354 End data with <CR><LF>.<CR><LF>\r\n");
+                            flushIfWaiting(in, out, replies);
+                            StringBuilder data = new StringBuilder();
+                            String dataLine;
+                            while ((dataLine = in.readLine()) != null && !dataLine.equals(".")) {
+                                data.append(dataLine.startsWith("..") ? dataLine.substring(1) : dataLine).append("\r\n");
+                            }
+                            messages.add(new ReceivedMessage(recipient, data.toString()));
+                            recipient = null;
+                            replies.append("250 Queued\r\n");
+                        }
+                        case "RSET" -> {
+                            recipient = null;
+                            replies.append("250 OK\r\n");
+                        }
+                        case "QUIT" -> {
+                            replies.append("221 Bye\r\n");
+                            flush(out, replies);
+                            return;
+                        }
+                        default -> replies.append("500 Unknown command\r\n");
+                    }
+                    flushIfWaiting(in, out, replies);
+                }
+            } catch (IOException e) {
+                // Client went away / Client hat die Verbindung beendet
+            } finally {
+                open.decrementAndGet();
+            }
+        }
+
+        /**
+         * Antwortet erst, wenn keine weitere Eingabe mehr wartet / Replies only once no further input is waiting
+         */
+        private void flushIfWaiting(BufferedReader in, OutputStream out, StringBuilder replies) throws IOException {
+            if (!in.ready()) {
+                flush(out, replies);
+            }
+        }
+
+        private void flush(OutputStream out, StringBuilder replies) throws IOException {
+            if (replies.isEmpty()) {
+                return;
+            }
+            out.write(replies.toString().getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            replies.setLength(0);
+            roundTrips.incrementAndGet();
+        }
+
+        void awaitIdle() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (open.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            handlers.shutdownNow();
+        }
+    }
+}
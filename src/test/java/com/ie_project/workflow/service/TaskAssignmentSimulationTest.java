@@ -0,0 +1,216 @@
+package com.ie_project.workflow.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulation der Wartezeit der Dokumentenprüfung bei ungleichmäßigem Eingang
+ * Simulation of the document verification queue wait under skewed arrival
+ *
+ * A discrete-event simulation drives TaskAssignmentService with the same calls the
+ * TaskAssignmentListener makes (assign on create, taskClosed on complete). Four clerks with
+ * different speeds work their own queue first in, first out; 60% of the tasks arrive in the first
+ * hour of the day, the rest spread over the remaining seven. The queue wait of a task is the time
+ * from its creation until its assignee starts on it. The same arrivals are replayed with the old
+ * hard assignment to demo and with round robin for comparison.
+ *
+ * Vier Sachbearbeiter mit unterschiedlichem Tempo; 60% der Aufgaben kommen in der ersten Stunde.
+ * Verglichen werden die lastabhängige Zuweisung, die feste Zuweisung an demo und Round Robin.
+ *
+ * @author IE Project Team
+ */
+class TaskAssignmentSimulationTest {
+
+    private static final long SEED = 42L;
+    private static final int TASKS = 120;
+    private static final int BURST_PERCENT = 60;
+    private static final int BURST_MINUTES = 60;
+    private static final int DAY_MINUTES = 8 * 60;
+
+    // Minutes per verification and the matching weight / Minuten je Prüfung und das passende Gewicht
+    private static final Map<String, Integer> SERVICE_MINUTES = new LinkedHashMap<>();
+    private static final Map<String, Double> WEIGHTS = new LinkedHashMap<>();
+
+    static {
+        SERVICE_MINUTES.put("anna", 10);
+        SERVICE_MINUTES.put("demo", 20);
+        SERVICE_MINUTES.put("ben", 20);
+        SERVICE_MINUTES.put("carl", 40);
+        SERVICE_MINUTES.forEach((user, minutes) -> WEIGHTS.put(user, 20.0 / minutes));
+    }
+
+    @Test
+    void leastLoadedAssignmentShortensQueueWaitUnderSkewedArrival() {
+        int[] arrivals = skewedArrivals();
+
+        TaskAssignmentService service = assignmentService(Map.of());
+        Result leastLoaded = simulate("least-loaded", arrivals, taskId -> service.assign(taskId, List.of()), service);
+        Result hardAssigned = simulate("hard-assigned to demo", arrivals, taskId -> "demo", null);
+        int[] next = {0};
+        List<String> users = new ArrayList<>(SERVICE_MINUTES.keySet());
+        Result roundRobin = simulate("round robin", arrivals, taskId -> users.get(next[0]++ % users.size()), null);
+
+        report(leastLoaded, hardAssigned, roundRobin);
+
+        assertThat(leastLoaded.completed).isEqualTo(TASKS);
+        assertThat(leastLoaded.percentile(95)).isLessThan(roundRobin.percentile(95));
+        assertThat(leastLoaded.percentile(95)).isLessThan(hardAssigned.percentile(95) / 4);
+        assertThat(leastLoaded.mean()).isLessThan(roundRobin.mean());
+        // The fastest clerk takes the largest share / Die schnellste Sachbearbeiterin übernimmt den größten Anteil
+        assertThat(leastLoaded.tasksByUser.get("anna")).isGreaterThan(leastLoaded.tasksByUser.get("carl") * 3);
+        // All counters are back at zero once every task is closed / Alle Zähler sind nach dem Abschluss wieder 0
+        assertThat(service.getStatistics().get("trackedTasks")).isEqualTo(0);
+    }
+
+    @Test
+    void capacityCapLeavesOverflowInGroupQueue() {
+        TaskAssignmentService service = assignmentService(Map.of("anna", 3, "demo", 2, "ben", 2, "carl", 1));
+
+        List<String> assignees = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assignees.add(service.assign("task-" + i, List.of()));
+        }
+
+        assertThat(assignees.subList(0, 8)).doesNotContainNull();
+        assertThat(assignees.subList(8, 10)).containsOnlyNulls();
+        assertThat(assignees).filteredOn("anna"::equals).hasSize(3);
+        assertThat(assignees).filteredOn("carl"::equals).hasSize(1);
+        assertThat(service.getStatistics().get("unassigned")).isEqualTo(2L);
+
+        // A completed task frees the slot for the next creation / Eine erledigte Aufgabe macht den Platz frei
+        service.taskClosed("task-0");
+        assertThat(service.assign("task-10", List.of())).isEqualTo(assignees.get(0));
+    }
+
+    // ===== SIMULATION / SIMULATION =====
+
+    /**
+     * Ankunftsminuten: BURST_PERCENT in der ersten Stunde, der Rest über den Tag verteilt
+     * Arrival minutes: BURST_PERCENT in the first hour, the rest spread over the day
+     */
+    private static int[] skewedArrivals() {
+        Random random = new Random(SEED);
+        int[] arrivals = new int[TASKS];
+        int burst = TASKS * BURST_PERCENT / 100;
+        for (int i = 0; i < TASKS; i++) {
+            arrivals[i] = i < burst
+                    ? random.nextInt(BURST_MINUTES)
+                    : BURST_MINUTES + random.nextInt(DAY_MINUTES - BURST_MINUTES);
+        }
+        Arrays.sort(arrivals);
+        return arrivals;
+    }
+
+    private static Result simulate(String policy, int[] arrivals, Function<String, String> assign, TaskAssignmentService service) {
+
+        // Event: {minute, type (0 = completion, 1 = arrival), task index}; completions first within a minute
+        PriorityQueue<int[]> events = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        for (int i = 0; i < arrivals.length; i++) {
+            events.add(new int[]{arrivals[i], 1, i});
+        }
+
+        Map<String, Deque<Integer>> queues = new LinkedHashMap<>();
+        Map<String, Boolean> busy = new LinkedHashMap<>();
+        SERVICE_MINUTES.keySet().forEach(user -> {
+            queues.put(user, new ArrayDeque<>());
+            busy.put(user, false);
+        });
+        String[] assigneeOf = new String[arrivals.length];
+        Result result = new Result(policy);
+
+        while (!events.isEmpty()) {
+            int[] event = events.poll();
+            int minute = event[0];
+            int task = event[2];
+
+            if (event[1] == 1) {
+                String assignee = assign.apply("task-" + task);
+                assigneeOf[task] = assignee;
+                result.tasksByUser.merge(assignee, 1, Integer::sum);
+                queues.get(assignee).add(task);
+            } else {
+                String assignee = assigneeOf[task];
+                busy.put(assignee, false);
+                result.completed++;
+                if (service != null) {
+                    service.taskClosed("task-" + task);
+                }
+            }
+
+            // Idle clerks start their next task / Freie Sachbearbeiter beginnen die nächste Aufgabe
+            for (Map.Entry<String, Deque<Integer>> entry : queues.entrySet()) {
+                String user = entry.getKey();
+                if (!busy.get(user) && !entry.getValue().isEmpty()) {
+                    int next = entry.getValue().poll();
+                    result.waits.add(minute - arrivals[next]);
+                    busy.put(user, true);
+                    events.add(new int[]{minute + SERVICE_MINUTES.get(user), 0, next});
+                }
+            }
+        }
+        return result;
+    }
+
+    private static TaskAssignmentService assignmentService(Map<String, Integer> capacities) {
+        TaskAssignmentService service = new TaskAssignmentService();
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "taskDefinitionKey", "Task_DocumentVerification");
+        ReflectionTestUtils.setField(service, "rosterUsers", new ArrayList<>(SERVICE_MINUTES.keySet()));
+        ReflectionTestUtils.setField(service, "weights", WEIGHTS);
+        ReflectionTestUtils.setField(service, "capacities", capacities);
+        ReflectionTestUtils.setField(service, "defaultCapacity", 50);
+        return service;
+    }
+
+    private static void report(Result... results) {
+        System.out.println("=== TASK ASSIGNMENT SIMULATION ===");
+        System.out.println("Tasks: " + TASKS + ", " + BURST_PERCENT + "% within the first " + BURST_MINUTES + " minutes");
+        System.out.println("Minutes per task: " + SERVICE_MINUTES);
+        for (Result result : results) {
+            System.out.println(String.format("%-22s wait mean=%5.1f min  p50=%4d  p95=%4d  max=%4d  tasks=%s",
+                    result.policy, result.mean(), result.percentile(50), result.percentile(95), result.percentile(100),
+                    result.tasksByUser));
+        }
+        System.out.println("==================================");
+    }
+
+    /**
+     * Wartezeiten und Verteilung einer Strategie / Waits and distribution of one policy
+     */
+    private static final class Result {
+
+        final String policy;
+        final List<Integer> waits = new ArrayList<>();
+        final Map<String, Integer> tasksByUser = new LinkedHashMap<>();
+        int completed;
+
+        Result(String policy) {
+            this.policy = policy;
+        }
+
+        double mean() {
+            return waits.stream().mapToInt(Integer::intValue).average().orElse(0);
+        }
+
+        int percentile(int percent) {
+            int[] sorted = waits.stream().mapToInt(Integer::intValue).sorted().toArray();
+            int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
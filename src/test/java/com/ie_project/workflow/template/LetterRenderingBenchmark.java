@@ -0,0 +1,268 @@
+package com.ie_project.workflow.template;
+
+import com.ie_project.workflow.entity.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Vergleich: vorkompilierte Briefvorlagen gegen den früheren StringBuilder-Aufbau
+ * JMH comparison: precompiled letter templates against the former StringBuilder building
+ *
+ * Measures time and allocation per letter for the admission letter and the exam invitation
+ * (the largest letter, with an each loop and a switch). Three variants per letter:
+ * - stringBuilder: the letter code of the delegates before the templates, copied verbatim
+ *   with a fixed date
+ * - templateToString: model map plus LetterTemplate.render(model), what the delegates do now
+ * - templateStreaming: model map plus rendering into a Writer without an intermediate String,
+ *   the path of DocumentStoreService.storeAsVariable (without the GZIP stream)
+ * The setup fails if template and builder output are not identical.
+ *
+ * Nicht Teil von mvn test (Surefire führt nur *Test aus). Ausführen mit:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.ie_project.workflow.template.LetterRenderingBenchmark
+ * The main method adds the GC profiler, gc.alloc.rate.norm is the allocation per letter.
+ *
+ * @author IE Project Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LetterRenderingBenchmark {
+
+    private static final String DATE = "19.10.2026";
+
+    @Param({"admission-letter", "exam-invitation"})
+    private String letter;
+
+    private LetterTemplates letterTemplates;
+    private Application application;
+
+    // Discards the characters like a stream would consume them / Verwirft die Zeichen wie ein Stream sie verbraucht
+    private final Writer sink = Writer.nullWriter();
+
+    @Setup
+    public void setUp() throws IOException {
+        letterTemplates = new LetterTemplates();
+        ReflectionTestUtils.setField(letterTemplates, "location", "classpath*:templates/letters/*.txt");
+        letterTemplates.compileAll();
+
+        application = new Application();
+        application.setId(4711L);
+        application.setFirstName("Maria");
+        application.setLastName("Schneider");
+        application.setEmail("maria.schneider@example.org");
+
+        String expected = stringBuilder();
+        String actual = templateToString();
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Template output differs from the builder / Vorlage weicht vom Builder ab: " + letter);
+        }
+    }
+
+    @Benchmark
+    public String stringBuilder() {
+        return "admission-letter".equals(letter)
+                ? createOfficialAdmissionLetter(application, "Informatik", "INF", "ENTRANCE_EXAM",
+                        "Aufnahmeprüfung bestanden", "Prüfung bestanden: 78/100 (12.03.2026)", "ZUL-INF-2026-004711", "16.11.2026")
+                : createOfficialExamInvitation(application, "Informatik", "INF", "12.03.2026", "10:00",
+                        "Hauptgebäude", "H 1.01", "Prof. Dr. Weber, Dr. Fischer, Prof. Dr. Wagner", "120", "100", "60",
+                        "EXAM-INF-2026-004711", null);
+    }
+
+    @Benchmark
+    public String templateToString() {
+        return letterTemplates.get(letter).render(model());
+    }
+
+    @Benchmark
+    public Writer templateStreaming() throws IOException {
+        letterTemplates.get(letter).render(model(), sink);
+        return sink;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LetterRenderingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * Modell wie in den Delegates aufgebaut / Model built as in the delegates
+     */
+    private Map<String, Object> model() {
+        Map<String, Object> model = new HashMap<>();
+        model.put("firstName", application.getFirstName());
+        model.put("lastName", application.getLastName());
+        model.put("email", application.getEmail());
+        model.put("applicationId", application.getId());
+        model.put("studyProgramName", "Informatik");
+        model.put("studyProgramCode", "INF");
+        if ("admission-letter".equals(letter)) {
+            model.put("admissionReference", "ZUL-INF-2026-004711");
+            model.put("date", DATE);
+            model.put("admissionType", "ENTRANCE_EXAM");
+            model.put("additionalInfo", "Prüfung bestanden: 78/100 (12.03.2026)");
+        } else {
+            List<String> examiners = new ArrayList<>();
+            for (String examiner : "Prof. Dr. Weber, Dr. Fischer, Prof. Dr. Wagner".split(", ")) {
+                examiners.add(examiner.trim());
+            }
+            model.put("invitationReference", "EXAM-INF-2026-004711");
+            model.put("examContentCode", "INF");
+            model.put("examDate", "12.03.2026");
+            model.put("examTime", "10:00");
+            model.put("examLocation", "Hauptgebäude");
+            model.put("examRoom", "H 1.01");
+            model.put("examDuration", "120");
+            model.put("maxExamScore", "100");
+            model.put("passingScore", "60");
+            model.put("examiners", examiners);
+        }
+        return model;
+    }
+
+    // ===== FORMER STRING BUILDING / FRÜHERER STRING-AUFBAU =====
+
+    private static String createOfficialAdmissionLetter(Application application, String studyProgramName, String studyProgramCode,
+                                                        String admissionType, String admissionReason, String additionalInfo,
+                                                        String admissionReference, String paymentDeadline) {
+
+        StringBuilder letter = new StringBuilder();
+
+        letter.append("=== OFFIZIELLER ZULASSUNGSBESCHEID ===\n");
+
+        letter.append(" UNIVERSITÄT RIEDTAL\n");
+        letter.append("Zulassungsstelle / Admissions Office\n");
+        letter.append(" E-Mail: zulassung@riedtal.de\n");
+        letter.append(" Telefon: +49 123 456-789\n");
+        letter.append(" Referenz / Reference: ").append(admissionReference).append("\n");
+        letter.append(" Datum / Date: ").append(DATE).append("\n\n");
+
+        letter.append("=== BEWERBER DATEN / APPLICANT DATA ===\n");
+        letter.append(" Name: ").append(application.getFirstName()).append(" ").append(application.getLastName()).append("\n");
+        letter.append(" E-Mail: ").append(application.getEmail()).append("\n");
+        letter.append(" Bewerbungs-ID / Application ID: ").append(application.getId()).append("\n\n");
+
+        letter.append("=== STUDIENGANG / STUDY PROGRAM ===\n");
+        letter.append(" Studiengang / Program: ").append(studyProgramName).append("\n");
+        letter.append(" Studiengang-Code / Program Code: ").append(studyProgramCode).append("\n");
+        letter.append(" Zulassungsart / Admission Type: ");
+
+        switch (admissionType) {
+            case "OPEN":
+                letter.append("Zulassungsfrei / Open Admission");
+                break;
+            case "NUMERUS_CLAUSUS":
+                letter.append("Numerus Clausus");
+                break;
+            case "ENTRANCE_EXAM":
+                letter.append("Aufnahmeprüfung / Entrance Exam");
+                break;
+            default:
+                letter.append(admissionType);
+        }
+        letter.append("\n");
+
+        if (!additionalInfo.isEmpty()) {
+            letter.append(" Details: ").append(additionalInfo).append("\n");
+        }
+        letter.append("\n");
+
+        letter.append("=== ZULASSUNGSENTSCHEIDUNG / ADMISSION DECISION ===\n");
+        letter.append(" HERZLICHEN GLÜCKWUNSCH! / CONGRATULATIONS!\n\n");
+        letter.append(" Sie sind für den Studiengang ").append(studyProgramName).append(" zugelassen!\n");
+
+        return letter.toString();
+    }
+
+    private static String createOfficialExamInvitation(Application application, String studyProgramName, String studyProgramCode,
+                                                       String examDate, String examTime, String examLocation, String examRoom,
+                                                       String examCommittee, String examDuration, String maxExamScore,
+                                                       String passingScore, String invitationReference, String qrCodeData) {
+
+        StringBuilder invitation = new StringBuilder();
+
+        invitation.append("=== OFFIZIELLE EINLADUNG ZUR AUFNAHMEPRÜFUNG ===\n");
+
+        invitation.append(" UNIVERSITÄT RIEDTAL\n");
+        invitation.append(" E-Mail: pruefungsamt@riedtal.de\n");
+        invitation.append(" Telefon: +49 123 456-789\n");
+        invitation.append(" Referenz / Reference: ").append(invitationReference).append("\n\n");
+
+        invitation.append("=== BEWERBER DATEN / APPLICANT DATA ===\n");
+        invitation.append(" Name: ").append(application.getFirstName()).append(" ").append(application.getLastName()).append("\n");
+        invitation.append(" E-Mail: ").append(application.getEmail()).append("\n");
+        invitation.append(" Bewerbungs-ID / Application ID: ").append(application.getId()).append("\n");
+        invitation.append(" Studiengang / Study Program: ").append(studyProgramName).append(" (").append(studyProgramCode).append(")\n\n");
+
+        invitation.append("=== PRÜFUNGSDETAILS / EXAMINATION DETAILS ===\n");
+        invitation.append(" Datum / Date: ").append(examDate).append("\n");
+        invitation.append(" Uhrzeit / Time: ").append(examTime).append(" Uhr\n");
+        invitation.append(" Ort / Location: ").append(examLocation).append("\n");
+        invitation.append(" Raum / Room: ").append(examRoom).append("\n");
+        invitation.append(" Dauer / Duration: ").append(examDuration).append(" Minuten / minutes\n");
+        invitation.append(" Maximale Punktzahl / Maximum Score: ").append(maxExamScore).append(" Punkte / points\n");
+        invitation.append(" Bestehensgrenze / Passing Score: ").append(passingScore).append(" Punkte / points (").append(passingScore).append("%)\n\n");
+
+        invitation.append("=== PRÜFUNGSKOMITEE / EXAMINATION COMMITTEE ===\n");
+        invitation.append(" Prüfer / Examiners:\n");
+        String[] examiners = examCommittee.split(", ");
+        for (String examiner : examiners) {
+            invitation.append("   • ").append(examiner.trim()).append("\n");
+        }
+        invitation.append("\n");
+
+        invitation.append("=== PRÜFUNGSINHALT / EXAM CONTENT ===\n");
+        switch (studyProgramCode.toUpperCase()) {
+            case "MED":
+                invitation.append("• Naturwissenschaftliche Grundlagen / Scientific fundamentals\n");
+                invitation.append("• Logisches Denken / Logical reasoning\n");
+                invitation.append("• Medizinische Grundkenntnisse / Basic medical knowledge\n");
+                invitation.append("• Ethische Fragestellungen / Ethical questions\n");
+                break;
+            case "INF":
+                invitation.append("• Mathematische Grundlagen / Mathematical fundamentals\n");
+                invitation.append("• Logik und Algorithmik / Logic and algorithms\n");
+                invitation.append("• Grundlagen der Programmierung / Programming basics\n");
+                invitation.append("• Problemlösungsfähigkeiten / Problem-solving skills\n");
+                break;
+            default:
+                invitation.append("• Fachspezifische Grundlagen / Subject-specific fundamentals\n");
+                invitation.append("• Allgemeinwissen / General knowledge\n");
+                invitation.append("• Analytisches Denken / Analytical thinking\n");
+                invitation.append("• Kommunikationsfähigkeiten / Communication skills\n");
+        }
+        invitation.append("\n");
+
+        return invitation.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package com.ie_project.workflow.variable;
+
+import org.camunda.spin.Spin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-Vergleich: kompaktes Binärformat gegen Spin-JSON und Java-Serialisierung
+ * JMH comparison: compact binary format against Spin JSON and Java serialization
+ *
+ * One round trip per operation for each structured process variable (NC ranking result,
+ * payment snapshot, exam schedule): serialize, deserialize and read all fields, as the engine
+ * and a delegate would. reencode() writes every field through CompactRecord.Writer again, so
+ * the compact path pays for encoding just like the Spin and Java paths. The setup fails if a
+ * round trip does not return the original fields.
+ *
+ * The payload size is deterministic and is printed by the main method before the run; the
+ * GC profiler adds the allocation per round trip (gc.alloc.rate.norm).
+ *
+ * Nicht Teil von mvn test (Surefire führt nur *Test aus). Ausführen mit:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.ie_project.workflow.variable.CompactSerializationBenchmark
+ *
+ * @author IE Project Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactSerializationBenchmark {
+
+    @Param({"NcRankingResult", "PaymentSnapshot", "ExamSchedule"})
+    private String valueType;
+
+    private CompactValue sample;
+    private Map<String, Object> fields;
+    private HashMap<String, Object> javaFields;
+
+    @Setup
+    public void setUp() {
+        sample = sample(valueType);
+        fields = sample.toMap();
+        javaFields = new HashMap<>(fields);
+
+        if (!fields.equals(compact())
+                || !fields.equals(javaSerialization())
+                || !Spin.JSON(fields).toString().equals(Spin.JSON(spinJson()).toString())) {
+            throw new IllegalStateException("Round trip lost fields / Round-Trip hat Felder verloren: " + valueType);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> compact() {
+        CompactValue copy = CompactValueSerializer.fromBytes(sample.reencode().toByteArray());
+        return copy.toMap();
+    }
+
+    @Benchmark
+    public Object spinJson() {
+        String json = Spin.JSON(fields).toString();
+        return Spin.JSON(json).mapTo(LinkedHashMap.class);
+    }
+
+    @Benchmark
+    public Object javaSerialization() {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(javaSerialize(javaFields)))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Java deserialization failed / Java-Deserialisierung fehlgeschlagen", e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        System.out.println("=== PAYLOAD SIZE / NUTZLASTGRÖSSE (bytes) ===");
+        System.out.println(String.format("%-16s %8s %8s %8s", "valueType", "compact", "spinJson", "java"));
+        for (String valueType : new String[]{"NcRankingResult", "PaymentSnapshot", "ExamSchedule"}) {
+            CompactValue value = sample(valueType);
+            System.out.println(String.format("%-16s %8d %8d %8d", valueType,
+                    value.toByteArray().length,
+                    Spin.JSON(value.toMap()).toString().getBytes(StandardCharsets.UTF_8).length,
+                    javaSerialize(new HashMap<>(value.toMap())).length));
+        }
+        System.out.println("=============================================");
+
+        Options options = new OptionsBuilder()
+                .include(CompactSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    // ===== HELPER METHODS / HILFSMETHODEN =====
+
+    private static byte[] javaSerialize(HashMap<String, Object> fields) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(fields);
+        } catch (IOException e) {
+            throw new IllegalStateException("Java serialization failed / Java-Serialisierung fehlgeschlagen", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static CompactValue sample(String valueType) {
+        switch (valueType) {
+            case "NcRankingResult":
+                return NcRankingResult.of(4711L, "INF-B", 37, 412, 120, 1.7);
+            case "PaymentSnapshot":
+                return PaymentSnapshot.of(4711L, "ADM-2025-004711", false, false,
+                        "PENDING", "15.09.2025", "01.09.2025 10:15:00");
+            case "ExamSchedule":
+                return ExamSchedule.of(4711L, "28.07.2025 10:00", "Hauptgebäude, Campus Riedtal",
+                        "Raum A-204", "Prof. Dr. Müller, Dr. Schmidt, Prof. Dr. Weber",
+                        120, 100, 60, "14.07.2025 09:30:00");
+            default:
+                throw new IllegalArgumentException("Unknown value type / Unbekannter Werttyp: " + valueType);
+        }
+    }
+}